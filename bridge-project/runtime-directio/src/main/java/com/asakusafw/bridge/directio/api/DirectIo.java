@@ -17,6 +17,10 @@ package com.asakusafw.bridge.directio.api;
 
 import java.io.IOException;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.apache.hadoop.conf.Configurable;
 import org.apache.hadoop.conf.Configuration;
@@ -41,6 +45,19 @@ import com.asakusafw.runtime.io.ModelInput;
  */
 public final class DirectIo {
 
+    /**
+     * The Hadoop configuration key of the max number of records to keep in the side data cache.
+     * @see #load(Class, String, String)
+     * @since 0.4.0
+     */
+    public static final String KEY_CACHE_LIMIT = "com.asakusafw.bridge.directio.cache.limit"; //$NON-NLS-1$
+
+    /**
+     * The default value of {@link #KEY_CACHE_LIMIT}.
+     * @since 0.4.0
+     */
+    public static final long DEFAULT_CACHE_LIMIT = 1_000_000L;
+
     private DirectIo() {
         return;
     }
@@ -88,10 +105,82 @@ try (ModelInput&lt;Hoge&gt; input = DirectIo.open(...)) {
         return delegate.open(formatClass, basePath, resourcePattern);
     }
 
+    /**
+     * Returns a list of data model objects from Direct I/O data sources.
+     * <p>
+     * The list is loaded only once in the current session, and then it is shared between all callers which specify
+     * the same arguments. Clients must not modify either the returned list or its elements.
+     * </p>
+<pre><code>
+List&lt;Hoge&gt; list = DirectIo.load(...);
+for (Hoge object : list) {
+    // process object
+    System.out.println(object);
+}
+</code></pre>
+     * <p>
+     * The cached lists are evicted in least recently used order if their total number of records exceeds
+     * {@link #KEY_CACHE_LIMIT}.
+     * </p>
+     * @param <T> the data model object type
+     * @param formatClass the Direct I/O data format class
+     * @param basePath the base path (must not contain variables)
+     * @param resourcePattern the resource pattern (must not contain variables)
+     * @return the unmodifiable list of data model objects
+     * @throws IOException if failed to load data model objects from the data source
+     * @since 0.4.0
+     */
+    public static <T> List<T> load(
+            Class<? extends DataFormat<T>> formatClass,
+            String basePath,
+            String resourcePattern) throws IOException {
+        SideDataCache cache = ResourceBroker.get(SideDataCache.class, () -> {
+            Configuration conf = getHadoopConfiguration();
+            return new SideDataCache(conf.getLong(KEY_CACHE_LIMIT, DEFAULT_CACHE_LIMIT));
+        });
+        List<Object> key = Arrays.asList(formatClass, basePath, resourcePattern);
+        return cache.get(key, () -> {
+            Class<T> dataType = newFormat(formatClass).getSupportedType();
+            List<T> results = new ArrayList<>();
+            try (ModelInput<T> input = open(formatClass, basePath, resourcePattern)) {
+                while (true) {
+                    T object = newDataObject(dataType);
+                    if (input.readTo(object) == false) {
+                        break;
+                    }
+                    results.add(object);
+                }
+            }
+            return Collections.unmodifiableList(results);
+        });
+    }
+
+    private static <T> DataFormat<T> newFormat(Class<? extends DataFormat<T>> formatClass) {
+        try {
+            return formatClass.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(MessageFormat.format(
+                    "failed to create a data format: {0}",
+                    formatClass.getName()), e);
+        }
+    }
+
+    private static <T> T newDataObject(Class<T> dataType) {
+        try {
+            return dataType.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(MessageFormat.format(
+                    "failed to create a data model object: {0}",
+                    dataType.getName()), e);
+        }
+    }
+
     private static DirectIoDelegate getDelegate() {
-        Configuration conf = getHadoopConfiguration();
-        assert conf != null;
-        return new DirectIoDelegate(conf);
+        return ResourceBroker.get(DirectIoDelegate.class, () -> {
+            Configuration conf = getHadoopConfiguration();
+            assert conf != null;
+            return new DirectIoDelegate(conf);
+        });
     }
 
     private static Configuration getHadoopConfiguration() {
@@ -0,0 +1,132 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.bridge.directio.api;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A size-bounded LRU cache of side data lists.
+ * Each entry is loaded at most once while it is in this cache.
+ */
+final class SideDataCache {
+
+    static final Logger LOG = LoggerFactory.getLogger(SideDataCache.class);
+
+    private final long limit;
+
+    private final Map<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long total;
+
+    /**
+     * Creates a new instance.
+     * @param limit the max number of records in this cache
+     */
+    SideDataCache(long limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Returns the cached list, or loads and caches it.
+     * @param <T> the element type
+     * @param key the cache key
+     * @param loader the list loader, which will be called only if there is no such an entry
+     * @return the cached or loaded list
+     * @throws IOException if error occurred while loading the list
+     */
+    <T> List<T> get(Object key, Loader<T> loader) throws IOException {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.computeIfAbsent(key, k -> new Entry());
+        }
+        boolean success = false;
+        try {
+            List<T> result = entry.get(loader);
+            success = true;
+            return result;
+        } finally {
+            synchronized (this) {
+                if (success == false) {
+                    entries.remove(key, entry);
+                } else if (entry.accounted == false && entries.get(key) == entry) {
+                    entry.accounted = true;
+                    total += entry.size;
+                    evict();
+                }
+            }
+        }
+    }
+
+    private void evict() {
+        for (Iterator<Map.Entry<Object, Entry>> iter = entries.entrySet().iterator();
+                total > limit && iter.hasNext();) {
+            Map.Entry<Object, Entry> next = iter.next();
+            Entry entry = next.getValue();
+            if (entry.accounted) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("evicting side data: {} ({} records)", next.getKey(), entry.size); //$NON-NLS-1$
+                }
+                iter.remove();
+                total -= entry.size;
+            }
+        }
+    }
+
+    /**
+     * Loads side data.
+     * @param <T> the element type
+     */
+    @FunctionalInterface
+    interface Loader<T> {
+
+        /**
+         * Loads the side data.
+         * @return the loaded data
+         * @throws IOException if error occurred while loading the data
+         */
+        List<T> load() throws IOException;
+    }
+
+    private static final class Entry {
+
+        private List<?> value;
+
+        long size;
+
+        boolean accounted;
+
+        Entry() {
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized <T> List<T> get(Loader<T> loader) throws IOException {
+            if (value == null) {
+                List<T> loaded = loader.load();
+                size = loaded.size();
+                value = loaded;
+            }
+            return (List<T>) value;
+        }
+    }
+}
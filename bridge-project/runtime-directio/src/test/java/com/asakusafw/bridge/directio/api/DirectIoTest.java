@@ -25,6 +25,7 @@ import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Scanner;
 import java.util.Set;
 
@@ -110,6 +111,70 @@ public class DirectIoTest {
         assertThat(results, is(set("Hello, world!")));
     }
 
+    /**
+     * load side data.
+     * @throws Exception if failed
+     */
+    @Test
+    public void load() throws Exception {
+        ResourceBroker.put(Configuration.class, env.newConfiguration());
+        put(env.file("testing/a.txt"), "Hello1", "Hello2");
+
+        List<StringBuilder> first = load("*.txt");
+        assertThat(strings(first), is(set("Hello1", "Hello2")));
+
+        put(env.file("testing/b.txt"), "Hello3");
+        List<StringBuilder> second = load("*.txt");
+        assertThat(second, is(sameInstance(first)));
+        assertThat(strings(load("b.txt")), is(set("Hello3")));
+    }
+
+    /**
+     * load side data w/ eviction.
+     * @throws Exception if failed
+     */
+    @Test
+    public void load_evict() throws Exception {
+        Configuration conf = env.newConfiguration();
+        conf.setLong(DirectIo.KEY_CACHE_LIMIT, 2);
+        ResourceBroker.put(Configuration.class, conf);
+        put(env.file("testing/a.txt"), "Hello1");
+        put(env.file("testing/b.txt"), "Hello2");
+        put(env.file("testing/c.txt"), "Hello3");
+
+        List<StringBuilder> a = load("a.txt");
+        List<StringBuilder> b = load("b.txt");
+        assertThat(load("a.txt"), is(sameInstance(a)));
+
+        // evicts b.txt, which is the least recently used one
+        load("c.txt");
+        assertThat(load("a.txt"), is(sameInstance(a)));
+        List<StringBuilder> reloaded = load("b.txt");
+        assertThat(reloaded, is(not(sameInstance(b))));
+        assertThat(strings(reloaded), is(set("Hello2")));
+    }
+
+    /**
+     * loaded side data is unmodifiable.
+     * @throws Exception if failed
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void load_unmodifiable() throws Exception {
+        ResourceBroker.put(Configuration.class, env.newConfiguration());
+        put(env.file("testing/a.txt"), "Hello, world!");
+        load("*.txt").clear();
+    }
+
+    private static List<StringBuilder> load(String pattern) throws IOException {
+        return com.asakusafw.bridge.directio.api.DirectIo.load(MockFormat.class, "testing", pattern);
+    }
+
+    private static Set<String> strings(List<StringBuilder> list) {
+        Set<String> results = new HashSet<>();
+        list.forEach(s -> results.add(s.toString()));
+        return results;
+    }
+
     private Set<String> consume() throws IOException {
         try (ModelInput<StringBuilder> input = DirectIo.open(MockFormat.class, "testing", "*.txt")) {
             return consume(input);
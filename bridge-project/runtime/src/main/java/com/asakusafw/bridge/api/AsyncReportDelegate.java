@@ -0,0 +1,359 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.bridge.api;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.asakusafw.runtime.core.Report.Delegate;
+import com.asakusafw.runtime.core.Report.Level;
+import com.asakusafw.runtime.core.ResourceConfiguration;
+
+/**
+ * A {@link Delegate} which reports messages on a background thread.
+ * <p>
+ * Reports are grouped by their level and message template, which is the message prefix whose digit sequences are
+ * replaced with {@code '#'}. For each template, only a sampled message is passed to the original delegate at most
+ * once per interval, with the number of the coalesced messages. If there are too many distinct templates waiting to
+ * be reported, the further messages are dropped and only the number of them is reported.
+ * Error reports are always passed to the original delegate synchronously, so that failures of the delegate still
+ * reach the caller.
+ * </p>
+ * @since 0.4.0
+ */
+final class AsyncReportDelegate extends Delegate {
+
+    static final Logger LOG = LoggerFactory.getLogger(AsyncReportDelegate.class);
+
+    /**
+     * The configuration key of whether or not asynchronous reporting is enabled.
+     */
+    static final String KEY_ENABLED = "com.asakusafw.bridge.report.async"; //$NON-NLS-1$
+
+    /**
+     * The configuration key of the minimum interval between reports of the same message in milliseconds.
+     */
+    static final String KEY_INTERVAL = KEY_ENABLED + ".interval"; //$NON-NLS-1$
+
+    /**
+     * The configuration key of the max number of distinct messages which are waiting to be reported.
+     */
+    static final String KEY_CAPACITY = KEY_ENABLED + ".capacity"; //$NON-NLS-1$
+
+    /**
+     * The configuration key of the max length of message prefix which identifies the message template.
+     */
+    static final String KEY_TEMPLATE_LENGTH = KEY_ENABLED + ".template"; //$NON-NLS-1$
+
+    static final long DEFAULT_INTERVAL = 1000L;
+
+    static final int DEFAULT_CAPACITY = 1024;
+
+    static final int DEFAULT_TEMPLATE_LENGTH = 32;
+
+    private final Delegate delegate;
+
+    private final long intervalNanos;
+
+    private final int capacity;
+
+    private final int templateLength;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile long lastDropReported;
+
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    private final DelayQueue<Entry> queue = new DelayQueue<>();
+
+    private final Entry stop = new Entry(null, 0L);
+
+    private final Thread drainer;
+
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a new instance.
+     * @param delegate the original delegate
+     * @param interval the minimum interval between reports of the same message in milliseconds
+     * @param capacity the max number of distinct message templates which are waiting to be reported
+     * @param templateLength the max length of message prefix which identifies the message template
+     */
+    AsyncReportDelegate(Delegate delegate, long interval, int capacity, int templateLength) {
+        this.delegate = delegate;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(interval);
+        this.capacity = capacity;
+        this.templateLength = templateLength;
+        this.lastDropReported = System.nanoTime() - intervalNanos;
+        this.drainer = new Thread(this::drain);
+        this.drainer.setName("report-async"); //$NON-NLS-1$
+        this.drainer.setDaemon(true);
+    }
+
+    /**
+     * Wraps the given delegate if asynchronous reporting is enabled in the configuration.
+     * @param configuration the current configuration, or {@code null} if it is not defined
+     * @param delegate the original delegate, which has been already set up
+     * @return the wrapped delegate, or the original one if asynchronous reporting is disabled
+     */
+    static Delegate wrap(ResourceConfiguration configuration, Delegate delegate) {
+        if (configuration == null || Boolean.parseBoolean(configuration.get(KEY_ENABLED, null)) == false) {
+            return delegate;
+        }
+        long interval = parse(configuration, KEY_INTERVAL, DEFAULT_INTERVAL);
+        long capacity = parse(configuration, KEY_CAPACITY, DEFAULT_CAPACITY);
+        long templateLength = parse(configuration, KEY_TEMPLATE_LENGTH, DEFAULT_TEMPLATE_LENGTH);
+        LOG.debug("enable asynchronous report: interval={}ms, capacity={}, template={}", //$NON-NLS-1$
+                interval, capacity, templateLength);
+        AsyncReportDelegate result = new AsyncReportDelegate(delegate, interval, (int) capacity, (int) templateLength);
+        result.drainer.start();
+        return result;
+    }
+
+    private static long parse(ResourceConfiguration configuration, String key, long defaultValue) {
+        String value = configuration.get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            long result = Long.parseLong(value.trim());
+            if (result >= 0 && result <= Integer.MAX_VALUE) {
+                return result;
+            }
+        } catch (NumberFormatException e) {
+            LOG.trace("invalid number", e); //$NON-NLS-1$
+        }
+        LOG.warn(MessageFormat.format(
+                "invalid report configuration, use default value instead: {0}={1} (default: {2})",
+                key, value, defaultValue));
+        return defaultValue;
+    }
+
+    @Override
+    public void report(Level level, String message) throws IOException {
+        report(level, message, null);
+    }
+
+    @Override
+    public void report(Level level, String message, Throwable throwable) throws IOException {
+        if (level == Level.ERROR || closed) {
+            delegate.report(level, message, throwable);
+            return;
+        }
+        Key key = new Key(level, toTemplate(message, templateLength));
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            if (entries.size() >= capacity) {
+                dropped.incrementAndGet();
+                return;
+            }
+            entry = entries.computeIfAbsent(key, k -> new Entry(k, System.nanoTime() - intervalNanos));
+        }
+        entry.sample.compareAndSet(null, message);
+        entry.count.incrementAndGet();
+        if (throwable != null) {
+            entry.throwable.compareAndSet(null, throwable);
+        }
+        if (entry.queued.compareAndSet(false, true)) {
+            entry.emitAt = Math.max(System.nanoTime(), entry.lastEmitted + intervalNanos);
+            queue.add(entry);
+        }
+    }
+
+    static String toTemplate(String message, int length) {
+        if (message == null) {
+            return null;
+        }
+        StringBuilder buf = new StringBuilder();
+        boolean digits = false;
+        for (int i = 0, n = message.length(); i < n && buf.length() < length; i++) {
+            char c = message.charAt(i);
+            if (Character.isDigit(c)) {
+                if (digits == false) {
+                    buf.append('#');
+                    digits = true;
+                }
+            } else {
+                buf.append(c);
+                digits = false;
+            }
+        }
+        return buf.toString();
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                Entry next = queue.take();
+                if (next == stop) {
+                    break;
+                }
+                emit(next);
+                if (entries.size() >= capacity) {
+                    purge();
+                }
+                if (System.nanoTime() - lastDropReported >= intervalNanos) {
+                    emitDropped();
+                }
+            }
+        } catch (InterruptedException e) {
+            LOG.debug("asynchronous report was interrupted", e); //$NON-NLS-1$
+        }
+    }
+
+    private void purge() {
+        long now = System.nanoTime();
+        entries.values().removeIf(e -> e.queued.get() == false && now - e.lastEmitted >= intervalNanos);
+    }
+
+    private void emit(Entry entry) {
+        entry.lastEmitted = System.nanoTime();
+        entry.queued.set(false);
+        // takes the sample before the count, because reporters set the sample before counting up
+        String sample = entry.sample.getAndSet(null);
+        long count = entry.count.getAndSet(0);
+        Throwable throwable = entry.throwable.getAndSet(null);
+        if (count == 0) {
+            return;
+        }
+        if (sample == null) {
+            sample = entry.key.template;
+        }
+        String message = count == 1 ? sample : MessageFormat.format(
+                "{0} (and {1} similar messages)",
+                sample,
+                count - 1);
+        emit(entry.key.level, message, throwable);
+    }
+
+    private void emitDropped() {
+        lastDropReported = System.nanoTime();
+        long count = dropped.getAndSet(0);
+        if (count == 0) {
+            return;
+        }
+        emit(Level.WARN, MessageFormat.format(
+                "{0} report messages were dropped because too many distinct messages are waiting",
+                count), null);
+    }
+
+    private void emit(Level level, String message, Throwable throwable) {
+        try {
+            delegate.report(level, message, throwable);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn(MessageFormat.format(
+                    "failed to report a message: {0}",
+                    message), e);
+        }
+    }
+
+    @Override
+    public void cleanup(ResourceConfiguration configuration) throws IOException, InterruptedException {
+        if (closed == false) {
+            closed = true;
+            stop.emitAt = System.nanoTime();
+            queue.add(stop);
+            drainer.join();
+            for (Entry entry : queue) {
+                if (entry != stop) {
+                    emit(entry);
+                }
+            }
+            queue.clear();
+            entries.values().forEach(this::emit);
+            entries.clear();
+            emitDropped();
+        }
+        delegate.cleanup(configuration);
+    }
+
+    private static final class Key {
+
+        final Level level;
+
+        final String template;
+
+        Key(Level level, String template) {
+            this.level = level;
+            this.template = template;
+        }
+
+        @Override
+        public int hashCode() {
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + level.hashCode();
+            result = prime * result + String.valueOf(template).hashCode();
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return level == other.level && String.valueOf(template).equals(String.valueOf(other.template));
+        }
+    }
+
+    private static final class Entry implements Delayed {
+
+        final Key key;
+
+        final AtomicLong count = new AtomicLong();
+
+        final AtomicReference<String> sample = new AtomicReference<>();
+
+        final AtomicReference<Throwable> throwable = new AtomicReference<>();
+
+        final AtomicBoolean queued = new AtomicBoolean();
+
+        volatile long lastEmitted;
+
+        volatile long emitAt;
+
+        Entry(Key key, long lastEmitted) {
+            this.key = key;
+            this.lastEmitted = lastEmitted;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(emitAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            return Long.compare(emitAt, ((Entry) o).emitAt);
+        }
+    }
+}
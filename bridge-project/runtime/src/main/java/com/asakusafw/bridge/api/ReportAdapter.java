@@ -33,7 +33,7 @@ import com.asakusafw.runtime.core.ResourceConfiguration;
 /**
  * An adapter implementation of core Report API.
  * @since 0.1.1
- * @version 0.3.1
+ * @version 0.4.0
  */
 final class ReportAdapter implements Closeable {
 
@@ -78,6 +78,7 @@ final class ReportAdapter implements Closeable {
             } catch (InterruptedException e) {
                 throw (IOException) new InterruptedIOException().initCause(e);
             }
+            implementation = AsyncReportDelegate.wrap(conf, implementation);
             ReportAdapter adapter = new ReportAdapter(conf, implementation);
             ResourceBroker.put(ReportAdapter.class, adapter);
             return adapter;
@@ -31,7 +31,8 @@ final class ResourceSessionContainer {
 
     static final Logger LOG = LoggerFactory.getLogger(ResourceSessionContainer.class);
 
-    private Store store = newStore(ResourceBroker.DEFAULT_SCOPE);
+    // updated only while holding the monitor of this object, but find() reads it without any locks
+    private volatile Store store = newStore(ResourceBroker.DEFAULT_SCOPE);
 
     /**
      * Creates a new session.
@@ -96,7 +97,7 @@ final class ResourceSessionContainer {
      * @return the current session, or {@code null} if it is not found
      * @throws IllegalStateException if there is no current session
      */
-    public synchronized ResourceSessionEntity find() {
+    public ResourceSessionEntity find() {
         return store.find();
     }
 
@@ -151,7 +152,7 @@ final class ResourceSessionContainer {
 
     private static class VmStore implements Store {
 
-        private ResourceSessionEntity entity;
+        private volatile ResourceSessionEntity entity;
 
         VmStore() {
             return;
@@ -174,7 +175,8 @@ final class ResourceSessionContainer {
 
         @Override
         public ResourceSessionEntity find() {
-            return isEmpty() ? null : entity;
+            ResourceSessionEntity current = entity;
+            return current == null || current.closed ? null : current;
         }
 
         @Override
@@ -189,6 +191,9 @@ final class ResourceSessionContainer {
 
         private final Map<Thread, ResourceSessionEntity> entities = new WeakHashMap<>();
 
+        // find() refers only to the entry of the current thread, without any locks
+        private final ThreadLocal<ResourceSessionEntity> current = new ThreadLocal<>();
+
         ThreadStore() {
             return;
         }
@@ -220,12 +225,19 @@ final class ResourceSessionContainer {
         @Override
         public void put(ResourceSessionEntity value) {
             entities.put(Thread.currentThread(), value);
+            current.set(value);
         }
 
         @Override
         public ResourceSessionEntity find() {
-            ResourceSessionEntity entity = entities.get(Thread.currentThread());
-            return entity == null || entity.closed ? null : entity;
+            ResourceSessionEntity entity = current.get();
+            if (entity == null) {
+                return null;
+            } else if (entity.closed) {
+                current.remove();
+                return null;
+            }
+            return entity;
         }
 
         @Override
@@ -17,17 +17,14 @@ package com.asakusafw.bridge.broker;
 
 import java.io.Closeable;
 import java.text.MessageFormat;
-import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
-import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
-import java.util.WeakHashMap;
 import java.util.concurrent.Callable;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,11 +35,13 @@ final class ResourceSessionEntity implements ResourceSession {
 
     private final Set<Reference> references = new LinkedHashSet<>();
 
-    private final Map<Class<?>, Object> resources = new HashMap<>();
+    // lookups never block: resources are only added, and are removed only when this session is closed
+    private final ConcurrentMap<Class<?>, Object> resources = new ConcurrentHashMap<>();
 
     private final LinkedList<AutoCloseable> closables = new LinkedList<>();
 
-    private final Map<Class<?>, ReadWriteLock> resourceLocks = new WeakHashMap<>();
+    // guards suppliers of get(Class, Callable) so that each resource is created only once
+    private final ConcurrentMap<Class<?>, Object> supplierLocks = new ConcurrentHashMap<>();
 
     volatile boolean closed = false;
 
@@ -54,39 +53,22 @@ final class ResourceSessionEntity implements ResourceSession {
 
     @Override
     public <T> T find(Class<T> type) {
-        ReadWriteLock rwLock = getResourceLock(type);
-        Lock lock = rwLock.readLock();
-        lock.lock();
-        try {
-            Object value = resources.get(type);
-            if (value == null) {
-                return null;
-            }
-            return type.cast(value);
-        } finally {
-            lock.unlock();
+        Object value = resources.get(type);
+        if (value == null) {
+            return null;
         }
+        return type.cast(value);
     }
 
     @Override
     public <T> void put(Class<T> type, T resource) {
-        ReadWriteLock rwLock = getResourceLock(type);
-        Lock lock = rwLock.readLock();
-        lock.lock();
-        try {
-            if (resources.containsKey(type)) {
-                throw new IllegalStateException(MessageFormat.format(
-                        "target resource is already exists in this session: {0}",
-                        type.getName()));
-            }
-            put0(type, resource);
-        } finally {
-            lock.unlock();
+        Objects.requireNonNull(type);
+        Objects.requireNonNull(resource);
+        if (resources.putIfAbsent(type, resource) != null) {
+            throw new IllegalStateException(MessageFormat.format(
+                    "target resource is already exists in this session: {0}",
+                    type.getName()));
         }
-    }
-
-    private <T> void put0(Class<T> type, T resource) {
-        resources.put(type, resource);
         if (resource instanceof Closeable) {
             schedule((Closeable) resource);
         }
@@ -103,23 +85,29 @@ final class ResourceSessionEntity implements ResourceSession {
 
     @Override
     public <T> T get(Class<T> type, Callable<? extends T> supplier) {
-        ReadWriteLock rwLock = getResourceLock(type);
-        Lock lock = rwLock.writeLock();
-        lock.lock();
-        try {
-            Object value = resources.get(type);
-            if (value != null) {
-                return type.cast(value);
+        T found = find(type);
+        if (found != null) {
+            return found;
+        }
+        // NOTE: we must not call the supplier inside ConcurrentMap.computeIfAbsent(),
+        // because it may request other resources of this session
+        synchronized (supplierLocks.computeIfAbsent(type, k -> new Object())) {
+            found = find(type);
+            if (found != null) {
+                return found;
+            }
+            T result;
+            try {
+                result = supplier.call();
+            } catch (Exception e) {
+                throw new IllegalStateException(MessageFormat.format(
+                        "failed to supply a resource: {0}",
+                        type.getName()), e);
+            }
+            if (result != null) {
+                put(type, result);
             }
-            T result = supplier.call();
-            put0(type, result);
             return result;
-        } catch (Exception e) {
-            throw new IllegalStateException(MessageFormat.format(
-                    "failed to supply a resource: {0}",
-                    type.getName()), e);
-        } finally {
-            lock.unlock();
         }
     }
 
@@ -130,17 +118,6 @@ final class ResourceSessionEntity implements ResourceSession {
         }
     }
 
-    private ReadWriteLock getResourceLock(Class<?> type) {
-        synchronized (resourceLocks) {
-            ReadWriteLock lock = resourceLocks.get(type);
-            if (lock == null) {
-                lock = new ReentrantReadWriteLock();
-                resourceLocks.put(type, lock);
-            }
-            return lock;
-        }
-    }
-
     synchronized ResourceSessionEntity.Reference newReference() {
         if (closed) {
             throw new IllegalStateException();
@@ -167,7 +144,7 @@ final class ResourceSessionEntity implements ResourceSession {
         LOG.debug("close session: {}", this); //$NON-NLS-1$
         references.clear();
         resources.clear();
-        resourceLocks.clear();
+        supplierLocks.clear();
         synchronized (closables) {
             while (closables.isEmpty() == false) {
                 @SuppressWarnings("resource")
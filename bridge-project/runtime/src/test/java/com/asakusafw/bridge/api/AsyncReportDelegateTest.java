@@ -0,0 +1,242 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.bridge.api;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import com.asakusafw.runtime.core.Report.Delegate;
+import com.asakusafw.runtime.core.Report.Level;
+import com.asakusafw.runtime.core.ResourceConfiguration;
+
+/**
+ * Test for {@link AsyncReportDelegate}.
+ */
+public class AsyncReportDelegateTest {
+
+    private static final long FOREVER = TimeUnit.HOURS.toMillis(1);
+
+    private static final Pattern REPEATED = Pattern.compile("(.*) \\(and (\\d+) similar messages\\)");
+
+    /**
+     * simple case.
+     * @throws Exception if failed
+     */
+    @Test
+    public void simple() throws Exception {
+        Collector collector = new Collector();
+        Delegate delegate = wrap(collector, 0, 10);
+        delegate.report(Level.INFO, "testing");
+        delegate.cleanup(null);
+        assertThat(collector.messages, contains("testing"));
+        assertThat(collector.levels, contains(Level.INFO));
+        assertThat(collector.cleanup, is(true));
+    }
+
+    /**
+     * coalesce repeated messages.
+     * @throws Exception if failed
+     */
+    @Test
+    public void coalesce() throws Exception {
+        Collector collector = new Collector();
+        Delegate delegate = wrap(collector, FOREVER, 10);
+        for (int i = 0; i < 100; i++) {
+            delegate.report(Level.WARN, "testing");
+        }
+        delegate.cleanup(null);
+        long total = 0;
+        for (String message : collector.messages) {
+            Matcher matcher = REPEATED.matcher(message);
+            if (matcher.matches()) {
+                assertThat(matcher.group(1), is("testing"));
+                total += Long.parseLong(matcher.group(2)) + 1;
+            } else {
+                assertThat(message, is("testing"));
+                total += 1;
+            }
+        }
+        assertThat(collector.messages.size(), lessThanOrEqualTo(2));
+        assertThat(total, is(100L));
+    }
+
+    /**
+     * rate limited.
+     * @throws Exception if failed
+     */
+    @Test
+    public void rate_limit() throws Exception {
+        Collector collector = new Collector();
+        Delegate delegate = wrap(collector, FOREVER, 10);
+        delegate.report(Level.INFO, "testing", new UnsupportedOperationException());
+        collector.await(1);
+        assertThat(collector.messages, contains("testing"));
+        assertThat(collector.throwables.get(0), is(instanceOf(UnsupportedOperationException.class)));
+        for (int i = 0; i < 5; i++) {
+            delegate.report(Level.INFO, "testing");
+        }
+        Thread.sleep(100);
+        assertThat(collector.messages, hasSize(1));
+        delegate.cleanup(null);
+        assertThat(collector.messages, contains("testing", "testing (and 4 similar messages)"));
+    }
+
+    /**
+     * errors are reported synchronously.
+     * @throws Exception if failed
+     */
+    @Test
+    public void error() throws Exception {
+        Collector collector = new Collector();
+        Delegate delegate = wrap(collector, FOREVER, 10);
+        delegate.report(Level.ERROR, "testing");
+        assertThat(collector.messages, contains("testing"));
+        delegate.cleanup(null);
+        assertThat(collector.messages, contains("testing"));
+    }
+
+    /**
+     * coalesce messages with the same template.
+     * @throws Exception if failed
+     */
+    @Test
+    public void coalesce_template() throws Exception {
+        Collector collector = new Collector();
+        Delegate delegate = wrap(collector, FOREVER, 10);
+        for (int i = 0; i < 100; i++) {
+            delegate.report(Level.WARN, String.format("invalid value: %d", i));
+        }
+        delegate.report(Level.WARN, "other");
+        delegate.cleanup(null);
+        long total = 0;
+        for (String message : collector.messages) {
+            if (message.equals("other")) {
+                continue;
+            }
+            Matcher matcher = REPEATED.matcher(message);
+            if (matcher.matches()) {
+                assertThat(matcher.group(1), startsWith("invalid value: "));
+                total += Long.parseLong(matcher.group(2)) + 1;
+            } else {
+                assertThat(message, startsWith("invalid value: "));
+                total += 1;
+            }
+        }
+        assertThat(collector.messages, hasItem("other"));
+        assertThat(collector.messages.size(), lessThanOrEqualTo(3));
+        assertThat(total, is(100L));
+    }
+
+    /**
+     * template of messages.
+     */
+    @Test
+    public void template() {
+        assertThat(AsyncReportDelegate.toTemplate("a1b23c", 10), is("a#b#c"));
+        assertThat(AsyncReportDelegate.toTemplate("record: 1, 2.5", 10), is("record: #,"));
+        assertThat(AsyncReportDelegate.toTemplate(null, 10), is(nullValue()));
+    }
+
+    /**
+     * drops and counts messages if there are too many distinct messages.
+     * @throws Exception if failed
+     */
+    @Test
+    public void overflow() throws Exception {
+        Collector collector = new Collector();
+        Delegate delegate = wrap(collector, FOREVER, 1);
+        delegate.report(Level.INFO, "a");
+        collector.await(1);
+        delegate.report(Level.INFO, "b");
+        delegate.report(Level.INFO, "c");
+        assertThat(collector.messages, contains("a"));
+        delegate.cleanup(null);
+        assertThat(collector.messages, hasSize(2));
+        assertThat(collector.levels.get(1), is(Level.WARN));
+        assertThat(collector.messages.get(1), startsWith("2 "));
+    }
+
+    /**
+     * disabled.
+     */
+    @Test
+    public void disabled() {
+        Collector collector = new Collector();
+        assertThat(AsyncReportDelegate.wrap(null, collector), is(sameInstance(collector)));
+        assertThat(AsyncReportDelegate.wrap(new MapConfiguration(), collector), is(sameInstance(collector)));
+    }
+
+    private static Delegate wrap(Delegate delegate, long interval, int capacity) {
+        ResourceConfiguration conf = new MapConfiguration();
+        conf.set(AsyncReportDelegate.KEY_ENABLED, "true");
+        conf.set(AsyncReportDelegate.KEY_INTERVAL, String.valueOf(interval));
+        conf.set(AsyncReportDelegate.KEY_CAPACITY, String.valueOf(capacity));
+        Delegate result = AsyncReportDelegate.wrap(conf, delegate);
+        assertThat(result, is(instanceOf(AsyncReportDelegate.class)));
+        return result;
+    }
+
+    private static final class Collector extends Delegate {
+
+        final List<Level> levels = new ArrayList<>();
+
+        final List<String> messages = new ArrayList<>();
+
+        final List<Throwable> throwables = new ArrayList<>();
+
+        boolean cleanup;
+
+        Collector() {
+            return;
+        }
+
+        @Override
+        public void report(Level level, String message) throws IOException {
+            report(level, message, null);
+        }
+
+        @Override
+        public synchronized void report(Level level, String message, Throwable throwable) throws IOException {
+            levels.add(level);
+            messages.add(message);
+            throwables.add(throwable);
+            notifyAll();
+        }
+
+        synchronized void await(int count) throws InterruptedException {
+            long limit = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+            while (messages.size() < count) {
+                long rest = limit - System.currentTimeMillis();
+                assertThat(rest, greaterThan(0L));
+                wait(rest);
+            }
+        }
+
+        @Override
+        public void cleanup(ResourceConfiguration configuration) {
+            cleanup = true;
+        }
+    }
+}
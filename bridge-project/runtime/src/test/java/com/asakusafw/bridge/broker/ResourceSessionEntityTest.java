@@ -19,9 +19,16 @@ import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
 import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
@@ -73,6 +80,53 @@ public class ResourceSessionEntityTest {
         }
     }
 
+    /**
+     * get w/ supplier from multiple threads.
+     * @throws Exception if failed
+     */
+    @Test
+    public void get_supplier_concurrent() throws Exception {
+        int threads = 8;
+        AtomicInteger count = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(threads);
+        Callable<Object> supplier = () -> {
+            count.incrementAndGet();
+            return new Object();
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (ResourceSessionEntity entity = new ResourceSessionEntity()) {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    latch.countDown();
+                    latch.await();
+                    return entity.get(Object.class, supplier);
+                }));
+            }
+            Object first = futures.get(0).get();
+            for (Future<Object> future : futures) {
+                assertThat(future.get(), is(sameInstance(first)));
+            }
+            assertThat(count.get(), is(1));
+            assertThat(entity.find(Object.class), is(sameInstance(first)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * get w/ supplier which requires other resources.
+     * @throws Exception if failed
+     */
+    @Test
+    public void get_supplier_nested() throws Exception {
+        try (ResourceSessionEntity entity = new ResourceSessionEntity()) {
+            String result = entity.get(String.class, () -> "Hello, " + entity.get(Integer.class, () -> 100));
+            assertThat(result, is("Hello, 100"));
+            assertThat(entity.get(Integer.class), is(100));
+        }
+    }
+
     /**
      * close added resources.
      * @throws Exception if failed
@@ -479,10 +479,12 @@ public final class BatchCompilerCli {
             LOG.debug("  analyzer: {}", analyzer.getClass().getName()); //$NON-NLS-1$
             LOG.debug("  compiler: {}", compiler.getClass().getName()); //$NON-NLS-1$
         }
+        ClassAnalyzer.Context analyzerContext = new ClassAnalyzer.Context(root.getRoot());
         Predicate<? super Class<?>> predicate = loadPredicate(root.getRoot(), configuration, analyzer);
         Map<Class<?>, DiagnosticException> errors = new LinkedHashMap<>();
         Map<String, ClassDescription> sawBatch = new HashMap<>();
-        for (Class<?> aClass : root.getRoot().getProject().getProjectClasses(predicate)) {
+        for (Class<?> aClass : root.getRoot().getProject().getProjectClasses(
+                header -> analyzer.isBatchCandidate(analyzerContext, header), predicate)) {
             if (LOG.isInfoEnabled()) {
                 LOG.info(MessageFormat.format(
                         "compiling batch class: {0}",
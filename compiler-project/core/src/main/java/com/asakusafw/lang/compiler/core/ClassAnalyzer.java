@@ -33,6 +33,19 @@ public interface ClassAnalyzer {
      */
     boolean isBatchClass(Context context, Class<?> aClass);
 
+    /**
+     * Returns whether the target class may represent a batch or not, without loading the class.
+     * If this returns {@code false}, the target class must not be a batch class.
+     * This is used for filtering project classes before {@link #isBatchClass(Context, Class)}.
+     * @param context the current context
+     * @param header the header of the target class file
+     * @return {@code true} if the target class may represent a batch, otherwise {@code false}
+     * @since 0.4.0
+     */
+    default boolean isBatchCandidate(Context context, ClassHeader header) {
+        return true;
+    }
+
     /**
      * Returns whether the target class represents a jobflow or not.
      * @param context the current context
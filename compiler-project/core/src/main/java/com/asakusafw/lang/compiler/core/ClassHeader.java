@@ -0,0 +1,215 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.lang.compiler.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Header information of project class files.
+ * This is obtained from the class file contents without loading the target class.
+ * @since 0.4.0
+ */
+public class ClassHeader {
+
+    private final String name;
+
+    private final int access;
+
+    private final String superClassName;
+
+    private final List<String> interfaceNames;
+
+    private final Set<String> annotationNames;
+
+    /**
+     * Creates a new instance.
+     * @param name the binary name of the target class
+     * @param access the access flags of the target class
+     * @param superClassName the binary name of the super class (nullable)
+     * @param interfaceNames the binary names of the direct super interfaces
+     * @param annotationNames the binary names of the runtime visible annotations on the target class
+     */
+    public ClassHeader(
+            String name, int access, String superClassName,
+            List<String> interfaceNames, Set<String> annotationNames) {
+        this.name = name;
+        this.access = access;
+        this.superClassName = superClassName;
+        this.interfaceNames = Collections.unmodifiableList(new ArrayList<>(interfaceNames));
+        this.annotationNames = Collections.unmodifiableSet(new LinkedHashSet<>(annotationNames));
+    }
+
+    /**
+     * Reads a class file header.
+     * @param contents the class file contents
+     * @return the header information
+     * @throws IOException if failed to read the class file
+     */
+    public static ClassHeader read(InputStream contents) throws IOException {
+        ClassReader reader;
+        try {
+            reader = new ClassReader(contents);
+        } catch (RuntimeException e) {
+            throw new IOException("invalid class file", e);
+        }
+        Collector collector = new Collector();
+        try {
+            reader.accept(collector, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        } catch (RuntimeException e) {
+            throw new IOException(MessageFormat.format(
+                    "invalid class file: {0}",
+                    toBinaryName(reader.getClassName())), e);
+        }
+        return collector.build();
+    }
+
+    /**
+     * Returns the binary name of the target class.
+     * @return the binary name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the access flags of the target class.
+     * @return the access flags
+     * @see java.lang.reflect.Modifier
+     */
+    public int getAccess() {
+        return access;
+    }
+
+    /**
+     * Returns the binary name of the super class.
+     * @return the binary name, or {@code null} if the target class does not have any super classes
+     */
+    public String getSuperClassName() {
+        return superClassName;
+    }
+
+    /**
+     * Returns the binary names of the direct super interfaces.
+     * @return the binary names
+     */
+    public List<String> getInterfaceNames() {
+        return interfaceNames;
+    }
+
+    /**
+     * Returns the binary names of runtime visible annotations which are directly declared on the target class.
+     * Note that, this does not contain any inherited annotations.
+     * @return the binary names
+     */
+    public Set<String> getAnnotationNames() {
+        return annotationNames;
+    }
+
+    /**
+     * Returns whether or not the target class is directly annotated with the given annotation type.
+     * @param annotationType the annotation type
+     * @return {@code true} if it is annotated, otherwise {@code false}
+     */
+    public boolean isAnnotationPresent(Class<?> annotationType) {
+        return annotationNames.contains(annotationType.getName());
+    }
+
+    /**
+     * Returns whether or not the target class is an interface (including annotation types).
+     * @return {@code true} if it is an interface, otherwise {@code false}
+     */
+    public boolean isInterface() {
+        return (access & Opcodes.ACC_INTERFACE) != 0;
+    }
+
+    /**
+     * Returns whether or not the target class is abstract.
+     * @return {@code true} if it is abstract, otherwise {@code false}
+     */
+    public boolean isAbstract() {
+        return (access & Opcodes.ACC_ABSTRACT) != 0;
+    }
+
+    @Override
+    public String toString() {
+        return MessageFormat.format(
+                "ClassHeader({0})", //$NON-NLS-1$
+                name);
+    }
+
+    static String toBinaryName(String internalName) {
+        if (internalName == null) {
+            return null;
+        }
+        return internalName.replace('/', '.');
+    }
+
+    private static final class Collector extends ClassVisitor {
+
+        private String name;
+
+        private int access;
+
+        private String superClassName;
+
+        private final List<String> interfaceNames = new ArrayList<>();
+
+        private final Set<String> annotationNames = new LinkedHashSet<>();
+
+        Collector() {
+            super(Opcodes.ASM5);
+        }
+
+        @Override
+        public void visit(
+                int version, int flags, String internalName, String signature,
+                String superName, String[] interfaces) {
+            this.name = toBinaryName(internalName);
+            this.access = flags;
+            this.superClassName = toBinaryName(superName);
+            if (interfaces != null) {
+                for (String s : interfaces) {
+                    interfaceNames.add(toBinaryName(s));
+                }
+            }
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+            if (visible) {
+                annotationNames.add(Type.getType(desc).getClassName());
+            }
+            return null;
+        }
+
+        ClassHeader build() {
+            return new ClassHeader(name, access, superClassName, interfaceNames, annotationNames);
+        }
+    }
+}
@@ -19,6 +19,7 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
@@ -31,6 +32,11 @@ import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.jar.JarOutputStream;
 
@@ -133,6 +139,7 @@ public class ProjectRepository implements Closeable {
 
     /**
      * Returns the project classes.
+     * Note that, this loads all classes in the project contents.
      * @param predicate the class acceptor
      * @return loaded classes
      * @throws IOException if failed to obtain classes
@@ -157,14 +164,136 @@ public class ProjectRepository implements Closeable {
         return results;
     }
 
+    /**
+     * Returns the project classes.
+     * This only loads classes whose {@link ClassHeader class file header} is accepted by the given filter,
+     * and then tests them by the predicate.
+     * Class file headers in individual project repositories are scanned in parallel.
+     * @param filter the class file header filter, which is tested before loading each class
+     * @param predicate the class acceptor
+     * @return loaded classes
+     * @throws IOException if failed to obtain classes
+     * @since 0.4.0
+     */
+    public Set<Class<?>> getProjectClasses(
+            Predicate<? super ClassHeader> filter,
+            Predicate<? super Class<?>> predicate) throws IOException {
+        Set<String> candidates = new LinkedHashSet<>();
+        for (List<String> names : scanProjectClasses(filter)) {
+            candidates.addAll(names);
+        }
+        LOG.debug("found {} candidate project classes", candidates.size()); //$NON-NLS-1$
+        Set<Class<?>> results = new LinkedHashSet<>();
+        for (String name : candidates) {
+            Class<?> aClass = loadClass(name);
+            if (aClass == null || results.contains(aClass)) {
+                continue;
+            }
+            if (predicate.test(aClass) == false) {
+                continue;
+            }
+            results.add(aClass);
+        }
+        return results;
+    }
+
+    private List<List<String>> scanProjectClasses(Predicate<? super ClassHeader> filter) throws IOException {
+        int parallelism = Math.min(projectContents.size(), Runtime.getRuntime().availableProcessors());
+        List<List<String>> results = new ArrayList<>();
+        if (parallelism <= 1) {
+            for (ResourceRepository repository : projectContents) {
+                results.add(scanProjectClasses(repository, filter));
+            }
+            return results;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r);
+            thread.setName(String.format("project-scanner-%d", counter.incrementAndGet())); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (ResourceRepository repository : projectContents) {
+                futures.add(executor.submit(() -> scanProjectClasses(repository, filter)));
+            }
+            for (Future<List<String>> future : futures) {
+                results.add(get(future));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<String> scanProjectClasses(
+            ResourceRepository repository, Predicate<? super ClassHeader> filter) throws IOException {
+        List<String> results = new ArrayList<>();
+        try (ResourceRepository.Cursor cursor = repository.createCursor()) {
+            while (cursor.next()) {
+                Location location = cursor.getLocation();
+                String name = toClassName(location);
+                if (name == null) {
+                    continue;
+                }
+                ClassHeader header;
+                try (InputStream contents = cursor.openResource()) {
+                    header = ClassHeader.read(contents);
+                } catch (IOException e) {
+                    // keeps it as a candidate, and then the class loader will report the actual problem
+                    LOG.debug(MessageFormat.format(
+                            "failed to read class file header: {0}",
+                            location), e);
+                    results.add(name);
+                    continue;
+                }
+                if (filter.test(header)) {
+                    LOG.trace("found candidate project class: {}", header.getName()); //$NON-NLS-1$
+                    results.add(header.getName());
+                }
+            }
+        }
+        return results;
+    }
+
+    private static <T> T get(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while scanning project classes", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("error occurred while scanning project classes", cause);
+        }
+    }
+
     private Class<?> loadClassFile(Location location) {
+        String name = toClassName(location);
+        if (name == null) {
+            return null;
+        }
+        return loadClass(name);
+    }
+
+    private static String toClassName(Location location) {
         if (location.getName().endsWith(EXTENSION_CLASS) == false) {
             return null;
         }
         String name = location.toPath('.');
         assert name.length() >= EXTENSION_CLASS.length();
-        name = name.substring(0, name.length() - EXTENSION_CLASS.length());
+        return name.substring(0, name.length() - EXTENSION_CLASS.length());
+    }
 
+    private Class<?> loadClass(String name) {
         try {
             LOG.trace("loading project class: {}", name); //$NON-NLS-1$
             return getClassLoader().loadClass(name);
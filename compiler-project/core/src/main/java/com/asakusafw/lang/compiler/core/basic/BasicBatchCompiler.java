@@ -15,11 +15,23 @@
  */
 package com.asakusafw.lang.compiler.core.basic;
 
+import java.io.File;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +45,7 @@ import com.asakusafw.lang.compiler.api.reference.JobflowReference;
 import com.asakusafw.lang.compiler.api.reference.TaskReferenceMap;
 import com.asakusafw.lang.compiler.common.Diagnostic;
 import com.asakusafw.lang.compiler.common.DiagnosticException;
+import com.asakusafw.lang.compiler.common.Location;
 import com.asakusafw.lang.compiler.core.BatchCompiler;
 import com.asakusafw.lang.compiler.core.CompilerParticipant;
 import com.asakusafw.lang.compiler.core.JobflowCompiler;
@@ -51,6 +64,48 @@ public class BasicBatchCompiler implements BatchCompiler {
 
     static final Logger LOG = LoggerFactory.getLogger(BasicBatchCompiler.class);
 
+    /**
+     * The compiler option key of the max number of jobflows which are compiled concurrently.
+     * Note that, all compiler extensions must be thread-safe if this is greater than {@code 1}.
+     * @since 0.4.0
+     */
+    public static final String KEY_PARALLELISM = "jobflow.parallelism"; //$NON-NLS-1$
+
+    /**
+     * The default value of {@link #KEY_PARALLELISM}.
+     * @since 0.4.0
+     */
+    public static final int DEFAULT_PARALLELISM = 1;
+
+    /**
+     * The compiler option key of whether or not jobflow packages share a library of the embedded contents.
+     * If this is enabled, the embedded contents are packed only once for each batch, and each jobflow package refers
+     * the packed library via {@code Class-Path} attribute in its manifest.
+     * Note that, this is available only if the target engine puts jobflow packages onto the local class path.
+     * @since 0.4.0
+     */
+    public static final String KEY_SHARE_EMBEDDED = "jobflow.embedded.share"; //$NON-NLS-1$
+
+    /**
+     * The default value of {@link #KEY_SHARE_EMBEDDED}.
+     * @since 0.4.0
+     */
+    public static final boolean DEFAULT_SHARE_EMBEDDED = false;
+
+    /**
+     * The compiler option key of the local directory path for caching compiled jobflows.
+     * If this is set, each jobflow is fingerprinted by its operator graph, the class files referred from it,
+     * the compiler options, and the recorded statistics of its inputs, and then the previous compilation result is
+     * reused while the fingerprint is not changed. Note that, nothing is evicted from the cache directory
+     * automatically.
+     * @since 0.4.0
+     */
+    public static final String KEY_CACHE_DIRECTORY = "jobflow.cache.directory"; //$NON-NLS-1$
+
+    private static final Set<String> CACHE_EXCLUDE_OPTIONS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            KEY_PARALLELISM,
+            KEY_CACHE_DIRECTORY)));
+
     private final JobflowCompiler jobflowCompiler;
 
     private final JobflowPackager jobflowPackager = new JobflowPackager();
@@ -74,9 +129,14 @@ public class BasicBatchCompiler implements BatchCompiler {
     public void compile(Context context, Batch batch) {
         LOG.debug("start batch compiler: {}={}", batch.getBatchId(), batch.getDescriptionClass()); //$NON-NLS-1$
         before(context, batch);
+        List<BatchElement> elements = sort(batch.getElements());
+        Location sharedLibrary = prepareSharedLibrary(context);
+        JobflowCache cache = prepareCache(context);
+        Map<BatchElement, TaskReferenceMap> results = compileJobflows(context, elements, sharedLibrary, cache);
         JobflowContainer container = new JobflowContainer();
-        for (BatchElement element : sort(batch.getElements())) {
-            TaskReferenceMap tasks = compileJobflow(context, element);
+        for (BatchElement element : elements) {
+            TaskReferenceMap tasks = results.get(element);
+            assert tasks != null;
             container.add(new BasicJobflowReference(
                     element.getJobflow(),
                     tasks,
@@ -99,20 +159,128 @@ public class BasicBatchCompiler implements BatchCompiler {
         return sorted;
     }
 
-    private TaskReferenceMap compileJobflow(Context context, BatchElement element) {
+    private Location prepareSharedLibrary(Context context) {
+        if (context.getOptions().get(KEY_SHARE_EMBEDDED, DEFAULT_SHARE_EMBEDDED) == false) {
+            return null;
+        }
+        try {
+            return jobflowPackager.processEmbedded(context.getOutput(), context.getProject().getEmbeddedContents());
+        } catch (IOException e) {
+            throw new DiagnosticException(Diagnostic.Level.ERROR,
+                    "error occurred while packaging embedded contents", e);
+        }
+    }
+
+    private static JobflowCache prepareCache(Context context) {
+        String value = context.getOptions().get(KEY_CACHE_DIRECTORY, null);
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        if (JobflowCache.isReplayable(context.getTools().getParticipant()) == false) {
+            LOG.info("jobflow cache is disabled because some compiler participants depend on compilation results");
+            return null;
+        }
+        File directory = new File(value.trim());
+        LOG.debug("using jobflow cache: {}", directory); //$NON-NLS-1$
+        return new JobflowCache(directory, CACHE_EXCLUDE_OPTIONS);
+    }
+
+    private Map<BatchElement, TaskReferenceMap> compileJobflows(
+            Context context, List<BatchElement> elements, Location sharedLibrary, JobflowCache cache) {
+        int parallelism = Math.min(getParallelism(context), elements.size());
+        Map<BatchElement, TaskReferenceMap> results = new LinkedHashMap<>();
+        if (parallelism <= 1) {
+            for (BatchElement element : elements) {
+                results.put(element, compileJobflow(context, element, sharedLibrary, cache));
+            }
+            return results;
+        }
+        LOG.debug("compiling {} jobflows: parallelism={}", elements.size(), parallelism); //$NON-NLS-1$
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r);
+            thread.setName(String.format("jobflow-compiler-%d", counter.incrementAndGet())); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Map<BatchElement, Future<TaskReferenceMap>> futures = new HashMap<>();
+            for (BatchElement element : elements) {
+                futures.put(element, executor.submit(() -> compileJobflow(context, element, sharedLibrary, cache)));
+            }
+            for (BatchElement element : elements) {
+                results.put(element, get(futures.get(element)));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int getParallelism(Context context) {
+        String value = context.getOptions().get(KEY_PARALLELISM, null);
+        if (value == null || value.trim().isEmpty()) {
+            return DEFAULT_PARALLELISM;
+        }
+        try {
+            return Math.max(Integer.parseInt(value.trim()), 1);
+        } catch (NumberFormatException e) {
+            throw new DiagnosticException(Diagnostic.Level.ERROR, MessageFormat.format(
+                    "invalid compiler option: {0}={1}",
+                    KEY_PARALLELISM,
+                    value), e);
+        }
+    }
+
+    private static TaskReferenceMap get(Future<TaskReferenceMap> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DiagnosticException(Diagnostic.Level.ERROR, "interrupted while compiling jobflows", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new DiagnosticException(Diagnostic.Level.ERROR,
+                    "error occurred while compiling jobflows", (Exception) cause);
+        }
+    }
+
+    private TaskReferenceMap compileJobflow(
+            Context context, BatchElement element, Location sharedLibrary, JobflowCache cache) {
         try (FileContainerCleaner cleaner = new FileContainerCleaner(createJobflowOutput(context, element))) {
             FileContainer jobflowOutput = cleaner.getContainer();
             JobflowCompiler.Context jobflowContext = new JobflowCompiler.Context(context, jobflowOutput);
-            jobflowCompiler.compile(
-                    jobflowContext,
-                    element.getOwner(),
-                    element.getJobflow());
-            jobflowPackager.process(
-                    element.getJobflow().getFlowId(),
-                    context.getOutput(),
-                    jobflowOutput,
-                    context.getProject().getEmbeddedContents());
-            return jobflowContext.getTaskContainerMap();
+            JobflowCache.Entry entry = cache == null ? null : cache.find(context, element);
+            TaskReferenceMap tasks = entry == null ? null : entry.restore(jobflowContext);
+            if (tasks == null) {
+                jobflowCompiler.compile(
+                        jobflowContext,
+                        element.getOwner(),
+                        element.getJobflow());
+                tasks = jobflowContext.getTaskContainerMap();
+                if (entry != null) {
+                    entry.store(jobflowContext, tasks);
+                }
+            }
+            if (sharedLibrary == null) {
+                jobflowPackager.process(
+                        element.getJobflow().getFlowId(),
+                        context.getOutput(),
+                        jobflowOutput,
+                        context.getProject().getEmbeddedContents());
+            } else {
+                jobflowPackager.process(
+                        element.getJobflow().getFlowId(),
+                        context.getOutput(),
+                        jobflowOutput,
+                        sharedLibrary);
+            }
+            return tasks;
         } catch (IOException e) {
             throw new DiagnosticException(Diagnostic.Level.ERROR, MessageFormat.format(
                     "error occurred while compiling jobflow: batch={0}, jobflow={1}",
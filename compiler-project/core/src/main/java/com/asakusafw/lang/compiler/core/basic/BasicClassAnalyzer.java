@@ -28,6 +28,7 @@ import com.asakusafw.lang.compiler.common.Diagnostic;
 import com.asakusafw.lang.compiler.common.DiagnosticException;
 import com.asakusafw.lang.compiler.core.AnalyzerContext;
 import com.asakusafw.lang.compiler.core.ClassAnalyzer;
+import com.asakusafw.lang.compiler.core.ClassHeader;
 import com.asakusafw.lang.compiler.core.adapter.ExternalPortAnalyzerAdapter;
 import com.asakusafw.lang.compiler.model.graph.Batch;
 import com.asakusafw.lang.compiler.model.graph.Jobflow;
@@ -44,6 +45,12 @@ public class BasicClassAnalyzer implements ClassAnalyzer {
         return BatchAdapter.isBatch(aClass);
     }
 
+    @Override
+    public boolean isBatchCandidate(Context context, ClassHeader header) {
+        return header.isInterface() == false
+                && header.isAnnotationPresent(com.asakusafw.vocabulary.batch.Batch.class);
+    }
+
     @Override
     public boolean isJobflowClass(Context context, Class<?> aClass) {
         return JobflowAdapter.isJobflow(aClass);
@@ -0,0 +1,450 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.lang.compiler.core.basic;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.asakusafw.lang.compiler.api.basic.TaskContainerMap;
+import com.asakusafw.lang.compiler.api.reference.CommandTaskReference;
+import com.asakusafw.lang.compiler.api.reference.CommandToken;
+import com.asakusafw.lang.compiler.api.reference.TaskReference;
+import com.asakusafw.lang.compiler.api.reference.TaskReferenceMap;
+import com.asakusafw.lang.compiler.common.Location;
+import com.asakusafw.lang.compiler.core.CompilerContext;
+import com.asakusafw.lang.compiler.core.CompilerParticipant;
+import com.asakusafw.lang.compiler.core.JobflowCompiler;
+import com.asakusafw.lang.compiler.core.participant.HadoopFormatExtensionParticipant;
+import com.asakusafw.lang.compiler.core.participant.HadoopTaskExtensionParticipant;
+import com.asakusafw.lang.compiler.core.participant.InputFormatInfoExtensionParticipant;
+import com.asakusafw.lang.compiler.core.participant.InspectionExtensionParticipant;
+import com.asakusafw.lang.compiler.core.participant.JavaSourceExtensionParticipant;
+import com.asakusafw.lang.compiler.core.participant.RuntimeContextParticipant;
+import com.asakusafw.lang.compiler.core.util.CompositeCompilerParticipant;
+import com.asakusafw.lang.compiler.hadoop.HadoopTaskReference;
+import com.asakusafw.lang.compiler.model.description.ClassDescription;
+import com.asakusafw.lang.compiler.model.graph.BatchElement;
+import com.asakusafw.lang.compiler.model.graph.Jobflow;
+import com.asakusafw.lang.compiler.model.info.BatchInfo;
+import com.asakusafw.lang.compiler.packaging.FileContainer;
+import com.asakusafw.lang.compiler.packaging.ResourceRepository;
+import com.asakusafw.lang.compiler.packaging.ResourceUtil;
+import com.asakusafw.runtime.core.context.RuntimeContext;
+
+/**
+ * A local cache of compiled jobflows, which is keyed by {@link JobflowFingerprint}.
+ * Each entry holds the jobflow output contents before packaging, and its task references.
+ * @since 0.4.0
+ */
+final class JobflowCache {
+
+    static final Logger LOG = LoggerFactory.getLogger(JobflowCache.class);
+
+    private static final int FORMAT_VERSION = 2;
+
+    private static final String PATH_CONTENTS = "contents"; //$NON-NLS-1$
+
+    private static final String PATH_TASKS = "tasks.bin"; //$NON-NLS-1$
+
+    private static final String SUFFIX_TEMPORARY = ".tmp"; //$NON-NLS-1$
+
+    // the application info contains the build ID, so that it must be re-generated for each build
+    private static final Location APPLICATION_INFO = Location.of(RuntimeContext.PATH_APPLICATION_INFO);
+
+    private static final byte KIND_COMMAND = 1;
+
+    private static final byte KIND_HADOOP = 2;
+
+    // participants whose jobflow hooks do not depend on the jobflow compilation result
+    private static final Set<Class<?>> REPLAYABLE_PARTICIPANTS;
+    static {
+        Set<Class<?>> set = new HashSet<>();
+        set.add(RuntimeContextParticipant.class);
+        set.add(HadoopTaskExtensionParticipant.class);
+        set.add(JavaSourceExtensionParticipant.class);
+        set.add(HadoopFormatExtensionParticipant.class);
+        set.add(InputFormatInfoExtensionParticipant.class);
+        set.add(InspectionExtensionParticipant.class);
+        REPLAYABLE_PARTICIPANTS = Collections.unmodifiableSet(set);
+    }
+
+    private final File directory;
+
+    private final Collection<String> excludeOptions;
+
+    /**
+     * Creates a new instance.
+     * @param directory the cache directory
+     * @param excludeOptions the compiler option keys which do not affect the compilation result
+     */
+    JobflowCache(File directory, Collection<String> excludeOptions) {
+        this.directory = directory;
+        this.excludeOptions = excludeOptions;
+    }
+
+    /**
+     * Returns whether or not the jobflow hooks of the given participant can be replayed for cached jobflows.
+     * The participant must not depend on the jobflow compilation result, like the external ports.
+     * @param participant the target participant
+     * @return {@code true} if the participant is replayable, otherwise {@code false}
+     */
+    static boolean isReplayable(CompilerParticipant participant) {
+        if (participant instanceof CompositeCompilerParticipant) {
+            for (CompilerParticipant element : ((CompositeCompilerParticipant) participant).getElements()) {
+                if (isReplayable(element) == false) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        Class<?> type = participant.getClass();
+        if (REPLAYABLE_PARTICIPANTS.contains(type)) {
+            return true;
+        }
+        // participants without any jobflow hooks
+        return hasJobflowHook(type, "beforeJobflow") == false //$NON-NLS-1$
+                && hasJobflowHook(type, "afterJobflow") == false; //$NON-NLS-1$
+    }
+
+    private static boolean hasJobflowHook(Class<?> type, String name) {
+        try {
+            Method method = type.getMethod(name, JobflowCompiler.Context.class, BatchInfo.class, Jobflow.class);
+            return method.getDeclaringClass() != CompilerParticipant.class;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the cache entry for the target jobflow.
+     * @param context the current context
+     * @param element the target jobflow
+     * @return the cache entry, or {@code null} if the target jobflow is not cacheable
+     */
+    Entry find(CompilerContext context, BatchElement element) {
+        try {
+            String fingerprint = JobflowFingerprint.compute(context, element, excludeOptions);
+            return new Entry(element, new File(directory, fingerprint));
+        } catch (IOException | RuntimeException e) {
+            LOG.warn(MessageFormat.format(
+                    "failed to compute fingerprint of jobflow: {0}",
+                    element.getJobflow().getFlowId()), e);
+            return null;
+        }
+    }
+
+    /**
+     * A cache entry of {@link JobflowCache}.
+     */
+    static final class Entry {
+
+        private final BatchElement element;
+
+        private final File path;
+
+        Entry(BatchElement element, File path) {
+            this.element = element;
+            this.path = path;
+        }
+
+        /**
+         * Restores the cached jobflow into the given context.
+         * This also invokes the jobflow hooks of the compiler participant, as like as the jobflow compiler.
+         * @param context the target jobflow context
+         * @return the restored tasks, or {@code null} if this entry is not yet available
+         * @throws IOException if failed to restore the cached contents
+         */
+        TaskReferenceMap restore(JobflowCompiler.Context context) throws IOException {
+            File tasksFile = new File(path, PATH_TASKS);
+            if (tasksFile.isFile() == false) {
+                return null;
+            }
+            TaskReferenceMap tasks;
+            try (DataInputStream input = new DataInputStream(Files.newInputStream(tasksFile.toPath()))) {
+                if (input.readInt() != FORMAT_VERSION) {
+                    return null;
+                }
+                tasks = readTasks(input);
+            } catch (IOException | RuntimeException e) {
+                LOG.warn(MessageFormat.format(
+                        "failed to read jobflow cache entry, the jobflow will be recompiled: {0}",
+                        path), e);
+                return null;
+            }
+            CompilerParticipant participant = context.getTools().getParticipant();
+            participant.beforeJobflow(context, element.getOwner(), element.getJobflow());
+            FileContainer contents = new FileContainer(new File(path, PATH_CONTENTS));
+            if (contents.getBasePath().isDirectory()) {
+                try (ResourceRepository.Cursor cursor = contents.createCursor()) {
+                    while (cursor.next()) {
+                        try (InputStream input = cursor.openResource()) {
+                            context.getOutput().addResource(cursor.getLocation(), input);
+                        }
+                    }
+                }
+            }
+            participant.afterJobflow(context, element.getOwner(), element.getJobflow());
+            LOG.info(MessageFormat.format(
+                    "reusing compiled jobflow: {0} ({1})",
+                    element.getJobflow().getFlowId(),
+                    path.getName()));
+            return tasks;
+        }
+
+        /**
+         * Stores the compiled jobflow into this entry.
+         * This does nothing if the compiled jobflow is not cacheable.
+         * @param context the compiled jobflow context
+         * @param tasks the compiled tasks
+         */
+        void store(JobflowCompiler.Context context, TaskReferenceMap tasks) {
+            List<Task> list = toList(tasks);
+            if (list == null) {
+                LOG.debug("jobflow is not cacheable: {}", element.getJobflow().getFlowId()); //$NON-NLS-1$
+                return;
+            }
+            File temporary = new File(
+                    path.getParentFile(),
+                    path.getName() + '.' + UUID.randomUUID() + SUFFIX_TEMPORARY);
+            try {
+                Files.createDirectories(temporary.toPath());
+                FileContainer contents = new FileContainer(new File(temporary, PATH_CONTENTS));
+                try (ResourceRepository.Cursor cursor = context.getOutput().createCursor()) {
+                    while (cursor.next()) {
+                        if (cursor.getLocation().equals(APPLICATION_INFO)) {
+                            continue;
+                        }
+                        try (InputStream input = cursor.openResource()) {
+                            contents.addResource(cursor.getLocation(), input);
+                        }
+                    }
+                }
+                File tasksFile = new File(temporary, PATH_TASKS);
+                try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(tasksFile.toPath()))) {
+                    output.writeInt(FORMAT_VERSION);
+                    writeTasks(output, list);
+                }
+                try {
+                    Files.move(temporary.toPath(), path.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException | DirectoryNotEmptyException e) {
+                    LOG.debug("jobflow cache entry already exists: {}", path, e); //$NON-NLS-1$
+                }
+                LOG.debug("stored compiled jobflow: {} ({})", element.getJobflow().getFlowId(), path); //$NON-NLS-1$
+            } catch (IOException e) {
+                LOG.warn(MessageFormat.format(
+                        "failed to store compiled jobflow into cache: {0}",
+                        path), e);
+            } finally {
+                if (temporary.exists() && ResourceUtil.delete(temporary) == false) {
+                    LOG.warn(MessageFormat.format(
+                            "failed to delete a temporary file: {0}",
+                            temporary));
+                }
+            }
+        }
+    }
+
+    private static List<Task> toList(TaskReferenceMap tasks) {
+        List<Task> results = new ArrayList<>();
+        Map<TaskReference, Integer> indices = new IdentityHashMap<>();
+        for (TaskReference.Phase phase : TaskReference.Phase.values()) {
+            for (TaskReference task : tasks.getTasks(phase)) {
+                if (isSupported(task) == false) {
+                    return null;
+                }
+                indices.put(task, results.size());
+                results.add(new Task(phase, task));
+            }
+        }
+        for (Task task : results) {
+            for (TaskReference blocker : task.reference.getBlockers()) {
+                Integer index = indices.get(blocker);
+                if (index == null || index >= indices.get(task.reference)) {
+                    return null;
+                }
+                task.blockers.add(index);
+            }
+        }
+        return results;
+    }
+
+    private static boolean isSupported(TaskReference task) {
+        if (task.getClass() == CommandTaskReference.class) {
+            return ((CommandTaskReference) task).getAttributeTypes().isEmpty();
+        } else if (task.getClass() == HadoopTaskReference.class) {
+            return ((HadoopTaskReference) task).getAttributeTypes().isEmpty();
+        }
+        return false;
+    }
+
+    private static void writeTasks(DataOutputStream output, List<Task> tasks) throws IOException {
+        output.writeInt(tasks.size());
+        for (Task task : tasks) {
+            TaskReference reference = task.reference;
+            output.writeUTF(task.phase.name());
+            output.writeUTF(reference.getModuleName());
+            output.writeInt(reference.getExtensions().size());
+            for (String extension : reference.getExtensions()) {
+                output.writeUTF(extension);
+            }
+            output.writeInt(task.blockers.size());
+            for (int blocker : task.blockers) {
+                output.writeInt(blocker);
+            }
+            if (reference instanceof CommandTaskReference) {
+                CommandTaskReference command = (CommandTaskReference) reference;
+                output.writeByte(KIND_COMMAND);
+                writeString(output, command.getProfileName());
+                writeString(output, command.getCommand() == null ? null : command.getCommand().toPath());
+                output.writeInt(command.getArguments().size());
+                for (CommandToken token : command.getArguments()) {
+                    output.writeUTF(token.getTokenKind().name());
+                    writeString(output, token.getImage());
+                }
+            } else if (reference instanceof HadoopTaskReference) {
+                HadoopTaskReference hadoop = (HadoopTaskReference) reference;
+                output.writeByte(KIND_HADOOP);
+                output.writeUTF(hadoop.getMainClass().getBinaryName());
+            } else {
+                throw new AssertionError(reference);
+            }
+        }
+    }
+
+    private static TaskReferenceMap readTasks(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        List<TaskReference.Phase> phases = new ArrayList<>();
+        List<TaskReference> references = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            TaskReference.Phase phase = TaskReference.Phase.valueOf(input.readUTF());
+            String moduleName = input.readUTF();
+            List<String> extensions = new ArrayList<>();
+            for (int j = 0, n = input.readInt(); j < n; j++) {
+                extensions.add(input.readUTF());
+            }
+            List<TaskReference> blockers = new ArrayList<>();
+            for (int j = 0, n = input.readInt(); j < n; j++) {
+                int blocker = input.readInt();
+                if (blocker < 0 || blocker >= references.size()) {
+                    throw new IOException(MessageFormat.format(
+                            "invalid task blocker: {0}",
+                            blocker));
+                }
+                blockers.add(references.get(blocker));
+            }
+            byte kind = input.readByte();
+            TaskReference reference;
+            switch (kind) {
+            case KIND_COMMAND: {
+                String profileName = readString(input);
+                String command = readString(input);
+                List<CommandToken> arguments = new ArrayList<>();
+                for (int j = 0, n = input.readInt(); j < n; j++) {
+                    CommandToken.TokenKind tokenKind = CommandToken.TokenKind.valueOf(input.readUTF());
+                    String image = readString(input);
+                    arguments.add(toToken(tokenKind, image));
+                }
+                reference = new CommandTaskReference(
+                        moduleName, profileName,
+                        command == null ? null : Location.of(command),
+                        arguments, extensions, blockers);
+                break;
+            }
+            case KIND_HADOOP:
+                reference = new HadoopTaskReference(
+                        moduleName, new ClassDescription(input.readUTF()), extensions, blockers);
+                break;
+            default:
+                throw new IOException(MessageFormat.format(
+                        "unknown task kind: {0}",
+                        kind));
+            }
+            phases.add(phase);
+            references.add(reference);
+        }
+        TaskContainerMap results = new TaskContainerMap();
+        for (int i = 0; i < count; i++) {
+            results.getTaskContainer(phases.get(i)).add(references.get(i));
+        }
+        return results;
+    }
+
+    private static CommandToken toToken(CommandToken.TokenKind kind, String image) {
+        switch (kind) {
+        case TEXT:
+            return CommandToken.of(image);
+        case BATCH_ID:
+            return CommandToken.BATCH_ID;
+        case FLOW_ID:
+            return CommandToken.FLOW_ID;
+        case EXECUTION_ID:
+            return CommandToken.EXECUTION_ID;
+        case BATCH_ARGUMENTS:
+            return CommandToken.BATCH_ARGUMENTS;
+        default:
+            throw new AssertionError(kind);
+        }
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        if (input.readBoolean()) {
+            return input.readUTF();
+        }
+        return null;
+    }
+
+    private static final class Task {
+
+        final TaskReference.Phase phase;
+
+        final TaskReference reference;
+
+        final List<Integer> blockers = new ArrayList<>();
+
+        Task(TaskReference.Phase phase, TaskReference reference) {
+            this.phase = phase;
+            this.reference = reference;
+        }
+    }
+}
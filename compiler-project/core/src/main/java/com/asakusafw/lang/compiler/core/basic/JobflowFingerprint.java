@@ -0,0 +1,555 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.lang.compiler.core.basic;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.CodeSource;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.asakusafw.lang.compiler.api.CompilerOptions;
+import com.asakusafw.lang.compiler.core.ClassHeader;
+import com.asakusafw.lang.compiler.core.CompilerContext;
+import com.asakusafw.lang.compiler.core.ToolRepository;
+import com.asakusafw.lang.compiler.core.util.CompositeElement;
+import com.asakusafw.lang.compiler.model.description.AnnotationDescription;
+import com.asakusafw.lang.compiler.model.description.ArrayDescription;
+import com.asakusafw.lang.compiler.model.description.ArrayTypeDescription;
+import com.asakusafw.lang.compiler.model.description.ClassDescription;
+import com.asakusafw.lang.compiler.model.description.EnumConstantDescription;
+import com.asakusafw.lang.compiler.model.description.ImmediateDescription;
+import com.asakusafw.lang.compiler.model.description.MethodDescription;
+import com.asakusafw.lang.compiler.model.description.ReifiableTypeDescription;
+import com.asakusafw.lang.compiler.model.description.SerializableValueDescription;
+import com.asakusafw.lang.compiler.model.description.TypeDescription;
+import com.asakusafw.lang.compiler.model.description.UnknownValueDescription;
+import com.asakusafw.lang.compiler.model.description.ValueDescription;
+import com.asakusafw.lang.compiler.model.graph.BatchElement;
+import com.asakusafw.lang.compiler.model.graph.CoreOperator;
+import com.asakusafw.lang.compiler.model.graph.ExternalInput;
+import com.asakusafw.lang.compiler.model.graph.ExternalOutput;
+import com.asakusafw.lang.compiler.model.graph.FlowOperator;
+import com.asakusafw.lang.compiler.model.graph.Jobflow;
+import com.asakusafw.lang.compiler.model.graph.Operator;
+import com.asakusafw.lang.compiler.model.graph.OperatorArgument;
+import com.asakusafw.lang.compiler.model.graph.OperatorConstraint;
+import com.asakusafw.lang.compiler.model.graph.OperatorGraph;
+import com.asakusafw.lang.compiler.model.graph.OperatorInput;
+import com.asakusafw.lang.compiler.model.graph.OperatorOutput;
+import com.asakusafw.lang.compiler.model.graph.UserOperator;
+import com.asakusafw.lang.compiler.model.info.BatchInfo;
+import com.asakusafw.lang.compiler.model.info.ExternalInputInfo;
+import com.asakusafw.lang.compiler.model.info.ExternalOutputInfo;
+import com.asakusafw.lang.compiler.optimizer.basic.BasicExternalInputEstimator;
+import com.asakusafw.runtime.core.context.RuntimeContext;
+
+/**
+ * Computes fingerprints of jobflows.
+ * A fingerprint consists of the followings:
+ * <ul>
+ * <li> the structure of the jobflow operator graph </li>
+ * <li> the class file contents which are referred from the operator graph, and their super types </li>
+ * <li> the compiler options, except the build ID </li>
+ * <li> the recorded input statistics of the jobflow </li>
+ * <li> the compiler tools which participate in jobflow compilation </li>
+ * </ul>
+ * @since 0.4.0
+ */
+final class JobflowFingerprint {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256"; //$NON-NLS-1$
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String EXTENSION_CLASS = ".class"; //$NON-NLS-1$
+
+    private static final String PREFIX_SYSTEM_CLASS = "java."; //$NON-NLS-1$
+
+    private final DataOutputStream output;
+
+    private final MessageDigest digest;
+
+    private final Set<String> classNames = new TreeSet<>();
+
+    private JobflowFingerprint() {
+        try {
+            this.digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        this.output = new DataOutputStream(new DigestOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                return;
+            }
+            @Override
+            public void write(byte[] b, int off, int len) {
+                return;
+            }
+        }, digest));
+    }
+
+    /**
+     * Computes the fingerprint of the target jobflow.
+     * @param context the current context
+     * @param element the target jobflow
+     * @param excludeOptions the compiler option keys which do not affect the compilation result
+     * @return the fingerprint string
+     * @throws IOException if failed to compute the fingerprint
+     */
+    static String compute(
+            CompilerContext context, BatchElement element, Collection<String> excludeOptions) throws IOException {
+        JobflowFingerprint fingerprint = new JobflowFingerprint();
+        fingerprint.putEnvironment(context, excludeOptions);
+        fingerprint.putBatch(element.getOwner());
+        fingerprint.putJobflow(element.getJobflow());
+        fingerprint.putStatistics(context, element);
+        fingerprint.putClasses(context.getProject().getClassLoader());
+        return toHex(fingerprint.digest.digest());
+    }
+
+    private void putEnvironment(CompilerContext context, Collection<String> excludeOptions) throws IOException {
+        output.writeInt(FORMAT_VERSION);
+        putString(RuntimeContext.getRuntimeVersion());
+        CompilerOptions options = context.getOptions();
+        putString(options.getRuntimeWorkingDirectory());
+        Map<String, String> properties = new TreeMap<>(options.getRawProperties());
+        properties.keySet().removeAll(excludeOptions);
+        // the statistics file is rewritten after each execution, so that only its relevant entries are used
+        properties.remove(BasicExternalInputEstimator.KEY_STATISTICS);
+        output.writeInt(properties.size());
+        for (Map.Entry<String, String> entry : properties.entrySet()) {
+            putString(entry.getKey());
+            putString(entry.getValue());
+        }
+        ToolRepository tools = context.getTools();
+        putCodeSource(getClass());
+        putTool(tools.getJobflowProcessor());
+        putTool(tools.getExternalPortProcessor());
+        putTool(tools.getDataModelProcessor());
+        putTool(tools.getParticipant());
+    }
+
+    private void putTool(Object tool) throws IOException {
+        if (tool instanceof CompositeElement<?>) {
+            Collection<?> elements = ((CompositeElement<?>) tool).getElements();
+            output.writeInt(elements.size());
+            for (Object element : elements) {
+                putTool(element);
+            }
+        } else {
+            output.writeInt(-1);
+            putCodeSource(tool.getClass());
+        }
+    }
+
+    private void putCodeSource(Class<?> aClass) throws IOException {
+        putString(aClass.getName());
+        CodeSource source = aClass.getProtectionDomain().getCodeSource();
+        URL location = source == null ? null : source.getLocation();
+        if (location == null || location.getProtocol().equals("file") == false) { //$NON-NLS-1$
+            putString(null);
+            return;
+        }
+        File file;
+        try {
+            file = new File(location.toURI());
+        } catch (Exception e) {
+            putString(location.toExternalForm());
+            return;
+        }
+        putString(file.getAbsolutePath());
+        if (file.isFile()) {
+            output.writeLong(file.length());
+            output.writeLong(file.lastModified());
+        } else {
+            output.writeLong(-1L);
+            output.writeLong(-1L);
+        }
+    }
+
+    private void putStatistics(CompilerContext context, BatchElement element) throws IOException {
+        String path = context.getOptions().get(BasicExternalInputEstimator.KEY_STATISTICS, null);
+        if (path == null || path.trim().isEmpty()) {
+            output.writeInt(-1);
+            return;
+        }
+        Properties statistics = new Properties();
+        File file = new File(path.trim());
+        if (file.isFile()) {
+            try (InputStream input = new FileInputStream(file)) {
+                statistics.load(input);
+            }
+        }
+        Set<String> keys = new TreeSet<>();
+        for (Operator operator : element.getJobflow().getOperatorGraph().getOperators()) {
+            if (operator instanceof ExternalInput) {
+                keys.add(BasicExternalInputEstimator.getStatisticsKey(
+                        element.getOwner().getBatchId(),
+                        element.getJobflow().getFlowId(),
+                        ((ExternalInput) operator).getName()));
+            }
+        }
+        output.writeInt(keys.size());
+        for (String key : keys) {
+            putString(key);
+            putString(statistics.getProperty(key));
+        }
+    }
+
+    private void putBatch(BatchInfo batch) throws IOException {
+        putString(batch.getBatchId());
+        putClass(batch.getDescriptionClass());
+        output.writeInt(batch.getParameters().size());
+        for (BatchInfo.Parameter parameter : batch.getParameters()) {
+            putString(parameter.getKey());
+            putString(parameter.getComment());
+            output.writeBoolean(parameter.isMandatory());
+            putString(parameter.getPattern() == null ? null : parameter.getPattern().pattern());
+        }
+        Set<String> attributes = new TreeSet<>();
+        for (BatchInfo.Attribute attribute : batch.getAttributes()) {
+            attributes.add(attribute.name());
+        }
+        putStrings(attributes);
+    }
+
+    private void putJobflow(Jobflow jobflow) throws IOException {
+        putString(jobflow.getFlowId());
+        putClass(jobflow.getDescriptionClass());
+        putGraph(jobflow.getOperatorGraph());
+    }
+
+    private void putGraph(OperatorGraph graph) throws IOException {
+        // operators in the same graph are always created in the same order, so that we use it as a canonical order
+        List<Operator> operators = new ArrayList<>(graph.getOperators());
+        operators.sort(Comparator
+                .comparingLong(Operator::getOriginalSerialNumber)
+                .thenComparingLong(Operator::getSerialNumber));
+        Map<Operator, Integer> indices = new HashMap<>();
+        for (Operator operator : operators) {
+            indices.put(operator, indices.size());
+        }
+        output.writeInt(operators.size());
+        for (Operator operator : operators) {
+            putOperator(operator, indices);
+        }
+    }
+
+    private void putOperator(Operator operator, Map<Operator, Integer> indices) throws IOException {
+        putString(operator.getOperatorKind().name());
+        switch (operator.getOperatorKind()) {
+        case CORE:
+            putString(((CoreOperator) operator).getCoreOperatorKind().name());
+            break;
+        case USER: {
+            UserOperator op = (UserOperator) operator;
+            putValue(op.getAnnotation());
+            putMethod(op.getMethod());
+            putClass(op.getImplementationClass());
+            break;
+        }
+        case FLOW: {
+            FlowOperator op = (FlowOperator) operator;
+            putClass(op.getDescriptionClass());
+            putGraph(op.getOperatorGraph());
+            break;
+        }
+        case INPUT: {
+            ExternalInput op = (ExternalInput) operator;
+            putString(op.getName());
+            output.writeBoolean(op.isExternal());
+            if (op.isExternal()) {
+                ExternalInputInfo info = op.getInfo();
+                putClass(info.getDescriptionClass());
+                putString(info.getModuleName());
+                putClass(info.getDataModelClass());
+                putString(info.getDataSize().name());
+                putStrings(new TreeSet<>(info.getParameterNames()));
+                putValue(info.getContents());
+            }
+            break;
+        }
+        case OUTPUT: {
+            ExternalOutput op = (ExternalOutput) operator;
+            putString(op.getName());
+            output.writeBoolean(op.isExternal());
+            if (op.isExternal()) {
+                ExternalOutputInfo info = op.getInfo();
+                putClass(info.getDescriptionClass());
+                putString(info.getModuleName());
+                putClass(info.getDataModelClass());
+                output.writeBoolean(info.isGenerator());
+                putStrings(new TreeSet<>(info.getParameterNames()));
+                putValue(info.getContents());
+            }
+            break;
+        }
+        case MARKER:
+            break;
+        default:
+            throw new AssertionError(operator);
+        }
+        output.writeInt(operator.getInputs().size());
+        for (OperatorInput port : operator.getInputs()) {
+            putString(port.getName());
+            putType(port.getDataType());
+            putString(port.getGroup() == null ? null : port.getGroup().toString());
+            Set<String> upstreams = new TreeSet<>();
+            for (OperatorOutput upstream : port.getOpposites()) {
+                upstreams.add(String.format("%d:%s", //$NON-NLS-1$
+                        indices.getOrDefault(upstream.getOwner(), -1),
+                        upstream.getName()));
+            }
+            putStrings(upstreams);
+        }
+        output.writeInt(operator.getOutputs().size());
+        for (OperatorOutput port : operator.getOutputs()) {
+            putString(port.getName());
+            putType(port.getDataType());
+        }
+        output.writeInt(operator.getArguments().size());
+        for (OperatorArgument argument : operator.getArguments()) {
+            putString(argument.getName());
+            putValue(argument.getValue());
+        }
+        Set<String> constraints = new TreeSet<>();
+        for (OperatorConstraint constraint : operator.getConstraints()) {
+            constraints.add(constraint.name());
+        }
+        putStrings(constraints);
+        Map<String, Object> attributes = new TreeMap<>();
+        for (Class<?> type : operator.getAttributeTypes()) {
+            attributes.put(type.getName(), operator.getAttribute(type));
+        }
+        output.writeInt(attributes.size());
+        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+            putString(entry.getKey());
+            Object value = entry.getValue();
+            if (value instanceof ValueDescription) {
+                putValue((ValueDescription) value);
+            } else if (value instanceof Enum<?>) {
+                putString(((Enum<?>) value).name());
+            } else {
+                // may contain identity hash codes - then the jobflow will not be reused
+                putString(String.valueOf(value));
+            }
+        }
+    }
+
+    private void putMethod(MethodDescription method) throws IOException {
+        putClass(method.getDeclaringClass());
+        putString(method.getName());
+        output.writeInt(method.getParameterTypes().size());
+        for (ReifiableTypeDescription type : method.getParameterTypes()) {
+            putType(type);
+        }
+    }
+
+    private void putType(TypeDescription type) throws IOException {
+        if (type == null) {
+            putString(null);
+            return;
+        }
+        putString(type.getTypeKind().name());
+        switch (type.getTypeKind()) {
+        case BASIC:
+            putString(type.toString());
+            break;
+        case CLASS:
+            putClass((ClassDescription) type);
+            break;
+        case ARRAY:
+            putType(((ArrayTypeDescription) type).getComponentType());
+            break;
+        default:
+            throw new AssertionError(type);
+        }
+    }
+
+    private void putValue(ValueDescription value) throws IOException {
+        if (value == null) {
+            putString(null);
+            return;
+        }
+        putString(value.getValueKind().name());
+        switch (value.getValueKind()) {
+        case IMMEDIATE: {
+            ImmediateDescription v = (ImmediateDescription) value;
+            putType(v.getValueType());
+            putString(v.getValue() == null ? null : v.getValue().toString());
+            break;
+        }
+        case ENUM_CONSTANT: {
+            EnumConstantDescription v = (EnumConstantDescription) value;
+            putClass(v.getDeclaringClass());
+            putString(v.getName());
+            break;
+        }
+        case TYPE:
+            putType((TypeDescription) value);
+            break;
+        case ANNOTATION: {
+            AnnotationDescription v = (AnnotationDescription) value;
+            putClass(v.getDeclaringClass());
+            Map<String, ValueDescription> elements = new TreeMap<>(v.getElements());
+            output.writeInt(elements.size());
+            for (Map.Entry<String, ValueDescription> entry : elements.entrySet()) {
+                putString(entry.getKey());
+                putValue(entry.getValue());
+            }
+            break;
+        }
+        case SERIALIZABLE: {
+            SerializableValueDescription v = (SerializableValueDescription) value;
+            putType(v.getValueType());
+            byte[] bytes = v.getSerialized();
+            output.writeInt(bytes.length);
+            output.write(bytes);
+            break;
+        }
+        case ARRAY: {
+            ArrayDescription v = (ArrayDescription) value;
+            putType(v.getValueType());
+            output.writeInt(v.getElements().size());
+            for (ValueDescription element : v.getElements()) {
+                putValue(element);
+            }
+            break;
+        }
+        case UNKNOWN: {
+            UnknownValueDescription v = (UnknownValueDescription) value;
+            putType(v.getValueType());
+            putString(v.getLabel());
+            break;
+        }
+        default:
+            throw new AssertionError(value);
+        }
+    }
+
+    private void putClass(ClassDescription aClass) throws IOException {
+        if (aClass == null) {
+            putString(null);
+            return;
+        }
+        putString(aClass.getBinaryName());
+        classNames.add(aClass.getBinaryName());
+    }
+
+    private void putClasses(ClassLoader classLoader) throws IOException {
+        Set<String> saw = new LinkedHashSet<>();
+        List<String> work = new ArrayList<>(classNames);
+        while (work.isEmpty() == false) {
+            String name = work.remove(work.size() - 1);
+            if (name.startsWith(PREFIX_SYSTEM_CLASS) || saw.add(name) == false) {
+                continue;
+            }
+            byte[] contents = readClassFile(classLoader, name);
+            if (contents == null) {
+                continue;
+            }
+            ClassHeader header;
+            try (InputStream input = new ByteArrayInputStream(contents)) {
+                header = ClassHeader.read(input);
+            } catch (IOException e) {
+                continue;
+            }
+            if (header.getSuperClassName() != null) {
+                work.add(header.getSuperClassName());
+            }
+            work.addAll(header.getInterfaceNames());
+        }
+        Set<String> sorted = new TreeSet<>(saw);
+        output.writeInt(sorted.size());
+        for (String name : sorted) {
+            putString(name);
+            byte[] contents = readClassFile(classLoader, name);
+            if (contents == null) {
+                output.writeInt(-1);
+            } else {
+                output.writeInt(contents.length);
+                output.write(contents);
+            }
+        }
+    }
+
+    private static byte[] readClassFile(ClassLoader classLoader, String name) throws IOException {
+        String path = name.replace('.', '/') + EXTENSION_CLASS;
+        try (InputStream input = classLoader.getResourceAsStream(path)) {
+            if (input == null) {
+                return null;
+            }
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            byte[] bytes = new byte[1024];
+            while (true) {
+                int read = input.read(bytes);
+                if (read < 0) {
+                    break;
+                }
+                buffer.write(bytes, 0, read);
+            }
+            return buffer.toByteArray();
+        }
+    }
+
+    private void putStrings(Collection<String> values) throws IOException {
+        output.writeInt(values.size());
+        for (String value : values) {
+            putString(value);
+        }
+    }
+
+    private void putString(String value) throws IOException {
+        if (value == null) {
+            output.writeBoolean(false);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeBoolean(true);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder buf = new StringBuilder();
+        for (byte b : bytes) {
+            buf.append(String.format("%02x", b & 0xff)); //$NON-NLS-1$
+        }
+        return buf.toString();
+    }
+}
@@ -15,18 +15,32 @@
  */
 package com.asakusafw.lang.compiler.core.basic;
 
+import java.io.File;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.MessageFormat;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.function.Predicate;
+import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.asakusafw.lang.compiler.common.Location;
 import com.asakusafw.lang.compiler.common.ResourceContainer;
+import com.asakusafw.lang.compiler.packaging.ContentProvider;
 import com.asakusafw.lang.compiler.packaging.ResourceAssembler;
 import com.asakusafw.lang.compiler.packaging.ResourceRepository;
 import com.asakusafw.lang.compiler.packaging.ResourceSink;
@@ -70,6 +84,15 @@ public class JobflowPackager {
      */
     static final String PATTERN_JOBFLOW_LIBRARY = "jobflow-{0}.jar"; //$NON-NLS-1$
 
+    /**
+     * The file name pattern of shared embedded libraries.
+     */
+    static final String PATTERN_EMBEDDED_LIBRARY = "embedded-{0}.jar"; //$NON-NLS-1$
+
+    private static final String DIGEST_ALGORITHM = "SHA-1"; //$NON-NLS-1$
+
+    private static final int DIGEST_HEX_LENGTH = 16;
+
     private static final Predicate<Location> EMBEDDED_CONTENT_ACCEPTOR = location -> {
         if (location.equals(MANIFEST_FILE)) {
             return false;
@@ -101,6 +124,135 @@ public class JobflowPackager {
         }
     }
 
+    /**
+     * Creates a jobflow package into batch output container.
+     * The created package does not contain any embedded contents, and instead it refers the given shared library
+     * via {@code Class-Path} attribute in its manifest.
+     * @param flowId the target flow ID
+     * @param batchOutput the target batch output container
+     * @param jobflowOutput the source jobflow output container
+     * @param sharedLibrary the shared library location, which was created by
+     *     {@link #processEmbedded(ResourceContainer, Collection)}
+     * @throws IOException if failed to create a jobflow package
+     * @since 0.4.0
+     */
+    public void process(
+            String flowId,
+            ResourceContainer batchOutput,
+            ResourceRepository jobflowOutput,
+            Location sharedLibrary) throws IOException {
+        LOG.debug("building jobflow package: {}->{} (shared={})", flowId, batchOutput, sharedLibrary); //$NON-NLS-1$
+        Location location = getLibraryLocation(flowId);
+        Manifest manifest = extractManifest(jobflowOutput);
+        if (location.getParent().equals(sharedLibrary.getParent()) == false) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "shared library must be placed in the same directory with jobflow packages: {0}",
+                    sharedLibrary));
+        }
+        manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, sharedLibrary.getName());
+        ResourceRepository result = new ResourceAssembler()
+                .addRepository(jobflowOutput, l -> l.equals(MANIFEST_FILE) == false)
+                .build();
+        try (ResourceSink sink = new ZipSink(new JarOutputStream(batchOutput.addResource(location), manifest))) {
+            ResourceUtil.copy(result, sink);
+        }
+    }
+
+    /**
+     * Creates a library which consists of the embedded contents into batch output container.
+     * The library name is derived from its contents, and it can be shared between jobflow packages in the batch.
+     * @param batchOutput the target batch output container
+     * @param embedded the embedded contents
+     * @return the created library location (relative from the batch package root)
+     * @throws IOException if failed to create the library
+     * @see #process(String, ResourceContainer, ResourceRepository, Location)
+     * @since 0.4.0
+     */
+    public Location processEmbedded(
+            ResourceContainer batchOutput,
+            Collection<? extends ResourceRepository> embedded) throws IOException {
+        LOG.debug("building shared embedded library: {}", batchOutput); //$NON-NLS-1$
+        ResourceAssembler assembler = new ResourceAssembler();
+        for (ResourceRepository repository : embedded) {
+            assembler.addRepository(repository, EMBEDDED_CONTENT_ACCEPTOR);
+        }
+        ResourceRepository result = assembler.build();
+        File temporary = File.createTempFile("embedded-", ".jar"); //$NON-NLS-1$ //$NON-NLS-2$
+        try {
+            MessageDigest digest = newDigest();
+            try (ResourceSink sink = new DigestSink(
+                    new ZipSink(new JarOutputStream(Files.newOutputStream(temporary.toPath()))), digest)) {
+                ResourceUtil.copy(result, sink);
+            }
+            Location location = JOBFLOW_LIBRARIES.append(MessageFormat.format(
+                    PATTERN_EMBEDDED_LIBRARY,
+                    toHex(digest.digest())));
+            try (OutputStream output = batchOutput.addResource(location)) {
+                Files.copy(temporary.toPath(), output);
+            }
+            return location;
+        } finally {
+            Files.deleteIfExists(temporary.toPath());
+        }
+    }
+
+    private static Manifest extractManifest(ResourceRepository repository) throws IOException {
+        try (ResourceRepository.Cursor cursor = repository.createCursor()) {
+            while (cursor.next()) {
+                if (cursor.getLocation().equals(MANIFEST_FILE)) {
+                    try (InputStream input = cursor.openResource()) {
+                        return new Manifest(input);
+                    }
+                }
+            }
+        }
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0"); //$NON-NLS-1$
+        return manifest;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0, n = Math.min(bytes.length, DIGEST_HEX_LENGTH / 2); i < n; i++) {
+            buf.append(String.format("%02x", bytes[i] & 0xff)); //$NON-NLS-1$
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Returns the shared libraries which are referred from the given jobflow package.
+     * @param jobflowLibrary the jobflow package file
+     * @return the referred library files, or an empty set if there are no such libraries
+     * @throws IOException if failed to read the jobflow package
+     * @since 0.4.0
+     */
+    public static Set<File> findSharedLibraries(File jobflowLibrary) throws IOException {
+        try (JarFile jar = new JarFile(jobflowLibrary)) {
+            Manifest manifest = jar.getManifest();
+            if (manifest == null) {
+                return Collections.emptySet();
+            }
+            String classPath = manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+            if (classPath == null) {
+                return Collections.emptySet();
+            }
+            Set<File> results = new LinkedHashSet<>();
+            for (String name : classPath.trim().split("\\s+")) { //$NON-NLS-1$
+                if (name.isEmpty() == false) {
+                    results.add(new File(jobflowLibrary.getParentFile(), name));
+                }
+            }
+            return results;
+        }
+    }
 
     private ResourceRepository assemble(ResourceRepository output, Collection<? extends ResourceRepository> embedded) {
         ResourceAssembler assembler = new ResourceAssembler();
@@ -112,6 +264,46 @@ public class JobflowPackager {
         return result;
     }
 
+    private static final class DigestSink implements ResourceSink {
+
+        private final ResourceSink delegate;
+
+        private final MessageDigest digest;
+
+        DigestSink(ResourceSink delegate, MessageDigest digest) {
+            this.delegate = delegate;
+            this.digest = digest;
+        }
+
+        @Override
+        public void add(Location location, ContentProvider provider) throws IOException {
+            digest.update(location.toPath().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            delegate.add(location, output -> provider.writeTo(new FilterOutputStream(output) {
+                @Override
+                public void write(int b) throws IOException {
+                    digest.update((byte) b);
+                    out.write(b);
+                }
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    digest.update(b, off, len);
+                    out.write(b, off, len);
+                }
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            }));
+            digest.update((byte) 0);
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
     /**
      * Returns the jobflow library location.
      * @param flowId the target flow ID
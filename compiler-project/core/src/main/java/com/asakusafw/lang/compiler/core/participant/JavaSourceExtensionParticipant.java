@@ -27,11 +27,16 @@ import org.slf4j.LoggerFactory;
 
 import com.asakusafw.lang.compiler.common.Diagnostic;
 import com.asakusafw.lang.compiler.common.DiagnosticException;
+import com.asakusafw.lang.compiler.api.reference.BatchReference;
+import com.asakusafw.lang.compiler.core.BatchCompiler;
 import com.asakusafw.lang.compiler.core.JobflowCompiler.Context;
 import com.asakusafw.lang.compiler.core.basic.AbstractCompilerParticipant;
 import com.asakusafw.lang.compiler.javac.BasicJavaCompilerSupport;
+import com.asakusafw.lang.compiler.javac.InMemoryJavaCompilerSupport;
+import com.asakusafw.lang.compiler.javac.JavaClassPathIndex;
 import com.asakusafw.lang.compiler.javac.JavaCompilerUtil;
 import com.asakusafw.lang.compiler.javac.JavaSourceExtension;
+import com.asakusafw.lang.compiler.model.graph.Batch;
 import com.asakusafw.lang.compiler.model.graph.Jobflow;
 import com.asakusafw.lang.compiler.model.info.BatchInfo;
 import com.asakusafw.lang.compiler.model.info.JobflowInfo;
@@ -54,7 +59,15 @@ import com.asakusafw.lang.compiler.packaging.ResourceUtil;
  *   <li> <em>default value</em>: (current Java VM's boot classpath) </li>
  *   </ul>
  * </li>
+ * <li> {@code javac.memory} (optional)
+ *   <ul>
+ *   <li> whether or not the generated Java source files are compiled in memory </li>
+ *   <li> <em>default value</em>: {@code true} </li>
+ *   </ul>
+ * </li>
  * </ul>
+ *
+ * While compiling a batch, the class path index for the in-memory compilation is shared between its jobflows.
  */
 public class JavaSourceExtensionParticipant extends AbstractCompilerParticipant {
 
@@ -72,25 +85,116 @@ public class JavaSourceExtensionParticipant extends AbstractCompilerParticipant
      */
     public static final String KEY_BOOT_CLASSPATH = KEY_PREFIX + "bootclasspath"; //$NON-NLS-1$
 
+    /**
+     * The compiler option key of whether or not the generated Java source files are compiled in memory.
+     * @see #DEFAULT_MEMORY
+     * @since 0.4.0
+     */
+    public static final String KEY_MEMORY = KEY_PREFIX + "memory"; //$NON-NLS-1$
+
+    /**
+     * The default value of {@link #KEY_MEMORY}.
+     * @since 0.4.0
+     */
+    public static final boolean DEFAULT_MEMORY = false;
+
+    private final Object indexLock = new Object();
+
+    private int activeBatches;
+
+    private JavaClassPathIndex sharedIndex;
+
+    @Override
+    public void beforeBatch(BatchCompiler.Context context, Batch batch) {
+        synchronized (indexLock) {
+            activeBatches++;
+        }
+    }
+
+    @Override
+    public void afterBatch(BatchCompiler.Context context, Batch batch, BatchReference reference) {
+        JavaClassPathIndex index;
+        synchronized (indexLock) {
+            activeBatches--;
+            if (activeBatches > 0) {
+                return;
+            }
+            index = sharedIndex;
+            sharedIndex = null;
+        }
+        if (index != null) {
+            close(index);
+        }
+    }
+
     @Override
     public void beforeJobflow(Context context, BatchInfo batch, Jobflow jobflow) {
         LOG.debug("enabling {}", JavaSourceExtension.class.getName()); //$NON-NLS-1$
         List<File> classPath = JavaCompilerUtil.getLibraries(context.getProject().getClassLoader());
-        File sourcePath = createTemporaryOutput(context, jobflow);
-        BasicJavaCompilerSupport extension = new BasicJavaCompilerSupport(
-                sourcePath,
-                classPath,
-                context.getOutput().getBasePath());
-        configure(context, extension);
-        context.registerExtension(JavaSourceExtension.class, extension);
+        if (context.getOptions().get(KEY_MEMORY, DEFAULT_MEMORY)) {
+            InMemoryJavaCompilerSupport extension = new InMemoryJavaCompilerSupport(
+                    getClassPathIndex(classPath),
+                    context.getOutput());
+            extension.withCompliantVersion(getVersion(context));
+            extension.withBootClassPath(getBootClassPath(context));
+            context.registerExtension(JavaSourceExtension.class, extension);
+        } else {
+            File sourcePath = createTemporaryOutput(context, jobflow);
+            BasicJavaCompilerSupport extension = new BasicJavaCompilerSupport(
+                    sourcePath,
+                    classPath,
+                    context.getOutput().getBasePath());
+            extension.withCompliantVersion(getVersion(context));
+            extension.withBootClassPath(getBootClassPath(context));
+            context.registerExtension(JavaSourceExtension.class, extension);
+        }
+    }
+
+    private JavaClassPathIndex getClassPathIndex(List<File> classPath) {
+        synchronized (indexLock) {
+            if (activeBatches > 0
+                    && sharedIndex != null
+                    && sharedIndex.getClassPath().equals(classPath)) {
+                return sharedIndex;
+            }
+            JavaClassPathIndex index = open(classPath);
+            if (activeBatches > 0 && sharedIndex == null) {
+                sharedIndex = index;
+            }
+            return index;
+        }
+    }
+
+    private static JavaClassPathIndex open(List<File> classPath) {
+        try {
+            return new JavaClassPathIndex(classPath);
+        } catch (IOException e) {
+            throw new DiagnosticException(Diagnostic.Level.ERROR, MessageFormat.format(
+                    "failed to open Java class path: {0}",
+                    classPath), e);
+        }
     }
 
-    private void configure(Context context, BasicJavaCompilerSupport extension) {
+    private static void close(JavaClassPathIndex index) {
+        try {
+            index.close();
+        } catch (IOException e) {
+            LOG.warn(MessageFormat.format(
+                    "failed to close Java class path: {0}",
+                    index.getClassPath()), e);
+        }
+    }
+
+    private static String getVersion(Context context) {
         String version = context.getOptions().get(KEY_VERSION, null);
         if (version != null && version.isEmpty() == false) {
             LOG.debug("detect option: {} = {}", KEY_VERSION, version); //$NON-NLS-1$
-            extension.withCompliantVersion(version);
+            return version;
         }
+        return null;
+    }
+
+    private static List<File> getBootClassPath(Context context) {
         String bootclasspath = context.getOptions().get(KEY_BOOT_CLASSPATH, null);
         if (bootclasspath != null) {
             List<File> files = new ArrayList<>();
@@ -101,22 +205,38 @@ public class JavaSourceExtensionParticipant extends AbstractCompilerParticipant
             }
             if (files.isEmpty() == false) {
                 LOG.debug("detect option: {} = {}", KEY_BOOT_CLASSPATH, files); //$NON-NLS-1$
-                extension.withBootClassPath(files);
+                return files;
             }
         }
+        return null;
     }
 
     @Override
     public void afterJobflow(Context context, BatchInfo batch, Jobflow jobflow) {
         JavaSourceExtension extension = context.getExtension(JavaSourceExtension.class);
-        if ((extension instanceof BasicJavaCompilerSupport) == false) {
-            return;
+        if (extension instanceof InMemoryJavaCompilerSupport) {
+            context.registerExtension(JavaSourceExtension.class, null);
+            InMemoryJavaCompilerSupport javac = (InMemoryJavaCompilerSupport) extension;
+            try {
+                javac.process();
+            } finally {
+                release(javac.getClassPath());
+            }
+        } else if (extension instanceof BasicJavaCompilerSupport) {
+            context.registerExtension(JavaSourceExtension.class, null);
+            BasicJavaCompilerSupport javac = (BasicJavaCompilerSupport) extension;
+            javac.process();
+            ResourceUtil.delete(javac.getSourcePath());
         }
-        context.registerExtension(JavaSourceExtension.class, null);
+    }
 
-        BasicJavaCompilerSupport javac = (BasicJavaCompilerSupport) extension;
-        javac.process();
-        ResourceUtil.delete(javac.getSourcePath());
+    private void release(JavaClassPathIndex index) {
+        synchronized (indexLock) {
+            if (index == sharedIndex) {
+                return;
+            }
+        }
+        close(index);
     }
 
     private File createTemporaryOutput(Context context, JobflowInfo jobflow) {
@@ -30,6 +30,7 @@ import org.slf4j.LoggerFactory;
 import com.asakusafw.lang.compiler.common.Diagnostic;
 import com.asakusafw.lang.compiler.common.DiagnosticException;
 import com.asakusafw.lang.compiler.core.ClassAnalyzer;
+import com.asakusafw.lang.compiler.core.ClassHeader;
 import com.asakusafw.lang.compiler.model.graph.Batch;
 import com.asakusafw.lang.compiler.model.graph.Jobflow;
 import com.asakusafw.lang.compiler.model.graph.OperatorGraph;
@@ -80,6 +81,16 @@ public class CompositeClassAnalyzer implements ClassAnalyzer {
         return false;
     }
 
+    @Override
+    public boolean isBatchCandidate(Context context, ClassHeader header) {
+        for (ClassAnalyzer element : getElements(context)) {
+            if (element.isBatchCandidate(context, header)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public boolean isJobflowClass(Context context, Class<?> aClass) {
         for (ClassAnalyzer element : getElements(context)) {
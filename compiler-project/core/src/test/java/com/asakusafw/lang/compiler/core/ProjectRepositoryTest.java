@@ -93,6 +93,45 @@ public class ProjectRepositoryTest {
         }
     }
 
+    /**
+     * explore w/ class file header filter.
+     * @throws Exception if failed
+     */
+    @Test
+    public void explore_filter() throws Exception {
+        try (ProjectRepository repo = ProjectRepository.builder(getClass().getClassLoader())
+                .explore(deployer.copy("example.jar", "example.jar"))
+                .explore(deployer.extract("example.jar", "example"))
+                .build()) {
+            Set<Class<?>> classes = repo.getProjectClasses(
+                    header -> header.getName().equals("com.example.Hello"),
+                    ANY);
+            assertThat(names(classes), containsInAnyOrder("com.example.Hello"));
+            assertThat(repo.getProjectClasses(header -> false, ANY), is(empty()));
+            assertThat(repo.getProjectClasses(ANY, aClass -> false), is(empty()));
+        }
+    }
+
+    /**
+     * class file headers.
+     * @throws Exception if failed
+     */
+    @Test
+    public void header() throws Exception {
+        ClassHeader header;
+        try (InputStream contents = getClass().getResourceAsStream("ProjectRepositoryTest$Callback.class")) {
+            assertThat(contents, is(notNullValue()));
+            header = ClassHeader.read(contents);
+        }
+        assertThat(header.getName(), is(Callback.class.getName()));
+        assertThat(header.getSuperClassName(), is("java.lang.Object"));
+        assertThat(header.getInterfaceNames(), contains(Runnable.class.getName()));
+        assertThat(header.getAnnotationNames(), contains(FunctionalInterface.class.getName()));
+        assertThat(header.isAnnotationPresent(FunctionalInterface.class), is(true));
+        assertThat(header.isInterface(), is(true));
+        assertThat(header.isAbstract(), is(true));
+    }
+
     /**
      * embed.
      * @throws Exception if failed
@@ -264,6 +303,11 @@ public class ProjectRepositoryTest {
         return locations(deep);
     }
 
+    @FunctionalInterface
+    private interface Callback extends Runnable {
+        // no special members
+    }
+
     private Set<String> names(Collection<? extends Class<?>> classes) {
         Set<String> results = new HashSet<>();
         for (Class<?> aClass : classes) {
@@ -18,19 +18,33 @@ package com.asakusafw.lang.compiler.core.basic;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
 
 import com.asakusafw.lang.compiler.api.reference.BatchReference;
 import com.asakusafw.lang.compiler.api.reference.JobflowReference;
+import com.asakusafw.lang.compiler.common.Location;
 import com.asakusafw.lang.compiler.core.BatchCompiler;
 import com.asakusafw.lang.compiler.core.CompilerTestRoot;
 import com.asakusafw.lang.compiler.core.dummy.SimpleBatchProcessor;
 import com.asakusafw.lang.compiler.core.dummy.SimpleCompilerParticipant;
 import com.asakusafw.lang.compiler.core.dummy.SimpleJobflowProcessor;
+import com.asakusafw.lang.compiler.core.participant.RuntimeContextParticipant;
 import com.asakusafw.lang.compiler.core.util.BatchReferenceCollector;
 import com.asakusafw.lang.compiler.model.graph.Batch;
 import com.asakusafw.lang.compiler.model.graph.BatchElement;
+import com.asakusafw.lang.compiler.model.graph.Jobflow;
+import com.asakusafw.lang.compiler.optimizer.basic.BasicExternalInputEstimator;
 import com.asakusafw.lang.compiler.packaging.FileContainer;
+import com.asakusafw.lang.compiler.packaging.ResourceRepository;
+import com.asakusafw.lang.compiler.packaging.ZipRepository;
+import com.asakusafw.runtime.core.context.RuntimeContext;
 
 /**
  * Test for {@link BasicBatchCompiler}.
@@ -102,6 +116,46 @@ public class BasicBatchCompilerTest extends CompilerTestRoot {
         assertThat(rj3.getBlockers(), containsInAnyOrder(rj1, rj2));
     }
 
+    /**
+     * diamond w/ parallel compilation.
+     */
+    @Test
+    public void diamond_parallel() {
+        batchProcessors.add(new SimpleBatchProcessor());
+        jobflowProcessors.add(new SimpleJobflowProcessor());
+        compilerParticipants.add(new BatchReferenceCollector());
+        options.withProperty(BasicBatchCompiler.KEY_PARALLELISM, "4");
+
+        Batch batch = new Batch(batchInfo("testing"));
+        BatchElement bj0 = batch.addElement(jobflow("j0"));
+        BatchElement bj1 = batch.addElement(jobflow("j1"));
+        BatchElement bj2 = batch.addElement(jobflow("j2"));
+        BatchElement bj3 = batch.addElement(jobflow("j3"));
+        bj1.addBlockerElement(bj0);
+        bj2.addBlockerElement(bj0);
+        bj3.addBlockerElement(bj1);
+        bj3.addBlockerElement(bj2);
+
+        FileContainer output = container();
+        BatchCompiler.Context context = new BatchCompiler.Context(context(true), output);
+        new BasicBatchCompiler().compile(context, batch);
+
+        assertThat(SimpleJobflowProcessor.contains(context, "j0"), is(true));
+        assertThat(SimpleJobflowProcessor.contains(context, "j1"), is(true));
+        assertThat(SimpleJobflowProcessor.contains(context, "j2"), is(true));
+        assertThat(SimpleJobflowProcessor.contains(context, "j3"), is(true));
+
+        BatchReference result = BatchReferenceCollector.get(context);
+        JobflowReference rj0 = result.find("j0");
+        JobflowReference rj1 = result.find("j1");
+        JobflowReference rj2 = result.find("j2");
+        JobflowReference rj3 = result.find("j3");
+        assertThat(rj0.getBlockers(), is(empty()));
+        assertThat(rj1.getBlockers(), containsInAnyOrder(rj0));
+        assertThat(rj2.getBlockers(), containsInAnyOrder(rj0));
+        assertThat(rj3.getBlockers(), containsInAnyOrder(rj1, rj2));
+    }
+
     /**
      * w/ compiler participants.
      */
@@ -124,4 +178,170 @@ public class BasicBatchCompilerTest extends CompilerTestRoot {
         assertThat(SimpleCompilerParticipant.contains(context), is(true));
         assertThat(context.getExtension(BatchReference.class), is(notNullValue()));
     }
+
+    /**
+     * w/ jobflow cache.
+     * @throws Exception if failed
+     */
+    @Test
+    public void cache() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        batchProcessors.add(new SimpleBatchProcessor());
+        jobflowProcessors.add(new CountingJobflowProcessor(count));
+        compilerParticipants.add(new BatchReferenceCollector());
+        options.withProperty(BasicBatchCompiler.KEY_CACHE_DIRECTORY, root.newFolder().getPath());
+
+        for (int i = 0; i < 2; i++) {
+            Batch batch = new Batch(batchInfo("testing"));
+            batch.addElement(jobflow("j0"));
+
+            BatchCompiler.Context context = new BatchCompiler.Context(context(true), container());
+            new BasicBatchCompiler().compile(context, batch);
+
+            assertThat(SimpleJobflowProcessor.contains(context, "j0"), is(true));
+            BatchReference result = BatchReferenceCollector.get(context);
+            assertThat(result.find("j0"), is(notNullValue()));
+        }
+        assertThat(count.get(), is(1));
+    }
+
+    /**
+     * w/ jobflow cache - compiler options were changed.
+     * @throws Exception if failed
+     */
+    @Test
+    public void cache_changed() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        batchProcessors.add(new SimpleBatchProcessor());
+        jobflowProcessors.add(new CountingJobflowProcessor(count));
+        options.withProperty(BasicBatchCompiler.KEY_CACHE_DIRECTORY, root.newFolder().getPath());
+
+        for (int i = 0; i < 2; i++) {
+            options.withProperty("testing", String.valueOf(i));
+            Batch batch = new Batch(batchInfo("testing"));
+            batch.addElement(jobflow("j0"));
+
+            BatchCompiler.Context context = new BatchCompiler.Context(context(true), container());
+            new BasicBatchCompiler().compile(context, batch);
+
+            assertThat(SimpleJobflowProcessor.contains(context, "j0"), is(true));
+        }
+        assertThat(count.get(), is(2));
+    }
+
+    /**
+     * w/ jobflow cache - input statistics were changed.
+     * @throws Exception if failed
+     */
+    @Test
+    public void cache_statistics_changed() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        batchProcessors.add(new SimpleBatchProcessor());
+        jobflowProcessors.add(new CountingJobflowProcessor(count));
+        options.withProperty(BasicBatchCompiler.KEY_CACHE_DIRECTORY, root.newFolder().getPath());
+        File statistics = root.newFile();
+        options.withProperty(BasicExternalInputEstimator.KEY_STATISTICS, statistics.getPath());
+
+        String key = BasicExternalInputEstimator.getStatisticsKey("testing", "j0", "in");
+        String other = BasicExternalInputEstimator.getStatisticsKey("testing", "other", "in");
+        String[][] contents = {
+                { key, "100", other, "1" },
+                { key, "100", other, "2" },
+                { key, "200", other, "2" },
+        };
+        for (String[] content : contents) {
+            Properties properties = new Properties();
+            properties.setProperty(content[0], content[1]);
+            properties.setProperty(content[2], content[3]);
+            try (OutputStream output = new FileOutputStream(statistics)) {
+                properties.store(output, null);
+            }
+            Batch batch = new Batch(batchInfo("testing"));
+            batch.addElement(jobflow("j0"));
+
+            BatchCompiler.Context context = new BatchCompiler.Context(context(true), container());
+            new BasicBatchCompiler().compile(context, batch);
+
+            assertThat(SimpleJobflowProcessor.contains(context, "j0"), is(true));
+        }
+        assertThat(count.get(), is(2));
+    }
+
+    /**
+     * w/ jobflow cache - cache hits also invoke jobflow hooks of participants.
+     * @throws Exception if failed
+     */
+    @Test
+    public void cache_participants() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        batchProcessors.add(new SimpleBatchProcessor());
+        jobflowProcessors.add(new CountingJobflowProcessor(count));
+        compilerParticipants.add(new RuntimeContextParticipant());
+        options.withProperty(BasicBatchCompiler.KEY_CACHE_DIRECTORY, root.newFolder().getPath());
+
+        for (int i = 0; i < 2; i++) {
+            Batch batch = new Batch(batchInfo("testing"));
+            batch.addElement(jobflow("j0"));
+
+            BatchCompiler.Context context = new BatchCompiler.Context(context(true), container());
+            new BasicBatchCompiler().compile(context, batch);
+
+            assertThat(SimpleJobflowProcessor.contains(context, "j0"), is(true));
+            assertThat(contains(context, "j0", Location.of(RuntimeContext.PATH_APPLICATION_INFO)), is(true));
+        }
+        assertThat(count.get(), is(1));
+    }
+
+    /**
+     * w/ jobflow cache - participants which depend on the compilation results disable the cache.
+     * @throws Exception if failed
+     */
+    @Test
+    public void cache_participants_unsupported() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        batchProcessors.add(new SimpleBatchProcessor());
+        jobflowProcessors.add(new CountingJobflowProcessor(count));
+        compilerParticipants.add(new SimpleCompilerParticipant());
+        options.withProperty(BasicBatchCompiler.KEY_CACHE_DIRECTORY, root.newFolder().getPath());
+
+        for (int i = 0; i < 2; i++) {
+            Batch batch = new Batch(batchInfo("testing"));
+            batch.addElement(jobflow("j0"));
+
+            BatchCompiler.Context context = new BatchCompiler.Context(context(true), container());
+            new BasicBatchCompiler().compile(context, batch);
+
+            assertThat(SimpleJobflowProcessor.contains(context, "j0"), is(true));
+            assertThat(SimpleCompilerParticipant.contains(context), is(true));
+        }
+        assertThat(count.get(), is(2));
+    }
+
+    private static boolean contains(BatchCompiler.Context context, String flowId, Location location)
+            throws IOException {
+        File library = context.getOutput().toFile(JobflowPackager.getLibraryLocation(flowId));
+        try (ResourceRepository.Cursor cursor = new ZipRepository(library).createCursor()) {
+            while (cursor.next()) {
+                if (cursor.getLocation().equals(location)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static final class CountingJobflowProcessor extends SimpleJobflowProcessor {
+
+        private final AtomicInteger count;
+
+        CountingJobflowProcessor(AtomicInteger count) {
+            this.count = count;
+        }
+
+        @Override
+        public void process(Context context, Jobflow source) throws IOException {
+            count.incrementAndGet();
+            super.process(context, source);
+        }
+    }
 }
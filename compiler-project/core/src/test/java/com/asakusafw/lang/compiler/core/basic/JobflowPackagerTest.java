@@ -18,6 +18,7 @@ package com.asakusafw.lang.compiler.core.basic;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -26,7 +27,9 @@ import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.jar.Attributes;
 import java.util.jar.JarFile;
+import java.util.jar.Manifest;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -156,6 +159,75 @@ public class JobflowPackagerTest {
         assertThat(results, not(hasKey(JobflowPackager.FRAGMENT_MARKER.toPath())));
     }
 
+    /**
+     * w/ shared embedded library.
+     * @throws Exception if failed
+     */
+    @Test
+    public void shared() throws Exception {
+        FileContainer batch = container();
+        FileContainer jobflow = container();
+        FileContainer embed = container();
+        put(jobflow, "test.txt", "Hello, world!");
+        put(embed, "embed.txt", "Hello, embed!");
+        put(embed, JarFile.MANIFEST_NAME, "Manifest-Version: 1.0\n");
+        put(embed, JobflowPackager.FRAGMENT_MARKER.toPath(), "marker");
+
+        JobflowPackager packager = new JobflowPackager();
+        Location shared = packager.processEmbedded(batch, Arrays.asList(embed));
+        assertThat(packager.processEmbedded(container(), Arrays.asList(embed)), is(shared));
+
+        packager.process("testing", batch, jobflow, shared);
+        File library = batch.toFile(JobflowPackager.getLibraryLocation("testing"));
+        Map<String, String> results = dump(new ZipRepository(library));
+        assertThat(results, hasEntry("test.txt", "Hello, world!"));
+        assertThat(results, not(hasKey("embed.txt")));
+        assertThat(JobflowPackager.findSharedLibraries(library), contains(batch.toFile(shared)));
+
+        Map<String, String> embedded = dump(new ZipRepository(batch.toFile(shared)));
+        assertThat(embedded, hasEntry("embed.txt", "Hello, embed!"));
+        assertThat(embedded, not(hasKey(JarFile.MANIFEST_NAME)));
+        assertThat(embedded, not(hasKey(JobflowPackager.FRAGMENT_MARKER.toPath())));
+    }
+
+    /**
+     * w/ shared embedded library and jobflow manifest.
+     * @throws Exception if failed
+     */
+    @Test
+    public void shared_w_manifest() throws Exception {
+        FileContainer batch = container();
+        FileContainer jobflow = container();
+        FileContainer embed = container();
+        put(jobflow, "test.txt", "Hello, world!");
+        put(jobflow, JarFile.MANIFEST_NAME, "Manifest-Version: 1.0\nX-Testing: OK\n");
+        put(embed, "embed.txt", "Hello, embed!");
+
+        JobflowPackager packager = new JobflowPackager();
+        Location shared = packager.processEmbedded(batch, Arrays.asList(embed));
+        packager.process("testing", batch, jobflow, shared);
+        File library = batch.toFile(JobflowPackager.getLibraryLocation("testing"));
+        try (JarFile jar = new JarFile(library)) {
+            Manifest manifest = jar.getManifest();
+            assertThat(manifest.getMainAttributes().getValue("X-Testing"), is("OK"));
+            assertThat(manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH), is(shared.getName()));
+        }
+    }
+
+    /**
+     * w/o shared embedded library.
+     * @throws Exception if failed
+     */
+    @Test
+    public void shared_missing() throws Exception {
+        FileContainer batch = container();
+        FileContainer jobflow = container();
+        put(jobflow, "test.txt", "Hello, world!");
+        process(batch, jobflow);
+        File library = batch.toFile(JobflowPackager.getLibraryLocation("testing"));
+        assertThat(JobflowPackager.findSharedLibraries(library), is(empty()));
+    }
+
     ResourceRepository process(FileContainer batch, FileContainer jobflow, ResourceRepository... embedded) {
         String flowId = "testing";
         try {
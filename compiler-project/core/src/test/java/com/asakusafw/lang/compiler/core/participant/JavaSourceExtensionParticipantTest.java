@@ -69,6 +69,35 @@ public class JavaSourceExtensionParticipantTest extends CompilerTestRoot {
         }
     }
 
+    /**
+     * w/ in-memory compilation.
+     * @throws Exception if failed
+     */
+    @Test
+    public void memory() throws Exception {
+        ClassDescription aClass = new ClassDescription("com.example.JavaSourceExtension");
+        initialize(aClass, new String[] {
+                "package com.example;",
+                String.format(
+                        "public class %s implements java.util.concurrent.Callable<String> {",
+                        aClass.getSimpleName()),
+                "    public String call() { return \"a\"; }",
+                "}",
+        });
+        options.withProperty(JavaSourceExtensionParticipant.KEY_MEMORY, String.valueOf(true));
+        FileContainer output = container();
+        JobflowCompiler.Context context = new JobflowCompiler.Context(context(true), output);
+        new BasicJobflowCompiler().compile(
+                context,
+                batchInfo("b"),
+                jobflow("testing"));
+
+        try (URLClassLoader loader = loader(output.getBasePath())) {
+            Object result = aClass.resolve(loader).asSubclass(Callable.class).newInstance().call();
+            assertThat(result, is((Object) "a"));
+        }
+    }
+
     /**
      * w/ invalid version
      * @throws Exception if failed
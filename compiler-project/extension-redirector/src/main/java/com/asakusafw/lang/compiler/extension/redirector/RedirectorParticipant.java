@@ -18,7 +18,9 @@ package com.asakusafw.lang.compiler.extension.redirector;
 import java.io.File;
 import java.io.IOException;
 import java.text.MessageFormat;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,11 +60,13 @@ public class RedirectorParticipant extends AbstractCompilerParticipant {
         }
         ZipRewriter rewriter = new ZipRewriter(rule);
         LOG.debug("redirecting API invocations: {}", batch.getBatchId()); //$NON-NLS-1$
+        Set<File> sharedLibraries = new LinkedHashSet<>();
         for (JobflowReference jobflow : reference.getJobflows()) {
             Location location = JobflowPackager.getLibraryLocation(jobflow.getFlowId());
             File file = context.getOutput().toFile(location);
             if (file.isFile()) {
                 try {
+                    sharedLibraries.addAll(JobflowPackager.findSharedLibraries(file));
                     rewriter.rewrite(file);
                 } catch (IOException e) {
                     throw new DiagnosticException(Diagnostic.Level.ERROR, MessageFormat.format(
@@ -75,6 +79,17 @@ public class RedirectorParticipant extends AbstractCompilerParticipant {
                         file));
             }
         }
+        for (File file : sharedLibraries) {
+            if (file.isFile()) {
+                try {
+                    rewriter.rewrite(file);
+                } catch (IOException e) {
+                    throw new DiagnosticException(Diagnostic.Level.ERROR, MessageFormat.format(
+                            "error occurred while rewriting shared library JAR file: {0}",
+                            file), e);
+                }
+            }
+        }
     }
 
     private static RedirectRule extractRule(CompilerOptions options) {
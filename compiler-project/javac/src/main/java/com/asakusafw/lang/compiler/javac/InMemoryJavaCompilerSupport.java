@@ -0,0 +1,180 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.lang.compiler.javac;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.tools.DiagnosticListener;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+
+import com.asakusafw.lang.compiler.common.Location;
+import com.asakusafw.lang.compiler.common.ResourceContainer;
+
+/**
+ * An implementation of {@link JavaCompilerSupport} which keeps the generated source files in memory.
+ * The compiled class files are directly put into the destination {@link ResourceContainer}.
+ * @since 0.4.0
+ */
+public class InMemoryJavaCompilerSupport extends AbstractJavaCompilerSupport {
+
+    private final JavaClassPathIndex classPath;
+
+    private final ResourceContainer destination;
+
+    private final Map<Location, byte[]> sources = new LinkedHashMap<>();
+
+    private volatile List<File> bootClassPath;
+
+    private volatile String compliantVersion;
+
+    /**
+     * Creates a new instance.
+     * @param classPath the class path index, which may be shared with other compilers
+     * @param destination the compile output destination
+     */
+    public InMemoryJavaCompilerSupport(JavaClassPathIndex classPath, ResourceContainer destination) {
+        this.classPath = classPath;
+        this.destination = destination;
+    }
+
+    /**
+     * Sets the boot class path.
+     * @param newValue the value
+     * @return this
+     */
+    public InMemoryJavaCompilerSupport withBootClassPath(List<File> newValue) {
+        this.bootClassPath = newValue == null ? null : new ArrayList<>(newValue);
+        return this;
+    }
+
+    /**
+     * Sets the Java compliant version.
+     * @param newValue the value
+     * @return this
+     */
+    public InMemoryJavaCompilerSupport withCompliantVersion(String newValue) {
+        this.compliantVersion = newValue;
+        return this;
+    }
+
+    /**
+     * Returns the class path index.
+     * @return the class path index
+     */
+    public JavaClassPathIndex getClassPath() {
+        return classPath;
+    }
+
+    /**
+     * Returns the compile output destination.
+     * @return the compile output destination
+     */
+    public ResourceContainer getDestination() {
+        return destination;
+    }
+
+    @Override
+    protected String getCompliantVersion() {
+        String result = compliantVersion;
+        if (result == null) {
+            return super.getCompliantVersion();
+        }
+        return result;
+    }
+
+    @Override
+    protected boolean isCompileRequired() {
+        synchronized (sources) {
+            return sources.isEmpty() == false;
+        }
+    }
+
+    @Override
+    protected OutputStream addResource(Location location) throws IOException {
+        synchronized (sources) {
+            if (sources.containsKey(location)) {
+                throw new IOException(MessageFormat.format(
+                        "generating file already exists: {0}",
+                        location));
+            }
+            sources.put(location, new byte[0]);
+        }
+        return new ByteArrayOutputStream() {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                synchronized (sources) {
+                    sources.put(location, toByteArray());
+                }
+            }
+        };
+    }
+
+    @Override
+    protected JavaFileManager getJavaFileManager(
+            JavaCompiler compiler,
+            DiagnosticListener<JavaFileObject> listener) throws IOException {
+        assert isCompileRequired();
+        StandardJavaFileManager files = compiler.getStandardFileManager(
+                listener,
+                Locale.getDefault(),
+                getEncoding());
+        files.setLocation(StandardLocation.CLASS_PATH, Collections.emptyList());
+        List<File> boot = bootClassPath;
+        if (boot != null) {
+            files.setLocation(StandardLocation.PLATFORM_CLASS_PATH, boot);
+        }
+        return new InMemoryJavaFileManager(files, classPath, destination);
+    }
+
+    @Override
+    protected List<String> getCompilerOptions() {
+        List<String> results = new ArrayList<>();
+        Collections.addAll(results, "-proc:none"); //$NON-NLS-1$
+        Collections.addAll(results, "-Xlint:all"); //$NON-NLS-1$
+        Collections.addAll(results, "-Xlint:-options"); //$NON-NLS-1$
+        return results;
+    }
+
+    @Override
+    protected Iterable<? extends JavaFileObject> getSourceFiles(JavaFileManager fileManager) {
+        assert isCompileRequired();
+        List<JavaFileObject> results = new ArrayList<>();
+        synchronized (sources) {
+            for (Map.Entry<Location, byte[]> entry : sources.entrySet()) {
+                results.add(InMemoryJavaFileManager.newSourceFile(
+                        entry.getKey().toPath(),
+                        entry.getValue(),
+                        getEncoding()));
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.lang.compiler.javac;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Set;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+
+import com.asakusafw.lang.compiler.common.ResourceContainer;
+
+/**
+ * A {@link JavaFileManager} which provides class path from {@link JavaClassPathIndex},
+ * and puts class files into {@link ResourceContainer} directly.
+ * Other locations (e.g. platform class path) are delegated to the standard file manager.
+ */
+class InMemoryJavaFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+    static final String SCHEME = "memory"; //$NON-NLS-1$
+
+    private final JavaClassPathIndex classPath;
+
+    private final ResourceContainer destination;
+
+    /**
+     * Creates a new instance.
+     * @param delegate the standard file manager for the other locations
+     * @param classPath the class path index
+     * @param destination the class file destination
+     */
+    InMemoryJavaFileManager(
+            StandardJavaFileManager delegate,
+            JavaClassPathIndex classPath,
+            ResourceContainer destination) {
+        super(delegate);
+        this.classPath = classPath;
+        this.destination = destination;
+    }
+
+    /**
+     * Creates a new source file object.
+     * @param path the source file path (separated by {@code '/'})
+     * @param contents the source file contents
+     * @param encoding the source encoding
+     * @return the created object
+     */
+    static JavaFileObject newSourceFile(String path, byte[] contents, Charset encoding) {
+        return new SourceFile(path, contents, encoding);
+    }
+
+    @Override
+    public boolean hasLocation(Location location) {
+        if (location == StandardLocation.CLASS_PATH || location == StandardLocation.CLASS_OUTPUT) {
+            return true;
+        }
+        if (location == StandardLocation.SOURCE_PATH) {
+            return false;
+        }
+        return super.hasLocation(location);
+    }
+
+    @Override
+    public Iterable<JavaFileObject> list(
+            Location location,
+            String packageName,
+            Set<JavaFileObject.Kind> kinds,
+            boolean recurse) throws IOException {
+        if (location == StandardLocation.CLASS_PATH) {
+            if (kinds.contains(JavaFileObject.Kind.CLASS) == false) {
+                return Collections.emptyList();
+            }
+            return classPath.list(packageName, recurse);
+        }
+        if (location == StandardLocation.CLASS_OUTPUT || location == StandardLocation.SOURCE_PATH) {
+            return Collections.emptyList();
+        }
+        return super.list(location, packageName, kinds, recurse);
+    }
+
+    @Override
+    public String inferBinaryName(Location location, JavaFileObject file) {
+        String name = JavaClassPathIndex.getBinaryName(file);
+        if (name != null) {
+            return name;
+        }
+        if (file instanceof SourceFile) {
+            return ((SourceFile) file).binaryName;
+        }
+        return super.inferBinaryName(location, file);
+    }
+
+    @Override
+    public boolean isSameFile(FileObject a, FileObject b) {
+        if (isForeign(a) || isForeign(b)) {
+            return a.equals(b);
+        }
+        return super.isSameFile(a, b);
+    }
+
+    private static boolean isForeign(FileObject file) {
+        return file instanceof SourceFile
+                || file instanceof ClassOutputFile
+                || file instanceof JavaFileObject && JavaClassPathIndex.getBinaryName((JavaFileObject) file) != null;
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(
+            Location location,
+            String className,
+            JavaFileObject.Kind kind,
+            FileObject sibling) throws IOException {
+        if (location == StandardLocation.CLASS_OUTPUT) {
+            String path = className.replace('.', '/') + kind.extension;
+            return new ClassOutputFile(path, kind, destination);
+        }
+        return super.getJavaFileForOutput(location, className, kind, sibling);
+    }
+
+    @Override
+    public FileObject getFileForOutput(
+            Location location,
+            String packageName,
+            String relativeName,
+            FileObject sibling) throws IOException {
+        if (location == StandardLocation.CLASS_OUTPUT) {
+            String path = relativeName;
+            if (packageName.isEmpty() == false) {
+                path = packageName.replace('.', '/') + '/' + relativeName;
+            }
+            return new ClassOutputFile(path, JavaFileObject.Kind.OTHER, destination);
+        }
+        return super.getFileForOutput(location, packageName, relativeName, sibling);
+    }
+
+    static URI newUri(String path) {
+        return URI.create(String.format("%s:///%s", SCHEME, path)); //$NON-NLS-1$
+    }
+
+    private static final class SourceFile extends SimpleJavaFileObject {
+
+        final String binaryName;
+
+        private final String contents;
+
+        SourceFile(String path, byte[] contents, Charset encoding) {
+            super(newUri(path), Kind.SOURCE);
+            String name = path.replace('/', '.');
+            this.binaryName = name.substring(0, name.length() - Kind.SOURCE.extension.length());
+            this.contents = new String(contents, encoding);
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return contents;
+        }
+    }
+
+    private static final class ClassOutputFile extends SimpleJavaFileObject {
+
+        private final String path;
+
+        private final ResourceContainer destination;
+
+        ClassOutputFile(String path, Kind kind, ResourceContainer destination) {
+            super(newUri(path), kind);
+            this.path = path;
+            this.destination = destination;
+        }
+
+        @Override
+        public OutputStream openOutputStream() throws IOException {
+            // NOTE: "Location" is shadowed by JavaFileManager.Location in this class
+            return destination.addResource(com.asakusafw.lang.compiler.common.Location.of(path));
+        }
+    }
+}
@@ -0,0 +1,345 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.lang.compiler.javac;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An index of class files on the Java class path.
+ * This opens each library only once, and keeps archive files open until {@link #close()} is invoked.
+ * The index is immutable after it was created, so that it can be shared between Java compilations,
+ * even if they are running concurrently.
+ * @since 0.4.0
+ */
+public class JavaClassPathIndex implements Closeable {
+
+    static final Logger LOG = LoggerFactory.getLogger(JavaClassPathIndex.class);
+
+    static final String CLASS_EXTENSION = JavaFileObject.Kind.CLASS.extension;
+
+    static final String MODULE_INFO = "module-info"; //$NON-NLS-1$
+
+    private final List<File> classPath;
+
+    private final List<JarFile> archives = new ArrayList<>();
+
+    private final Map<String, List<JavaFileObject>> packages = new HashMap<>();
+
+    /**
+     * Creates a new instance.
+     * @param classPath the class path
+     * @throws IOException if failed to open the class path
+     */
+    public JavaClassPathIndex(List<File> classPath) throws IOException {
+        this.classPath = Collections.unmodifiableList(new ArrayList<>(classPath));
+        boolean success = false;
+        try {
+            Set<File> saw = new HashSet<>();
+            for (File file : classPath) {
+                collect(file, saw);
+            }
+            success = true;
+        } finally {
+            if (success == false) {
+                close();
+            }
+        }
+    }
+
+    /**
+     * Returns the class path.
+     * @return the class path
+     */
+    public List<File> getClassPath() {
+        return classPath;
+    }
+
+    /**
+     * Returns the class files in the target package.
+     * If the same class is in multiple class path entries, the former one is placed earlier in the result.
+     * @param packageName the target package name (empty string for the default package)
+     * @param recurse {@code true} to include class files in sub-packages, otherwise {@code false}
+     * @return the class files (unmodifiable)
+     */
+    public List<JavaFileObject> list(String packageName, boolean recurse) {
+        if (recurse == false) {
+            return Collections.unmodifiableList(packages.getOrDefault(packageName, Collections.emptyList()));
+        }
+        String prefix = packageName + '.';
+        List<JavaFileObject> results = new ArrayList<>();
+        for (Map.Entry<String, List<JavaFileObject>> entry : packages.entrySet()) {
+            String name = entry.getKey();
+            if (packageName.isEmpty() || name.equals(packageName) || name.startsWith(prefix)) {
+                results.addAll(entry.getValue());
+            }
+        }
+        return Collections.unmodifiableList(results);
+    }
+
+    /**
+     * Returns the binary name of the class file in this index.
+     * @param file the target class file
+     * @return the binary name, or {@code null} if the class file does not come from any indices
+     */
+    public static String getBinaryName(JavaFileObject file) {
+        if (file instanceof ClassFile) {
+            return ((ClassFile) file).binaryName;
+        }
+        return null;
+    }
+
+    private void collect(File file, Set<File> saw) throws IOException {
+        if (saw.add(file.getAbsoluteFile()) == false) {
+            return;
+        }
+        if (file.isDirectory()) {
+            LOG.trace("indexing class directory: {}", file); //$NON-NLS-1$
+            collectDirectory(file, null);
+        } else if (file.isFile()) {
+            LOG.trace("indexing class library: {}", file); //$NON-NLS-1$
+            for (File dependency : collectArchive(file)) {
+                collect(dependency, saw);
+            }
+        } else {
+            LOG.debug("missing class path entry: {}", file); //$NON-NLS-1$
+        }
+    }
+
+    private void collectDirectory(File directory, String packageName) {
+        File[] children = directory.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File file : children) {
+            String name = file.getName();
+            if (file.isDirectory()) {
+                collectDirectory(file, packageName == null ? name : packageName + '.' + name);
+            } else if (name.endsWith(CLASS_EXTENSION)) {
+                String simpleName = name.substring(0, name.length() - CLASS_EXTENSION.length());
+                add(packageName, simpleName, new DirectoryClassFile(file, qualify(packageName, simpleName)));
+            }
+        }
+    }
+
+    private List<File> collectArchive(File file) throws IOException {
+        JarFile archive;
+        try {
+            archive = new JarFile(file);
+        } catch (IOException e) {
+            throw new IOException(MessageFormat.format(
+                    "failed to open class library: {0}",
+                    file), e);
+        }
+        archives.add(archive);
+        for (Enumeration<? extends ZipEntry> iter = archive.entries(); iter.hasMoreElements();) {
+            ZipEntry entry = iter.nextElement();
+            String path = entry.getName();
+            if (entry.isDirectory() || path.endsWith(CLASS_EXTENSION) == false) {
+                continue;
+            }
+            int lastSlash = path.lastIndexOf('/');
+            String packageName = lastSlash < 0 ? null : path.substring(0, lastSlash).replace('/', '.');
+            String simpleName = path.substring(lastSlash + 1, path.length() - CLASS_EXTENSION.length());
+            add(packageName, simpleName, new ArchiveClassFile(file, archive, entry, qualify(packageName, simpleName)));
+        }
+        return getManifestClassPath(file, archive);
+    }
+
+    private static List<File> getManifestClassPath(File file, JarFile archive) throws IOException {
+        Manifest manifest = archive.getManifest();
+        if (manifest == null) {
+            return Collections.emptyList();
+        }
+        String value = manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        // NOTE: Java compiler also follows the "Class-Path" attribute in the manifest
+        List<File> results = new ArrayList<>();
+        File base = file.getAbsoluteFile().getParentFile();
+        for (String path : value.trim().split("\\s+")) { //$NON-NLS-1$
+            if (path.isEmpty() == false) {
+                results.add(new File(base, path.replace('/', File.separatorChar)));
+            }
+        }
+        return results;
+    }
+
+    private void add(String packageName, String simpleName, ClassFile file) {
+        if (packageName == null && simpleName.equals(MODULE_INFO)) {
+            return;
+        }
+        String key = packageName == null ? "" : packageName; //$NON-NLS-1$
+        packages.computeIfAbsent(key, k -> new ArrayList<>()).add(file);
+    }
+
+    private static String qualify(String packageName, String simpleName) {
+        if (packageName == null) {
+            return simpleName;
+        }
+        return packageName + '.' + simpleName;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException occurred = null;
+        for (JarFile archive : archives) {
+            try {
+                archive.close();
+            } catch (IOException e) {
+                if (occurred == null) {
+                    occurred = e;
+                } else {
+                    occurred.addSuppressed(e);
+                }
+            }
+        }
+        archives.clear();
+        if (occurred != null) {
+            throw occurred;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MessageFormat.format(
+                "JavaClassPathIndex({0})", //$NON-NLS-1$
+                classPath);
+    }
+
+    private abstract static class ClassFile extends SimpleJavaFileObject {
+
+        final String binaryName;
+
+        ClassFile(URI uri, String binaryName) {
+            super(uri, Kind.CLASS);
+            this.binaryName = binaryName;
+        }
+
+        @Override
+        public boolean isNameCompatible(String simpleName, Kind kind) {
+            if (kind != Kind.CLASS) {
+                return false;
+            }
+            int lastDot = binaryName.lastIndexOf('.');
+            return binaryName.substring(lastDot + 1).equals(simpleName);
+        }
+
+        @Override
+        public NestingKind getNestingKind() {
+            return null;
+        }
+
+        @Override
+        public Modifier getAccessLevel() {
+            return null;
+        }
+    }
+
+    private static final class DirectoryClassFile extends ClassFile {
+
+        private final File file;
+
+        DirectoryClassFile(File file, String binaryName) {
+            super(file.toURI(), binaryName);
+            this.file = file;
+        }
+
+        @Override
+        public String getName() {
+            return file.getPath();
+        }
+
+        @Override
+        public InputStream openInputStream() throws IOException {
+            return new FileInputStream(file);
+        }
+
+        @Override
+        public long getLastModified() {
+            return file.lastModified();
+        }
+    }
+
+    private static final class ArchiveClassFile extends ClassFile {
+
+        private final File file;
+
+        private final ZipFile archive;
+
+        private final ZipEntry entry;
+
+        ArchiveClassFile(File file, ZipFile archive, ZipEntry entry, String binaryName) {
+            super(newUri(file, entry), binaryName);
+            this.file = file;
+            this.archive = archive;
+            this.entry = entry;
+        }
+
+        private static URI newUri(File file, ZipEntry entry) {
+            // NOTE: SimpleJavaFileObject requires a hierarchical URI, so that we cannot use "jar:file:...!/..."
+            String path = file.getAbsoluteFile().toURI().getPath() + "!/" + entry.getName(); //$NON-NLS-1$
+            try {
+                return new URI("jar", null, path, null); //$NON-NLS-1$
+            } catch (URISyntaxException e) {
+                throw new IllegalStateException(path, e);
+            }
+        }
+
+        @Override
+        public String getName() {
+            return String.format("%s(%s)", file.getPath(), entry.getName()); //$NON-NLS-1$
+        }
+
+        @Override
+        public InputStream openInputStream() throws IOException {
+            return archive.getInputStream(entry);
+        }
+
+        @Override
+        public long getLastModified() {
+            return entry.getTime();
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.lang.compiler.javac;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import javax.tools.JavaFileObject;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.asakusafw.lang.compiler.common.DiagnosticException;
+import com.asakusafw.lang.compiler.common.ResourceContainer;
+import com.asakusafw.lang.compiler.common.testing.FileDeployer;
+import com.asakusafw.lang.compiler.model.description.ClassDescription;
+
+/**
+ * Test for {@link InMemoryJavaCompilerSupport}.
+ */
+public class InMemoryJavaCompilerSupportTest {
+
+    /**
+     * temporary deployer.
+     */
+    @Rule
+    public final FileDeployer deployer = new FileDeployer();
+
+    /**
+     * simple case.
+     * @throws Exception if failed
+     */
+    @Test
+    public void simple() throws Exception {
+        File target = deployer.getFile("target");
+        try (JavaClassPathIndex index = new JavaClassPathIndex(Collections.emptyList())) {
+            InMemoryJavaCompilerSupport compiler = new InMemoryJavaCompilerSupport(index, container(target));
+            assertThat(compiler.getClassPath(), is(index));
+
+            put(compiler, "com.example.Hello", new String[] {
+                    "package com.example;",
+                    "import java.util.concurrent.Callable;",
+                    "",
+                    "public class Hello implements Callable<String> {",
+                    "    public String call() { return \"Hello, world!\"; }",
+                    "}",
+            });
+            compiler.process();
+        }
+        try (URLClassLoader loader = loader(target)) {
+            Class<?> built = loader.loadClass("com.example.Hello");
+            assertThat(built, is(typeCompatibleWith(Callable.class)));
+            assertThat(built.asSubclass(Callable.class).newInstance().call(), is((Object) "Hello, world!"));
+        }
+    }
+
+    /**
+     * using class path.
+     * @throws Exception if failed
+     */
+    @Test
+    public void classpath() throws Exception {
+        File lib = deployer.copy("example.jar", "classpath/example.jar");
+        File target = deployer.getFile("target");
+        try (JavaClassPathIndex index = new JavaClassPathIndex(Arrays.asList(lib))) {
+            JavaCompilerSupport compiler = new InMemoryJavaCompilerSupport(index, container(target));
+            put(compiler, "com.example.Inherit", new String[] {
+                    "package com.example;",
+                    "public class Inherit extends com.example.Hello {}",
+            });
+            compiler.process();
+        }
+        try (URLClassLoader loader = loader(lib, target)) {
+            Class<?> built = loader.loadClass("com.example.Inherit");
+            assertThat(built.getSuperclass().getName(), is("com.example.Hello"));
+        }
+    }
+
+    /**
+     * share class path index between compilers.
+     * @throws Exception if failed
+     */
+    @Test
+    public void classpath_shared() throws Exception {
+        File lib = deployer.copy("example.jar", "classpath/example.jar");
+        File target1 = deployer.getFile("target1");
+        File target2 = deployer.getFile("target2");
+        try (JavaClassPathIndex index = new JavaClassPathIndex(Arrays.asList(lib))) {
+            List<String> names = new ArrayList<>();
+            for (JavaFileObject file : index.list("com.example", false)) {
+                names.add(JavaClassPathIndex.getBinaryName(file));
+            }
+            assertThat(names, hasItem("com.example.Hello"));
+            assertThat(index.list("com", false), is(empty()));
+            assertThat(index.list("com", true), hasSize(names.size()));
+
+            JavaCompilerSupport c1 = new InMemoryJavaCompilerSupport(index, container(target1));
+            put(c1, "com.example.Inherit1", new String[] {
+                    "package com.example;",
+                    "public class Inherit1 extends com.example.Hello {}",
+            });
+            c1.process();
+
+            JavaCompilerSupport c2 = new InMemoryJavaCompilerSupport(index, container(target2));
+            put(c2, "com.example.Inherit2", new String[] {
+                    "package com.example;",
+                    "public class Inherit2 extends com.example.Hello {}",
+            });
+            c2.process();
+        }
+        try (URLClassLoader loader = loader(lib, target1, target2)) {
+            assertThat(loader.loadClass("com.example.Inherit1").getSuperclass().getName(), is("com.example.Hello"));
+            assertThat(loader.loadClass("com.example.Inherit2").getSuperclass().getName(), is("com.example.Hello"));
+        }
+        assertThat(new File(target1, "com/example/Inherit2.class").exists(), is(false));
+        assertThat(new File(target2, "com/example/Inherit1.class").exists(), is(false));
+    }
+
+    /**
+     * empty sources.
+     * @throws Exception if failed
+     */
+    @Test
+    public void empty_sources() throws Exception {
+        File target = deployer.getFile("target");
+        try (JavaClassPathIndex index = new JavaClassPathIndex(Collections.emptyList())) {
+            JavaCompilerSupport compiler = new InMemoryJavaCompilerSupport(index, container(target));
+            compiler.process();
+        }
+        assertThat(target.exists(), is(false));
+    }
+
+    /**
+     * conflict source files.
+     * @throws Exception if failed
+     */
+    @Test(expected = IOException.class)
+    public void conflict_sources() throws Exception {
+        File target = deployer.getFile("target");
+        try (JavaClassPathIndex index = new JavaClassPathIndex(Collections.emptyList())) {
+            JavaCompilerSupport compiler = new InMemoryJavaCompilerSupport(index, container(target));
+            compiler.addJavaFile(new ClassDescription("com.example.Hello")).close();
+            compiler.addJavaFile(new ClassDescription("com.example.Hello"));
+        }
+    }
+
+    /**
+     * occur compile error.
+     * @throws Exception if failed
+     */
+    @Test(expected = DiagnosticException.class)
+    public void compile_error_diagnostic() throws Exception {
+        File target = deployer.getFile("target");
+        try (JavaClassPathIndex index = new JavaClassPathIndex(Collections.emptyList())) {
+            JavaCompilerSupport compiler = new InMemoryJavaCompilerSupport(index, container(target));
+            put(compiler, "com.example.Hello", "?");
+            compiler.process();
+        }
+    }
+
+    /**
+     * occur fatal error.
+     * @throws Exception if failed
+     */
+    @Test(expected = DiagnosticException.class)
+    public void compile_error_compliant_version() throws Exception {
+        File target = deployer.getFile("target");
+        try (JavaClassPathIndex index = new JavaClassPathIndex(Collections.emptyList())) {
+            JavaCompilerSupport compiler = new InMemoryJavaCompilerSupport(index, container(target))
+                .withCompliantVersion("INVALID");
+            put(compiler, "com.example.Hello", new String[] {
+                    "package com.example;",
+                    "public class Hello {}",
+            });
+            compiler.process();
+        }
+    }
+
+    private ResourceContainer container(File base) {
+        return location -> {
+            File file = new File(base, location.toPath(File.separatorChar));
+            file.getParentFile().mkdirs();
+            return new FileOutputStream(file);
+        };
+    }
+
+    private URLClassLoader loader(File... files) {
+        List<URL> urls = new ArrayList<>();
+        for (File file : files) {
+            try {
+                urls.add(file.toURI().toURL());
+            } catch (MalformedURLException e) {
+                throw new AssertionError(e);
+            }
+        }
+        return URLClassLoader.newInstance(urls.toArray(new URL[urls.size()]), ClassLoader.getSystemClassLoader());
+    }
+
+    private void put(JavaSourceExtension sources, String className, String... lines) {
+        try (PrintWriter writer = new PrintWriter(sources.addJavaFile(new ClassDescription(className)))) {
+            for (String line : lines) {
+                writer.println(line);
+            }
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -15,10 +15,16 @@
  */
 package com.asakusafw.lang.compiler.optimizer.basic;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.text.MessageFormat;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Properties;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +39,9 @@ import com.asakusafw.lang.compiler.optimizer.OperatorEstimators;
 
 /**
  * Estimates size about {@link ExternalInput}.
+ * If {@link #KEY_STATISTICS} is specified and the input does not have any explicit
+ * {@link ExternalInputInfo.DataSize data size hint}, this uses the actual input sizes which were recorded in the
+ * previous executions.
  */
 public class BasicExternalInputEstimator implements OperatorEstimator {
 
@@ -62,8 +71,25 @@ public class BasicExternalInputEstimator implements OperatorEstimator {
         KEY_SIZE_MAP = EnumUtil.freeze(map);
     }
 
+    /**
+     * The compiler option key of the runtime statistics file path.
+     * The file must be a {@link Properties} file, which contains entries of
+     * {@code <batch-id>/<flow-id>/<external-input-name>.size=<input size in bytes>}.
+     * The recorded sizes are only used for inputs whose data size is {@link ExternalInputInfo.DataSize#UNKNOWN}.
+     * @since 0.4.0
+     */
+    public static final String KEY_STATISTICS = PREFIX_KEY + "statistics"; //$NON-NLS-1$
+
+    /**
+     * The property key suffix of the input size in the runtime statistics file.
+     * @since 0.4.0
+     */
+    public static final String SUFFIX_STATISTICS_SIZE = ".size"; //$NON-NLS-1$
+
     private final Map<ExternalInputInfo.DataSize, Double> sizeMap;
 
+    private final Map<String, Properties> statisticsCache = new HashMap<>();
+
     /**
      * Creates a new instance.
      */
@@ -88,13 +114,84 @@ public class BasicExternalInputEstimator implements OperatorEstimator {
 
     private void perform(Context context, ExternalInput operator) {
         if (operator.isExternal()) {
-            double size = estimate(context, operator.getInfo());
+            double size = estimate(context, operator);
             if (Double.isNaN(size) == false) {
                 OperatorEstimators.putSize(context, operator, size);
             }
         }
     }
 
+    private double estimate(Context context, ExternalInput operator) {
+        ExternalInputInfo.DataSize symbol = operator.getInfo().getDataSize();
+        if (symbol == null || symbol == ExternalInputInfo.DataSize.UNKNOWN) {
+            double recorded = findStatistics(context, operator.getName());
+            if (Double.isNaN(recorded) == false) {
+                return recorded;
+            }
+        }
+        return estimate(context, operator.getInfo());
+    }
+
+    private double findStatistics(Context context, String name) {
+        String path = context.getOptions().get(KEY_STATISTICS, null);
+        if (path == null || path.trim().isEmpty()) {
+            return Double.NaN;
+        }
+        Properties statistics = statisticsCache.computeIfAbsent(path.trim(), BasicExternalInputEstimator::load);
+        String key = getStatisticsKey(context.getBatchId(), context.getFlowId(), name);
+        String string = statistics.getProperty(key);
+        if (string == null) {
+            return Double.NaN;
+        }
+        LOG.debug("found runtime statistics: {} => {}", key, string); //$NON-NLS-1$
+        try {
+            double value = Double.parseDouble(string.trim());
+            if (value >= 0) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            LOG.trace("invalid statistics value", e); //$NON-NLS-1$
+        }
+        LOG.warn(MessageFormat.format(
+                "invalid runtime statistics size: {0}={1} ({2})",
+                key,
+                string,
+                path));
+        return Double.NaN;
+    }
+
+    /**
+     * Returns the property key of the input size in the runtime statistics file.
+     * @param batchId the batch ID
+     * @param flowId the flow ID
+     * @param inputName the external input name
+     * @return the property key
+     * @see #KEY_STATISTICS
+     * @since 0.4.0
+     */
+    public static String getStatisticsKey(String batchId, String flowId, String inputName) {
+        return String.format("%s/%s/%s%s", //$NON-NLS-1$
+                batchId, flowId, inputName, SUFFIX_STATISTICS_SIZE);
+    }
+
+    private static Properties load(String path) {
+        Properties properties = new Properties();
+        File file = new File(path);
+        if (file.isFile() == false) {
+            LOG.debug("runtime statistics file is not found: {}", file); //$NON-NLS-1$
+            return properties;
+        }
+        LOG.debug("loading runtime statistics: {}", file); //$NON-NLS-1$
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            LOG.warn(MessageFormat.format(
+                    "failed to load runtime statistics: {0}",
+                    file), e);
+        }
+        return properties;
+    }
+
     private double estimate(Context context, ExternalInputInfo info) {
         ExternalInputInfo.DataSize symbol = info.getDataSize();
         // find override
@@ -19,8 +19,13 @@ import static com.asakusafw.lang.compiler.model.description.Descriptions.*;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Properties;
 
 import org.junit.Test;
 
@@ -100,6 +105,101 @@ public class BasicExternalInputEstimatorTest extends OptimizerTestRoot {
         assertThat(estimate.getSize(operator.getOperatorPort()), closeTo(100.0, 0.0));
     }
 
+    /**
+     * w/ runtime statistics.
+     * @throws Exception if failed
+     */
+    @Test
+    public void statistics() throws Exception {
+        File file = statistics("mockbatch/mockflow/a.size", "150");
+        OperatorEstimator estimator = new BasicExternalInputEstimator();
+        ExternalInput operator = of(DataSize.UNKNOWN);
+        OperatorEstimate estimate = perform(
+                context(BasicExternalInputEstimator.KEY_STATISTICS, file.getPath()),
+                estimator, operator);
+
+        assertThat(estimate.getSize(operator.getOperatorPort()), closeTo(150.0, 0.0));
+    }
+
+    /**
+     * w/ runtime statistics, but the input has an explicit data size.
+     * @throws Exception if failed
+     */
+    @Test
+    public void statistics_explicit() throws Exception {
+        File file = statistics("mockbatch/mockflow/a.size", "150");
+        Map<DataSize, Double> map = Collections.singletonMap(DataSize.SMALL, 120.0);
+        OperatorEstimator estimator = new BasicExternalInputEstimator(map);
+        ExternalInput operator = of(DataSize.SMALL);
+        OperatorEstimate estimate = perform(
+                context(BasicExternalInputEstimator.KEY_STATISTICS, file.getPath()),
+                estimator, operator);
+
+        assertThat(estimate.getSize(operator.getOperatorPort()), closeTo(120.0, 0.0));
+    }
+
+    /**
+     * w/ runtime statistics, but it does not contain the target input.
+     * @throws Exception if failed
+     */
+    @Test
+    public void statistics_missing() throws Exception {
+        File file = statistics("mockbatch/mockflow/other.size", "150");
+        Map<DataSize, Double> map = Collections.singletonMap(DataSize.UNKNOWN, 120.0);
+        OperatorEstimator estimator = new BasicExternalInputEstimator(map);
+        ExternalInput operator = of(DataSize.UNKNOWN);
+        OperatorEstimate estimate = perform(
+                context(BasicExternalInputEstimator.KEY_STATISTICS, file.getPath()),
+                estimator, operator);
+
+        assertThat(estimate.getSize(operator.getOperatorPort()), closeTo(120.0, 0.0));
+    }
+
+    /**
+     * w/ runtime statistics, but it only contains the same input name in the other flow.
+     * @throws Exception if failed
+     */
+    @Test
+    public void statistics_other_flow() throws Exception {
+        File file = statistics("mockbatch/other/a.size", "150", "a.size", "150");
+        Map<DataSize, Double> map = Collections.singletonMap(DataSize.UNKNOWN, 120.0);
+        OperatorEstimator estimator = new BasicExternalInputEstimator(map);
+        ExternalInput operator = of(DataSize.UNKNOWN);
+        OperatorEstimate estimate = perform(
+                context(BasicExternalInputEstimator.KEY_STATISTICS, file.getPath()),
+                estimator, operator);
+
+        assertThat(estimate.getSize(operator.getOperatorPort()), closeTo(120.0, 0.0));
+    }
+
+    /**
+     * w/ runtime statistics, but the file does not exist.
+     */
+    @Test
+    public void statistics_not_found() {
+        File file = new File(temporary.getRoot(), "missing.properties");
+        Map<DataSize, Double> map = Collections.singletonMap(DataSize.UNKNOWN, 120.0);
+        OperatorEstimator estimator = new BasicExternalInputEstimator(map);
+        ExternalInput operator = of(DataSize.UNKNOWN);
+        OperatorEstimate estimate = perform(
+                context(BasicExternalInputEstimator.KEY_STATISTICS, file.getPath()),
+                estimator, operator);
+
+        assertThat(estimate.getSize(operator.getOperatorPort()), closeTo(120.0, 0.0));
+    }
+
+    private File statistics(String... keyValuePairs) throws IOException {
+        Properties properties = new Properties();
+        for (int i = 0; i < keyValuePairs.length; i += 2) {
+            properties.setProperty(keyValuePairs[i], keyValuePairs[i + 1]);
+        }
+        File file = temporary.newFile();
+        try (OutputStream out = new FileOutputStream(file)) {
+            properties.store(out, null);
+        }
+        return file;
+    }
+
     private ExternalInput of(DataSize size) {
         return ExternalInput.newInstance("a", new ExternalInputInfo.Basic(
                 clazz(size.name()),
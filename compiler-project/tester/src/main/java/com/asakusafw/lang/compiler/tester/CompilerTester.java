@@ -349,9 +349,11 @@ public class CompilerTester implements Closeable {
 
         @Override
         public void afterJobflow(JobflowCompiler.Context context, BatchInfo batch, Jobflow jobflow) {
-            assert externalPorts.containsKey(jobflow.getFlowId()) == false;
             ExternalPortMap ports = ExternalPortMap.analyze(jobflow.getOperatorGraph(), context.getExternalPorts());
-            externalPorts.put(jobflow.getFlowId(), ports);
+            synchronized (externalPorts) {
+                assert externalPorts.containsKey(jobflow.getFlowId()) == false;
+                externalPorts.put(jobflow.getFlowId(), ports);
+            }
         }
 
         @Override
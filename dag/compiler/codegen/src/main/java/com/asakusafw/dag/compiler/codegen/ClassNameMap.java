@@ -15,8 +15,8 @@
  */
 package com.asakusafw.dag.compiler.codegen;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
@@ -38,7 +38,7 @@ public class ClassNameMap {
 
     private final String prefix;
 
-    private final Map<Tuple<String, String>, AtomicInteger> counters = new HashMap<>();
+    private final Map<Tuple<String, String>, AtomicInteger> counters = new ConcurrentHashMap<>();
 
     /**
      * Creates a new instance.
@@ -18,9 +18,9 @@ package com.asakusafw.dag.compiler.flow.adapter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.text.MessageFormat;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.asakusafw.dag.compiler.codegen.ClassGeneratorContext;
 import com.asakusafw.dag.compiler.codegen.ClassNameMap;
@@ -44,7 +44,7 @@ public class ClassGeneratorContextAdapter implements ClassGeneratorContext {
 
     private final ClassNameMap namer;
 
-    private final Map<Object, ClassDescription> cache = new HashMap<>();
+    private final Map<Object, ClassDescription> cache = new ConcurrentHashMap<>();
 
     /**
      * Creates a new instance.
@@ -65,6 +65,14 @@ public interface SupplierInfo extends Serializable {
             this.className = className;
         }
 
+        /**
+         * Returns the class name of target object or its supplier.
+         * @return the class name
+         */
+        public String getClassName() {
+            return className;
+        }
+
         @Override
         public Supplier<?> newInstance(ClassLoader loader) {
             Class<?> aClass = Invariants.safe(() -> loader.loadClass(className));
@@ -0,0 +1,131 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.api.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+import com.asakusafw.dag.api.common.SupplierInfo;
+
+/**
+ * Encodes vertex and edge descriptors in the compact binary format of {@link GraphInfo}.
+ * Each implementation must be registered via {@link ServiceLoader}; descriptors without any available codec
+ * are stored using Java serialization instead.
+ * @since 0.4.0
+ */
+public interface DescriptorCodec {
+
+    /**
+     * Returns the ID of this codec, which is stored in the serialized graph.
+     * @return the codec ID
+     */
+    String getId();
+
+    /**
+     * Returns whether or not this codec can encode the given descriptor.
+     * @param descriptor the target descriptor
+     * @return {@code true} if this codec can encode it, otherwise {@code false}
+     */
+    boolean accepts(Object descriptor);
+
+    /**
+     * Encodes the given descriptor.
+     * @param descriptor the target descriptor, which is {@link #accepts(Object) accepted} by this codec
+     * @param output the destination
+     * @throws IOException if I/O error was occurred while encoding the descriptor
+     */
+    void write(Object descriptor, Output output) throws IOException;
+
+    /**
+     * Decodes a descriptor.
+     * @param input the source
+     * @return the decoded descriptor
+     * @throws IOException if I/O error was occurred while decoding the descriptor
+     */
+    Object read(Input input) throws IOException;
+
+    /**
+     * Loads the registered codecs.
+     * @param loader the service class loader
+     * @return the loaded codecs
+     */
+    static List<DescriptorCodec> load(ClassLoader loader) {
+        List<DescriptorCodec> results = new ArrayList<>();
+        for (DescriptorCodec codec : ServiceLoader.load(DescriptorCodec.class, loader)) {
+            results.add(codec);
+        }
+        return results;
+    }
+
+    /**
+     * An output of {@link DescriptorCodec}.
+     * @since 0.4.0
+     */
+    interface Output {
+
+        /**
+         * Writes an integer value.
+         * @param value the value
+         * @throws IOException if I/O error was occurred while writing the value
+         */
+        void writeInt(int value) throws IOException;
+
+        /**
+         * Writes a string value.
+         * Each distinct string is stored only once in the serialized graph.
+         * @param value the value (nullable)
+         * @throws IOException if I/O error was occurred while writing the value
+         */
+        void writeString(String value) throws IOException;
+
+        /**
+         * Writes a {@link SupplierInfo}.
+         * @param value the value (nullable)
+         * @throws IOException if I/O error was occurred while writing the value
+         */
+        void writeSupplier(SupplierInfo value) throws IOException;
+    }
+
+    /**
+     * An input of {@link DescriptorCodec}.
+     * @since 0.4.0
+     */
+    interface Input {
+
+        /**
+         * Reads an integer value.
+         * @return the value
+         * @throws IOException if I/O error was occurred while reading the value
+         */
+        int readInt() throws IOException;
+
+        /**
+         * Reads a string value.
+         * @return the value (nullable)
+         * @throws IOException if I/O error was occurred while reading the value
+         */
+        String readString() throws IOException;
+
+        /**
+         * Reads a {@link SupplierInfo}.
+         * @return the value (nullable)
+         * @throws IOException if I/O error was occurred while reading the value
+         */
+        SupplierInfo readSupplier() throws IOException;
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.asakusafw.dag.api.model;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
@@ -98,11 +99,26 @@ public class GraphInfo implements Serializable {
 
     /**
      * Saves a {@link GraphInfo} object into the stream.
+     * The graph is stored in the compact binary format, and its descriptors are encoded by the
+     * {@link DescriptorCodec registered codecs} if they are available.
      * @param output the target output stream
      * @param info the graph to save
      * @throws IOException if error was occurred while saving the graph
+     * @see GraphInfoReader
      */
     public static void save(OutputStream output, GraphInfo info) throws IOException {
+        Arguments.requireNonNull(output);
+        Arguments.requireNonNull(info);
+        new GraphInfoWriter(DescriptorCodec.load(getDefaultClassLoader())).write(output, info);
+    }
+
+    /**
+     * Saves a {@link GraphInfo} object into the stream, using Java serialization.
+     * @param output the target output stream
+     * @param info the graph to save
+     * @throws IOException if error was occurred while saving the graph
+     */
+    public static void saveSerialized(OutputStream output, GraphInfo info) throws IOException {
         Arguments.requireNonNull(output);
         Arguments.requireNonNull(info);
         ObjectOutputStream out = new ObjectOutputStream(output);
@@ -121,7 +137,29 @@ public class GraphInfo implements Serializable {
      * @throws IOException if error was occurred while restoring the graph
      */
     public static GraphInfo load(InputStream input) throws IOException {
+        return load(input, getDefaultClassLoader());
+    }
+
+    /**
+     * Loads a {@link GraphInfo} object from the stream.
+     * This accepts both the compact binary format and the Java serialization format, and decodes the whole graph.
+     * Please use {@link GraphInfoReader} to look up individual vertices from the compact binary format.
+     * @param input the source input stream
+     * @param classLoader the class loader to resolve descriptors
+     * @return the restored graph
+     * @throws IOException if error was occurred while restoring the graph
+     */
+    public static GraphInfo load(InputStream input, ClassLoader classLoader) throws IOException {
         Arguments.requireNonNull(input);
+        Arguments.requireNonNull(classLoader);
+        byte[] contents = GraphInfoReader.readAll(input);
+        if (GraphInfoReader.isSupported(contents)) {
+            return GraphInfoReader.open(contents, classLoader).read();
+        }
+        return loadSerialized(new ByteArrayInputStream(contents));
+    }
+
+    private static GraphInfo loadSerialized(InputStream input) throws IOException {
         ObjectInputStream in = new ObjectInputStream(input);
         int first = in.readInt();
         if (first != MAGIC) {
@@ -147,4 +185,9 @@ public class GraphInfo implements Serializable {
             throw new IOException("broken GraphInfo file (invalid object type)");
         }
     }
+
+    private static ClassLoader getDefaultClassLoader() {
+        ClassLoader context = Thread.currentThread().getContextClassLoader();
+        return context == null ? GraphInfo.class.getClassLoader() : context;
+    }
 }
@@ -0,0 +1,370 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.api.model;
+
+import static com.asakusafw.dag.api.model.GraphInfoWriter.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.asakusafw.dag.api.common.SupplierInfo;
+import com.asakusafw.lang.utils.common.Arguments;
+
+/**
+ * Reads {@link GraphInfo} from the compact binary format.
+ * This decodes only the string table and the vertex index eagerly, and each vertex is decoded on demand.
+ * Clients which need only a few vertices should use {@link #findVertex(String)}, because {@link #read()}
+ * decodes all vertices and edges.
+ * @since 0.4.0
+ * @see GraphInfo#save(java.io.OutputStream, GraphInfo)
+ */
+public final class GraphInfoReader {
+
+    private final ByteBuffer contents;
+
+    private final ClassLoader classLoader;
+
+    private final String[] strings;
+
+    private final DescriptorCodec[] codecs;
+
+    private final Map<String, Integer> vertexIndex;
+
+    private final String[] vertexNames;
+
+    private final int[] vertexOffsets;
+
+    private final int[] vertexLengths;
+
+    private final VertexInfo[] vertices;
+
+    private final int edgeCount;
+
+    private final int edgeOffset;
+
+    private final int edgeLength;
+
+    private GraphInfoReader(ByteBuffer contents, ClassLoader classLoader) throws IOException {
+        this.contents = contents;
+        this.classLoader = classLoader;
+        if (contents.getInt() != MAGIC) {
+            throw new IOException("broken GraphInfo file (invalid MAGIC)"); //$NON-NLS-1$
+        }
+        if (contents.getInt() != VERSION) {
+            throw new IOException("unsupported GraphInfo format (invalid VERSION)"); //$NON-NLS-1$
+        }
+        this.strings = new String[contents.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            int length = contents.getInt();
+            strings[i] = new String(contents.array(), contents.arrayOffset() + contents.position(), length,
+                    StandardCharsets.UTF_8);
+            contents.position(contents.position() + length);
+        }
+        this.codecs = resolveCodecs(classLoader, contents);
+        int count = contents.getInt();
+        this.vertexIndex = new HashMap<>();
+        this.vertexNames = new String[count];
+        this.vertexOffsets = new int[count];
+        this.vertexLengths = new int[count];
+        this.vertices = new VertexInfo[count];
+        for (int i = 0; i < count; i++) {
+            vertexNames[i] = string(contents.getInt());
+            vertexOffsets[i] = contents.getInt();
+            vertexLengths[i] = contents.getInt();
+            vertexIndex.put(vertexNames[i], i);
+        }
+        int vertexSection = contents.getInt();
+        int vertexBase = contents.position();
+        for (int i = 0; i < count; i++) {
+            vertexOffsets[i] += vertexBase;
+        }
+        contents.position(vertexBase + vertexSection);
+        this.edgeCount = contents.getInt();
+        this.edgeLength = contents.getInt();
+        this.edgeOffset = contents.position();
+        contents.position(edgeOffset + edgeLength);
+        if (contents.get() != EOF) {
+            throw new IOException("GraphInfo file broken (missing EOF)");
+        }
+    }
+
+    private DescriptorCodec[] resolveCodecs(ClassLoader loader, ByteBuffer buffer) throws IOException {
+        DescriptorCodec[] results = new DescriptorCodec[buffer.getInt()];
+        if (results.length == 0) {
+            return results;
+        }
+        Map<String, DescriptorCodec> available = new HashMap<>();
+        for (DescriptorCodec codec : DescriptorCodec.load(loader)) {
+            available.putIfAbsent(codec.getId(), codec);
+        }
+        for (int i = 0; i < results.length; i++) {
+            String id = string(buffer.getInt());
+            results[i] = available.get(id);
+            if (results[i] == null) {
+                throw new IOException(MessageFormat.format(
+                        "missing GraphInfo descriptor codec: {0}",
+                        id));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns whether or not the given contents are in the compact binary format.
+     * @param contents the contents
+     * @return {@code true} if they are in the compact format, otherwise {@code false}
+     */
+    static boolean isSupported(byte[] contents) {
+        return contents.length >= 4 && ByteBuffer.wrap(contents).getInt() == MAGIC;
+    }
+
+    /**
+     * Opens a graph.
+     * @param contents the serialized graph
+     * @param classLoader the class loader to resolve descriptor codecs and classes
+     * @return the reader
+     * @throws IOException if the contents are broken
+     */
+    public static GraphInfoReader open(byte[] contents, ClassLoader classLoader) throws IOException {
+        Arguments.requireNonNull(contents);
+        Arguments.requireNonNull(classLoader);
+        try {
+            return new GraphInfoReader(ByteBuffer.wrap(contents), classLoader);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("broken GraphInfo file", e);
+        }
+    }
+
+    /**
+     * Opens a graph.
+     * @param input the serialized graph
+     * @param classLoader the class loader to resolve descriptor codecs and classes
+     * @return the reader
+     * @throws IOException if I/O error was occurred while reading the graph
+     */
+    public static GraphInfoReader open(InputStream input, ClassLoader classLoader) throws IOException {
+        Arguments.requireNonNull(input);
+        return open(readAll(input), classLoader);
+    }
+
+    static byte[] readAll(InputStream input) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] bytes = new byte[8 * 1024];
+        while (true) {
+            int read = input.read(bytes);
+            if (read < 0) {
+                break;
+            }
+            buffer.write(bytes, 0, read);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Returns the vertex names.
+     * @return the vertex names
+     */
+    public List<String> getVertexNames() {
+        return Collections.unmodifiableList(Arrays.asList(vertexNames));
+    }
+
+    /**
+     * Returns a vertex.
+     * @param name the vertex name
+     * @return the vertex, or {@code empty} if it does not exist
+     * @throws IOException if the vertex is broken
+     */
+    public Optional<VertexInfo> findVertex(String name) throws IOException {
+        Arguments.requireNonNull(name);
+        Integer index = vertexIndex.get(name);
+        if (index == null) {
+            return Optional.empty();
+        }
+        return Optional.of(getVertex(index));
+    }
+
+    /**
+     * Decodes the whole graph.
+     * @return the decoded graph
+     * @throws IOException if the graph is broken
+     */
+    public GraphInfo read() throws IOException {
+        GraphInfo result = new GraphInfo();
+        List<VertexInfo> vertexList = result.getVertices();
+        for (int i = 0; i < vertices.length; i++) {
+            vertexList.add(getVertex(i));
+        }
+        try {
+            ByteBuffer buffer = slice(edgeOffset, edgeLength);
+            List<EdgeInfo> edgeList = result.getEdges();
+            for (int i = 0; i < edgeCount; i++) {
+                PortId upstream = readPortId(buffer);
+                PortId downstream = readPortId(buffer);
+                EdgeDescriptor descriptor = (EdgeDescriptor) readDescriptor(buffer);
+                edgeList.add(new EdgeInfo(upstream, downstream, descriptor));
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException
+                | ClassCastException | IllegalArgumentException e) {
+            throw new IOException("broken GraphInfo file (invalid edge)", e);
+        }
+        return result;
+    }
+
+    private VertexInfo getVertex(int index) throws IOException {
+        VertexInfo cached = vertices[index];
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            ByteBuffer buffer = slice(vertexOffsets[index], vertexLengths[index]);
+            VertexDescriptor descriptor = (VertexDescriptor) readDescriptor(buffer);
+            VertexInfo vertex = new VertexInfo(new VertexId(vertexNames[index]), descriptor);
+            for (int i = 0, n = buffer.getInt(); i < n; i++) {
+                vertex.addInputPort(string(buffer.getInt()), string(buffer.getInt()));
+            }
+            for (int i = 0, n = buffer.getInt(); i < n; i++) {
+                vertex.addOutputPort(string(buffer.getInt()), string(buffer.getInt()));
+            }
+            vertices[index] = vertex;
+            return vertex;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException
+                | ClassCastException | IllegalArgumentException e) {
+            throw new IOException(MessageFormat.format(
+                    "broken GraphInfo file (invalid vertex: {0})",
+                    vertexNames[index]), e);
+        }
+    }
+
+    private ByteBuffer slice(int offset, int length) {
+        ByteBuffer buffer = contents.duplicate();
+        buffer.limit(offset + length);
+        buffer.position(offset);
+        return buffer;
+    }
+
+    String string(int index) throws IOException {
+        if (index == NULL_STRING) {
+            return null;
+        }
+        if (index < 0 || index >= strings.length) {
+            throw new IOException(MessageFormat.format(
+                    "broken GraphInfo file (invalid string ID: {0})",
+                    index));
+        }
+        return strings[index];
+    }
+
+    private PortId readPortId(ByteBuffer buffer) throws IOException {
+        String vertexName = string(buffer.getInt());
+        Integer index = vertexIndex.get(vertexName);
+        VertexId vertexId = index == null ? new VertexId(vertexName) : getVertex(index).getId();
+        String portName = string(buffer.getInt());
+        PortInfo.Direction direction = PortInfo.Direction.values()[buffer.get()];
+        return new PortId(vertexId, portName, direction);
+    }
+
+    private Object readDescriptor(ByteBuffer buffer) throws IOException {
+        byte kind = buffer.get();
+        switch (kind) {
+        case DESCRIPTOR_CODEC:
+            int index = buffer.getInt();
+            if (index < 0 || index >= codecs.length) {
+                throw new IOException(MessageFormat.format(
+                        "broken GraphInfo file (invalid codec ID: {0})",
+                        index));
+            }
+            return codecs[index].read(new Source(buffer));
+        case DESCRIPTOR_SERIALIZED:
+            return readSerialized(buffer);
+        default:
+            throw new IOException(MessageFormat.format(
+                    "broken GraphInfo file (invalid descriptor kind: {0})",
+                    kind));
+        }
+    }
+
+    private Object readSerialized(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        int offset = buffer.position();
+        buffer.position(offset + length);
+        ByteArrayInputStream input = new ByteArrayInputStream(
+                buffer.array(), buffer.arrayOffset() + offset, length);
+        try (ObjectInputStream in = new ObjectInputStream(input) {
+            @Override
+            protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+                try {
+                    return Class.forName(desc.getName(), false, classLoader);
+                } catch (ClassNotFoundException e) {
+                    return super.resolveClass(desc);
+                }
+            }
+        }) {
+            return in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("error occurred while restoring GraphInfo", e);
+        }
+    }
+
+    private final class Source implements DescriptorCodec.Input {
+
+        private final ByteBuffer buffer;
+
+        Source(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int readInt() throws IOException {
+            return buffer.getInt();
+        }
+
+        @Override
+        public String readString() throws IOException {
+            return string(buffer.getInt());
+        }
+
+        @Override
+        public SupplierInfo readSupplier() throws IOException {
+            byte kind = buffer.get();
+            switch (kind) {
+            case SUPPLIER_NULL:
+                return null;
+            case SUPPLIER_BASIC:
+                return SupplierInfo.of(string(buffer.getInt()));
+            case SUPPLIER_SERIALIZED:
+                return (SupplierInfo) readSerialized(buffer);
+            default:
+                throw new IOException(MessageFormat.format(
+                        "broken GraphInfo file (invalid supplier kind: {0})",
+                        kind));
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.api.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.asakusafw.dag.api.common.SupplierInfo;
+import com.asakusafw.lang.utils.common.Arguments;
+
+/**
+ * Writes {@link GraphInfo} in the compact binary format.
+ * <pre><code>
+ * graph: MAGIC VERSION string-table codec-table vertex-index vertex-section edge-section EOF
+ * string-table: count (length utf-8-bytes)*
+ * codec-table: count (string-id)*
+ * vertex-index: count (name-string-id offset length)*
+ * vertex-section: length (descriptor ports(inputs) ports(outputs))*
+ * edge-section: count length (port-id port-id descriptor)*
+ * </code></pre>
+ * @since 0.4.0
+ * @see GraphInfoReader
+ */
+final class GraphInfoWriter {
+
+    static final int MAGIC = 0xa343ada1;
+
+    static final int VERSION = 3;
+
+    static final byte EOF = 0x1a;
+
+    static final int NULL_STRING = -1;
+
+    static final byte DESCRIPTOR_CODEC = 1;
+
+    static final byte DESCRIPTOR_SERIALIZED = 2;
+
+    static final byte SUPPLIER_NULL = 0;
+
+    static final byte SUPPLIER_BASIC = 1;
+
+    static final byte SUPPLIER_SERIALIZED = 2;
+
+    private final List<DescriptorCodec> codecs;
+
+    private final Map<String, Integer> strings = new LinkedHashMap<>();
+
+    private final List<DescriptorCodec> usedCodecs = new ArrayList<>();
+
+    GraphInfoWriter(List<DescriptorCodec> codecs) {
+        Arguments.requireNonNull(codecs);
+        this.codecs = codecs;
+    }
+
+    void write(OutputStream output, GraphInfo info) throws IOException {
+        List<VertexInfo> vertices = info.getVertices();
+        int[] names = new int[vertices.size()];
+        int[] offsets = new int[vertices.size()];
+        int[] lengths = new int[vertices.size()];
+        ByteArrayOutputStream vertexBuffer = new ByteArrayOutputStream();
+        DataOutputStream vertexSection = new DataOutputStream(vertexBuffer);
+        for (int i = 0, n = vertices.size(); i < n; i++) {
+            VertexInfo vertex = vertices.get(i);
+            names[i] = intern(vertex.getName());
+            offsets[i] = vertexSection.size();
+            writeDescriptor(vertexSection, vertex.getDescriptor());
+            writePorts(vertexSection, vertex.getInputPorts());
+            writePorts(vertexSection, vertex.getOutputPorts());
+            lengths[i] = vertexSection.size() - offsets[i];
+        }
+        List<EdgeInfo> edges = info.getEdges();
+        ByteArrayOutputStream edgeBuffer = new ByteArrayOutputStream();
+        DataOutputStream edgeSection = new DataOutputStream(edgeBuffer);
+        for (EdgeInfo edge : edges) {
+            writePortId(edgeSection, edge.getUpstreamId());
+            writePortId(edgeSection, edge.getDownstreamId());
+            writeDescriptor(edgeSection, edge.getDescriptor());
+        }
+        int[] codecNames = new int[usedCodecs.size()];
+        for (int i = 0; i < codecNames.length; i++) {
+            codecNames[i] = intern(usedCodecs.get(i).getId());
+        }
+
+        DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(strings.size());
+        for (String string : strings.keySet()) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        out.writeInt(codecNames.length);
+        for (int name : codecNames) {
+            out.writeInt(name);
+        }
+        out.writeInt(names.length);
+        for (int i = 0; i < names.length; i++) {
+            out.writeInt(names[i]);
+            out.writeInt(offsets[i]);
+            out.writeInt(lengths[i]);
+        }
+        out.writeInt(vertexBuffer.size());
+        vertexBuffer.writeTo(out);
+        out.writeInt(edges.size());
+        out.writeInt(edgeBuffer.size());
+        edgeBuffer.writeTo(out);
+        out.writeByte(EOF);
+        out.flush();
+    }
+
+    private int intern(String value) {
+        if (value == null) {
+            return NULL_STRING;
+        }
+        Integer index = strings.get(value);
+        if (index == null) {
+            index = strings.size();
+            strings.put(value, index);
+        }
+        return index;
+    }
+
+    private void writePorts(DataOutputStream output, List<PortInfo> ports) throws IOException {
+        output.writeInt(ports.size());
+        for (PortInfo port : ports) {
+            output.writeInt(intern(port.getName()));
+            output.writeInt(intern(port.getTag()));
+        }
+    }
+
+    private void writePortId(DataOutputStream output, PortId id) throws IOException {
+        output.writeInt(intern(id.getVertexId().getName()));
+        output.writeInt(intern(id.getName()));
+        output.writeByte(id.getDirection().ordinal());
+    }
+
+    private void writeDescriptor(DataOutputStream output, Object descriptor) throws IOException {
+        for (DescriptorCodec codec : codecs) {
+            if (codec.accepts(descriptor)) {
+                int index = usedCodecs.indexOf(codec);
+                if (index < 0) {
+                    index = usedCodecs.size();
+                    usedCodecs.add(codec);
+                }
+                output.writeByte(DESCRIPTOR_CODEC);
+                output.writeInt(index);
+                codec.write(descriptor, new Sink(output));
+                return;
+            }
+        }
+        output.writeByte(DESCRIPTOR_SERIALIZED);
+        writeSerialized(output, descriptor);
+    }
+
+    private static void writeSerialized(DataOutputStream output, Object object) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+            out.writeObject(object);
+        }
+        output.writeInt(buffer.size());
+        buffer.writeTo(output);
+    }
+
+    private final class Sink implements DescriptorCodec.Output {
+
+        private final DataOutputStream output;
+
+        Sink(DataOutputStream output) {
+            this.output = output;
+        }
+
+        @Override
+        public void writeInt(int value) throws IOException {
+            output.writeInt(value);
+        }
+
+        @Override
+        public void writeString(String value) throws IOException {
+            output.writeInt(intern(value));
+        }
+
+        @Override
+        public void writeSupplier(SupplierInfo value) throws IOException {
+            if (value == null) {
+                output.writeByte(SUPPLIER_NULL);
+            } else if (value.getClass() == SupplierInfo.Basic.class) {
+                output.writeByte(SUPPLIER_BASIC);
+                output.writeInt(intern(((SupplierInfo.Basic) value).getClassName()));
+            } else {
+                output.writeByte(SUPPLIER_SERIALIZED);
+                writeSerialized(output, value);
+            }
+        }
+    }
+}
@@ -51,7 +51,7 @@ public class AbstractApplication implements Supplier<GraphInfo> {
                         path,
                         getClass().getName()));
             }
-            return GraphInfo.load(input);
+            return GraphInfo.load(input, getClass().getClassLoader());
         } catch (IOException e) {
             throw new IllegalStateException(MessageFormat.format(
                     "error occurred while restoring GraphInfo: {0}",
@@ -0,0 +1,184 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.api.model;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import com.asakusafw.dag.api.common.SupplierInfo;
+
+/**
+ * Test for {@link GraphInfo}.
+ */
+public class GraphInfoTest {
+
+    /**
+     * simple case.
+     * @throws Exception if failed
+     */
+    @Test
+    public void simple() throws Exception {
+        GraphInfo restored = restore(graph());
+        verify(restored);
+    }
+
+    /**
+     * w/ descriptor codecs.
+     * @throws Exception if failed
+     */
+    @Test
+    public void codec() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new GraphInfoWriter(Collections.singletonList(new Codec())).write(output, graph());
+        byte[] bytes = output.toByteArray();
+        assertThat(GraphInfoReader.isSupported(bytes), is(true));
+        GraphInfoReader reader = GraphInfoReader.open(bytes, getClass().getClassLoader());
+        assertThat(reader.getVertexNames(), contains("a", "b"));
+        assertThat(reader.findVertex("?"), is(Optional.empty()));
+        VertexInfo b = reader.findVertex("b").get();
+        assertThat(b.getDescriptor(), is(new Descriptor(SupplierInfo.of("B"))));
+        assertThat(reader.findVertex("b").get(), is(sameInstance(b)));
+        verify(reader.read());
+    }
+
+    /**
+     * w/ Java serialization format.
+     * @throws Exception if failed
+     */
+    @Test
+    public void serialized() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        GraphInfo.saveSerialized(output, graph());
+        byte[] bytes = output.toByteArray();
+        assertThat(GraphInfoReader.isSupported(bytes), is(false));
+        verify(GraphInfo.load(new ByteArrayInputStream(bytes)));
+    }
+
+    /**
+     * broken file.
+     * @throws Exception if failed
+     */
+    @Test(expected = IOException.class)
+    public void broken() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        GraphInfo.save(output, graph());
+        byte[] bytes = output.toByteArray();
+        GraphInfo.load(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 2)));
+    }
+
+    private static GraphInfo graph() {
+        GraphInfo graph = new GraphInfo();
+        VertexInfo a = graph.addVertex("a", new Descriptor(SupplierInfo.of("A")));
+        VertexInfo b = graph.addVertex("b", new Descriptor(SupplierInfo.of("B")));
+        PortInfo out = a.addOutputPort("out", "t");
+        PortInfo in = b.addInputPort("in");
+        b.addOutputPort("out");
+        graph.addEdge(out.getId(), in.getId(), new Descriptor(null));
+        return graph;
+    }
+
+    private static GraphInfo restore(GraphInfo graph) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        GraphInfo.save(output, graph);
+        return GraphInfo.load(new ByteArrayInputStream(output.toByteArray()));
+    }
+
+    private static void verify(GraphInfo graph) {
+        List<VertexInfo> vertices = graph.getVertices();
+        assertThat(vertices, hasSize(2));
+        VertexInfo a = vertices.get(0);
+        VertexInfo b = vertices.get(1);
+        assertThat(a.getName(), is("a"));
+        assertThat(a.getDescriptor(), is(new Descriptor(SupplierInfo.of("A"))));
+        assertThat(a.getInputPorts(), hasSize(0));
+        assertThat(a.getOutputPorts(), hasSize(1));
+        assertThat(a.findOutputPort("out").get().getTag(), is("t"));
+        assertThat(b.getName(), is("b"));
+        assertThat(b.getInputPorts(), hasSize(1));
+        assertThat(b.findInputPort("in").get().getTag(), is(nullValue()));
+        assertThat(b.getOutputPorts(), hasSize(1));
+
+        List<EdgeInfo> edges = graph.getEdges();
+        assertThat(edges, hasSize(1));
+        EdgeInfo edge = edges.get(0);
+        assertThat(edge.getUpstreamId(), is(a.findOutputPort("out").get().getId()));
+        assertThat(edge.getDownstreamId(), is(b.findInputPort("in").get().getId()));
+        assertThat(edge.getDescriptor(), is(new Descriptor(null)));
+    }
+
+    @SuppressWarnings("javadoc")
+    public static class Descriptor implements VertexDescriptor, EdgeDescriptor {
+
+        private static final long serialVersionUID = 1L;
+
+        final SupplierInfo supplier;
+
+        public Descriptor(SupplierInfo supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(supplier);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            return Objects.equals(supplier, ((Descriptor) obj).supplier);
+        }
+    }
+
+    @SuppressWarnings("javadoc")
+    public static class Codec implements DescriptorCodec {
+
+        @Override
+        public String getId() {
+            return "testing";
+        }
+
+        @Override
+        public boolean accepts(Object descriptor) {
+            return descriptor instanceof Descriptor;
+        }
+
+        @Override
+        public void write(Object descriptor, Output output) throws IOException {
+            output.writeSupplier(((Descriptor) descriptor).supplier);
+        }
+
+        @Override
+        public Object read(Input input) throws IOException {
+            return new Descriptor(input.readSupplier());
+        }
+    }
+}
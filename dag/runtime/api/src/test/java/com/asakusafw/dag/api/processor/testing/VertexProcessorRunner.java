@@ -47,6 +47,8 @@ public class VertexProcessorRunner implements Runnable {
 
     private final Map<Class<?>, Supplier<?>> resources = new LinkedHashMap<>();
 
+    private final Map<String, String> properties = new LinkedHashMap<>();
+
     private final Map<String, List<Object>> mainInputs = new LinkedHashMap<>();
 
     private final Map<String, SortedMap<Object, Collection<Object>>> groupInputs = new LinkedHashMap<>();
@@ -152,6 +154,7 @@ public class VertexProcessorRunner implements Runnable {
     }
 
     private void putResources(AbstractProcessorContext<?> context) {
+        properties.forEach(context::withProperty);
         resources.forEach((c, s) -> context.withResource(c, c.cast(s.get())));
     }
 
@@ -171,6 +174,17 @@ public class VertexProcessorRunner implements Runnable {
         return this;
     }
 
+    /**
+     * Adds a property to contexts.
+     * @param key the property key
+     * @param value the property value
+     * @return this
+     */
+    public VertexProcessorRunner property(String key, String value) {
+        properties.put(key, value);
+        return this;
+    }
+
     /**
      * Adds a main input.
      * @param name the input name
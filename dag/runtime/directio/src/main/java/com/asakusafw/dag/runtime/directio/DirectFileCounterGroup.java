@@ -38,9 +38,13 @@ public class DirectFileCounterGroup implements CounterGroup {
     public static final Category<DirectFileCounterGroup> CATEGORY_INPUT = new BasicCounterGroupCategory<>(
             "Direct I/O file input",
             Scope.GRAPH,
-            Arrays.asList(StandardColumn.INPUT_FILE_SIZE, StandardColumn.INPUT_RECORD),
+            Arrays.asList(
+                    StandardColumn.INPUT_FILE_SIZE, StandardColumn.INPUT_RECORD,
+                    InputColumn.INPUT_FRAGMENT, InputColumn.INPUT_TASK),
             "directio-0-input", //$NON-NLS-1$
-            () -> new DirectFileCounterGroup(StandardColumn.INPUT_FILE_SIZE, StandardColumn.INPUT_RECORD));
+            () -> new DirectFileCounterGroup(
+                    StandardColumn.INPUT_FILE_SIZE, StandardColumn.INPUT_RECORD,
+                    InputColumn.INPUT_FRAGMENT, InputColumn.INPUT_TASK));
 
     /**
      * The {@link CounterGroup} category for Direct I/O file outputs.
@@ -58,6 +62,10 @@ public class DirectFileCounterGroup implements CounterGroup {
 
     private final Counter recordCount = new Counter();
 
+    private final Counter fragmentCount = new Counter();
+
+    private final Counter taskCount = new Counter();
+
     /**
      * Creates a new instance.
      * @param fileSize the file size in bytes
@@ -70,6 +78,21 @@ public class DirectFileCounterGroup implements CounterGroup {
         counters.put(recordCount, this.recordCount);
     }
 
+    /**
+     * Creates a new instance.
+     * @param fileSize the file size in bytes
+     * @param recordCount the record count
+     * @param fragmentCount the number of input fragments
+     * @param taskCount the number of input tasks
+     */
+    public DirectFileCounterGroup(Column fileSize, Column recordCount, Column fragmentCount, Column taskCount) {
+        this(fileSize, recordCount);
+        Arguments.requireNonNull(fragmentCount);
+        Arguments.requireNonNull(taskCount);
+        counters.put(fragmentCount, this.fragmentCount);
+        counters.put(taskCount, this.taskCount);
+    }
+
     @Override
     public long getCount(Column column) {
         Counter counter = counters.get(column);
@@ -92,4 +115,54 @@ public class DirectFileCounterGroup implements CounterGroup {
     public Counter getRecordCount() {
         return recordCount;
     }
+
+    /**
+     * Returns the number of input fragments.
+     * @return the number of input fragments
+     */
+    public Counter getFragmentCount() {
+        return fragmentCount;
+    }
+
+    /**
+     * Returns the number of input tasks, which may contain multiple input fragments.
+     * @return the number of input tasks
+     */
+    public Counter getTaskCount() {
+        return taskCount;
+    }
+
+    /**
+     * Represents columns about Direct I/O file input scheduling.
+     * @since 0.4.0
+     */
+    public enum InputColumn implements Column {
+
+        /**
+         * The number of input fragments.
+         */
+        INPUT_FRAGMENT("number of input fragments"),
+
+        /**
+         * The number of input tasks.
+         */
+        INPUT_TASK("number of input tasks"),
+        ;
+
+        private final String description;
+
+        InputColumn(String description) {
+            this.description = description;
+        }
+
+        @Override
+        public String getDescription() {
+            return description;
+        }
+
+        @Override
+        public String getIndexText() {
+            return String.format("DIRECTIO.%04d", ordinal()); //$NON-NLS-1$
+        }
+    }
 }
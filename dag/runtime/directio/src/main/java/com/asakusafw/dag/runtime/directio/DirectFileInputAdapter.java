@@ -17,6 +17,7 @@ package com.asakusafw.dag.runtime.directio;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -34,6 +35,7 @@ import com.asakusafw.dag.runtime.adapter.ExtractOperation.Input;
 import com.asakusafw.dag.runtime.adapter.InputAdapter;
 import com.asakusafw.dag.runtime.adapter.InputHandler;
 import com.asakusafw.dag.runtime.io.HadoopObjectFactory;
+import com.asakusafw.dag.runtime.io.ReadAheadExecutor;
 import com.asakusafw.dag.runtime.skeleton.ModelInputHandler;
 import com.asakusafw.lang.utils.common.Action;
 import com.asakusafw.lang.utils.common.Arguments;
@@ -50,6 +52,30 @@ public class DirectFileInputAdapter implements InputAdapter<ExtractOperation.Inp
 
     static final Logger LOG = LoggerFactory.getLogger(DirectFileInputAdapter.class);
 
+    /**
+     * The configuration key of the max total size of small input fragments which are combined into a task
+     * (in bytes, {@code 0} to disable).
+     */
+    public static final String KEY_COMBINE_SIZE = "com.asakusafw.dag.input.directio.combine.size"; //$NON-NLS-1$
+
+    /**
+     * The default value of {@link #KEY_COMBINE_SIZE}.
+     */
+    public static final long DEFAULT_COMBINE_SIZE = 0L;
+
+    /**
+     * The configuration key of the max number of records which are read ahead on a background thread
+     * (per task, {@code 0} to disable).
+     * The number of background threads is limited to the number of available processors, and tasks read their
+     * input on the task threads if there are no more background threads.
+     */
+    public static final String KEY_READ_AHEAD = "com.asakusafw.dag.input.directio.readahead"; //$NON-NLS-1$
+
+    /**
+     * The default value of {@link #KEY_READ_AHEAD}.
+     */
+    public static final int DEFAULT_READ_AHEAD = 0;
+
     private final StageInfo stage;
 
     private final Configuration configuration;
@@ -58,6 +84,12 @@ public class DirectFileInputAdapter implements InputAdapter<ExtractOperation.Inp
 
     private final DataFilter.Context filterContext;
 
+    private final long combineSize;
+
+    private final int readAhead;
+
+    private final ReadAheadExecutor readAheadExecutor;
+
     private final List<Action<DirectFileInputTaskSchedule, Exception>> actions = new ArrayList<>();
 
     /**
@@ -73,6 +105,28 @@ public class DirectFileInputAdapter implements InputAdapter<ExtractOperation.Inp
         this.counterRoot = context.getResource(CounterRepository.class)
                 .orElse(CounterRepository.DETACHED);
         this.filterContext = new DataFilter.Context(stage.getBatchArguments());
+        this.combineSize = Math.max(
+                getProperty(context, "combine size", KEY_COMBINE_SIZE, DEFAULT_COMBINE_SIZE), 0L);
+        this.readAhead = (int) Math.min(Math.max(
+                getProperty(context, "read-ahead size", KEY_READ_AHEAD, DEFAULT_READ_AHEAD), 0L),
+                Integer.MAX_VALUE);
+        this.readAheadExecutor = readAhead > 0
+                ? new ReadAheadExecutor("directio-read-ahead", Runtime.getRuntime().availableProcessors()) //$NON-NLS-1$
+                : null;
+    }
+
+    private static long getProperty(VertexProcessorContext context, String title, String key, long defaultValue) {
+        return context.getProperty(key)
+                .map(value -> {
+                    try {
+                        return Long.parseLong(value);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException(MessageFormat.format(
+                                "{0} must be a valid integer: {1}={2}",
+                                title, key, value), e);
+                    }
+                })
+                .orElse(defaultValue);
     }
 
     /**
@@ -110,7 +164,8 @@ public class DirectFileInputAdapter implements InputAdapter<ExtractOperation.Inp
                 HadoopDataSourceUtil.loadRepository(configuration),
                 filterContext,
                 new HadoopObjectFactory(configuration),
-                stage::resolveUserVariables);
+                stage::resolveUserVariables,
+                combineSize);
         try {
             Lang.forEach(actions, a -> a.perform(schedule));
         } catch (IOException | InterruptedException | RuntimeException | Error e) {
@@ -123,6 +178,13 @@ public class DirectFileInputAdapter implements InputAdapter<ExtractOperation.Inp
 
     @Override
     public InputHandler<Input, TaskProcessorContext> newHandler() throws IOException, InterruptedException {
-        return new ModelInputHandler();
+        return new ModelInputHandler(readAheadExecutor, readAhead);
+    }
+
+    @Override
+    public void close() throws IOException, InterruptedException {
+        if (readAheadExecutor != null) {
+            readAheadExecutor.close();
+        }
     }
 }
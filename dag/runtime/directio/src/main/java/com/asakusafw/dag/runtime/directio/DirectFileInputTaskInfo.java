@@ -16,6 +16,11 @@
 package com.asakusafw.dag.runtime.directio;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.function.Supplier;
 
 import com.asakusafw.dag.api.processor.TaskInfo;
@@ -38,7 +43,7 @@ public class DirectFileInputTaskInfo<T> implements ModelInputTaskInfo<T> {
 
     private final DataDefinition<T> dataDefinition;
 
-    private final DirectInputFragment fragment;
+    private final List<DirectInputFragment> fragments;
 
     private final Supplier<? extends T> objectFactory;
 
@@ -58,27 +63,116 @@ public class DirectFileInputTaskInfo<T> implements ModelInputTaskInfo<T> {
             DirectInputFragment fragment,
             Supplier<? extends T> objectFactory,
             DirectFileCounterGroup counters) {
+        this(dataSource, dataDefinition, Collections.singletonList(fragment), objectFactory, counters);
+    }
+
+    /**
+     * Creates a new instance which reads the individual input fragments in order.
+     * @param dataSource input data source
+     * @param dataDefinition input data definition
+     * @param fragments input fragments
+     * @param objectFactory object factory for creating buffer objects
+     * @param counters the counter group
+     */
+    public DirectFileInputTaskInfo(
+            DirectDataSource dataSource,
+            DataDefinition<T> dataDefinition,
+            List<? extends DirectInputFragment> fragments,
+            Supplier<? extends T> objectFactory,
+            DirectFileCounterGroup counters) {
         Arguments.requireNonNull(dataSource);
         Arguments.requireNonNull(dataDefinition);
-        Arguments.requireNonNull(fragment);
+        Arguments.requireNonNull(fragments);
+        Arguments.require(fragments.isEmpty() == false);
         Arguments.requireNonNull(objectFactory);
         Arguments.requireNonNull(counters);
         this.dataSource = dataSource;
         this.dataDefinition = dataDefinition;
-        this.fragment = fragment;
+        this.fragments = Collections.unmodifiableList(new ArrayList<>(fragments));
         this.objectFactory = objectFactory;
         this.counters = counters;
     }
 
+    /**
+     * Returns the input fragments of this task.
+     * @return the input fragments
+     */
+    public List<DirectInputFragment> getFragments() {
+        return fragments;
+    }
+
+    /**
+     * Returns the total size of input fragments in this task.
+     * @return the total size in bytes
+     */
+    public long getSize() {
+        long total = 0;
+        for (DirectInputFragment fragment : fragments) {
+            total += Math.max(fragment.getSize(), 0L);
+        }
+        return total;
+    }
+
     @Override
     public ModelInput<T> open() throws IOException, InterruptedException {
-        return new CountingModelInput<>(
-                dataSource.openInput(dataDefinition, fragment, counters.getFileSize()),
-                counters.getRecordCount()::add);
+        ModelInput<T> input;
+        if (fragments.size() == 1) {
+            input = dataSource.openInput(dataDefinition, fragments.get(0), counters.getFileSize());
+        } else {
+            input = new SequentialInput();
+        }
+        return new CountingModelInput<>(input, counters.getRecordCount()::add);
     }
 
     @Override
     public T newDataObject() {
         return objectFactory.get();
     }
+
+    private final class SequentialInput implements ModelInput<T> {
+
+        private final Iterator<DirectInputFragment> rest = fragments.iterator();
+
+        private ModelInput<T> current;
+
+        SequentialInput() {
+            return;
+        }
+
+        @Override
+        public boolean readTo(T model) throws IOException {
+            while (true) {
+                if (current == null) {
+                    if (rest.hasNext() == false) {
+                        return false;
+                    }
+                    current = openNext(rest.next());
+                }
+                if (current.readTo(model)) {
+                    return true;
+                }
+                ModelInput<T> finished = current;
+                current = null;
+                finished.close();
+            }
+        }
+
+        private ModelInput<T> openNext(DirectInputFragment fragment) throws IOException {
+            try {
+                return dataSource.openInput(dataDefinition, fragment, counters.getFileSize());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw (IOException) new InterruptedIOException().initCause(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (current != null) {
+                ModelInput<T> finished = current;
+                current = null;
+                finished.close();
+            }
+        }
+    }
 }
@@ -17,6 +17,8 @@ package com.asakusafw.dag.runtime.directio;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.function.Function;
 
@@ -34,6 +36,8 @@ import com.asakusafw.runtime.directio.ResourcePattern;
 
 /**
  * A {@link TaskSchedule} for Direct I/O file input.
+ * Tasks are ordered from the largest one, and if the combine size is set,
+ * this combines small input fragments into a task up to the size.
  * @since 0.4.0
  */
 public class DirectFileInputTaskSchedule implements TaskSchedule {
@@ -46,6 +50,8 @@ public class DirectFileInputTaskSchedule implements TaskSchedule {
 
     private final Function<String, String> variables;
 
+    private final long combineSize;
+
     private final List<DirectFileInputTaskInfo<?>> tasks = new ArrayList<>();
 
     /**
@@ -60,14 +66,34 @@ public class DirectFileInputTaskSchedule implements TaskSchedule {
             DataFilter.Context filterContext,
             ObjectFactory factory,
             Function<String, String> variableResolver) {
+        this(repository, filterContext, factory, variableResolver, 0L);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param repository the Direct I/O data source repository
+     * @param filterContext the data filter context
+     * @param factory an object factory
+     * @param variableResolver the user variable resolver
+     * @param combineSize the max total size of input fragments in each combined task in bytes,
+     *     or {@code 0} to disable combining input fragments
+     */
+    public DirectFileInputTaskSchedule(
+            DirectDataSourceRepository repository,
+            DataFilter.Context filterContext,
+            ObjectFactory factory,
+            Function<String, String> variableResolver,
+            long combineSize) {
         Arguments.requireNonNull(repository);
         Arguments.requireNonNull(filterContext);
         Arguments.requireNonNull(factory);
         Arguments.requireNonNull(variableResolver);
+        Arguments.require(combineSize >= 0L);
         this.repository = repository;
         this.filterContext = filterContext;
         this.factory = factory;
         this.variables = variableResolver;
+        this.combineSize = combineSize;
     }
 
     /**
@@ -128,17 +154,76 @@ public class DirectFileInputTaskSchedule implements TaskSchedule {
         String componentPath = repository.getComponentPath(basePath);
         DirectDataSource source = repository.getRelatedDataSource(containerPath);
         List<DirectInputFragment> fragments = source.findInputFragments(definition, componentPath, resourcePattern);
-        fragments.stream()
-                .map(fragment -> new DirectFileInputTaskInfo<>(
-                        source, definition, fragment,
+        List<List<DirectInputFragment>> groups = combine(fragments, combineSize);
+        groups.stream()
+                .map(group -> new DirectFileInputTaskInfo<>(
+                        source, definition, group,
                         () -> factory.newInstance(definition.getDataClass()),
                         counters))
                 .forEach(tasks::add);
+        counters.getFragmentCount().add(fragments.size());
+        counters.getTaskCount().add(groups.size());
         return fragments.size();
     }
 
+    /**
+     * Packs the small fragments into groups whose total size does not exceed the combine size.
+     * Fragments larger than the combine size, or whose size is unknown, are placed into their own groups.
+     * @param fragments the input fragments
+     * @param combineSize the max total size of each group, or {@code 0} to disable combining
+     * @return the fragment groups
+     */
+    static List<List<DirectInputFragment>> combine(List<DirectInputFragment> fragments, long combineSize) {
+        List<List<DirectInputFragment>> results = new ArrayList<>();
+        if (combineSize <= 0L) {
+            for (DirectInputFragment fragment : fragments) {
+                results.add(Collections.singletonList(fragment));
+            }
+            return results;
+        }
+        List<DirectInputFragment> sorted = new ArrayList<>(fragments);
+        sorted.sort(Comparator.comparingLong((DirectInputFragment f) -> sizeOf(f)).reversed());
+        List<Long> remaining = new ArrayList<>();
+        for (DirectInputFragment fragment : sorted) {
+            long size = sizeOf(fragment);
+            if (size >= combineSize) {
+                results.add(Collections.singletonList(fragment));
+                // never accepts any other fragments, even if they are empty
+                remaining.add(-1L);
+                continue;
+            }
+            // first-fit decreasing
+            int index = -1;
+            for (int i = 0, n = remaining.size(); i < n; i++) {
+                if (remaining.get(i) >= size) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                List<DirectInputFragment> group = new ArrayList<>();
+                group.add(fragment);
+                results.add(group);
+                remaining.add(combineSize - size);
+            } else {
+                results.get(index).add(fragment);
+                remaining.set(index, remaining.get(index) - size);
+            }
+        }
+        return results;
+    }
+
+    private static long sizeOf(DirectInputFragment fragment) {
+        long size = fragment.getSize();
+        // unknown size fragments may be large, so that they are never combined
+        return size < 0L ? Long.MAX_VALUE : size;
+    }
+
     @Override
     public List<DirectFileInputTaskInfo<?>> getTasks() {
-        return new ArrayList<>(tasks);
+        List<DirectFileInputTaskInfo<?>> results = new ArrayList<>(tasks);
+        // schedules larger tasks first to avoid stragglers
+        results.sort(Comparator.comparingLong((DirectFileInputTaskInfo<?> t) -> t.getSize()).reversed());
+        return results;
     }
 }
@@ -23,6 +23,11 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import org.apache.hadoop.conf.Configuration;
@@ -47,10 +52,25 @@ public class DirectFileOutputCommit extends CustomVertexProcessor {
 
     static final Logger LOG = LoggerFactory.getLogger(DirectFileOutputCommit.class);
 
+    /**
+     * The configuration key of the number of background threads for cleaning up committed outputs
+     * ({@code 0} to clean up them on the commit task threads).
+     */
+    public static final String KEY_CLEANUP_THREADS = "com.asakusafw.dag.output.directio.cleanup.threads"; //$NON-NLS-1$
+
+    /**
+     * The default value of {@link #KEY_CLEANUP_THREADS}.
+     */
+    public static final int DEFAULT_CLEANUP_THREADS = 0;
+
     private final List<Spec> specs = new ArrayList<>();
 
     private TransactionManager transactionManager;
 
+    private ExecutorService cleanupExecutor;
+
+    private final List<Future<?>> cleanups = new ArrayList<>();
+
     /**
      * Adds a commit specification.
      * @param id the output ID
@@ -72,6 +92,26 @@ public class DirectFileOutputCommit extends CustomVertexProcessor {
         StageInfo stage = context.getResource(StageInfo.class).orElseThrow(AssertionError::new);
         Configuration conf = context.getResource(Configuration.class).orElseThrow(AssertionError::new);
         transactionManager = createTransactionManager(stage, conf);
+        int cleanupThreads = context.getProperty(KEY_CLEANUP_THREADS)
+                .map(value -> {
+                    try {
+                        return Math.max(Integer.parseInt(value), 0);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException(MessageFormat.format(
+                                "cleanup threads must be a valid integer: {0}={1}",
+                                KEY_CLEANUP_THREADS, value), e);
+                    }
+                })
+                .orElse(DEFAULT_CLEANUP_THREADS);
+        if (cleanupThreads > 0) {
+            AtomicInteger counter = new AtomicInteger();
+            cleanupExecutor = Executors.newFixedThreadPool(cleanupThreads, r -> {
+                Thread thread = new Thread(r);
+                thread.setName(String.format("directio-cleanup-%d", counter.incrementAndGet())); //$NON-NLS-1$
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
         List<CustomTaskInfo> actions = resolve(
                 HadoopDataSourceUtil.loadRepository(conf),
                 stage::resolveUserVariables);
@@ -81,9 +121,66 @@ public class DirectFileOutputCommit extends CustomVertexProcessor {
 
     @Override
     public synchronized void close() throws IOException, InterruptedException {
-        if (transactionManager != null) {
-            transactionManager.end();
-            transactionManager = null;
+        try {
+            awaitCleanups();
+        } finally {
+            if (transactionManager != null) {
+                transactionManager.end();
+                transactionManager = null;
+            }
+        }
+    }
+
+    private void awaitCleanups() throws IOException, InterruptedException {
+        if (cleanupExecutor == null) {
+            return;
+        }
+        try {
+            Throwable occurred = null;
+            for (Future<?> future : cleanups) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (occurred == null) {
+                        occurred = e.getCause();
+                    } else {
+                        occurred.addSuppressed(e.getCause());
+                    }
+                }
+            }
+            if (occurred instanceof IOException) {
+                throw (IOException) occurred;
+            } else if (occurred instanceof RuntimeException) {
+                throw (RuntimeException) occurred;
+            } else if (occurred instanceof Error) {
+                throw (Error) occurred;
+            } else if (occurred != null) {
+                throw new IOException(occurred);
+            }
+        } finally {
+            cleanups.clear();
+            cleanupExecutor.shutdownNow();
+            cleanupExecutor = null;
+        }
+    }
+
+    private void cleanup(
+            DirectDataSource source, OutputTransactionContext context,
+            String containerPath) throws IOException, InterruptedException {
+        if (cleanupExecutor == null) {
+            source.cleanupTransactionOutput(context);
+            transactionManager.release(context);
+            return;
+        }
+        // the transaction is kept until cleanup was finished, so that it can be rolled forward on crash
+        Future<?> future = cleanupExecutor.submit(() -> {
+            LOG.debug("cleaning up Direct I/O file output: {}/*", containerPath);
+            source.cleanupTransactionOutput(context);
+            transactionManager.release(context);
+            return null;
+        });
+        synchronized (this) {
+            cleanups.add(future);
         }
     }
 
@@ -121,8 +218,7 @@ public class DirectFileOutputCommit extends CustomVertexProcessor {
             results.add(c -> {
                 LOG.debug("commiting Direct I/O file output: {}/*", containerPath);
                 source.commitTransactionOutput(context);
-                source.cleanupTransactionOutput(context);
-                transactionManager.release(context);
+                cleanup(source, context, containerPath);
             });
         }
         return results;
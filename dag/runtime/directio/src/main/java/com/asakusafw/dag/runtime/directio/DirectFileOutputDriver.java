@@ -67,6 +67,10 @@ final class DirectFileOutputDriver implements InterruptibleIo {
         return context;
     }
 
+    public Class<?> getDataClass() {
+        return definition.getDataClass();
+    }
+
     public Counter getRecordCounter() {
         return counters.getRecordCount();
     }
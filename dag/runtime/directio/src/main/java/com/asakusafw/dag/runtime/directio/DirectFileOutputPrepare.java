@@ -17,8 +17,20 @@ package com.asakusafw.dag.runtime.directio;
 
 import java.io.IOException;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import org.apache.hadoop.conf.Configuration;
 import org.slf4j.Logger;
@@ -45,6 +57,7 @@ import com.asakusafw.runtime.directio.DirectDataSourceRepository;
 import com.asakusafw.runtime.directio.OutputAttemptContext;
 import com.asakusafw.runtime.directio.hadoop.HadoopDataSourceUtil;
 import com.asakusafw.runtime.io.ModelOutput;
+import com.asakusafw.runtime.model.DataModel;
 
 /**
  * Prepares Direct I/O file output.
@@ -64,12 +77,31 @@ public class DirectFileOutputPrepare implements VertexProcessor {
      */
     public static final String INPUT_NAME = "input";
 
+    /**
+     * The configuration key of the number of background writer threads, which are shared by the group output tasks
+     * ({@code 0} to write outputs on the task thread).
+     */
+    public static final String KEY_WRITER_THREADS = "com.asakusafw.dag.output.directio.writer.threads"; //$NON-NLS-1$
+
+    /**
+     * The default value of {@link #KEY_WRITER_THREADS}.
+     */
+    public static final int DEFAULT_WRITER_THREADS = 0;
+
+    static final int WRITER_BATCH_SIZE = 256;
+
+    static final int WRITER_BATCHES_PER_THREAD = 4;
+
     private final AtomicInteger taskCounter = new AtomicInteger();
 
+    private final AtomicInteger writerCounter = new AtomicInteger();
+
     private Spec spec;
 
     private IoCallable<TaskProcessor> lazy;
 
+    private ExecutorService writers;
+
     /**
      * Binds an output.
      * @param id the output ID
@@ -116,7 +148,27 @@ public class DirectFileOutputPrepare implements VertexProcessor {
                 return new FlatTask(d, d.newInstance(resolvedPath));
             };
         } else {
-            lazy = () -> new GroupTask(resolve(conf, stage, vertexId, counters));
+            int writerThreads = context.getProperty(KEY_WRITER_THREADS)
+                    .map(value -> {
+                        try {
+                            return Math.max(Integer.parseInt(value), 0);
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException(MessageFormat.format(
+                                    "writer threads must be a valid integer: {0}={1}",
+                                    KEY_WRITER_THREADS, value), e);
+                        }
+                    })
+                    .orElse(DEFAULT_WRITER_THREADS);
+            HadoopObjectFactory objects = new HadoopObjectFactory(conf);
+            lazy = () -> {
+                DirectFileOutputDriver d = resolve(conf, stage, vertexId, counters);
+                if (writerThreads > 0) {
+                    return new PipelinedGroupTask(
+                            d, getWriters(writerThreads), writerThreads,
+                            () -> objects.newInstance(d.getDataClass()));
+                }
+                return new GroupTask(d);
+            };
         }
         return Optionals.empty();
     }
@@ -141,12 +193,41 @@ public class DirectFileOutputPrepare implements VertexProcessor {
         return driver;
     }
 
+    private synchronized ExecutorService getWriters(int threads) {
+        if (writers == null) {
+            writers = Executors.newFixedThreadPool(threads, r -> {
+                Thread thread = new Thread(r);
+                thread.setName(String.format("directio-writer-%d", writerCounter.incrementAndGet())); //$NON-NLS-1$
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return writers;
+    }
+
     @Override
     public TaskProcessor createTaskProcessor() throws IOException, InterruptedException {
         Invariants.requireNonNull(lazy);
         return lazy.call();
     }
 
+    @Override
+    public void close() throws IOException, InterruptedException {
+        ExecutorService executor;
+        synchronized (this) {
+            executor = writers;
+            writers = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            if (executor.awaitTermination(10, TimeUnit.SECONDS) == false) {
+                LOG.warn(MessageFormat.format(
+                        "background writers are still running: {0}",
+                        this));
+            }
+        }
+    }
+
     @Override
     public String toString() {
         return MessageFormat.format(
@@ -268,4 +349,257 @@ public class DirectFileOutputPrepare implements VertexProcessor {
                     driver);
         }
     }
+
+    private static final class PipelinedGroupTask implements TaskProcessor {
+
+        private final DirectFileOutputDriver driver;
+
+        private final ExecutorService executor;
+
+        private final int threads;
+
+        private final Supplier<?> objectFactory;
+
+        private final BlockingQueue<Batch> free = new LinkedBlockingQueue<>();
+
+        private int allocated;
+
+        PipelinedGroupTask(
+                DirectFileOutputDriver driver, ExecutorService executor,
+                int threads, Supplier<?> objectFactory) {
+            assert driver != null;
+            assert executor != null;
+            assert threads > 0;
+            assert objectFactory != null;
+            this.driver = driver;
+            this.executor = executor;
+            this.threads = threads;
+            this.objectFactory = objectFactory;
+        }
+
+        @Override
+        public void run(TaskProcessorContext context) throws IOException, InterruptedException {
+            Semaphore slots = new Semaphore(threads);
+            List<GroupWriter> running = new ArrayList<>();
+            try (GroupReader reader = (GroupReader) context.getInput(INPUT_NAME)) {
+                long count = 0;
+                while (reader.nextGroup()) {
+                    String resource = (String) reader.getGroup().getValue();
+                    slots.acquire();
+                    checkFinished(running);
+                    GroupWriter writer = new GroupWriter(driver.newInstance(resource), slots);
+                    writer.future = executor.submit(writer);
+                    running.add(writer);
+                    Batch batch = null;
+                    while (reader.nextObject()) {
+                        count++;
+                        if (batch == null) {
+                            batch = takeBatch(writer, running);
+                        }
+                        batch.add(reader.getObject());
+                        if (batch.isFull()) {
+                            send(writer, batch);
+                            batch = null;
+                        }
+                    }
+                    if (batch == null) {
+                        batch = takeBatch(writer, running);
+                    }
+                    batch.last = true;
+                    send(writer, batch);
+                }
+                for (GroupWriter writer : running) {
+                    get(writer.future);
+                }
+                driver.getRecordCounter().add(count);
+            } catch (Throwable t) {
+                driver.error(t);
+                abort(running, t);
+                throw t;
+            }
+        }
+
+        private Batch takeBatch(
+                GroupWriter writer, List<GroupWriter> running) throws IOException, InterruptedException {
+            Batch batch = free.poll();
+            if (batch != null) {
+                return batch;
+            }
+            if (allocated < threads * WRITER_BATCHES_PER_THREAD) {
+                allocated++;
+                Object[] objects = new Object[WRITER_BATCH_SIZE];
+                for (int i = 0; i < objects.length; i++) {
+                    objects[i] = objectFactory.get();
+                }
+                return new Batch(objects);
+            }
+            while (true) {
+                batch = free.poll(100, TimeUnit.MILLISECONDS);
+                if (batch != null) {
+                    return batch;
+                }
+                if (writer.finished) {
+                    checkFinished(running);
+                    throw new IOException(MessageFormat.format(
+                            "output writer was unexpectedly finished: {0}",
+                            driver));
+                }
+            }
+        }
+
+        private void send(GroupWriter writer, Batch batch) throws IOException, InterruptedException {
+            boolean last = batch.last;
+            writer.queue.put(batch);
+            if (writer.finished) {
+                // the writer has already gone away, so that nobody will consume the rest batches
+                writer.reclaim();
+                if (last == false) {
+                    get(writer.future);
+                    throw new IOException(MessageFormat.format(
+                            "output writer was unexpectedly finished: {0}",
+                            driver));
+                }
+            }
+        }
+
+        private static void checkFinished(List<GroupWriter> running) throws IOException, InterruptedException {
+            for (Iterator<GroupWriter> iter = running.iterator(); iter.hasNext();) {
+                GroupWriter writer = iter.next();
+                if (writer.future.isDone()) {
+                    get(writer.future);
+                    iter.remove();
+                }
+            }
+        }
+
+        private static void abort(List<GroupWriter> running, Throwable cause) {
+            for (GroupWriter writer : running) {
+                writer.queue.add(Batch.ABORT);
+            }
+            for (GroupWriter writer : running) {
+                try {
+                    get(writer.future);
+                } catch (Throwable t) {
+                    if (t != cause) {
+                        cause.addSuppressed(t);
+                    }
+                }
+            }
+        }
+
+        private static void get(Future<?> future) throws IOException, InterruptedException {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof InterruptedException) {
+                    throw (InterruptedException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IOException(cause);
+            }
+        }
+
+        @Override
+        public void close() throws IOException, InterruptedException {
+            driver.close();
+        }
+
+        @Override
+        public String toString() {
+            return MessageFormat.format(
+                    "PipelinedGroup({0})", //$NON-NLS-1$
+                    driver);
+        }
+
+        private final class GroupWriter implements IoCallable<Void> {
+
+            final BlockingQueue<Batch> queue = new LinkedBlockingQueue<>();
+
+            private final ModelOutput<Object> output;
+
+            private final Semaphore slots;
+
+            volatile boolean finished;
+
+            Future<?> future;
+
+            GroupWriter(ModelOutput<Object> output, Semaphore slots) {
+                this.output = output;
+                this.slots = slots;
+            }
+
+            @Override
+            public Void call() throws IOException, InterruptedException {
+                try (ModelOutput<Object> o = output) {
+                    while (true) {
+                        Batch batch = queue.take();
+                        if (batch == Batch.ABORT) {
+                            break;
+                        }
+                        boolean last = batch.last;
+                        try {
+                            for (int i = 0; i < batch.count; i++) {
+                                o.write(batch.objects[i]);
+                            }
+                        } finally {
+                            batch.reset();
+                            free.add(batch);
+                        }
+                        if (last) {
+                            break;
+                        }
+                    }
+                } finally {
+                    finished = true;
+                    reclaim();
+                    slots.release();
+                }
+                return null;
+            }
+
+            void reclaim() {
+                for (Batch rest = queue.poll(); rest != null; rest = queue.poll()) {
+                    if (rest != Batch.ABORT) {
+                        rest.reset();
+                        free.add(rest);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Batch {
+
+        static final Batch ABORT = new Batch(new Object[0]);
+
+        final Object[] objects;
+
+        int count;
+
+        boolean last;
+
+        Batch(Object[] objects) {
+            this.objects = objects;
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        void add(Object object) {
+            ((DataModel) objects[count++]).copyFrom(object);
+        }
+
+        boolean isFull() {
+            return count >= objects.length;
+        }
+
+        void reset() {
+            count = 0;
+            last = false;
+        }
+    }
 }
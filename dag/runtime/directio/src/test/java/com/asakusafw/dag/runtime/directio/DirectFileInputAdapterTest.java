@@ -30,6 +30,8 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import com.asakusafw.bridge.stage.StageInfo;
+import com.asakusafw.dag.api.counter.CounterRepository;
+import com.asakusafw.dag.api.counter.basic.BasicCounterRepository;
 import com.asakusafw.dag.api.processor.TaskInfo;
 import com.asakusafw.dag.api.processor.TaskProcessorContext;
 import com.asakusafw.dag.api.processor.TaskSchedule;
@@ -82,6 +84,98 @@ public class DirectFileInputAdapterTest {
         }
     }
 
+    /**
+     * combine small input files.
+     * @throws Exception if failed
+     */
+    @Test
+    public void combine() throws Exception {
+        put("in/a.bin", "A");
+        put("in/b.bin", "B");
+        put("in/c.bin", "C");
+        MockVertexProcessorContext vc = new MockVertexProcessorContext()
+                .withResource(StageInfo.class, STAGE)
+                .withResource(Configuration.class, directio.newConfiguration())
+                .withProperty(DirectFileInputAdapter.KEY_COMBINE_SIZE, String.valueOf(1024 * 1024));
+        try (DirectFileInputAdapter adapter = new DirectFileInputAdapter(vc)) {
+            adapter.bind("testing", "in", "*.bin", MockDataFormat.class, null, false);
+            adapter.initialize();
+            assertThat(adapter.getSchedule().getTasks(), hasSize(1));
+            assertThat(collect(adapter), containsInAnyOrder("A", "B", "C"));
+        }
+    }
+
+    /**
+     * counters about input fragments and tasks.
+     * @throws Exception if failed
+     */
+    @Test
+    public void counters() throws Exception {
+        put("in/a.bin", "A");
+        put("in/b.bin", "B");
+        put("in/c.bin", "C");
+        CounterRepository counters = new BasicCounterRepository();
+        MockVertexProcessorContext vc = new MockVertexProcessorContext()
+                .withResource(StageInfo.class, STAGE)
+                .withResource(Configuration.class, directio.newConfiguration())
+                .withResource(CounterRepository.class, counters);
+        try (DirectFileInputAdapter adapter = new DirectFileInputAdapter(vc)) {
+            adapter.bind("testing", "in", "*.bin", MockDataFormat.class, null, false);
+            adapter.initialize();
+            assertThat(collect(adapter), containsInAnyOrder("A", "B", "C"));
+        }
+        DirectFileCounterGroup group = counters.get(DirectFileCounterGroup.CATEGORY_INPUT, "testing");
+        assertThat(group.getCount(DirectFileCounterGroup.InputColumn.INPUT_FRAGMENT), is(3L));
+        assertThat(group.getCount(DirectFileCounterGroup.InputColumn.INPUT_TASK), is(3L));
+    }
+
+    /**
+     * counters about input fragments and tasks w/ combining small input files.
+     * @throws Exception if failed
+     */
+    @Test
+    public void counters_combine() throws Exception {
+        put("in/a.bin", "A");
+        put("in/b.bin", "B");
+        put("in/c.bin", "C");
+        CounterRepository counters = new BasicCounterRepository();
+        MockVertexProcessorContext vc = new MockVertexProcessorContext()
+                .withResource(StageInfo.class, STAGE)
+                .withResource(Configuration.class, directio.newConfiguration())
+                .withResource(CounterRepository.class, counters)
+                .withProperty(DirectFileInputAdapter.KEY_COMBINE_SIZE, String.valueOf(1024 * 1024));
+        try (DirectFileInputAdapter adapter = new DirectFileInputAdapter(vc)) {
+            adapter.bind("testing", "in", "*.bin", MockDataFormat.class, null, false);
+            adapter.initialize();
+            assertThat(collect(adapter), containsInAnyOrder("A", "B", "C"));
+        }
+        DirectFileCounterGroup group = counters.get(DirectFileCounterGroup.CATEGORY_INPUT, "testing");
+        assertThat(group.getCount(DirectFileCounterGroup.InputColumn.INPUT_FRAGMENT), is(3L));
+        assertThat(group.getCount(DirectFileCounterGroup.InputColumn.INPUT_TASK), is(1L));
+    }
+
+    /**
+     * w/ read-ahead.
+     * @throws Exception if failed
+     */
+    @Test
+    public void read_ahead() throws Exception {
+        String[] lines = new String[100];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = String.valueOf(i);
+        }
+        put("in/testing.bin", lines);
+        MockVertexProcessorContext vc = new MockVertexProcessorContext()
+                .withResource(StageInfo.class, STAGE)
+                .withResource(Configuration.class, directio.newConfiguration())
+                .withProperty(DirectFileInputAdapter.KEY_READ_AHEAD, "10");
+        try (DirectFileInputAdapter adapter = new DirectFileInputAdapter(vc)) {
+            adapter.bind("testing", "in", "*.bin", MockDataFormat.class, null, false);
+            adapter.initialize();
+            assertThat(collect(adapter), contains(lines));
+        }
+    }
+
     /**
      * missing mandatory input.
      * @throws Exception if failed
@@ -0,0 +1,169 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.runtime.directio;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.asakusafw.runtime.directio.DirectInputFragment;
+
+/**
+ * Test for {@link DirectFileInputTaskSchedule}.
+ */
+public class DirectFileInputTaskScheduleTest {
+
+    /**
+     * combine - simple case.
+     */
+    @Test
+    public void combine() {
+        List<List<DirectInputFragment>> results = DirectFileInputTaskSchedule.combine(
+                fragments(10, 20, 30), 100);
+        assertThat(paths(results), containsInAnyOrder(set("10", "20", "30")));
+    }
+
+    /**
+     * combine - first-fit decreasing.
+     */
+    @Test
+    public void combine_fit() {
+        List<List<DirectInputFragment>> results = DirectFileInputTaskSchedule.combine(
+                fragments(60, 50, 40, 30, 20), 100);
+        assertThat(paths(results), containsInAnyOrder(
+                set("60", "40"),
+                set("50", "30", "20")));
+    }
+
+    /**
+     * combine - oversized fragments.
+     */
+    @Test
+    public void combine_oversized() {
+        List<List<DirectInputFragment>> results = DirectFileInputTaskSchedule.combine(
+                fragments(200, 100, 10), 100);
+        assertThat(paths(results), containsInAnyOrder(
+                set("200"),
+                set("100"),
+                set("10")));
+    }
+
+    /**
+     * combine - empty fragments never join to oversized fragments.
+     */
+    @Test
+    public void combine_oversized_empty() {
+        List<List<DirectInputFragment>> results = DirectFileInputTaskSchedule.combine(
+                fragments(200, 0, 0), 100);
+        assertThat(paths(results), containsInAnyOrder(
+                set("200"),
+                set("0", "0#1")));
+    }
+
+    /**
+     * combine - fragments with unknown size are never combined.
+     */
+    @Test
+    public void combine_unknown_size() {
+        List<List<DirectInputFragment>> results = DirectFileInputTaskSchedule.combine(
+                fragments(100, -1, 50), 100);
+        assertThat(paths(results), containsInAnyOrder(
+                set("100"),
+                set("-1"),
+                set("50")));
+    }
+
+    /**
+     * combine - multiple fragments with unknown size.
+     */
+    @Test
+    public void combine_unknown_size_multiple() {
+        List<List<DirectInputFragment>> results = DirectFileInputTaskSchedule.combine(
+                fragments(-1, 10, -1, 0), 100);
+        assertThat(paths(results), containsInAnyOrder(
+                set("-1"),
+                set("-1#1"),
+                set("10", "0")));
+    }
+
+    /**
+     * combine - full group still accepts empty fragments.
+     */
+    @Test
+    public void combine_full_empty() {
+        List<List<DirectInputFragment>> results = DirectFileInputTaskSchedule.combine(
+                fragments(60, 40, 0), 100);
+        assertThat(paths(results), containsInAnyOrder(set("60", "40", "0")));
+    }
+
+    /**
+     * combine - disabled.
+     */
+    @Test
+    public void combine_disabled() {
+        List<List<DirectInputFragment>> results = DirectFileInputTaskSchedule.combine(
+                fragments(10, 20, 0, -1), 0);
+        assertThat(paths(results), containsInAnyOrder(
+                set("10"),
+                set("20"),
+                set("0"),
+                set("-1")));
+    }
+
+    /**
+     * combine - empty input.
+     */
+    @Test
+    public void combine_nothing() {
+        List<List<DirectInputFragment>> results = DirectFileInputTaskSchedule.combine(
+                Collections.emptyList(), 100);
+        assertThat(results, is(empty()));
+    }
+
+    private static List<DirectInputFragment> fragments(long... sizes) {
+        List<DirectInputFragment> results = new ArrayList<>();
+        Set<String> saw = new HashSet<>();
+        for (long size : sizes) {
+            String path = String.valueOf(size);
+            for (int i = 1; saw.add(path) == false; i++) {
+                path = String.format("%d#%d", size, i);
+            }
+            results.add(new DirectInputFragment(path, 0, size, Collections.emptyList()));
+        }
+        return results;
+    }
+
+    private static List<Set<String>> paths(List<List<DirectInputFragment>> groups) {
+        return groups.stream()
+                .map(g -> g.stream()
+                        .map(DirectInputFragment::getPath)
+                        .collect(Collectors.toSet()))
+                .collect(Collectors.toList());
+    }
+
+    private static Set<String> set(String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+}
@@ -23,6 +23,9 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.hadoop.conf.Configuration;
 import org.junit.Before;
@@ -93,6 +96,22 @@ public class DirectFileOutputCommitTest {
         assertThat(file.exists(), is(true));
     }
 
+    /**
+     * commit with background cleanup.
+     * @throws Exception if failed
+     */
+    @Test
+    public void cleanup_threads() throws Exception {
+        File file = prepare("s", "out/testing.bin", "out", "testing.bin");
+        assertThat(file.exists(), is(false));
+
+        commit(r -> r.property(DirectFileOutputCommit.KEY_CLEANUP_THREADS, "2"));
+        assertThat(file.exists(), is(true));
+
+        // staging area, temporary files, and transaction files must be removed
+        assertThat(files(), containsInAnyOrder("out/testing.bin"));
+    }
+
     private File prepare(
             String id, String physicalPath,
             String basePath, String resourceName) throws IOException, InterruptedException {
@@ -117,12 +136,30 @@ public class DirectFileOutputCommitTest {
         return directio.file(physicalPath);
     }
 
+    private List<String> files() throws IOException {
+        File root = directio.getRoot();
+        try (Stream<java.nio.file.Path> stream = java.nio.file.Files.walk(root.toPath())) {
+            return stream
+                    .filter(java.nio.file.Files::isRegularFile)
+                    .filter(p -> p.getFileName().toString().endsWith(".crc") == false)
+                    .map(p -> root.toPath().relativize(p).toString().replace(File.separatorChar, '/'))
+                    .collect(Collectors.toList());
+        }
+    }
+
     private void commit() {
+        commit(r -> {
+            return;
+        });
+    }
+
+    private void commit(Consumer<VertexProcessorRunner> options) {
         VertexProcessorRunner runner = new VertexProcessorRunner(() -> {
             DirectFileOutputCommit p = new DirectFileOutputCommit();
             actions.forEach(a -> Lang.safe(() -> a.perform(p)));
             return p;
         });
+        options.accept(runner);
         runner
             .resource(Configuration.class, configuration)
             .resource(StageInfo.class, STAGE)
@@ -19,10 +19,16 @@ import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import org.apache.hadoop.conf.Configuration;
 import org.junit.Before;
@@ -38,6 +44,7 @@ import com.asakusafw.lang.compiler.mapreduce.testing.mock.MockDataFormat;
 import com.asakusafw.lang.compiler.mapreduce.testing.mock.WritableModelInput;
 import com.asakusafw.lang.utils.common.Action;
 import com.asakusafw.runtime.io.ModelInput;
+import com.asakusafw.runtime.io.ModelOutput;
 import com.asakusafw.runtime.windows.WindowsSupport;
 
 /**
@@ -93,6 +100,74 @@ public class DirectFileOutputPrepareTest {
         assertThat(results, hasEntry(100, "Hello, world!"));
     }
 
+    /**
+     * group - with background writers.
+     */
+    @Test
+    public void group_writer_threads() {
+        int groups = 10;
+        int records = DirectFileOutputPrepare.WRITER_BATCH_SIZE * 3 + 1;
+        List<MockData> inputs = new ArrayList<>();
+        for (int i = 0; i < groups; i++) {
+            for (int j = 0; j < records; j++) {
+                inputs.add(new MockData().set(i * records + j, "v" + j));
+            }
+        }
+        group(
+                r -> r.property(DirectFileOutputPrepare.KEY_WRITER_THREADS, "2"),
+                p -> p.bind("a", "out", null, MockDataFormat.class),
+                g -> g.getKey() / records,
+                inputs.toArray(new MockData[inputs.size()]));
+        for (int i = 0; i < groups; i++) {
+            Map<Integer, String> results = collect(String.format("out/%d.bin", i));
+            assertThat(results.keySet(), hasSize(records));
+            for (int j = 0; j < records; j++) {
+                assertThat(results, hasEntry(i * records + j, "v" + j));
+            }
+        }
+    }
+
+    /**
+     * group - with background writers which are failed.
+     * @throws Exception if failed
+     */
+    @Test(timeout = 30_000)
+    public void group_writer_threads_failure() throws Exception {
+        int groups = 3;
+        int records = DirectFileOutputPrepare.WRITER_BATCH_SIZE * DirectFileOutputPrepare.WRITER_BATCHES_PER_THREAD * 4;
+        List<MockData> inputs = new ArrayList<>();
+        for (int i = 0; i < groups; i++) {
+            for (int j = 0; j < records; j++) {
+                inputs.add(new MockData().set(i * records + j, i == 1 && j == 0 ? FailDataFormat.FAIL : "v" + j));
+            }
+        }
+        try {
+            group(
+                    r -> r.property(DirectFileOutputPrepare.KEY_WRITER_THREADS, "2"),
+                    p -> p.bind("a", "out", null, FailDataFormat.class),
+                    g -> g.getKey() / records,
+                    inputs.toArray(new MockData[inputs.size()]));
+            fail();
+        } catch (AssertionError e) {
+            assertThat(find(e, IOException.class, FailDataFormat.FAIL), is(true));
+        }
+        // writer threads must be stopped after the processor was closed
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("directio-writer-")) {
+                thread.join();
+            }
+        }
+    }
+
+    private static boolean find(Throwable t, Class<? extends Throwable> type, String message) {
+        for (Throwable current = t; current != null; current = current.getCause()) {
+            if (type.isInstance(current) && message.equals(current.getMessage())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private Map<Integer, String> collect(String path) {
         try (ModelInput<MockData> in = WritableModelInput.open(directio.file(path))) {
             return MockData.collect(in);
@@ -131,13 +206,24 @@ public class DirectFileOutputPrepareTest {
     }
 
     private void group(Action<DirectFileOutputPrepare, Exception> config, MockData... inputs) {
+        group(r -> {
+            return;
+        }, config, MockData::getKey, inputs);
+    }
+
+    private void group(
+            Consumer<VertexProcessorRunner> options,
+            Action<DirectFileOutputPrepare, Exception> config,
+            Function<MockData, Object> grouping,
+            MockData... inputs) {
         VertexProcessorRunner runner = new VertexProcessorRunner(() -> {
             DirectFileOutputPrepare p = new DirectFileOutputPrepare();
             config.perform(p);
             return p;
         });
+        options.accept(runner);
         for (MockData d : inputs) {
-            runner.group(DirectFileOutputPrepare.INPUT_NAME, d.getKey() + ".bin", d);
+            runner.group(DirectFileOutputPrepare.INPUT_NAME, grouping.apply(d) + ".bin", d);
         }
         runner
             .resource(Configuration.class, configuration)
@@ -158,4 +244,31 @@ public class DirectFileOutputPrepareTest {
             .resource(StageInfo.class, STAGE)
             .run();
     }
+
+    /**
+     * A data format which fails on writing {@link #FAIL}.
+     */
+    public static class FailDataFormat extends MockDataFormat {
+
+        static final String FAIL = "fail";
+
+        @Override
+        public ModelOutput<MockData> createOutput(
+                Class<? extends MockData> dataType, String path, OutputStream stream) {
+            ModelOutput<MockData> delegate = super.createOutput(dataType, path, stream);
+            return new ModelOutput<MockData>() {
+                @Override
+                public void write(MockData model) throws IOException {
+                    if (FAIL.equals(model.getValue())) {
+                        throw new IOException(FAIL);
+                    }
+                    delegate.write(model);
+                }
+                @Override
+                public void close() throws IOException {
+                    delegate.close();
+                }
+            };
+        }
+    }
 }
@@ -15,8 +15,22 @@
  */
 package com.asakusafw.dag.extension.counter;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
 import java.util.TreeMap;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
@@ -24,12 +38,14 @@ import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.asakusafw.bridge.stage.StageInfo;
 import com.asakusafw.dag.api.counter.CounterGroup.Category;
 import com.asakusafw.dag.api.counter.CounterGroup.Column;
 import com.asakusafw.dag.api.counter.CounterGroup.Element;
 import com.asakusafw.dag.api.counter.CounterGroup.Scope;
 import com.asakusafw.dag.api.counter.CounterRepository;
 import com.asakusafw.dag.api.counter.basic.BasicCounterRepository;
+import com.asakusafw.dag.api.counter.basic.StandardColumn;
 import com.asakusafw.dag.api.processor.ProcessorContext;
 import com.asakusafw.dag.api.processor.extension.ProcessorContextExtension;
 import com.asakusafw.lang.utils.common.InterruptibleIo;
@@ -51,6 +67,26 @@ public class CounterRepositorySupportExtension implements ProcessorContextExtens
      */
     public static final boolean DEFAULT_ENABLED = true;
 
+    /**
+     * The property key of the runtime statistics file path (optional).
+     * If it is specified, this records the input size of individual external inputs into the file as
+     * {@code <batch-id>/<flow-id>/<external-input-name>.size=<input size in bytes>},
+     * and the compiler can use it for later compilations.
+     * @since 0.4.0
+     */
+    public static final String KEY_STATISTICS = KEY_ENABLED + ".statistics"; //$NON-NLS-1$
+
+    private static final String SUFFIX_SIZE = ".size"; //$NON-NLS-1$
+
+    private static final String SUFFIX_RECORDS = ".records"; //$NON-NLS-1$
+
+    private static final String SUFFIX_LOCK = ".lock"; //$NON-NLS-1$
+
+    private static final String SUFFIX_TEMPORARY = ".tmp"; //$NON-NLS-1$
+
+    // FileLock is held by the whole JVM, so that we also must exclude the other threads
+    private static final Object STATISTICS_LOCK = new Object();
+
     static final Logger LOG = LoggerFactory.getLogger(CounterRepositorySupportExtension.class);
 
     @Override
@@ -65,7 +101,28 @@ public class CounterRepositorySupportExtension implements ProcessorContextExtens
         LOG.debug("enabling execution counter");
         CounterRepository repository = new BasicCounterRepository();
         editor.addResource(CounterRepository.class, repository);
-        return () -> printCounters(repository);
+        Optional<File> statistics = context.getProperty(KEY_STATISTICS)
+                .map(String::trim)
+                .filter(s -> s.isEmpty() == false)
+                .map(File::new);
+        Optional<StageInfo> stage = context.getResource(StageInfo.class);
+        if (statistics.isPresent() && stage.isPresent() == false) {
+            LOG.warn(MessageFormat.format(
+                    "runtime statistics are not available because stage information is missing: {0}",
+                    statistics.get()));
+        }
+        return () -> {
+            printCounters(repository);
+            if (statistics.isPresent() && stage.isPresent()) {
+                try {
+                    saveStatistics(repository, stage.get(), statistics.get());
+                } catch (IOException e) {
+                    LOG.warn(MessageFormat.format(
+                            "failed to save runtime statistics: {0}",
+                            statistics.get()), e);
+                }
+            }
+        };
     }
 
     private static void printCounters(CounterRepository repository) {
@@ -99,6 +156,85 @@ public class CounterRepositorySupportExtension implements ProcessorContextExtens
         });
     }
 
+    /**
+     * Saves the input statistics into the given file.
+     * This replaces the file atomically while holding a file lock, so that concurrent executions never break it.
+     * @param repository the source counter repository
+     * @param stage the current stage information
+     * @param file the destination file
+     * @throws IOException if I/O error was occurred while saving the statistics
+     */
+    static void saveStatistics(CounterRepository repository, StageInfo stage, File file) throws IOException {
+        Map<String, Map<Column, Long>> inputs = repository.stream()
+                .filter(e -> e.getCategory().getScope() == Scope.GRAPH)
+                .filter(e -> e.getCounters().containsKey(StandardColumn.INPUT_RECORD))
+                .collect(Collectors.toMap(
+                        CounterRepository.Entry::getItemId,
+                        CounterRepository.Entry::getCounters,
+                        CounterRepository::merge,
+                        TreeMap::new));
+        if (inputs.isEmpty()) {
+            return;
+        }
+        LOG.debug("saving runtime statistics: {}", file); //$NON-NLS-1$
+        File target = file.getAbsoluteFile();
+        File parent = target.getParentFile();
+        if (parent.mkdirs() == false && parent.isDirectory() == false) {
+            throw new IOException(MessageFormat.format(
+                    "failed to create directory: {0}",
+                    parent));
+        }
+        File lockFile = new File(parent, target.getName() + SUFFIX_LOCK);
+        synchronized (STATISTICS_LOCK) {
+            try (FileChannel channel = FileChannel.open(lockFile.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                    FileLock lock = channel.lock()) {
+                // keeps statistics of the other inputs
+                Properties properties = new Properties();
+                if (target.isFile()) {
+                    try (InputStream in = new FileInputStream(target)) {
+                        properties.load(in);
+                    }
+                }
+                String prefix = getStatisticsPrefix(stage);
+                inputs.forEach((item, counters) -> {
+                    Long size = counters.containsKey(StandardColumn.INPUT_FILE_SIZE)
+                            ? counters.get(StandardColumn.INPUT_FILE_SIZE)
+                            : counters.get(StandardColumn.INPUT_DATA_SIZE);
+                    if (size != null) {
+                        properties.setProperty(prefix + item + SUFFIX_SIZE, String.valueOf(size));
+                    }
+                    properties.setProperty(prefix + item + SUFFIX_RECORDS,
+                            String.valueOf(counters.get(StandardColumn.INPUT_RECORD)));
+                });
+                store(properties, target);
+            }
+        }
+    }
+
+    private static String getStatisticsPrefix(StageInfo stage) {
+        return String.format("%s/%s/", stage.getBatchId(), stage.getFlowId()); //$NON-NLS-1$
+    }
+
+    private static void store(Properties properties, File target) throws IOException {
+        File temporary = File.createTempFile(target.getName(), SUFFIX_TEMPORARY, target.getParentFile());
+        boolean success = false;
+        try {
+            try (OutputStream out = new FileOutputStream(temporary)) {
+                properties.store(out, "runtime statistics"); //$NON-NLS-1$
+            }
+            Files.move(temporary.toPath(), target.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            success = true;
+        } finally {
+            if (success == false && temporary.delete() == false && temporary.exists()) {
+                LOG.warn(MessageFormat.format(
+                        "failed to delete temporary file: {0}",
+                        temporary));
+            }
+        }
+    }
+
     private static <K extends Element, V> void forEachElement(Map<K, V> map, BiConsumer<K, V> action) {
         map.entrySet().stream()
             .map(Tuple::of)
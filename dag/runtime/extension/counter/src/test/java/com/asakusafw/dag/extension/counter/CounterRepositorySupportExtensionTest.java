@@ -0,0 +1,141 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.extension.counter;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.asakusafw.bridge.stage.StageInfo;
+import com.asakusafw.dag.api.counter.CounterGroup;
+import com.asakusafw.dag.api.counter.CounterGroup.Scope;
+import com.asakusafw.dag.api.counter.CounterRepository;
+import com.asakusafw.dag.api.counter.basic.AbstractCounterGroup;
+import com.asakusafw.dag.api.counter.basic.BasicCounterGroupCategory;
+import com.asakusafw.dag.api.counter.basic.BasicCounterRepository;
+import com.asakusafw.dag.api.counter.basic.StandardColumn;
+
+/**
+ * Test for {@link CounterRepositorySupportExtension}.
+ */
+public class CounterRepositorySupportExtensionTest {
+
+    static final CounterGroup.Category<MockInputCounterGroup> CATEGORY = new BasicCounterGroupCategory<>(
+            "testing",
+            Scope.GRAPH,
+            Arrays.asList(StandardColumn.INPUT_FILE_SIZE, StandardColumn.INPUT_RECORD),
+            MockInputCounterGroup::new);
+
+    static final StageInfo STAGE = new StageInfo(
+            "u", "b", "f", "s", "e", Collections.emptyMap());
+
+    /**
+     * temporary folder.
+     */
+    @Rule
+    public final TemporaryFolder temporary = new TemporaryFolder();
+
+    /**
+     * save statistics.
+     * @throws Exception if failed
+     */
+    @Test
+    public void saveStatistics() throws Exception {
+        CounterRepository repository = new BasicCounterRepository();
+        input(repository, "in", 100, 10);
+
+        File folder = temporary.newFolder();
+        File file = new File(folder, "stats.properties");
+        CounterRepositorySupportExtension.saveStatistics(repository, STAGE, file);
+
+        Properties properties = load(file);
+        assertThat(properties.getProperty("b/f/in.size"), is("100"));
+        assertThat(properties.getProperty("b/f/in.records"), is("10"));
+        assertThat(properties.getProperty("in.size"), is(nullValue()));
+
+        // must not leave temporary files
+        assertThat(folder.list(), arrayContainingInAnyOrder("stats.properties", "stats.properties.lock"));
+    }
+
+    /**
+     * save statistics - keeps entries of other inputs.
+     * @throws Exception if failed
+     */
+    @Test
+    public void saveStatistics_merge() throws Exception {
+        File file = new File(temporary.newFolder(), "stats.properties");
+        Properties base = new Properties();
+        base.setProperty("b/f/in.size", "1");
+        base.setProperty("b/other/in.size", "2");
+        try (OutputStream out = new FileOutputStream(file)) {
+            base.store(out, null);
+        }
+
+        CounterRepository repository = new BasicCounterRepository();
+        input(repository, "in", 100, 10);
+        CounterRepositorySupportExtension.saveStatistics(repository, STAGE, file);
+
+        Properties properties = load(file);
+        assertThat(properties.getProperty("b/f/in.size"), is("100"));
+        assertThat(properties.getProperty("b/other/in.size"), is("2"));
+    }
+
+    /**
+     * save statistics - w/o any inputs.
+     * @throws Exception if failed
+     */
+    @Test
+    public void saveStatistics_empty() throws Exception {
+        File file = new File(temporary.newFolder(), "stats.properties");
+        CounterRepositorySupportExtension.saveStatistics(new BasicCounterRepository(), STAGE, file);
+        assertThat(file.exists(), is(false));
+    }
+
+    private static void input(CounterRepository repository, String name, long size, long records) {
+        MockInputCounterGroup group = repository.get(CATEGORY, name);
+        group.size.add(size);
+        group.records.add(records);
+    }
+
+    private static Properties load(File file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        }
+        return properties;
+    }
+
+    static final class MockInputCounterGroup extends AbstractCounterGroup {
+
+        final LongAdder size = register(StandardColumn.INPUT_FILE_SIZE);
+
+        final LongAdder records = register(StandardColumn.INPUT_RECORD);
+    }
+}
@@ -52,6 +52,16 @@ public interface ConnectionPool extends InterruptibleIo {
      */
     Handle acquire() throws IOException, InterruptedException;
 
+    /**
+     * Opens the connections of this pool in advance, up to its {@link #size() max number of connections}.
+     * This does nothing in default.
+     * @throws IOException if I/O error was occurred while opening connections
+     * @throws InterruptedException if interrupted while opening connections
+     */
+    default void warmUp() throws IOException, InterruptedException {
+        return;
+    }
+
     /**
      * Provides {@link ConnectionPool} instance.
      * Each {@link ConnectionPool} should have a nested {@code Provider} class which implements this interface.
@@ -68,6 +78,21 @@ public interface ConnectionPool extends InterruptibleIo {
          * @return the created instance
          */
         ConnectionPool newInstance(String url, Map<String, String> properties, int maxConnections);
+
+        /**
+         * Creates a new instance.
+         * The default implementation ignores {@code maxStatements}.
+         * @param url the JDBC URL
+         * @param properties the JDBC properties
+         * @param maxConnections the number of max connections
+         * @param maxStatements the max number of prepared statements to cache per connection,
+         *     or {@code 0} to disable statement caching
+         * @return the created instance
+         */
+        default ConnectionPool newInstance(
+                String url, Map<String, String> properties, int maxConnections, int maxStatements) {
+            return newInstance(url, properties, maxConnections);
+        }
     }
 
     /**
@@ -26,6 +26,7 @@ import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Set;
 
+import com.asakusafw.dag.runtime.io.ReadAheadExecutor;
 import com.asakusafw.lang.utils.common.Arguments;
 import com.asakusafw.lang.utils.common.Optionals;
 
@@ -41,6 +42,10 @@ public final class JdbcProfile {
 
     private final int fetchSize;
 
+    private final int prefetchSize;
+
+    private final ReadAheadExecutor prefetchExecutor;
+
     private final int insertSize;
 
     private final int maxInputConcurrency;
@@ -51,11 +56,13 @@ public final class JdbcProfile {
 
     private final Map<Class<?>, Object> extraOptions;
 
-    JdbcProfile(Builder builder, ConnectionPool pool) {
+    JdbcProfile(Builder builder, ConnectionPool pool, ReadAheadExecutor prefetchExecutor) {
         Arguments.requireNonNull(builder);
         this.name = builder.name;
         this.connectionPool = pool;
         this.fetchSize = builder.fetchSize;
+        this.prefetchSize = builder.prefetchSize;
+        this.prefetchExecutor = prefetchExecutor;
         this.insertSize = builder.insertSize;
         this.maxInputConcurrency = builder.maxInputConcurrency;
         this.maxOutputConcurrency = builder.maxOutputConcurrency;
@@ -89,6 +96,25 @@ public final class JdbcProfile {
         return getOptionalSize(fetchSize);
     }
 
+    /**
+     * Returns the number of input records to fetch ahead on a background thread.
+     * @return the input prefetch size, or empty if it is not specified
+     */
+    public OptionalInt getPrefetchSize() {
+        return getOptionalSize(prefetchSize);
+    }
+
+    /**
+     * Returns the executor for fetching input records ahead.
+     * @return the executor, or empty if prefetch is disabled
+     */
+    public Optional<ReadAheadExecutor> getPrefetchExecutor() {
+        if (prefetchSize <= 0) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(prefetchExecutor);
+    }
+
     /**
      * Returns the batch insert size.
      * @return the batch insert size, or empty if it is not specified
@@ -113,6 +139,14 @@ public final class JdbcProfile {
         return getOptionalSize(maxOutputConcurrency);
     }
 
+    /**
+     * Returns the max number of connections of this profile.
+     * @return max number of connections, or empty if it is not specified
+     */
+    public OptionalInt getMaxConnections() {
+        return connectionPool.size();
+    }
+
     private static OptionalInt getOptionalSize(int size) {
         return size <= 0 ? OptionalInt.empty() : OptionalInt.of(size);
     }
@@ -151,6 +185,8 @@ public final class JdbcProfile {
 
         int fetchSize;
 
+        int prefetchSize;
+
         int insertSize;
 
         int maxInputConcurrency;
@@ -180,6 +216,16 @@ public final class JdbcProfile {
             return this;
         }
 
+        /**
+         * Sets a prefetchSize.
+         * @param newValue the prefetchSize
+         * @return this
+         */
+        public Builder withPrefetchSize(int newValue) {
+            this.prefetchSize = newValue;
+            return this;
+        }
+
         /**
          * Sets a insertSize.
          * @param newValue the insertSize
@@ -273,14 +319,26 @@ public final class JdbcProfile {
          * @return the built instance
          */
         public JdbcProfile build(ConnectionPool connectionPool) {
-            return new JdbcProfile(this, connectionPool);
+            return build(connectionPool, null);
+        }
+
+        /**
+         * Builds a new instance.
+         * @param connectionPool the connection pool
+         * @param prefetchExecutor the executor for fetching input records ahead, which is owned by the caller
+         *     (nullable if prefetch is disabled)
+         * @return the built instance
+         */
+        public JdbcProfile build(ConnectionPool connectionPool, ReadAheadExecutor prefetchExecutor) {
+            return new JdbcProfile(this, connectionPool, prefetchExecutor);
         }
 
         @Override
         public String toString() {
             return MessageFormat.format(
-                    "fetch={0}/{1}, insert={2}/{3}, options={4}, extra={5}", //$NON-NLS-1$
+                    "fetch={0}/{1}, prefetch={2}, insert={3}/{4}, options={5}, extra={6}", //$NON-NLS-1$
                     fetchSize, maxInputConcurrency,
+                    prefetchSize,
                     insertSize, maxOutputConcurrency,
                     optimizations, extraOptions.values());
         }
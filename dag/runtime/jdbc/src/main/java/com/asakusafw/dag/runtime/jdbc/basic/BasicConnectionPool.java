@@ -19,13 +19,23 @@ import java.io.IOException;
 import java.sql.Connection;
 import java.sql.Driver;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.OptionalInt;
 import java.util.Properties;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
@@ -35,16 +45,22 @@ import com.asakusafw.dag.runtime.jdbc.ConnectionPool;
 import com.asakusafw.dag.runtime.jdbc.util.JdbcUtil;
 import com.asakusafw.lang.utils.common.Arguments;
 import com.asakusafw.lang.utils.common.Invariants;
+import com.asakusafw.lang.utils.common.InterruptibleIo;
 import com.asakusafw.lang.utils.common.Optionals;
 
 /**
  * A basic implementation of {@link ConnectionPool}.
+ * This resets connection states only when the connections are released, so that cached connections can be
+ * acquired without any extra round trips.
+ * If {@code maxStatements} is positive, each pooled connection also caches its prepared statements by their SQL.
  * @since 0.4.0
  */
 public class BasicConnectionPool implements ConnectionPool {
 
     static final Logger LOG = LoggerFactory.getLogger(BasicConnectionPool.class);
 
+    private static final AtomicInteger WARM_UP_COUNTER = new AtomicInteger();
+
     private final Driver driver;
 
     private final String url;
@@ -53,9 +69,11 @@ public class BasicConnectionPool implements ConnectionPool {
 
     private final int size;
 
+    private final int maxStatements;
+
     private final Semaphore semaphore;
 
-    private final Queue<Connection> cached = new ConcurrentLinkedQueue<>();
+    private final Queue<Entry> cached = new ConcurrentLinkedQueue<>();
 
     private volatile boolean poolClosed = false;
 
@@ -65,19 +83,37 @@ public class BasicConnectionPool implements ConnectionPool {
      * @param url the JDBC URL
      * @param properties the JDBC properties
      * @param maxConnections the number of max connections
+     * @param maxStatements the max number of prepared statements to cache per connection,
+     *     or {@code 0} to disable statement caching
+     * @since 0.4.0
      */
-    public BasicConnectionPool(Driver driver, String url, Map<String, String> properties, int maxConnections) {
+    public BasicConnectionPool(
+            Driver driver, String url, Map<String, String> properties,
+            int maxConnections, int maxStatements) {
         Arguments.requireNonNull(url);
         Arguments.requireNonNull(properties);
         Arguments.require(maxConnections >= 1);
+        Arguments.require(maxStatements >= 0);
         this.driver = driver;
         this.url = url;
         this.properties = new Properties();
         this.properties.putAll(properties);
         this.size = maxConnections;
+        this.maxStatements = maxStatements;
         this.semaphore = new Semaphore(maxConnections);
     }
 
+    /**
+     * Creates a new instance.
+     * @param driver the JDBC driver instance (nullable)
+     * @param url the JDBC URL
+     * @param properties the JDBC properties
+     * @param maxConnections the number of max connections
+     */
+    public BasicConnectionPool(Driver driver, String url, Map<String, String> properties, int maxConnections) {
+        this(driver, url, properties, maxConnections, 0);
+    }
+
     /**
      * Creates a new instance.
      * @param url the JDBC URL
@@ -106,6 +142,14 @@ public class BasicConnectionPool implements ConnectionPool {
         return semaphore.availablePermits();
     }
 
+    /**
+     * Returns the number of cached connections (only for testing).
+     * @return the number of cached connections
+     */
+    int cached() {
+        return cached.size();
+    }
+
     @Override
     public ConnectionPool.Handle acquire() throws IOException, InterruptedException {
         if (LOG.isDebugEnabled()) {
@@ -113,16 +157,10 @@ public class BasicConnectionPool implements ConnectionPool {
         }
         semaphore.acquire();
         boolean success = false;
-        try (Closer closer = new Closer()) {
-            Connection connection = acquire0();
-            closer.add(JdbcUtil.wrap(connection::close));
-            connection.clearWarnings();
-            connection.setAutoCommit(false);
+        try {
+            Entry entry = acquire0();
             success = true;
-            closer.keep();
-            return new Handle(connection);
-        } catch (SQLException e) {
-            throw JdbcUtil.wrap(e);
+            return new Handle(entry);
         } finally {
             if (success == false) {
                 semaphore.release();
@@ -130,19 +168,20 @@ public class BasicConnectionPool implements ConnectionPool {
         }
     }
 
-    private Connection acquire0() throws IOException {
+    private Entry acquire0() throws IOException, InterruptedException {
         try {
             while (true) {
                 if (poolClosed) {
                     throw new IOException("connection poll has been already closed");
                 }
-                Connection connection = cached.poll();
-                if (connection != null) {
-                    if (connection.isClosed()) {
-                        connection.close();
+                // cached connections were already reset when they were released
+                Entry entry = cached.poll();
+                if (entry != null) {
+                    if (entry.connection.isClosed()) {
+                        entry.close();
                         continue;
                     } else {
-                        return connection;
+                        return entry;
                     }
                 } else {
                     return open();
@@ -153,26 +192,86 @@ public class BasicConnectionPool implements ConnectionPool {
         }
     }
 
-    private Connection open() throws SQLException {
+    private Entry open() throws IOException {
         LOG.debug("opening connection: {}", url); //$NON-NLS-1$
-        if (driver != null) {
-            return driver.connect(url, properties);
-        } else {
-            return DriverManager.getConnection(url, properties);
+        try (Closer closer = new Closer()) {
+            Connection connection;
+            if (driver != null) {
+                connection = driver.connect(url, properties);
+            } else {
+                connection = DriverManager.getConnection(url, properties);
+            }
+            closer.add(JdbcUtil.wrap(connection::close));
+            connection.setAutoCommit(false);
+            closer.keep();
+            return new Entry(connection, maxStatements);
+        } catch (SQLException e) {
+            throw JdbcUtil.wrap(e);
+        }
+    }
+
+    @Override
+    public void warmUp() throws IOException, InterruptedException {
+        int count = semaphore.availablePermits() - cached.size();
+        if (count <= 0 || poolClosed) {
+            return;
+        }
+        LOG.debug("warming up connection pool: {} ({} connections)", url, count); //$NON-NLS-1$
+        ExecutorService executor = Executors.newFixedThreadPool(count, r -> {
+            Thread thread = new Thread(r);
+            thread.setName(String.format(
+                    "jdbc-pool-warmup-%d", WARM_UP_COUNTER.incrementAndGet())); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Entry>> futures = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                futures.add(executor.submit(this::open));
+            }
+            Throwable occurred = null;
+            for (Future<Entry> future : futures) {
+                try {
+                    cached.add(future.get());
+                } catch (ExecutionException e) {
+                    if (occurred == null) {
+                        occurred = e.getCause();
+                    } else {
+                        occurred.addSuppressed(e.getCause());
+                    }
+                }
+            }
+            if (occurred instanceof IOException) {
+                throw (IOException) occurred;
+            } else if (occurred instanceof RuntimeException) {
+                throw (RuntimeException) occurred;
+            } else if (occurred instanceof Error) {
+                throw (Error) occurred;
+            } else if (occurred != null) {
+                throw new IOException(occurred);
+            }
+        } finally {
+            executor.shutdownNow();
         }
     }
 
-    void release(Connection connection) throws IOException, InterruptedException {
-        if (connection == null) {
+    void release(Entry entry) throws IOException, InterruptedException {
+        if (entry == null) {
             return;
         }
+        Connection connection = entry.connection;
         try (Closer closer = new Closer()) {
-            closer.add(JdbcUtil.wrap(connection::close));
+            closer.add(entry);
             if (connection.isClosed() == false) {
-                if (connection.getAutoCommit() == false) {
+                if (connection.getAutoCommit()) {
+                    connection.setAutoCommit(false);
+                } else {
                     connection.rollback();
                 }
-                cached.add(connection);
+                if (connection.getWarnings() != null) {
+                    connection.clearWarnings();
+                }
+                cached.add(entry);
                 if (poolClosed == false) {
                     closer.keep();
                 }
@@ -192,11 +291,11 @@ public class BasicConnectionPool implements ConnectionPool {
         poolClosed = true;
         try (Closer closer = new Closer()) {
             while (true) {
-                Connection connection = cached.poll();
-                if (connection == null) {
+                Entry entry = cached.poll();
+                if (entry == null) {
                     break;
                 } else {
-                    closer.add(JdbcUtil.wrap(connection::close));
+                    closer.add(entry);
                 }
             }
         }
@@ -212,25 +311,194 @@ public class BasicConnectionPool implements ConnectionPool {
         public ConnectionPool newInstance(String url, Map<String, String> properties, int maxConnections) {
             return new BasicConnectionPool(url, properties, maxConnections);
         }
+
+        @Override
+        public ConnectionPool newInstance(
+                String url, Map<String, String> properties, int maxConnections, int maxStatements) {
+            return new BasicConnectionPool(null, url, properties, maxConnections, maxStatements);
+        }
     }
 
     private class Handle implements ConnectionPool.Handle {
 
-        private final AtomicReference<Connection> connection;
+        private final AtomicReference<Entry> entry;
 
-        Handle(Connection connection) {
-            Invariants.requireNonNull(connection);
-            this.connection = new AtomicReference<>(connection);
+        Handle(Entry entry) {
+            Invariants.requireNonNull(entry);
+            this.entry = new AtomicReference<>(entry);
         }
 
         @Override
         public Connection getConnection() throws IOException, InterruptedException {
-            return Optionals.of(connection.get()).orElseThrow(IllegalStateException::new);
+            return Optionals.of(entry.get()).orElseThrow(IllegalStateException::new).facade;
+        }
+
+        @Override
+        public void close() throws IOException, InterruptedException {
+            BasicConnectionPool.this.release(entry.getAndSet(null));
+        }
+    }
+
+    /**
+     * A pooled connection with its prepared statement cache.
+     */
+    private static final class Entry implements InterruptibleIo {
+
+        final Connection connection;
+
+        final Connection facade;
+
+        private final Map<String, PreparedStatement> statements;
+
+        Entry(Connection connection, int maxStatements) {
+            this.connection = connection;
+            if (maxStatements > 0) {
+                this.facade = new CachingConnection(this);
+                this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                        if (size() > maxStatements) {
+                            discard(eldest.getValue());
+                            return true;
+                        }
+                        return false;
+                    }
+                };
+            } else {
+                this.facade = connection;
+                this.statements = null;
+            }
+        }
+
+        PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement;
+            synchronized (statements) {
+                statement = statements.remove(sql);
+            }
+            if (statement == null || statement.isClosed()) {
+                statement = connection.prepareStatement(sql);
+            } else {
+                LOG.trace("reusing cached statement: {}", sql); //$NON-NLS-1$
+            }
+            return new CachedStatement(this, sql, statement);
+        }
+
+        void restore(String sql, PreparedStatement statement) throws SQLException {
+            if (statement.isClosed()) {
+                return;
+            }
+            statement.clearParameters();
+            statement.clearBatch();
+            statement.clearWarnings();
+            PreparedStatement replaced;
+            synchronized (statements) {
+                replaced = statements.put(sql, statement);
+            }
+            if (replaced != null) {
+                discard(replaced);
+            }
+        }
+
+        void discardStatements() {
+            if (statements == null) {
+                return;
+            }
+            synchronized (statements) {
+                for (Iterator<PreparedStatement> iter = statements.values().iterator(); iter.hasNext();) {
+                    discard(iter.next());
+                    iter.remove();
+                }
+            }
+        }
+
+        static void discard(PreparedStatement statement) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                LOG.warn("error occurred while closing cached statement", e);
+            }
         }
 
         @Override
         public void close() throws IOException, InterruptedException {
-            BasicConnectionPool.this.release(connection.getAndSet(null));
+            discardStatements();
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                throw JdbcUtil.wrap(e);
+            }
+        }
+    }
+
+    /**
+     * A connection which prepares statements via the owner's cache.
+     */
+    private static final class CachingConnection extends ForwardingConnection {
+
+        private final Entry owner;
+
+        CachingConnection(Entry owner) {
+            super(owner.connection);
+            this.owner = owner;
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql) throws SQLException {
+            return owner.prepare(sql);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            owner.discardStatements();
+            delegate.close();
+        }
+    }
+
+    /**
+     * A prepared statement which returns into the owner's cache instead of being closed.
+     */
+    private static final class CachedStatement extends ForwardingPreparedStatement {
+
+        private final Entry owner;
+
+        private final String sql;
+
+        private final PreparedStatement statement;
+
+        private boolean closed;
+
+        CachedStatement(Entry owner, String sql, PreparedStatement statement) {
+            this.owner = owner;
+            this.sql = sql;
+            this.statement = statement;
+        }
+
+        @Override
+        protected PreparedStatement delegate() throws SQLException {
+            if (closed) {
+                throw new SQLException("statement has been already closed");
+            }
+            return statement;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (closed == false) {
+                closed = true;
+                owner.restore(sql, statement);
+            }
+        }
+
+        @Override
+        public boolean isClosed() throws SQLException {
+            return closed || statement.isClosed();
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            delegate();
+            return owner.facade;
         }
     }
 }
@@ -28,6 +28,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.asakusafw.dag.api.processor.ObjectReader;
+import com.asakusafw.dag.runtime.io.ReadAheadExecutor;
 import com.asakusafw.dag.runtime.jdbc.JdbcInputDriver;
 import com.asakusafw.dag.runtime.jdbc.ResultSetAdapter;
 import com.asakusafw.dag.runtime.jdbc.util.JdbcUtil;
@@ -48,6 +49,10 @@ public class BasicJdbcInputDriver implements JdbcInputDriver {
 
     private final int fetchSize;
 
+    private final ReadAheadExecutor prefetchExecutor;
+
+    private final int prefetchSize;
+
     /**
      * Creates a new instance.
      * @param sql the input query
@@ -64,15 +69,38 @@ public class BasicJdbcInputDriver implements JdbcInputDriver {
      * @param fetchSize the bulk fetch size, or {@code <= 0} if it is not specified
      */
     public BasicJdbcInputDriver(String sql, Supplier<? extends ResultSetAdapter<?>> adapters, int fetchSize) {
+        this(sql, adapters, fetchSize, null, -1);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param sql the input query
+     * @param adapters the result set adapter provider
+     * @param fetchSize the bulk fetch size, or {@code <= 0} if it is not specified
+     * @param prefetchExecutor the executor for fetching records ahead (nullable if prefetch is disabled)
+     * @param prefetchSize the number of records to fetch ahead on a background thread,
+     *     or {@code <= 0} to fetch records on the caller thread
+     */
+    public BasicJdbcInputDriver(
+            String sql, Supplier<? extends ResultSetAdapter<?>> adapters,
+            int fetchSize, ReadAheadExecutor prefetchExecutor, int prefetchSize) {
         Arguments.requireNonNull(sql);
         Arguments.requireNonNull(adapters);
+        Arguments.require(prefetchSize <= 0 || prefetchExecutor != null);
         this.sql = sql;
         this.adapters = adapters;
         this.fetchSize = fetchSize;
+        this.prefetchExecutor = prefetchExecutor;
+        this.prefetchSize = prefetchSize;
     }
 
     @Override
     public List<? extends Partition> getPartitions(Connection connection) {
+        if (prefetchSize > 0) {
+            return Collections.singletonList(conn -> open(
+                    conn, sql, adapters, fetchSize,
+                    prefetchExecutor, prefetchSize));
+        }
         return Collections.singletonList(conn -> open(conn, sql, adapters.get(), fetchSize));
     }
 
@@ -110,4 +138,45 @@ public class BasicJdbcInputDriver implements JdbcInputDriver {
             throw JdbcUtil.wrap(e);
         }
     }
+
+    /**
+     * Creates a new reader which returns each object of query result.
+     * The returned reader fetches the results on a background thread if the executor has an available thread.
+     * @param connection the shared JDBC connection
+     * @param sql the input query
+     * @param adapters the result set adapter provider
+     * @param fetchSize the bulk fetch size, or {@code <= 0} if it is not specified
+     * @param prefetchExecutor the executor for fetching records ahead
+     * @param prefetchSize the number of records to fetch ahead ({@code > 0})
+     * @return the created reader
+     * @throws IOException if I/O error was occurred while computing input partitions
+     * @throws InterruptedException if interrupted while computing input partitions
+     */
+    public static ObjectReader open(
+            Connection connection,
+            String sql,
+            Supplier<? extends ResultSetAdapter<?>> adapters,
+            int fetchSize,
+            ReadAheadExecutor prefetchExecutor,
+            int prefetchSize) throws IOException, InterruptedException {
+        Arguments.requireNonNull(connection);
+        Arguments.requireNonNull(sql);
+        Arguments.requireNonNull(adapters);
+        Arguments.requireNonNull(prefetchExecutor);
+        Arguments.require(prefetchSize > 0);
+        LOG.debug("JDBC input: {} (prefetch={})", sql, prefetchSize); //$NON-NLS-1$
+        try (Closer closer = new Closer()) {
+            Statement statement = connection.createStatement();
+            closer.add(JdbcUtil.wrap(statement::close));
+            if (fetchSize > 0) {
+                statement.setFetchSize(fetchSize);
+            }
+            ResultSet results = statement.executeQuery(sql);
+            closer.add(JdbcUtil.wrap(results::close));
+
+            return PrefetchFetchCursor.open(prefetchExecutor, results, adapters, prefetchSize, closer.move());
+        } catch (SQLException e) {
+            throw JdbcUtil.wrap(e);
+        }
+    }
 }
@@ -0,0 +1,411 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.runtime.jdbc.basic;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Timestamp;
+import java.text.MessageFormat;
+import java.util.Calendar;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.asakusafw.dag.runtime.jdbc.JdbcOutputDriver;
+import com.asakusafw.dag.runtime.jdbc.PreparedStatementAdapter;
+import com.asakusafw.dag.runtime.jdbc.util.JdbcUtil;
+import com.asakusafw.lang.utils.common.Arguments;
+import com.asakusafw.lang.utils.common.InterruptibleIo.Closer;
+
+/**
+ * An implementation of {@link JdbcOutputDriver} which inserts multiple rows in each statement.
+ * The statement provider accepts the number of rows, and returns an insert statement which has the place-holders
+ * for each row in order. The default provider builds {@code INSERT ... VALUES (...),(...),...} statements, and
+ * clients can provide vendor specific statements instead.
+ * The number of rows in each statement is limited so that the statement has at most
+ * {@value #MAX_PARAMETERS} place-holders.
+ * @since 0.4.0
+ */
+public class MultiRowJdbcOutputDriver implements JdbcOutputDriver {
+
+    static final Logger LOG = LoggerFactory.getLogger(MultiRowJdbcOutputDriver.class);
+
+    /**
+     * The max number of place-holders in each statement.
+     */
+    public static final int MAX_PARAMETERS = 65535;
+
+    private final IntFunction<String> statements;
+
+    private final int columnCount;
+
+    private final int rowCount;
+
+    private final Supplier<? extends PreparedStatementAdapter<?>> adapters;
+
+    /**
+     * Creates a new instance.
+     * @param tableName the target table name
+     * @param columnNames the target column names
+     * @param rowCount the max number of rows in each statement
+     * @param adapters the prepared statement adapter provider
+     */
+    public MultiRowJdbcOutputDriver(
+            String tableName, List<String> columnNames, int rowCount,
+            Supplier<? extends PreparedStatementAdapter<?>> adapters) {
+        this(rows -> JdbcUtil.getInsertStatement(tableName, columnNames, rows),
+                columnNames.size(), rowCount, adapters);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param statements the insert statement provider, which accepts the number of rows in the statement
+     * @param columnCount the number of place-holders for each row
+     * @param rowCount the max number of rows in each statement
+     * @param adapters the prepared statement adapter provider
+     */
+    public MultiRowJdbcOutputDriver(
+            IntFunction<String> statements, int columnCount, int rowCount,
+            Supplier<? extends PreparedStatementAdapter<?>> adapters) {
+        Arguments.requireNonNull(statements);
+        Arguments.require(columnCount >= 1);
+        Arguments.require(rowCount >= 1);
+        Arguments.requireNonNull(adapters);
+        this.statements = statements;
+        this.columnCount = columnCount;
+        this.rowCount = Math.max(Math.min(rowCount, MAX_PARAMETERS / columnCount), 1);
+        this.adapters = adapters;
+        if (this.rowCount < rowCount) {
+            LOG.debug("multi-row insert size is limited: {} -> {} ({} columns)", //$NON-NLS-1$
+                    rowCount, this.rowCount, columnCount);
+        }
+    }
+
+    @Override
+    public JdbcOutputDriver.Sink open(Connection connection) throws IOException, InterruptedException {
+        String multi = statements.apply(rowCount);
+        String single = statements.apply(1);
+        LOG.debug("JDBC output: {}", multi); //$NON-NLS-1$
+        try (Closer closer = new Closer()) {
+            PreparedStatement multiStatement = connection.prepareStatement(multi);
+            closer.add(JdbcUtil.wrap(multiStatement::close));
+            PreparedStatement singleStatement = connection.prepareStatement(single);
+            closer.add(JdbcUtil.wrap(singleStatement::close));
+            return new Sink(
+                    multiStatement, singleStatement,
+                    new ParameterBuffer(columnCount, rowCount),
+                    adapters.get(), closer.move());
+        } catch (SQLException e) {
+            throw JdbcUtil.wrap(e);
+        }
+    }
+
+    private static class Sink implements JdbcOutputDriver.Sink {
+
+        private final PreparedStatement multiStatement;
+
+        private final PreparedStatement singleStatement;
+
+        private final ParameterBuffer buffer;
+
+        private final PreparedStatementAdapter<Object> adapter;
+
+        private final Closer resource;
+
+        private boolean dirty;
+
+        @SuppressWarnings("unchecked")
+        Sink(
+                PreparedStatement multiStatement, PreparedStatement singleStatement,
+                ParameterBuffer buffer,
+                PreparedStatementAdapter<?> adapter, Closer resource) {
+            this.multiStatement = multiStatement;
+            this.singleStatement = singleStatement;
+            this.buffer = buffer;
+            this.adapter = (PreparedStatementAdapter<Object>) adapter;
+            this.resource = resource;
+        }
+
+        @Override
+        public void putObject(Object object) throws IOException, InterruptedException {
+            try {
+                adapter.drive(buffer, object);
+                buffer.next();
+                if (buffer.isFull()) {
+                    buffer.bindAll(multiStatement);
+                    multiStatement.addBatch();
+                    buffer.clear();
+                    dirty = true;
+                }
+            } catch (SQLException e) {
+                throw JdbcUtil.wrap(e);
+            }
+        }
+
+        @Override
+        public boolean flush() throws IOException, InterruptedException {
+            try {
+                boolean flushed = false;
+                if (dirty) {
+                    dirty = false;
+                    multiStatement.executeBatch();
+                    flushed = true;
+                }
+                if (buffer.getRows() > 0) {
+                    // rest rows are not enough to fill the multi-row statement
+                    for (int row = 0, n = buffer.getRows(); row < n; row++) {
+                        buffer.bind(singleStatement, row);
+                        singleStatement.addBatch();
+                    }
+                    buffer.clear();
+                    singleStatement.executeBatch();
+                    flushed = true;
+                }
+                return flushed;
+            } catch (SQLException e) {
+                throw JdbcUtil.wrap(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException, InterruptedException {
+            resource.close();
+        }
+    }
+
+    /**
+     * Buffers statement parameters of individual rows, and binds them into the actual statements later.
+     * This only accepts the parameter setters used by the generated {@link PreparedStatementAdapter}.
+     */
+    private static final class ParameterBuffer extends ForwardingPreparedStatement {
+
+        private static final byte NULL = 0;
+
+        private static final byte BOOLEAN = 1;
+
+        private static final byte BYTE = 2;
+
+        private static final byte SHORT = 3;
+
+        private static final byte INT = 4;
+
+        private static final byte LONG = 5;
+
+        private static final byte FLOAT = 6;
+
+        private static final byte DOUBLE = 7;
+
+        private static final byte DECIMAL = 8;
+
+        private static final byte STRING = 9;
+
+        private static final byte DATE = 10;
+
+        private static final byte TIMESTAMP = 11;
+
+        private final int columnCount;
+
+        private final int rowCount;
+
+        private final byte[] kinds;
+
+        private final Object[] values;
+
+        private final Calendar[] calendars;
+
+        private int rows;
+
+        ParameterBuffer(int columnCount, int rowCount) {
+            this.columnCount = columnCount;
+            this.rowCount = rowCount;
+            this.kinds = new byte[columnCount * rowCount];
+            this.values = new Object[columnCount * rowCount];
+            this.calendars = new Calendar[columnCount * rowCount];
+        }
+
+        int getRows() {
+            return rows;
+        }
+
+        boolean isFull() {
+            return rows >= rowCount;
+        }
+
+        void next() {
+            rows++;
+        }
+
+        void clear() {
+            rows = 0;
+        }
+
+        void bindAll(PreparedStatement target) throws SQLException {
+            for (int row = 0; row < rows; row++) {
+                bind(target, row, row * columnCount);
+            }
+        }
+
+        void bind(PreparedStatement target, int row) throws SQLException {
+            bind(target, row, 0);
+        }
+
+        private void bind(PreparedStatement target, int row, int offset) throws SQLException {
+            int base = row * columnCount;
+            for (int column = 0; column < columnCount; column++) {
+                int slot = base + column;
+                int index = offset + column + 1;
+                Object value = values[slot];
+                switch (kinds[slot]) {
+                case NULL:
+                    target.setNull(index, (Integer) value);
+                    break;
+                case BOOLEAN:
+                    target.setBoolean(index, (Boolean) value);
+                    break;
+                case BYTE:
+                    target.setByte(index, (Byte) value);
+                    break;
+                case SHORT:
+                    target.setShort(index, (Short) value);
+                    break;
+                case INT:
+                    target.setInt(index, (Integer) value);
+                    break;
+                case LONG:
+                    target.setLong(index, (Long) value);
+                    break;
+                case FLOAT:
+                    target.setFloat(index, (Float) value);
+                    break;
+                case DOUBLE:
+                    target.setDouble(index, (Double) value);
+                    break;
+                case DECIMAL:
+                    target.setBigDecimal(index, (BigDecimal) value);
+                    break;
+                case STRING:
+                    target.setString(index, (String) value);
+                    break;
+                case DATE:
+                    target.setDate(index, (Date) value, calendars[slot]);
+                    break;
+                case TIMESTAMP:
+                    target.setTimestamp(index, (Timestamp) value, calendars[slot]);
+                    break;
+                default:
+                    throw new AssertionError(kinds[slot]);
+                }
+            }
+        }
+
+        private void put(int parameterIndex, byte kind, Object value, Calendar calendar) throws SQLException {
+            if (parameterIndex < 1 || parameterIndex > columnCount) {
+                throw new SQLException(MessageFormat.format(
+                        "parameter index is out of range: {0} (1..{1})",
+                        parameterIndex,
+                        columnCount));
+            }
+            int slot = rows * columnCount + parameterIndex - 1;
+            kinds[slot] = kind;
+            values[slot] = value;
+            // adapters may reuse the calendar for the next row, so we keep a snapshot of it
+            calendars[slot] = calendar == null ? null : (Calendar) calendar.clone();
+        }
+
+        @Override
+        protected PreparedStatement delegate() throws SQLException {
+            throw new SQLFeatureNotSupportedException("multi-row insert only supports parameter setters");
+        }
+
+        @Override
+        public void setNull(int parameterIndex, int sqlType) throws SQLException {
+            put(parameterIndex, NULL, sqlType, null);
+        }
+
+        @Override
+        public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+            put(parameterIndex, BOOLEAN, x, null);
+        }
+
+        @Override
+        public void setByte(int parameterIndex, byte x) throws SQLException {
+            put(parameterIndex, BYTE, x, null);
+        }
+
+        @Override
+        public void setShort(int parameterIndex, short x) throws SQLException {
+            put(parameterIndex, SHORT, x, null);
+        }
+
+        @Override
+        public void setInt(int parameterIndex, int x) throws SQLException {
+            put(parameterIndex, INT, x, null);
+        }
+
+        @Override
+        public void setLong(int parameterIndex, long x) throws SQLException {
+            put(parameterIndex, LONG, x, null);
+        }
+
+        @Override
+        public void setFloat(int parameterIndex, float x) throws SQLException {
+            put(parameterIndex, FLOAT, x, null);
+        }
+
+        @Override
+        public void setDouble(int parameterIndex, double x) throws SQLException {
+            put(parameterIndex, DOUBLE, x, null);
+        }
+
+        @Override
+        public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+            put(parameterIndex, DECIMAL, x, null);
+        }
+
+        @Override
+        public void setString(int parameterIndex, String x) throws SQLException {
+            put(parameterIndex, STRING, x, null);
+        }
+
+        @Override
+        public void setDate(int parameterIndex, Date x) throws SQLException {
+            put(parameterIndex, DATE, x, null);
+        }
+
+        @Override
+        public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+            put(parameterIndex, DATE, x, cal);
+        }
+
+        @Override
+        public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+            put(parameterIndex, TIMESTAMP, x, null);
+        }
+
+        @Override
+        public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+            put(parameterIndex, TIMESTAMP, x, cal);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.runtime.jdbc.basic;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import com.asakusafw.dag.api.processor.ObjectReader;
+import com.asakusafw.dag.runtime.io.ReadAheadCursor;
+import com.asakusafw.dag.runtime.io.ReadAheadExecutor;
+import com.asakusafw.dag.runtime.jdbc.ResultSetAdapter;
+import com.asakusafw.dag.runtime.jdbc.util.JdbcUtil;
+import com.asakusafw.lang.utils.common.Arguments;
+import com.asakusafw.lang.utils.common.InterruptibleIo;
+
+/**
+ * An {@link ObjectReader} which fetches and extracts rows on a background thread.
+ * Each row slot has its own {@link ResultSetAdapter}, so that extracted objects are not shared between slots.
+ */
+final class PrefetchFetchCursor implements ObjectReader {
+
+    private final ReadAheadCursor<Row> rows;
+
+    private final InterruptibleIo resource;
+
+    private PrefetchFetchCursor(ReadAheadCursor<Row> rows, InterruptibleIo resource) {
+        this.rows = rows;
+        this.resource = resource;
+    }
+
+    /**
+     * Returns a reader which fetches rows of the given result set on a background thread.
+     * If the executor does not have any available threads, the returned reader fetches rows on the caller thread.
+     * @param executor the executor for fetching rows
+     * @param cursor the result set
+     * @param adapters the result set adapter provider
+     * @param records the max number of records to fetch ahead
+     * @param resource the resource to be closed with the returned reader (nullable)
+     * @return the created reader
+     */
+    static ObjectReader open(
+            ReadAheadExecutor executor,
+            ResultSet cursor,
+            Supplier<? extends ResultSetAdapter<?>> adapters, int records,
+            InterruptibleIo resource) {
+        Arguments.requireNonNull(executor);
+        Arguments.requireNonNull(cursor);
+        Arguments.requireNonNull(adapters);
+        Optional<ReadAheadCursor<Row>> rows = executor.start(
+                () -> new Row(adapters.get()), records,
+                row -> row.fetch(cursor));
+        if (rows.isPresent()) {
+            return new PrefetchFetchCursor(rows.get(), resource);
+        }
+        return new BasicFetchCursor(cursor, adapters.get(), resource);
+    }
+
+    @Override
+    public boolean nextObject() throws IOException, InterruptedException {
+        return rows.next();
+    }
+
+    @Override
+    public Object getObject() {
+        return rows.get().object;
+    }
+
+    @Override
+    public void close() throws IOException, InterruptedException {
+        try {
+            rows.close();
+        } finally {
+            if (resource != null) {
+                resource.close();
+            }
+        }
+    }
+
+    private static final class Row {
+
+        final ResultSetAdapter<?> adapter;
+
+        Object object;
+
+        Row(ResultSetAdapter<?> adapter) {
+            this.adapter = adapter;
+        }
+
+        boolean fetch(ResultSet cursor) throws IOException {
+            try {
+                if (cursor.next() == false) {
+                    return false;
+                }
+                object = adapter.extract(cursor);
+                return true;
+            } catch (SQLException e) {
+                throw JdbcUtil.wrap(e);
+            }
+        }
+    }
+}
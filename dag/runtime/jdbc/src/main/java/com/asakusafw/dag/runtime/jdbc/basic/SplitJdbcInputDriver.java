@@ -29,8 +29,11 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -39,6 +42,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.asakusafw.dag.api.processor.ObjectReader;
+import com.asakusafw.dag.runtime.io.ReadAheadExecutor;
 import com.asakusafw.dag.runtime.jdbc.JdbcInputDriver;
 import com.asakusafw.dag.runtime.jdbc.JdbcProfile;
 import com.asakusafw.dag.runtime.jdbc.ResultSetAdapter;
@@ -73,6 +77,12 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
 
     private static final BigDecimal TWO = BigDecimal.valueOf(2L);
 
+    static final int HISTOGRAM_RESOLUTION = 8;
+
+    static final int HISTOGRAM_REFINEMENTS = 4;
+
+    static final int HISTOGRAM_MAX_BOUNDS = 256;
+
     private final JdbcProfile profile;
 
     private final String tableName;
@@ -87,6 +97,8 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
 
     private final Supplier<? extends ResultSetAdapter<?>> adapters;
 
+    private final boolean balanced;
+
     /**
      * Creates a new instance.
      * @param profile the current profile
@@ -105,6 +117,30 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
             int splitCount,
             String condition,
             Supplier<? extends ResultSetAdapter<?>> adapters) {
+        this(profile, tableName, columnNames, splitColumnName, splitCount, condition, adapters, false);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param profile the current profile
+     * @param tableName the target table name
+     * @param columnNames the target column names
+     * @param condition the input condition (optional)
+     * @param splitColumnName the split column name
+     * @param splitCount the max split count ({@code must be >= 2})
+     * @param adapters the result set adapter provider
+     * @param balanced {@code true} to split inputs into partitions which have almost the same number of rows,
+     *     or {@code false} to split the value range of the split column evenly
+     */
+    public SplitJdbcInputDriver(
+            JdbcProfile profile,
+            String tableName,
+            List<String> columnNames,
+            String splitColumnName,
+            int splitCount,
+            String condition,
+            Supplier<? extends ResultSetAdapter<?>> adapters,
+            boolean balanced) {
         Arguments.requireNonNull(profile);
         Arguments.requireNonNull(tableName);
         Arguments.requireNonNull(columnNames);
@@ -118,19 +154,30 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
         this.splitCount = splitCount;
         this.condition = condition;
         this.adapters = adapters;
+        this.balanced = balanced;
     }
 
     @Override
     public List<? extends JdbcInputDriver.Partition> getPartitions(
             Connection connection) throws IOException, InterruptedException {
         Optional<Stats> stats = getStats(connection);
-        List<?> boundValues = stats
-                .map(s -> computeBoundValues(s)) // for findbugs
-                .orElse(Collections.emptyList());
+        List<?> boundValues;
+        if (stats.isPresent() == false) {
+            boundValues = Collections.emptyList();
+        } else if (balanced) {
+            Stats s = stats.get();
+            boundValues = computeBoundValues(s, (min, max, scale) -> computeBalancedBoundValues(
+                    connection, s, min, max, scale));
+        } else {
+            boundValues = computeBoundValues(stats.get(), this::computeBoundValues);
+        }
         if (boundValues.isEmpty()) {
             int fetchSize = profile.getFetchSize().orElse(-1);
+            ReadAheadExecutor prefetchExecutor = profile.getPrefetchExecutor().orElse(null);
+            int prefetchSize = prefetchExecutor == null ? -1 : profile.getPrefetchSize().getAsInt();
             String sql = JdbcUtil.getSelectStatement(tableName, columnNames, condition);
-            return Collections.singletonList(conn -> BasicJdbcInputDriver.open(conn, sql, adapters.get(), fetchSize));
+            return new BasicJdbcInputDriver(sql, adapters, fetchSize, prefetchExecutor, prefetchSize)
+                    .getPartitions(connection);
         }
         return buildPartitions(stats.get(), boundValues);
     }
@@ -198,59 +245,65 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
         return buf.toString();
     }
 
-    private List<?> computeBoundValues(Stats stats) {
+    private static List<?> computeBoundValues(
+            Stats stats, BoundValuesFunction function) throws IOException, InterruptedException {
         if (stats.min == null || stats.max == null || stats.min.equals(stats.max)) {
             return Collections.emptyList();
         }
-        assert splitCount >= 2;
         switch (stats.typeId) {
         case java.sql.Types.TINYINT:
-            return computeBoundValues(((Number) stats.min).byteValue(), ((Number) stats.max).byteValue());
+            return computeBoundValues(((Number) stats.min).byteValue(), ((Number) stats.max).byteValue(), function);
         case java.sql.Types.SMALLINT:
-            return computeBoundValues(((Number) stats.min).shortValue(), ((Number) stats.max).shortValue());
+            return computeBoundValues(((Number) stats.min).shortValue(), ((Number) stats.max).shortValue(), function);
         case java.sql.Types.INTEGER:
-            return computeBoundValues(((Number) stats.min).intValue(), ((Number) stats.max).intValue());
+            return computeBoundValues(((Number) stats.min).intValue(), ((Number) stats.max).intValue(), function);
         case java.sql.Types.BIGINT:
-            return computeBoundValues(((Number) stats.min).longValue(), ((Number) stats.max).longValue());
+            return computeBoundValues(((Number) stats.min).longValue(), ((Number) stats.max).longValue(), function);
         case java.sql.Types.NUMERIC:
         case java.sql.Types.DECIMAL:
-            return computeBoundValues((BigDecimal) stats.min, (BigDecimal) stats.max, stats.scale);
+            return function.apply((BigDecimal) stats.min, (BigDecimal) stats.max, stats.scale);
         case java.sql.Types.DATE:
-            return computeBoundValues((java.sql.Date) stats.min, (java.sql.Date) stats.max);
+            return computeBoundValues((java.sql.Date) stats.min, (java.sql.Date) stats.max, function);
         case java.sql.Types.TIMESTAMP:
-            return computeBoundValues((java.sql.Timestamp) stats.min, (java.sql.Timestamp) stats.max);
+            return computeBoundValues((java.sql.Timestamp) stats.min, (java.sql.Timestamp) stats.max, function);
         default:
             throw new AssertionError();
         }
     }
 
-    private List<Byte> computeBoundValues(byte min, byte max) {
-        return computeBoundValues(BigDecimal.valueOf(min), BigDecimal.valueOf(max), 0).stream()
+    private static List<Byte> computeBoundValues(
+            byte min, byte max, BoundValuesFunction function) throws IOException, InterruptedException {
+        return function.apply(BigDecimal.valueOf(min), BigDecimal.valueOf(max), 0).stream()
                 .map(BigDecimal::byteValueExact)
                 .collect(Collectors.toList());
     }
 
-    private List<Short> computeBoundValues(short min, short max) {
-        return computeBoundValues(BigDecimal.valueOf(min), BigDecimal.valueOf(max), 0).stream()
+    private static List<Short> computeBoundValues(
+            short min, short max, BoundValuesFunction function) throws IOException, InterruptedException {
+        return function.apply(BigDecimal.valueOf(min), BigDecimal.valueOf(max), 0).stream()
                 .map(BigDecimal::shortValueExact)
                 .collect(Collectors.toList());
     }
 
-    private List<Integer> computeBoundValues(int min, int max) {
-        return computeBoundValues(BigDecimal.valueOf(min), BigDecimal.valueOf(max), 0).stream()
+    private static List<Integer> computeBoundValues(
+            int min, int max, BoundValuesFunction function) throws IOException, InterruptedException {
+        return function.apply(BigDecimal.valueOf(min), BigDecimal.valueOf(max), 0).stream()
                 .map(BigDecimal::intValueExact)
                 .collect(Collectors.toList());
     }
 
-    private List<Long> computeBoundValues(long min, long max) {
-        return computeBoundValues(BigDecimal.valueOf(min), BigDecimal.valueOf(max), 0).stream()
+    private static List<Long> computeBoundValues(
+            long min, long max, BoundValuesFunction function) throws IOException, InterruptedException {
+        return function.apply(BigDecimal.valueOf(min), BigDecimal.valueOf(max), 0).stream()
                 .map(BigDecimal::longValueExact)
                 .collect(Collectors.toList());
     }
 
-    private List<java.sql.Date> computeBoundValues(java.sql.Date min, java.sql.Date max) {
+    private static List<java.sql.Date> computeBoundValues(
+            java.sql.Date min, java.sql.Date max,
+            BoundValuesFunction function) throws IOException, InterruptedException {
         Calendar buf = Calendar.getInstance();
-        return computeBoundValues(
+        return function.apply(
                     BigDecimal.valueOf(JdbcUtil.fromDate(min)),
                     BigDecimal.valueOf(JdbcUtil.fromDate(max)), 0).stream()
                 .map(BigDecimal::intValueExact)
@@ -258,9 +311,11 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
                 .collect(Collectors.toList());
     }
 
-    private List<java.sql.Timestamp> computeBoundValues(java.sql.Timestamp min, java.sql.Timestamp max) {
+    private static List<java.sql.Timestamp> computeBoundValues(
+            java.sql.Timestamp min, java.sql.Timestamp max,
+            BoundValuesFunction function) throws IOException, InterruptedException {
         Calendar buf = Calendar.getInstance();
-        return computeBoundValues(
+        return function.apply(
                     BigDecimal.valueOf(JdbcUtil.fromTimestamp(min)),
                     BigDecimal.valueOf(JdbcUtil.fromTimestamp(max)), 0).stream()
                 .map(BigDecimal::longValueExact)
@@ -269,6 +324,10 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
     }
 
     private List<BigDecimal> computeBoundValues(BigDecimal min, BigDecimal max, int scale) {
+        return computeBoundValues(min, max, scale, splitCount);
+    }
+
+    private static List<BigDecimal> computeBoundValues(BigDecimal min, BigDecimal max, int scale, int count) {
         if (min.compareTo(max) >= 0) {
             return Collections.emptyList();
         }
@@ -277,19 +336,237 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
          *   WHERE DELTA = (MAX - MIN) / (COUNT - 1)
          */
         BigDecimal delta = max.subtract(min)
-                .divide(BigDecimal.valueOf(splitCount - 1), dscale(scale + DELTA_SCALE), BigDecimal.ROUND_DOWN);
+                .divide(BigDecimal.valueOf(count - 1), dscale(scale + DELTA_SCALE), BigDecimal.ROUND_DOWN);
         BigDecimal current = min.add(delta.divide(TWO, BigDecimal.ROUND_DOWN)).setScale(dscale(scale + DELTA_SCALE));
         List<BigDecimal> results = new ArrayList<>();
         add(results, current, scale);
-        for (int i = 0, n = splitCount - 2; i <= n; i++) {
+        for (int i = 0, n = count - 2; i <= n; i++) {
             BigDecimal next = current.add(delta);
             add(results, current, scale);
             current = next;
         }
-        Invariants.require(results.size() <= splitCount - 1);
+        Invariants.require(results.size() <= count - 1);
         return results;
     }
 
+    /*
+     * Builds a histogram of the split column, and then chooses bound values from it.
+     * Only the first query scans all rows: it counts rows below up to HISTOGRAM_MAX_BOUNDS evenly spaced bounds.
+     * Each refinement subdivides only the buckets which are larger than a partition, and its query is restricted
+     * to the rows in those buckets.
+     */
+    private List<BigDecimal> computeBalancedBoundValues(
+            Connection connection, Stats stats,
+            BigDecimal min, BigDecimal max, int scale) throws IOException, InterruptedException {
+        int resolution = Math.min(splitCount * HISTOGRAM_RESOLUTION, HISTOGRAM_MAX_BOUNDS);
+        List<BigDecimal> initial = new ArrayList<>();
+        // cumulative count at MIN is just the number of NULLs
+        initial.add(min);
+        for (BigDecimal value : computeBoundValues(min, max, scale, resolution)) {
+            if (value.compareTo(min) > 0 && value.compareTo(max) < 0) {
+                initial.add(value);
+            }
+        }
+        // bound -> number of rows which are NULL or less than the bound
+        NavigableMap<BigDecimal, Long> histogram = new TreeMap<>();
+        long total = countRows(connection, stats, initial, histogram);
+        if (total == 0) {
+            return Collections.emptyList();
+        }
+        long limit = Math.max(total / splitCount, 1);
+        for (int round = 0; round < HISTOGRAM_REFINEMENTS; round++) {
+            List<BigDecimal[]> ranges = new ArrayList<>();
+            List<BigDecimal[]> refinements = new ArrayList<>();
+            for (Map.Entry<BigDecimal, Long> entry : histogram.entrySet()) {
+                if (refinements.size() >= HISTOGRAM_MAX_BOUNDS) {
+                    break;
+                }
+                BigDecimal lower = entry.getKey();
+                Map.Entry<BigDecimal, Long> next = histogram.higherEntry(lower);
+                BigDecimal upper = next == null ? max : next.getKey();
+                long rows = (next == null ? total : next.getValue()) - entry.getValue();
+                if (rows <= limit) {
+                    continue;
+                }
+                boolean added = false;
+                for (BigDecimal value : computeBoundValues(lower, upper, scale, HISTOGRAM_RESOLUTION)) {
+                    if (refinements.size() < HISTOGRAM_MAX_BOUNDS
+                            && value.compareTo(lower) > 0 && value.compareTo(upper) < 0
+                            && histogram.containsKey(value) == false) {
+                        refinements.add(new BigDecimal[] { lower, value });
+                        added = true;
+                    }
+                }
+                if (added) {
+                    ranges.add(new BigDecimal[] { lower, upper });
+                }
+            }
+            if (refinements.isEmpty()) {
+                break;
+            }
+            long[] counts = countRows(connection, stats, ranges, refinements);
+            for (int i = 0, n = refinements.size(); i < n; i++) {
+                BigDecimal[] refinement = refinements.get(i);
+                histogram.put(refinement[1], histogram.get(refinement[0]) + counts[i]);
+            }
+        }
+        histogram.remove(min);
+        List<BigDecimal> candidates = new ArrayList<>(histogram.keySet());
+        long[] cumulative = histogram.values().stream().mapToLong(Long::longValue).toArray();
+        List<BigDecimal> results = new ArrayList<>();
+        int last = -1;
+        int index = 0;
+        for (int k = 1; k < splitCount; k++) {
+            long target = total * k / splitCount;
+            while (index < candidates.size() && cumulative[index] < target) {
+                index++;
+            }
+            if (index >= candidates.size()) {
+                break;
+            }
+            int chosen = index;
+            if (index > 0 && target - cumulative[index - 1] < cumulative[index] - target) {
+                chosen = index - 1;
+            }
+            if (chosen > last) {
+                results.add(candidates.get(chosen));
+                last = chosen;
+            }
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("split histogram: table={}, column={}, rows={}, buckets={}", new Object[] { //$NON-NLS-1$
+                    tableName,
+                    splitColumnName,
+                    total,
+                    candidates.size() + 1,
+            });
+        }
+        return results;
+    }
+
+    private long countRows(
+            Connection connection, Stats stats,
+            List<BigDecimal> bounds,
+            Map<BigDecimal, Long> results) throws IOException, InterruptedException {
+        StringBuilder buf = new StringBuilder();
+        buf.append("SELECT "); //$NON-NLS-1$
+        buf.append("COUNT(*)"); //$NON-NLS-1$
+        for (int i = 0, n = bounds.size(); i < n; i++) {
+            buf.append(", SUM(CASE WHEN "); //$NON-NLS-1$
+            if (stats.nullable) {
+                buf.append(splitColumnName);
+                buf.append(" IS NULL OR "); //$NON-NLS-1$
+            }
+            buf.append(splitColumnName);
+            buf.append(" < ? THEN 1 ELSE 0 END)"); //$NON-NLS-1$
+        }
+        buf.append(" FROM "); //$NON-NLS-1$
+        buf.append(tableName);
+        if (condition != null) {
+            buf.append(" WHERE "); //$NON-NLS-1$
+            buf.append(condition);
+        }
+        String sql = buf.toString();
+        LOG.debug("split histogram: {}", sql); //$NON-NLS-1$
+        try (Closer closer = new Closer()) {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            closer.add(JdbcUtil.wrap(statement::close));
+            Calendar calendar = Calendar.getInstance();
+            for (int i = 0, n = bounds.size(); i < n; i++) {
+                setBoundValue(statement, i + 1, stats, bounds.get(i), calendar);
+            }
+            ResultSet rs = statement.executeQuery();
+            closer.add(JdbcUtil.wrap(rs::close));
+            if (rs.next() == false) {
+                return 0L;
+            }
+            for (int i = 0, n = bounds.size(); i < n; i++) {
+                results.put(bounds.get(i), rs.getLong(i + 2));
+            }
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw JdbcUtil.wrap(e);
+        }
+    }
+
+    private long[] countRows(
+            Connection connection, Stats stats,
+            List<BigDecimal[]> ranges, List<BigDecimal[]> refinements) throws IOException, InterruptedException {
+        StringBuilder buf = new StringBuilder();
+        buf.append("SELECT "); //$NON-NLS-1$
+        for (int i = 0, n = refinements.size(); i < n; i++) {
+            if (i > 0) {
+                buf.append(", "); //$NON-NLS-1$
+            }
+            buf.append("SUM(CASE WHEN ? <= "); //$NON-NLS-1$
+            buf.append(splitColumnName);
+            buf.append(" AND "); //$NON-NLS-1$
+            buf.append(splitColumnName);
+            buf.append(" < ? THEN 1 ELSE 0 END)"); //$NON-NLS-1$
+        }
+        buf.append(" FROM "); //$NON-NLS-1$
+        buf.append(tableName);
+        buf.append(" WHERE "); //$NON-NLS-1$
+        if (condition != null) {
+            buf.append("(").append(condition).append(") AND "); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        buf.append("("); //$NON-NLS-1$
+        for (int i = 0, n = ranges.size(); i < n; i++) {
+            if (i > 0) {
+                buf.append(" OR "); //$NON-NLS-1$
+            }
+            buf.append("(? <= "); //$NON-NLS-1$
+            buf.append(splitColumnName);
+            buf.append(" AND "); //$NON-NLS-1$
+            buf.append(splitColumnName);
+            buf.append(" <= ?)"); //$NON-NLS-1$
+        }
+        buf.append(")"); //$NON-NLS-1$
+        String sql = buf.toString();
+        LOG.debug("split histogram: {}", sql); //$NON-NLS-1$
+        try (Closer closer = new Closer()) {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            closer.add(JdbcUtil.wrap(statement::close));
+            Calendar calendar = Calendar.getInstance();
+            int index = 1;
+            for (BigDecimal[] refinement : refinements) {
+                setBoundValue(statement, index++, stats, refinement[0], calendar);
+                setBoundValue(statement, index++, stats, refinement[1], calendar);
+            }
+            for (BigDecimal[] range : ranges) {
+                setBoundValue(statement, index++, stats, range[0], calendar);
+                setBoundValue(statement, index++, stats, range[1], calendar);
+            }
+            ResultSet rs = statement.executeQuery();
+            closer.add(JdbcUtil.wrap(rs::close));
+            long[] results = new long[refinements.size()];
+            if (rs.next()) {
+                for (int i = 0; i < results.length; i++) {
+                    results[i] = rs.getLong(i + 1);
+                }
+            }
+            return results;
+        } catch (SQLException e) {
+            throw JdbcUtil.wrap(e);
+        }
+    }
+
+    private static void setBoundValue(
+            PreparedStatement statement, int index,
+            Stats stats, BigDecimal value, Calendar calendarBuffer) throws SQLException {
+        switch (stats.typeId) {
+        case java.sql.Types.DATE:
+            statement.setDate(index, JdbcUtil.toDate(value.intValueExact(), calendarBuffer));
+            break;
+        case java.sql.Types.TIMESTAMP:
+            statement.setTimestamp(index, JdbcUtil.toTimestamp(value.longValueExact(), calendarBuffer));
+            break;
+        default:
+            statement.setBigDecimal(index, value);
+            break;
+        }
+    }
+
     private static int dscale(int sqlScale) {
         return sqlScale;
     }
@@ -334,7 +611,7 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
         if (stats.nullable) {
             buf.append(")"); //$NON-NLS-1$
         }
-        return new Partition(buf.toString(), Collections.singletonList(value), stats.typeId, adapters.get());
+        return new Partition(buf.toString(), Collections.singletonList(value), stats.typeId, adapters, profile);
     }
 
     private Partition toBodyPartition(Stats stats, Object lower, Object upper) {
@@ -349,7 +626,7 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
         buf.append(" AND "); //$NON-NLS-1$
         buf.append(splitColumnName);
         buf.append(" < ?"); //$NON-NLS-1$
-        return new Partition(buf.toString(), Arrays.asList(lower, upper), stats.typeId, adapters.get());
+        return new Partition(buf.toString(), Arrays.asList(lower, upper), stats.typeId, adapters, profile);
     }
 
     private Partition toUpperPartition(Stats stats, Object value) {
@@ -361,7 +638,7 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
         }
         buf.append("? <= "); //$NON-NLS-1$
         buf.append(splitColumnName);
-        return new Partition(buf.toString(), Collections.singletonList(value), stats.typeId, adapters.get());
+        return new Partition(buf.toString(), Collections.singletonList(value), stats.typeId, adapters, profile);
     }
 
     private StringBuilder getQueryPrefix() {
@@ -375,6 +652,12 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
         return buf;
     }
 
+    @FunctionalInterface
+    private interface BoundValuesFunction {
+
+        List<BigDecimal> apply(BigDecimal min, BigDecimal max, int scale) throws IOException, InterruptedException;
+    }
+
     private static class Stats {
 
         final int typeId;
@@ -404,13 +687,24 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
 
         private final int argumentType;
 
-        private final ResultSetAdapter<?> adapter;
+        private final Supplier<? extends ResultSetAdapter<?>> adapters;
+
+        private final int fetchSize;
+
+        private final ReadAheadExecutor prefetchExecutor;
 
-        Partition(String sql, List<?> arguments, int argumentType, ResultSetAdapter<?> adapter) {
+        private final int prefetchSize;
+
+        Partition(
+                String sql, List<?> arguments, int argumentType,
+                Supplier<? extends ResultSetAdapter<?>> adapters, JdbcProfile profile) {
             this.sql = sql;
             this.arguments = arguments;
             this.argumentType = argumentType;
-            this.adapter = adapter;
+            this.adapters = adapters;
+            this.fetchSize = profile.getFetchSize().orElse(-1);
+            this.prefetchExecutor = profile.getPrefetchExecutor().orElse(null);
+            this.prefetchSize = prefetchExecutor == null ? -1 : profile.getPrefetchSize().getAsInt();
         }
 
         @Override
@@ -419,13 +713,19 @@ public class SplitJdbcInputDriver implements JdbcInputDriver {
             try (Closer closer = new Closer()) {
                 PreparedStatement statement = connection.prepareStatement(sql);
                 closer.add(JdbcUtil.wrap(statement::close));
+                if (fetchSize > 0) {
+                    statement.setFetchSize(fetchSize);
+                }
                 for (int i = 0, n = arguments.size(); i < n; i++) {
                     Object argument = arguments.get(i);
                     statement.setObject(i + 1, argument, argumentType);
                 }
                 ResultSet rs = statement.executeQuery();
                 closer.add(JdbcUtil.wrap(rs::close));
-                return new BasicFetchCursor(rs, adapter, closer.move());
+                if (prefetchSize > 0) {
+                    return PrefetchFetchCursor.open(prefetchExecutor, rs, adapters, prefetchSize, closer.move());
+                }
+                return new BasicFetchCursor(rs, adapters.get(), closer.move());
             } catch (SQLException e) {
                 throw JdbcUtil.wrap(e);
             }
@@ -0,0 +1,34 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.runtime.jdbc.operation;
+
+/**
+ * Represents a strategy of splitting inputs.
+ * @since 0.4.0
+ */
+public enum InputSplitKind {
+
+    /**
+     * Splits the value range of the split column evenly.
+     */
+    RANGE,
+
+    /**
+     * Splits inputs into partitions which have almost the same number of rows,
+     * by using a histogram of the split column.
+     */
+    BALANCED,
+}
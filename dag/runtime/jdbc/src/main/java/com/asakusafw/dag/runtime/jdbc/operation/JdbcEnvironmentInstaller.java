@@ -40,6 +40,7 @@ import org.slf4j.LoggerFactory;
 import com.asakusafw.dag.api.processor.ProcessorContext;
 import com.asakusafw.dag.api.processor.ProcessorContext.Editor;
 import com.asakusafw.dag.api.processor.extension.ProcessorContextExtension;
+import com.asakusafw.dag.runtime.io.ReadAheadExecutor;
 import com.asakusafw.dag.runtime.jdbc.ConnectionPool;
 import com.asakusafw.dag.runtime.jdbc.JdbcProfile;
 import com.asakusafw.dag.runtime.jdbc.basic.BasicConnectionPool;
@@ -85,16 +86,38 @@ public class JdbcEnvironmentInstaller implements ProcessorContextExtension {
      */
     public static final String KEY_POOL_SIZE = "connection.max"; //$NON-NLS-1$
 
+    /**
+     * The property sub-key of whether or not the connections are opened when the environment is installed.
+     */
+    public static final String KEY_POOL_WARMUP = "connection.warmup"; //$NON-NLS-1$
+
+    /**
+     * The property sub-key of the max number of cached prepared statements per connection.
+     */
+    public static final String KEY_POOL_STATEMENTS = "connection.statements"; //$NON-NLS-1$
+
     /**
      * The property sub-key of {@link ResultSet#getFetchSize() fetch size}.
      */
     public static final String KEY_FETCH_SIZE = "input.records"; //$NON-NLS-1$
 
+    /**
+     * The property sub-key of the number of input records to fetch ahead on a background thread
+     * ({@code 0} to fetch records on the task thread).
+     * The number of background threads is limited to the max number of connections.
+     */
+    public static final String KEY_PREFETCH_SIZE = "input.prefetch"; //$NON-NLS-1$
+
     /**
      * The property sub-key of the number of threads per input.
      */
     public static final String KEY_INPUT_THREADS = "input.threads"; //$NON-NLS-1$
 
+    /**
+     * The property sub-key of the strategy of splitting inputs.
+     */
+    public static final String KEY_INPUT_SPLIT = "input.split"; //$NON-NLS-1$
+
     /**
      * The property sub-key of {@link PreparedStatement#executeBatch() the number of batch insert records} per commit.
      */
@@ -110,6 +133,11 @@ public class JdbcEnvironmentInstaller implements ProcessorContextExtension {
      */
     public static final String KEY_OUTPUT_CLEAR = "output.clear"; //$NON-NLS-1$
 
+    /**
+     * The property sub-key of the operation kind of flushing outputs.
+     */
+    public static final String KEY_OUTPUT_FLUSH = "output.flush"; //$NON-NLS-1$
+
     /**
      * The property sub-key of comma separated available optimization symbols.
      */
@@ -120,11 +148,26 @@ public class JdbcEnvironmentInstaller implements ProcessorContextExtension {
      */
     public static final int DEFAULT_POOL_SIZE = 1;
 
+    /**
+     * The default value of {@link #KEY_POOL_WARMUP}.
+     */
+    public static final boolean DEFAULT_POOL_WARMUP = false;
+
+    /**
+     * The default value of {@link #KEY_POOL_STATEMENTS}.
+     */
+    public static final int DEFAULT_POOL_STATEMENTS = 0;
+
     /**
      * The default value of {@link #KEY_FETCH_SIZE}.
      */
     public static final int DEFAULT_FETCH_SIZE = 1024;
 
+    /**
+     * The default value of {@link #KEY_PREFETCH_SIZE}.
+     */
+    public static final int DEFAULT_PREFETCH_SIZE = 0;
+
     /**
      * The default value of {@link #KEY_BATCH_INSERT_SIZE}.
      */
@@ -153,7 +196,8 @@ public class JdbcEnvironmentInstaller implements ProcessorContextExtension {
         }
     }
 
-    private static List<JdbcProfile> collect(ProcessorContext context, Closer closer) {
+    private static List<JdbcProfile> collect(
+            ProcessorContext context, Closer closer) throws IOException, InterruptedException {
         Map<String, Map<String, String>> properties = getProfiles(context.getPropertyMap());
         List<JdbcProfile> results = new ArrayList<>();
         for (Map.Entry<String, Map<String, String>> entry : properties.entrySet()) {
@@ -168,7 +212,7 @@ public class JdbcEnvironmentInstaller implements ProcessorContextExtension {
     private static JdbcProfile resolve(
             ProcessorContext context,
             String profileName, Map<String, String> properties,
-            Closer closer) {
+            Closer closer) throws IOException, InterruptedException {
         Optionals.remove(properties, KEY_DRIVER).ifPresent(name -> {
             try {
                 Class.forName(name, true, context.getClassLoader());
@@ -182,16 +226,24 @@ public class JdbcEnvironmentInstaller implements ProcessorContextExtension {
         String url = extract(profileName, properties, KEY_URL);
         ConnectionPool.Provider provider = extractProvider(context, profileName, properties, KEY_POOL_CLASS);
         int maxConnections = extract(profileName, properties, KEY_POOL_SIZE, DEFAULT_POOL_SIZE);
+        boolean warmUp = extract(profileName, properties, KEY_POOL_WARMUP, DEFAULT_POOL_WARMUP);
+        int maxStatements = extract(profileName, properties, KEY_POOL_STATEMENTS, DEFAULT_POOL_STATEMENTS);
         Map<String, String> connectionProps = extractMap(profileName, properties, KEY_PROPERTIES);
+        int prefetchSize = extract(profileName, properties, KEY_PREFETCH_SIZE, DEFAULT_PREFETCH_SIZE);
 
         JdbcProfile.Builder builder = new JdbcProfile.Builder(profileName)
                 .withFetchSize(extract(profileName, properties, KEY_FETCH_SIZE, DEFAULT_FETCH_SIZE))
+                .withPrefetchSize(prefetchSize)
                 .withInsertSize(extract(profileName, properties, KEY_BATCH_INSERT_SIZE, DEFAULT_BATCH_INSERT_SIZE))
                 .withMaxInputConcurrency(extract(profileName, properties, KEY_INPUT_THREADS, DEFAULT_INPUT_THREADS))
                 .withMaxOutputConcurrency(extract(profileName, properties, KEY_OUTPUT_THREADS, DEFAULT_OUTPUT_THREADS))
                 .withOptions(extractSet(profileName, properties, KEY_OPTIMIZATIONS));
+        extract(InputSplitKind.class, profileName, properties, KEY_INPUT_SPLIT)
+            .ifPresent(builder::withOption);
         extract(OutputClearKind.class, profileName, properties, KEY_OUTPUT_CLEAR)
             .ifPresent(builder::withOption);
+        extract(OutputFlushKind.class, profileName, properties, KEY_OUTPUT_FLUSH)
+            .ifPresent(builder::withOption);
         if (properties.isEmpty() == false) {
             throw new IllegalArgumentException(MessageFormat.format(
                     "unrecognized JDBC profile properties: {0}",
@@ -200,13 +252,24 @@ public class JdbcEnvironmentInstaller implements ProcessorContextExtension {
                         .collect(Collectors.joining(", ", "{", "}")))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
         }
         if (LOG.isDebugEnabled()) {
-            LOG.debug("JDBC profile: name={}, jdbc={}@{}/{}, conf={{}}", new Object[] { //$NON-NLS-1$
+            LOG.debug("JDBC profile: name={}, jdbc={}@{}/{}, statements={}, conf={{}}", new Object[] { //$NON-NLS-1$
                     profileName,
                     url, provider.getClass().getName(), maxConnections,
+                    maxStatements,
                     builder,
             });
         }
-        return builder.build(closer.add(provider.newInstance(url, connectionProps, maxConnections)));
+        ConnectionPool pool = closer.add(provider.newInstance(url, connectionProps, maxConnections, maxStatements));
+        if (warmUp) {
+            pool.warmUp();
+        }
+        ReadAheadExecutor prefetchExecutor = null;
+        if (prefetchSize > 0) {
+            prefetchExecutor = closer.add(new ReadAheadExecutor(
+                    String.format("jdbc-prefetch-%s", profileName), //$NON-NLS-1$
+                    Math.max(maxConnections, 1)));
+        }
+        return builder.build(pool, prefetchExecutor);
     }
 
     private static ConnectionPool.Provider extractProvider(
@@ -282,6 +345,22 @@ public class JdbcEnvironmentInstaller implements ProcessorContextExtension {
                 .orElse(defaultValue);
     }
 
+    private static boolean extract(String profile, Map<String, String> properties, String key, boolean defaultValue) {
+        return Optionals.remove(properties, key)
+                .map(String::trim)
+                .map(v -> {
+                    if (v.equalsIgnoreCase("true")) { //$NON-NLS-1$
+                        return true;
+                    } else if (v.equalsIgnoreCase("false")) { //$NON-NLS-1$
+                        return false;
+                    }
+                    throw new IllegalArgumentException(MessageFormat.format(
+                            "\"{0}\" must be a boolean value: {1}",
+                            qualified(profile, key), v));
+                })
+                .orElse(defaultValue);
+    }
+
     private static Set<String> extractSet(String profile, Map<String, String> properties, String key) {
         return Optionals.remove(properties, key)
                 .map(s -> Stream.of(s.split(",")) //$NON-NLS-1$
@@ -22,6 +22,11 @@ import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
@@ -68,6 +73,8 @@ public class JdbcOutputProcessor implements VertexProcessor {
 
     private volatile int maxConcurrency = -1;
 
+    private volatile boolean pipelined;
+
     private volatile IoCallable<TaskProcessor> lazy;
 
     private final AtomicReference<String> uniqueProfileName = new AtomicReference<>();
@@ -186,8 +193,22 @@ public class JdbcOutputProcessor implements VertexProcessor {
     private void configureProcessor(JdbcProfile profile) {
         this.maxConcurrency = profile.getMaxOutputConcurrency()
                 .orElse(DEFAULT_MAX_CONCURRENCY);
+        this.pipelined = profile.getOption(OutputFlushKind.class)
+                .orElse(OutputFlushKind.SYNCHRONOUS) == OutputFlushKind.PIPELINED;
+        if (pipelined && profile.getMaxConnections().isPresent()) {
+            // each pipelined task uses two connections
+            int limit = profile.getMaxConnections().getAsInt() / 2;
+            if (limit <= 0) {
+                LOG.warn(MessageFormat.format(
+                        "JDBC output pipelining is disabled because the connection pool is too small: {0}",
+                        profile.getName()));
+                this.pipelined = false;
+            } else if (maxConcurrency <= 0 || maxConcurrency > limit) {
+                this.maxConcurrency = limit;
+            }
+        }
         if (LOG.isDebugEnabled()) {
-            LOG.debug("JDBC output concurrency: {}", maxConcurrency);
+            LOG.debug("JDBC output concurrency: {} (pipelined={})", maxConcurrency, pipelined);
         }
     }
 
@@ -212,16 +233,23 @@ public class JdbcOutputProcessor implements VertexProcessor {
         for (Spec<JdbcOutputDriver> spec : outputSpecs) {
             resolved.add(new Tuple<String, JdbcOutputDriver>(spec.id, spec.provider.apply(context)));
         }
+        boolean pipeline = pipelined;
         this.lazy = () -> {
             try (Closer closer = new Closer()) {
-                List<CoarseTaskUnit> units = new ArrayList<>();
-                for (Tuple<String, JdbcOutputDriver> r : resolved) {
-                    String id = r.left();
-                    JdbcOutputDriver driver = r.right();
-                    JdbcCounterGroup counter = counters.get(JdbcCounterGroup.CATEGORY_OUTPUT, id);
-                    units.add(closer.add(new CoarseTaskUnit(id, driver, counter)));
+                int laneCount = pipeline ? 2 : 1;
+                List<CoarseTaskLane> lanes = new ArrayList<>();
+                for (int i = 0; i < laneCount; i++) {
+                    List<CoarseTaskUnit> units = new ArrayList<>();
+                    for (Tuple<String, JdbcOutputDriver> r : resolved) {
+                        String id = r.left();
+                        JdbcOutputDriver driver = r.right();
+                        JdbcCounterGroup counter = counters.get(JdbcCounterGroup.CATEGORY_OUTPUT, id);
+                        units.add(new CoarseTaskUnit(id, driver, counter));
+                    }
+                    CoarseTaskUnit[] us = units.toArray(new CoarseTaskUnit[units.size()]);
+                    lanes.add(closer.add(new CoarseTaskLane(profile, us)));
                 }
-                return new CoarseTask(profile, units.toArray(new CoarseTaskUnit[units.size()]), closer.move());
+                return new CoarseTask(profile, lanes.toArray(new CoarseTaskLane[lanes.size()]), closer.move());
             }
         };
     }
@@ -265,47 +293,60 @@ public class JdbcOutputProcessor implements VertexProcessor {
 
     private static final class CoarseTask implements TaskProcessor {
 
-        private final JdbcProfile profile;
-
-        private final CoarseTaskUnit[] units;
+        private final CoarseTaskLane[] lanes;
 
         private final Closer closer;
 
-        private Connection connection;
-
         private final int windowSize;
 
+        private final ExecutorService flusher;
+
+        private Future<?> pending;
+
+        private int laneIndex;
+
         private int windowOffset;
 
         private boolean sawError;
 
         CoarseTask(
                 JdbcProfile profile,
-                CoarseTaskUnit[] units,
+                CoarseTaskLane[] lanes,
                 Closer closer) throws IOException, InterruptedException {
             try (Closer c = closer) {
-                this.profile = profile;
-                this.units = units;
+                this.lanes = lanes;
                 this.windowSize = profile.getBatchInsertSize().orElse(DEFAULT_BATCH_INSERT_SIZE);
+                if (lanes.length >= 2) {
+                    ExecutorService executor = newFlusher();
+                    c.add(executor::shutdownNow);
+                    this.flusher = executor;
+                } else {
+                    this.flusher = null;
+                }
                 this.closer = c.move();
             }
         }
 
+        private static ExecutorService newFlusher() {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r);
+                thread.setName(String.format("jdbc-output-flush-%d", counter.incrementAndGet())); //$NON-NLS-1$
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
         @Override
         public void run(TaskProcessorContext context) throws IOException, InterruptedException {
-            if (connection == null) {
-                connection = closer.add(profile.acquire()).getConnection();
-                windowOffset = 0;
-            }
-            Connection conn = connection;
+            CoarseTaskLane lane = lanes[laneIndex];
             int rest = windowSize - windowOffset;
-            CoarseTaskUnit[] us = units;
             try (ObjectReader reader = (ObjectReader) context.getInput(INPUT_NAME)) {
                 while (reader.nextObject()) {
                     for (UnionRecord union = (UnionRecord) reader.getObject(); union != null; union = union.next) {
-                        us[union.tag].write(conn, union.entity);
+                        lane.write(union.tag, union.entity);
                         if (--rest <= 0) {
-                            flush();
+                            lane = flush();
                             rest = windowSize;
                         }
                     }
@@ -320,27 +361,117 @@ public class JdbcOutputProcessor implements VertexProcessor {
         @Override
         public void close() throws IOException, InterruptedException {
             try {
-                if (connection != null && sawError == false && windowOffset > 0) {
-                    flush();
-                    windowOffset = 0;
+                if (sawError) {
+                    awaitQuietly();
+                } else {
+                    await();
+                    if (windowOffset > 0) {
+                        if (LOG.isTraceEnabled()) {
+                            LOG.trace("committing {} records", windowOffset);
+                        }
+                        lanes[laneIndex].flush();
+                        windowOffset = 0;
+                    }
                 }
             } finally {
                 closer.close();
             }
         }
 
-        private void flush() throws IOException, InterruptedException {
+        private CoarseTaskLane flush() throws IOException, InterruptedException {
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("committing {} records", windowSize);
+            }
+            CoarseTaskLane current = lanes[laneIndex];
+            if (flusher == null) {
+                current.flush();
+                return current;
+            }
+            // the next lane must be idle before reusing it
+            await();
+            pending = flusher.submit(() -> {
+                current.flush();
+                return null;
+            });
+            laneIndex = (laneIndex + 1) % lanes.length;
+            return lanes[laneIndex];
+        }
+
+        private void await() throws IOException, InterruptedException {
+            Future<?> f = pending;
+            if (f == null) {
+                return;
+            }
+            pending = null;
             try {
-                if (LOG.isTraceEnabled()) {
-                    LOG.trace("committing {} records", windowOffset);
+                f.get();
+            } catch (ExecutionException e) {
+                sawError = true;
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof InterruptedException) {
+                    throw (InterruptedException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
                 }
+                throw new IOException(cause);
+            }
+        }
+
+        private void awaitQuietly() throws InterruptedException {
+            try {
+                await();
+            } catch (IOException | RuntimeException e) {
+                LOG.debug("error occurred while flushing JDBC output", e); //$NON-NLS-1$
+            }
+        }
+
+        @Override
+        public String toString() {
+            return MessageFormat.format(
+                    "JdbcOutput({0})", //$NON-NLS-1$
+                    lanes[0].units.length);
+        }
+    }
+
+    private static final class CoarseTaskLane implements InterruptibleIo {
+
+        private final JdbcProfile profile;
+
+        final CoarseTaskUnit[] units;
+
+        private ConnectionPool.Handle handle;
+
+        private Connection connection;
+
+        CoarseTaskLane(JdbcProfile profile, CoarseTaskUnit[] units) {
+            this.profile = profile;
+            this.units = units;
+        }
+
+        void write(int tag, Object object) throws IOException, InterruptedException {
+            Connection conn = connection;
+            if (conn == null) {
+                handle = profile.acquire();
+                conn = handle.getConnection();
+                connection = conn;
+            }
+            units[tag].write(conn, object);
+        }
+
+        void flush() throws IOException, InterruptedException {
+            if (connection == null) {
+                return;
+            }
+            try {
                 boolean flushed = false;
-                CoarseTaskUnit[] us = units;
-                for (CoarseTaskUnit u : us) {
+                for (CoarseTaskUnit u : units) {
                     flushed |= u.flush();
                 }
                 if (flushed) {
-                    assert connection != null;
                     connection.commit();
                 }
             } catch (SQLException e) {
@@ -349,10 +480,17 @@ public class JdbcOutputProcessor implements VertexProcessor {
         }
 
         @Override
-        public String toString() {
-            return MessageFormat.format(
-                    "JdbcOutput({0})", //$NON-NLS-1$
-                    units.length);
+        public void close() throws IOException, InterruptedException {
+            if (handle != null) {
+                try (Closer closer = new Closer()) {
+                    closer.add(handle);
+                    for (CoarseTaskUnit u : units) {
+                        closer.add(u);
+                    }
+                }
+                handle = null;
+                connection = null;
+            }
         }
     }
 
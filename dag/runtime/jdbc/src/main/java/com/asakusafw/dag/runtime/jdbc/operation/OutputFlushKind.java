@@ -0,0 +1,34 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.runtime.jdbc.operation;
+
+/**
+ * Represents an operation kind of flushing outputs.
+ * @since 0.4.0
+ */
+public enum OutputFlushKind {
+
+    /**
+     * Flushes and commits outputs on the task thread.
+     */
+    SYNCHRONOUS,
+
+    /**
+     * Flushes and commits outputs on a background thread while the task thread prepares the next window,
+     * by using an extra connection for each output task.
+     */
+    PIPELINED,
+}
@@ -122,6 +122,34 @@ public final class JdbcUtil {
         return buf.toString();
     }
 
+    /**
+     * Returns a multi-row insert statement.
+     * @param tableName the target table name
+     * @param columnNames the column names
+     * @param rows the number of rows in the statement
+     * @return the built statement
+     */
+    public static String getInsertStatement(String tableName, List<String> columnNames, int rows) {
+        StringBuilder buf = new StringBuilder();
+        buf.append("INSERT "); //$NON-NLS-1$
+        buf.append("INTO "); //$NON-NLS-1$
+        buf.append(tableName);
+        buf.append(" ("); //$NON-NLS-1$
+        buf.append(String.join(",", columnNames)); //$NON-NLS-1$
+        buf.append(") "); //$NON-NLS-1$
+        buf.append("VALUES "); //$NON-NLS-1$
+        String row = String.join(",", placeholders(columnNames.size())); //$NON-NLS-1$
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                buf.append(","); //$NON-NLS-1$
+            }
+            buf.append("("); //$NON-NLS-1$
+            buf.append(row);
+            buf.append(")"); //$NON-NLS-1$
+        }
+        return buf.toString();
+    }
+
     /**
      * Returns a basic delete statement.
      * @param tableName the target table name
@@ -21,12 +21,14 @@ import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import com.asakusafw.dag.runtime.io.ReadAheadExecutor;
 import com.asakusafw.dag.runtime.jdbc.JdbcInputDriver;
 import com.asakusafw.dag.runtime.jdbc.JdbcOperationDriver;
 import com.asakusafw.dag.runtime.jdbc.JdbcOutputDriver;
@@ -36,7 +38,9 @@ import com.asakusafw.dag.runtime.jdbc.ResultSetAdapter;
 import com.asakusafw.dag.runtime.jdbc.basic.BasicJdbcInputDriver;
 import com.asakusafw.dag.runtime.jdbc.basic.BasicJdbcOperationDriver;
 import com.asakusafw.dag.runtime.jdbc.basic.BasicJdbcOutputDriver;
+import com.asakusafw.dag.runtime.jdbc.basic.MultiRowJdbcOutputDriver;
 import com.asakusafw.dag.runtime.jdbc.basic.SplitJdbcInputDriver;
+import com.asakusafw.dag.runtime.jdbc.operation.InputSplitKind;
 import com.asakusafw.dag.runtime.jdbc.operation.JdbcContext;
 import com.asakusafw.dag.runtime.jdbc.operation.OutputClearKind;
 import com.asakusafw.lang.utils.common.Arguments;
@@ -59,6 +63,14 @@ public final class WindGateJdbcDirect {
      */
     static final String OPTIMIAZATION_ORACLE_DIRPATH = "ORACLE_DIRPATH"; //$NON-NLS-1$
 
+    /**
+     * The optimization symbol of multi-row insert statements ({@code MULTI_ROW_INSERT} or
+     * {@code MULTI_ROW_INSERT:<rows>}).
+     */
+    static final String OPTIMIAZATION_MULTI_ROW_INSERT = "MULTI_ROW_INSERT"; //$NON-NLS-1$
+
+    static final int DEFAULT_MULTI_ROW_INSERT_SIZE = 16;
+
     private WindGateJdbcDirect() {
         return;
     }
@@ -121,7 +133,9 @@ public final class WindGateJdbcDirect {
             Set<String> options) {
         String query = buildSelectStatement(profile, tableName, columnNames, cond, options);
         int fetchSize = profile.getFetchSize().orElse(-1);
-        return new BasicJdbcInputDriver(query, adapters, fetchSize);
+        ReadAheadExecutor prefetchExecutor = profile.getPrefetchExecutor().orElse(null);
+        int prefetchSize = prefetchExecutor == null ? -1 : profile.getPrefetchSize().getAsInt();
+        return new BasicJdbcInputDriver(query, adapters, fetchSize, prefetchExecutor, prefetchSize);
     }
 
     private static JdbcInputDriver buildSplitInput(
@@ -134,10 +148,12 @@ public final class WindGateJdbcDirect {
             Set<String> options) {
         int count = profile.getMaxInputConcurrency().orElse(1);
         String condition = cond.orElse(null);
+        boolean balanced = profile.getOption(InputSplitKind.class)
+                .orElse(InputSplitKind.RANGE) == InputSplitKind.BALANCED;
         return new SplitJdbcInputDriver(
                 profile, tableName, columnNames,
                 splitColumn, count,
-                condition, adapters);
+                condition, adapters, balanced);
     }
 
     /**
@@ -165,11 +181,44 @@ public final class WindGateJdbcDirect {
         Supplier<? extends PreparedStatementAdapter<?>> adapters = builder.adapters;
         return context -> {
             JdbcProfile profile = context.getEnvironment().getProfile(profileName);
+            if (isActive(profile, options, OPTIMIAZATION_ORACLE_DIRPATH) == false) {
+                OptionalInt rows = getMultiRowInsertSize(profile);
+                if (rows.isPresent() && rows.getAsInt() >= 2) {
+                    return new MultiRowJdbcOutputDriver(tableName, columnNames, rows.getAsInt(), adapters);
+                }
+            }
             String insert = buildInsertStatement(profile, tableName, columnNames, options);
             return new BasicJdbcOutputDriver(insert, adapters);
         };
     }
 
+    private static OptionalInt getMultiRowInsertSize(JdbcProfile profile) {
+        String prefix = OPTIMIAZATION_MULTI_ROW_INSERT + ':';
+        List<Integer> sizes = profile.getOptimizations().stream()
+                .map(String::trim)
+                .filter(s -> s.equals(OPTIMIAZATION_MULTI_ROW_INSERT) || s.startsWith(prefix))
+                .map(s -> {
+                    if (s.equals(OPTIMIAZATION_MULTI_ROW_INSERT)) {
+                        return DEFAULT_MULTI_ROW_INSERT_SIZE;
+                    }
+                    String value = s.substring(prefix.length()).trim();
+                    try {
+                        return Integer.parseInt(value);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException(MessageFormat.format(
+                                "multi-row insert size must be a valid integer: {0}",
+                                s), e);
+                    }
+                })
+                .collect(Collectors.toList());
+        if (sizes.size() >= 2) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "conflict multi-row insert size: {0}",
+                    sizes));
+        }
+        return sizes.stream().mapToInt(Integer::intValue).findAny();
+    }
+
     /**
      * Returns a new build for building WindGate JDBC output (truncate operation only).
      * @param profileName the profile name
@@ -33,6 +33,7 @@ import org.junit.Rule;
 import org.junit.rules.ExternalResource;
 
 import com.asakusafw.dag.api.processor.ObjectReader;
+import com.asakusafw.dag.runtime.io.ReadAheadExecutor;
 import com.asakusafw.dag.runtime.jdbc.basic.BasicConnectionPool;
 import com.asakusafw.dag.runtime.jdbc.operation.JdbcContext;
 import com.asakusafw.dag.runtime.jdbc.operation.JdbcEnvironment;
@@ -142,15 +143,33 @@ public abstract class JdbcDagTestRoot {
         return bless(new BasicConnectionPool(h2.getJdbcUrl(), Collections.emptyMap(), connections));
     }
 
+    /**
+     * Creates a new executor for prefetching input records.
+     * @return the created executor
+     */
+    public ReadAheadExecutor prefetcher() {
+        return bless(new ReadAheadExecutor("testing", 4));
+    }
+
     /**
      * Creates a new environment.
      * @param profileNames the profile names
      * @return the environment
      */
     public JdbcEnvironment environment(String... profileNames) {
+        return environment(1, profileNames);
+    }
+
+    /**
+     * Creates a new environment.
+     * @param connections the max number of connections for each profile
+     * @param profileNames the profile names
+     * @return the environment
+     */
+    public JdbcEnvironment environment(int connections, String... profileNames) {
         List<JdbcProfile> profiles = new ArrayList<>();
         for (String name : profileNames) {
-            profiles.add(profile0(name, pool(1)));
+            profiles.add(profile0(name, pool(connections)));
         }
         return new JdbcEnvironment(profiles);
     }
@@ -196,7 +215,7 @@ public abstract class JdbcDagTestRoot {
     private JdbcProfile profile0(String profileName, ConnectionPool pool) {
         JdbcProfile.Builder builder = new JdbcProfile.Builder(profileName);
         editors.forEach(e -> e.accept(builder));
-        return builder.build(pool);
+        return builder.build(pool, prefetcher());
     }
 
     /**
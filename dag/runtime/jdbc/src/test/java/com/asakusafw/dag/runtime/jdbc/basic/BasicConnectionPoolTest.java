@@ -18,6 +18,10 @@ package com.asakusafw.dag.runtime.jdbc.basic;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Collections;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Rule;
@@ -91,6 +95,27 @@ public class BasicConnectionPoolTest extends JdbcDagTestRoot {
         assertThat(h2.count(TABLE), is(2));
     }
 
+    /**
+     * cached connection was closed.
+     * @throws Exception if failed
+     */
+    @Test
+    public void closed_in_cache() throws Exception {
+        try (BasicConnectionPool pool = pool(1)) {
+            Connection closed;
+            try (ConnectionPool.Handle handle = pool.acquire()) {
+                closed = handle.getConnection();
+            }
+            assertThat(pool.cached(), is(1));
+            closed.close();
+            try (ConnectionPool.Handle handle = pool.acquire()) {
+                assertThat(handle.getConnection(), is(not(sameInstance(closed))));
+                insert(handle.getConnection(), 1, "1.0", "Hello1");
+            }
+        }
+        assertThat(h2.count(TABLE), is(1));
+    }
+
     /**
      * cascade.
      * @throws Exception if failed
@@ -110,4 +135,113 @@ public class BasicConnectionPoolTest extends JdbcDagTestRoot {
         }
         assertThat(h2.count(TABLE), is(3));
     }
+
+    /**
+     * reset connection states on release.
+     * @throws Exception if failed
+     */
+    @Test
+    public void reset() throws Exception {
+        try (BasicConnectionPool pool = pool(1)) {
+            try (ConnectionPool.Handle handle = pool.acquire()) {
+                Connection connection = handle.getConnection();
+                assertThat(connection.getAutoCommit(), is(false));
+                connection.setAutoCommit(true);
+            }
+            try (ConnectionPool.Handle handle = pool.acquire()) {
+                Connection connection = handle.getConnection();
+                assertThat(connection.getAutoCommit(), is(false));
+                insert(connection, 1, "1.0", "Hello1");
+            }
+        }
+        assertThat(h2.count(TABLE), is(1));
+    }
+
+    /**
+     * warm up connections.
+     * @throws Exception if failed
+     */
+    @Test
+    public void warm_up() throws Exception {
+        try (BasicConnectionPool pool = pool(3)) {
+            pool.warmUp();
+            assertThat(pool.cached(), is(3));
+            assertThat(pool.rest(), is(3));
+            try (ConnectionPool.Handle handle = pool.acquire()) {
+                assertThat(pool.cached(), is(2));
+                insert(handle.getConnection(), 1, "1.0", "Hello1");
+            }
+            pool.warmUp();
+            assertThat(pool.cached(), is(3));
+        }
+        assertThat(h2.count(TABLE), is(1));
+    }
+
+    /**
+     * w/ statement cache.
+     * @throws Exception if failed
+     */
+    @Test
+    public void statement_cache() throws Exception {
+        String sql = String.format("INSERT INTO %s (M_KEY, M_SORT, M_VALUE) VALUES (?, ?, ?)", TABLE);
+        String other = String.format("SELECT COUNT(*) FROM %s", TABLE);
+        try (BasicConnectionPool pool = bless(new BasicConnectionPool(
+                null, h2.getJdbcUrl(), Collections.emptyMap(), 1, 1))) {
+            PreparedStatement first;
+            try (ConnectionPool.Handle handle = pool.acquire()) {
+                try (PreparedStatement statement = handle.getConnection().prepareStatement(sql)) {
+                    first = statement.unwrap(PreparedStatement.class);
+                    statement.setInt(1, 1);
+                    statement.setBigDecimal(2, new BigDecimal("1.0"));
+                    statement.setString(3, "Hello1");
+                    statement.executeUpdate();
+                }
+                handle.getConnection().commit();
+            }
+            try (ConnectionPool.Handle handle = pool.acquire()) {
+                try (PreparedStatement statement = handle.getConnection().prepareStatement(sql)) {
+                    assertThat(statement.unwrap(PreparedStatement.class), is(sameInstance(first)));
+                    statement.setInt(1, 2);
+                    statement.setBigDecimal(2, new BigDecimal("2.0"));
+                    statement.setString(3, "Hello2");
+                    statement.executeUpdate();
+                    assertThat(statement.isClosed(), is(false));
+                    statement.close();
+                    assertThat(statement.isClosed(), is(true));
+                    assertThat(first.isClosed(), is(false));
+                }
+                try (PreparedStatement statement = handle.getConnection().prepareStatement(other)) {
+                    statement.executeQuery().close();
+                }
+                assertThat(first.isClosed(), is(true));
+                handle.getConnection().commit();
+            }
+        }
+        assertThat(h2.count(TABLE), is(2));
+    }
+
+    /**
+     * closing connection also closes its cached statements.
+     * @throws Exception if failed
+     */
+    @Test
+    public void statement_cache_close() throws Exception {
+        String sql = String.format("SELECT COUNT(*) FROM %s", TABLE);
+        try (BasicConnectionPool pool = bless(new BasicConnectionPool(
+                null, h2.getJdbcUrl(), Collections.emptyMap(), 1, 1))) {
+            PreparedStatement cached;
+            try (ConnectionPool.Handle handle = pool.acquire()) {
+                try (PreparedStatement statement = handle.getConnection().prepareStatement(sql)) {
+                    cached = statement.unwrap(PreparedStatement.class);
+                }
+                assertThat(cached.isClosed(), is(false));
+                handle.getConnection().close();
+                assertThat(cached.isClosed(), is(true));
+            }
+            try (ConnectionPool.Handle handle = pool.acquire()) {
+                insert(handle.getConnection(), 1, "1.0", "Hello1");
+            }
+        }
+        assertThat(h2.count(TABLE), is(1));
+    }
 }
@@ -18,10 +18,14 @@ package com.asakusafw.dag.runtime.jdbc.basic;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Test;
 
+import com.asakusafw.dag.api.processor.ObjectReader;
+import com.asakusafw.dag.runtime.io.ReadAheadExecutor;
 import com.asakusafw.dag.runtime.jdbc.JdbcDagTestRoot;
 import com.asakusafw.dag.runtime.jdbc.JdbcProfile;
 import com.asakusafw.dag.runtime.jdbc.testing.KsvJdbcAdapter;
@@ -63,6 +67,62 @@ public class BasicJdbcInputDriverTest extends JdbcDagTestRoot {
         });
     }
 
+    /**
+     * w/ prefetch.
+     * @throws Exception if failed
+     */
+    @Test
+    public void prefetch() throws Exception {
+        List<KsvModel> in = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            in.add(insert(i, null, "Hello" + i));
+        }
+        profile("testing", p -> {
+            List<KsvModel> results = get(new BasicJdbcInputDriver(SELECT, KsvJdbcAdapter::new, 100, prefetcher(), 10));
+            assertThat(results, is(in));
+        });
+    }
+
+    /**
+     * w/ prefetch - empty results.
+     * @throws Exception if failed
+     */
+    @Test
+    public void prefetch_empty() throws Exception {
+        profile("testing", p -> {
+            List<KsvModel> results = get(new BasicJdbcInputDriver(SELECT, KsvJdbcAdapter::new, 100, prefetcher(), 10));
+            assertThat(results, hasSize(0));
+        });
+    }
+
+    /**
+     * w/ prefetch - fetches on the caller thread if no more background threads.
+     * @throws Exception if failed
+     */
+    @Test
+    public void prefetch_saturated() throws Exception {
+        List<KsvModel> in = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            in.add(insert(i, null, "Hello" + i));
+        }
+        ReadAheadExecutor executor = bless(new ReadAheadExecutor("testing", 1));
+        try (Connection c0 = h2.open();
+                Connection c1 = h2.open();
+                ObjectReader r0 = BasicJdbcInputDriver.open(c0, SELECT, KsvJdbcAdapter::new, 10, executor, 10);
+                ObjectReader r1 = BasicJdbcInputDriver.open(c1, SELECT, KsvJdbcAdapter::new, 10, executor, 10)) {
+            assertThat(collect(r0), is(in));
+            assertThat(collect(r1), is(in));
+        }
+    }
+
+    private static List<KsvModel> collect(ObjectReader reader) throws Exception {
+        List<KsvModel> results = new ArrayList<>();
+        while (reader.nextObject()) {
+            results.add(new KsvModel((KsvModel) reader.getObject()));
+        }
+        return results;
+    }
+
     private BasicJdbcInputDriver driver(JdbcProfile profile) {
         return new BasicJdbcInputDriver(SELECT, KsvJdbcAdapter::new);
     }
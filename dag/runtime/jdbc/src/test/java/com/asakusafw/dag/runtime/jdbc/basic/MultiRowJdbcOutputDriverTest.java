@@ -0,0 +1,105 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.runtime.jdbc.basic;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.asakusafw.dag.runtime.jdbc.JdbcDagTestRoot;
+import com.asakusafw.dag.runtime.jdbc.JdbcOutputDriver;
+import com.asakusafw.dag.runtime.jdbc.testing.KsvJdbcAdapter;
+import com.asakusafw.dag.runtime.jdbc.testing.KsvModel;
+import com.asakusafw.dag.runtime.jdbc.util.JdbcUtil;
+
+/**
+ * Test for {@link MultiRowJdbcOutputDriver}.
+ */
+public class MultiRowJdbcOutputDriverTest extends JdbcDagTestRoot {
+
+    /**
+     * simple case.
+     * @throws Exception if failed
+     */
+    @Test
+    public void simple() throws Exception {
+        profile("testing", p -> {
+            put(driver(4), new KsvModel(0, null, "Hello, world!"));
+        });
+        assertThat(select(), contains(new KsvModel(0, null, "Hello, world!")));
+    }
+
+    /**
+     * multiple records.
+     * @throws Exception if failed
+     */
+    @Test
+    public void multiple() throws Exception {
+        profile("testing", p -> {
+            put(driver(2),
+                    new KsvModel(1, null, "Hello1"),
+                    new KsvModel(2, null, "Hello2"),
+                    new KsvModel(3, null, "Hello3"));
+        });
+        assertThat(select(), contains(
+                new KsvModel(1, null, "Hello1"),
+                new KsvModel(2, null, "Hello2"),
+                new KsvModel(3, null, "Hello3")));
+    }
+
+    /**
+     * many records.
+     * @throws Exception if failed
+     */
+    @Test
+    public void many() throws Exception {
+        List<KsvModel> records = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            records.add(new KsvModel(i, i % 3 == 0 ? null : BigDecimal.valueOf(i).setScale(2), "Hello" + i));
+        }
+        profile("testing", p -> {
+            put(driver(7), records.toArray());
+        });
+        assertThat(select(), is(records));
+    }
+
+    /**
+     * limits the number of place-holders in each statement.
+     * @throws Exception if failed
+     */
+    @Test
+    public void limit_parameters() throws Exception {
+        List<Integer> requested = new ArrayList<>();
+        JdbcOutputDriver driver = new MultiRowJdbcOutputDriver(rows -> {
+            requested.add(rows);
+            return JdbcUtil.getInsertStatement(TABLE, COLUMNS, rows);
+        }, 30000, 100, KsvJdbcAdapter::new);
+        try (Connection conn = h2.open();
+                JdbcOutputDriver.Sink sink = driver.open(conn)) {
+            assertThat(requested, containsInAnyOrder(2, 1));
+        }
+    }
+
+    private JdbcOutputDriver driver(int rows) {
+        return new MultiRowJdbcOutputDriver(TABLE, COLUMNS, rows, KsvJdbcAdapter::new);
+    }
+}
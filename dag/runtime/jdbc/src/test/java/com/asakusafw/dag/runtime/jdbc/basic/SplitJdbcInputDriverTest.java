@@ -146,6 +146,74 @@ public class SplitJdbcInputDriverTest extends JdbcDagTestRoot {
         });
     }
 
+    /**
+     * split w/ prefetch.
+     * @throws Exception if failed
+     */
+    @Test
+    public void split_prefetch() throws Exception {
+        edit(b -> b.withPrefetchSize(7));
+        List<KsvModel> in = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            in.add(insert(i, null, null));
+        }
+        profile("testing", p -> {
+            List<List<KsvModel>> parts = sort(get(p, "M_KEY", 10, null));
+            assertThat(parts, hasSize(10));
+            assertThat(merge(parts), is(in));
+        });
+    }
+
+    /**
+     * split skewed values evenly.
+     * @throws Exception if failed
+     */
+    @Test
+    public void split_balanced() throws Exception {
+        List<KsvModel> in = new ArrayList<>();
+        for (int i = 0; i < 900; i++) {
+            in.add(insert(i, null, null));
+        }
+        for (int i = 0; i < 100; i++) {
+            in.add(insert(1_000_000L + i * 10_000L, null, null));
+        }
+        profile("testing", p -> {
+            List<List<KsvModel>> skewed = sort(get(p, "M_KEY", 10, null));
+            assertThat(skewed.stream().mapToInt(List::size).max().getAsInt(), is(greaterThan(500)));
+
+            List<List<KsvModel>> parts = sort(get(p, "M_KEY", 10, null, true));
+            assertThat(parts, hasSize(10));
+            parts.forEach(e -> assertThat(e, hasSize(lessThan(200))));
+            assertThat(merge(parts), is(in));
+        });
+    }
+
+    /**
+     * split skewed values evenly w/ nulls.
+     * @throws Exception if failed
+     */
+    @Test
+    public void split_balanced_nulls() throws Exception {
+        List<KsvModel> in = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            in.add(insert(new KsvModel(-i - 1, null, null)));
+        }
+        for (int i = 0; i < 900; i++) {
+            in.add(insert(new KsvModel(i, new BigDecimal(BigInteger.valueOf(i), 2), null)));
+        }
+        for (int i = 0; i < 100; i++) {
+            in.add(insert(new KsvModel(i + 900, new BigDecimal(BigInteger.valueOf(10_000_000L + i), 2), null)));
+        }
+        profile("testing", p -> {
+            List<List<KsvModel>> parts = sort(get(p, "M_SORT", 10, null, true));
+            assertThat(parts, hasSize(lessThanOrEqualTo(10)));
+            parts.forEach(e -> assertThat(e, hasSize(lessThan(200))));
+            assertThat(merge(parts), is(in.stream()
+                    .sorted((a, b) -> a.getKeyOption().compareTo(b.getKeyOption()))
+                    .collect(Collectors.toList())));
+        });
+    }
+
     /**
      * split w/ condition.
      * @throws Exception if failed
@@ -236,11 +304,16 @@ public class SplitJdbcInputDriverTest extends JdbcDagTestRoot {
     }
 
     private List<? extends Partition> get(JdbcProfile profile, String split, int count, String condition) {
+        return get(profile, split, count, condition, false);
+    }
+
+    private List<? extends Partition> get(
+            JdbcProfile profile, String split, int count, String condition, boolean balanced) {
         return connect(new SplitJdbcInputDriver(
                 profile,
                 TABLE, COLUMNS,
                 split, count, condition,
-                KsvJdbcAdapter::new)::getPartitions);
+                KsvJdbcAdapter::new, balanced)::getPartitions);
     }
 
     private List<List<KsvModel>> sort(List<? extends Partition> parts) throws IOException, InterruptedException {
@@ -98,13 +98,18 @@ public class JdbcEnvironmentInstallerTest extends JdbcDagTestRoot {
         JdbcEnvironment environment = build(new Object[] {
                 q("a", KEY_URL), h2.getJdbcUrl(),
                 q("a", KEY_POOL_SIZE), 3,
+                q("a", KEY_POOL_WARMUP), true,
+                q("a", KEY_POOL_STATEMENTS), 4,
                 q("a", KEY_FETCH_SIZE), 1,
+                q("a", KEY_PREFETCH_SIZE), 4,
                 q("a", KEY_BATCH_INSERT_SIZE), 2,
                 q("a", KEY_INPUT_THREADS), 3,
                 q("a", KEY_OUTPUT_THREADS), -1,
                 q("a", KEY_PROPERTIES + ".testing"), "OK",
                 q("a", KEY_POOL_CLASS), BasicConnectionPool.class.getName(),
                 q("a", KEY_OUTPUT_CLEAR), "keep",
+                q("a", KEY_INPUT_SPLIT), "balanced",
+                q("a", KEY_OUTPUT_FLUSH), "pipelined",
         });
         JdbcProfile profile = environment.getProfile("a");
         try (ConnectionPool.Handle ha = profile.acquire();
@@ -113,10 +118,14 @@ public class JdbcEnvironmentInstallerTest extends JdbcDagTestRoot {
             Lang.pass();
         }
         assertThat(profile.getFetchSize().getAsInt(), is(1));
+        assertThat(profile.getPrefetchSize().getAsInt(), is(4));
         assertThat(profile.getBatchInsertSize().getAsInt(), is(2));
         assertThat(profile.getMaxInputConcurrency().getAsInt(), is(3));
         assertThat(profile.getMaxOutputConcurrency(), is(OptionalInt.empty()));
         assertThat(profile.getOption(OutputClearKind.class), is(Optional.of(OutputClearKind.KEEP)));
+        assertThat(profile.getOption(InputSplitKind.class), is(Optional.of(InputSplitKind.BALANCED)));
+        assertThat(profile.getOption(OutputFlushKind.class), is(Optional.of(OutputFlushKind.PIPELINED)));
+        assertThat(profile.getMaxConnections().getAsInt(), is(3));
     }
 
     /**
@@ -125,6 +125,48 @@ public class JdbcOutputProcessorTest extends JdbcDagTestRoot {
         assertThat(select(), is(records));
     }
 
+    /**
+     * flush with pipelining.
+     * @throws Exception if failed
+     */
+    @Test
+    public void flush_pipelined() throws Exception {
+        edit(b -> b
+                .withInsertSize(10)
+                .withOption(OutputFlushKind.PIPELINED));
+        List<KsvModel> records = new ArrayList<>();
+        for (int i = 0; i < 1230; i++) {
+            records.add(new KsvModel(i, null, "Hello" + i));
+        }
+        profile(PROFILE, profile -> {
+            run(2, c -> c.output("t", profile.getName(), output(TABLE)), new Object[][] {
+                records.toArray()
+            });
+        });
+        assertThat(select(), is(records));
+    }
+
+    /**
+     * pipelining is disabled if the connection pool is too small.
+     * @throws Exception if failed
+     */
+    @Test
+    public void flush_pipelined_small_pool() throws Exception {
+        edit(b -> b
+                .withInsertSize(10)
+                .withOption(OutputFlushKind.PIPELINED));
+        List<KsvModel> records = new ArrayList<>();
+        for (int i = 0; i < 123; i++) {
+            records.add(new KsvModel(i, null, "Hello" + i));
+        }
+        profile(PROFILE, profile -> {
+            run(1, c -> c.output("t", profile.getName(), output(TABLE)), new Object[][] {
+                records.toArray()
+            });
+        });
+        assertThat(select(), is(records));
+    }
+
     /**
      * multiple destinations.
      * @throws Exception if failed
@@ -168,6 +210,10 @@ public class JdbcOutputProcessorTest extends JdbcDagTestRoot {
     }
 
     private void run(Action<JdbcOutputProcessor, Exception> config, Object[][] values) {
+        run(1, config, values);
+    }
+
+    private void run(int connections, Action<JdbcOutputProcessor, Exception> config, Object[][] values) {
         VertexProcessorRunner runner = new VertexProcessorRunner(() -> {
             JdbcOutputProcessor proc = new JdbcOutputProcessor();
             config.perform(proc);
@@ -184,7 +230,7 @@ public class JdbcOutputProcessorTest extends JdbcDagTestRoot {
         runner
             .input(JdbcOutputProcessor.INPUT_NAME, records.toArray())
             .resource(StageInfo.class, STAGE)
-            .resource(JdbcEnvironment.class, environment(PROFILE))
+            .resource(JdbcEnvironment.class, environment(connections, PROFILE))
             .run();
     }
 }
@@ -0,0 +1,211 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.runtime.io;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+import com.asakusafw.lang.utils.common.Arguments;
+import com.asakusafw.lang.utils.common.InterruptibleIo;
+
+/**
+ * A cursor which reads objects ahead on a background thread.
+ * The background thread fills a fixed number of batches of pre-allocated slots, so that this never holds more than
+ * the specified number of records.
+ * Clients can obtain instances via {@link ReadAheadExecutor#start(Supplier, int, Source)}.
+ * @param <S> the slot type
+ * @since 0.4.0
+ */
+public final class ReadAheadCursor<S> implements InterruptibleIo {
+
+    static final int BATCHES = 3;
+
+    private final Source<? super S> source;
+
+    private final BlockingQueue<Batch<S>> free;
+
+    private final BlockingQueue<Batch<S>> filled;
+
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    private volatile boolean closed;
+
+    private Batch<S> current;
+
+    private int index;
+
+    private S slot;
+
+    ReadAheadCursor(Supplier<? extends S> slots, int records, Source<? super S> source) {
+        Arguments.requireNonNull(slots);
+        Arguments.require(records > 0);
+        Arguments.requireNonNull(source);
+        this.source = source;
+        int batchSize = Math.max(records / BATCHES, 1);
+        this.free = new ArrayBlockingQueue<>(BATCHES);
+        // + 1 for reporting an unexpected interruption
+        this.filled = new ArrayBlockingQueue<>(BATCHES + 1);
+        for (int i = 0; i < BATCHES; i++) {
+            Object[] objects = new Object[batchSize];
+            for (int j = 0; j < objects.length; j++) {
+                objects[j] = slots.get();
+            }
+            free.add(new Batch<>(objects));
+        }
+    }
+
+    void produce() {
+        try {
+            while (closed == false) {
+                Batch<S> batch = free.take();
+                if (closed) {
+                    break;
+                }
+                batch.count = 0;
+                try {
+                    while (batch.count < batch.objects.length
+                            && closed == false
+                            && source.readTo(batch.get(batch.count))) {
+                        batch.count++;
+                    }
+                    batch.eof = batch.count < batch.objects.length;
+                } catch (Throwable t) {
+                    batch.error = t;
+                }
+                // never blocks: the queue capacity is larger than the number of batches
+                filled.add(batch);
+                if (batch.eof || batch.error != null) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            // the owner executor was forcibly terminated
+            Batch<S> batch = new Batch<>(new Object[0]);
+            batch.error = e;
+            filled.offer(batch);
+        } finally {
+            finished.countDown();
+        }
+    }
+
+    /**
+     * Advances this cursor and returns whether or not the next slot exists.
+     * @return {@code true} if the next slot exists, otherwise {@code false}
+     * @throws IOException if I/O error was occurred while reading the source
+     * @throws InterruptedException if interrupted while waiting for the background thread
+     */
+    public boolean next() throws IOException, InterruptedException {
+        while (true) {
+            if (current != null) {
+                if (index < current.count) {
+                    slot = current.get(index++);
+                    return true;
+                }
+                if (current.eof) {
+                    return false;
+                }
+                free.add(current);
+                current = null;
+            }
+            Batch<S> next = filled.take();
+            if (next.error != null) {
+                throw rethrow(next.error);
+            }
+            current = next;
+            index = 0;
+        }
+    }
+
+    /**
+     * Returns the current slot.
+     * @return the current slot
+     */
+    public S get() {
+        return slot;
+    }
+
+    private static IOException rethrow(Throwable error) throws InterruptedException {
+        if (error instanceof IOException) {
+            return (IOException) error;
+        } else if (error instanceof InterruptedException) {
+            throw (InterruptedException) error;
+        } else if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        } else if (error instanceof Error) {
+            throw (Error) error;
+        }
+        return new IOException(error);
+    }
+
+    /**
+     * Stops the background thread and waits for its termination.
+     * This never interrupts the background thread, and does not close the source.
+     */
+    @Override
+    public void close() throws IOException, InterruptedException {
+        closed = true;
+        // wakes up the background thread which is waiting for free batches
+        if (current != null) {
+            free.offer(current);
+            current = null;
+        }
+        for (Batch<S> batch = filled.poll(); batch != null; batch = filled.poll()) {
+            free.offer(batch);
+        }
+        finished.await();
+    }
+
+    /**
+     * Reads objects from the source.
+     * @param <S> the slot type
+     * @since 0.4.0
+     */
+    @FunctionalInterface
+    public interface Source<S> {
+
+        /**
+         * Reads the next object into the given slot.
+         * @param slot the destination slot
+         * @return {@code true} if the next object was read, or {@code false} if the source does not have any more
+         * @throws IOException if I/O error was occurred while reading the next object
+         * @throws InterruptedException if interrupted while reading the next object
+         */
+        boolean readTo(S slot) throws IOException, InterruptedException;
+    }
+
+    private static final class Batch<S> {
+
+        final Object[] objects;
+
+        int count;
+
+        boolean eof;
+
+        Throwable error;
+
+        Batch(Object[] objects) {
+            this.objects = objects;
+        }
+
+        @SuppressWarnings("unchecked")
+        S get(int i) {
+            return (S) objects[i];
+        }
+    }
+}
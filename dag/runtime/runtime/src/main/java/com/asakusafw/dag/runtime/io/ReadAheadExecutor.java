@@ -0,0 +1,106 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.runtime.io;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.asakusafw.lang.utils.common.Arguments;
+import com.asakusafw.lang.utils.common.InterruptibleIo;
+
+/**
+ * A bounded thread pool for reading input ahead on background threads.
+ * The owner of this object (e.g. an input adapter) must close it when the owner is closed.
+ * This never queues read-ahead requests: if all threads are busy, clients should read the input on the
+ * current thread instead.
+ * @since 0.4.0
+ */
+public class ReadAheadExecutor implements InterruptibleIo {
+
+    static final Logger LOG = LoggerFactory.getLogger(ReadAheadExecutor.class);
+
+    private static final long KEEP_ALIVE_SECONDS = 10L;
+
+    private final String name;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Creates a new instance.
+     * @param name the executor name, which is used for the thread names
+     * @param maxThreads the max number of background threads
+     */
+    public ReadAheadExecutor(String name, int maxThreads) {
+        Arguments.requireNonNull(name);
+        Arguments.require(maxThreads > 0);
+        this.name = name;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                0, maxThreads,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                r -> {
+                    Thread thread = new Thread(r);
+                    thread.setName(String.format("%s-%d", name, counter.incrementAndGet())); //$NON-NLS-1$
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Starts reading ahead the given source on a background thread.
+     * @param <S> the slot type
+     * @param slots the slot provider
+     * @param records the max number of records to read ahead
+     * @param source the source
+     * @return the started cursor, or empty if there are no available threads
+     */
+    public <S> Optional<ReadAheadCursor<S>> start(
+            Supplier<? extends S> slots, int records,
+            ReadAheadCursor.Source<? super S> source) {
+        ReadAheadCursor<S> cursor = new ReadAheadCursor<>(slots, records, source);
+        try {
+            executor.execute(cursor::produce);
+        } catch (RejectedExecutionException e) {
+            LOG.debug("no more threads for read-ahead: {}", name, e); //$NON-NLS-1$
+            return Optional.empty();
+        }
+        return Optional.of(cursor);
+    }
+
+    /**
+     * Shuts down this executor.
+     * The running background threads will stop after their cursors are closed.
+     */
+    @Override
+    public void close() throws IOException, InterruptedException {
+        executor.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ReadAheadExecutor(%s)", name); //$NON-NLS-1$
+    }
+}
@@ -16,32 +16,77 @@
 package com.asakusafw.dag.runtime.skeleton;
 
 import java.io.IOException;
+import java.util.Optional;
 
 import com.asakusafw.dag.api.processor.TaskProcessorContext;
 import com.asakusafw.dag.runtime.adapter.ExtractOperation;
 import com.asakusafw.dag.runtime.adapter.InputHandler;
 import com.asakusafw.dag.runtime.adapter.ModelInputTaskInfo;
+import com.asakusafw.dag.runtime.io.ReadAheadCursor;
+import com.asakusafw.dag.runtime.io.ReadAheadExecutor;
+import com.asakusafw.lang.utils.common.Arguments;
 import com.asakusafw.runtime.io.ModelInput;
 
 /**
  * {@link InputHandler} which handles {@link ModelInputTaskInfo}.
+ * If read-ahead is enabled, this reads the next records on a background thread while the task thread processes
+ * the current records.
  * @since 0.4.0
  */
 public class ModelInputHandler implements InputHandler<ExtractOperation.Input, TaskProcessorContext> {
 
+    private final ReadAheadExecutor executor;
+
+    private final int readAheadRecords;
+
+    /**
+     * Creates a new instance.
+     */
+    public ModelInputHandler() {
+        this(null, 0);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param executor the executor for reading ahead, which is owned by the caller
+     *     (nullable if read-ahead is disabled)
+     * @param readAheadRecords the max number of records to read ahead, or {@code 0} to disable read-ahead
+     */
+    public ModelInputHandler(ReadAheadExecutor executor, int readAheadRecords) {
+        Arguments.require(readAheadRecords >= 0);
+        Arguments.require(readAheadRecords == 0 || executor != null);
+        this.executor = executor;
+        this.readAheadRecords = readAheadRecords;
+    }
+
     @Override
     public InputSession<ExtractOperation.Input> start(
             TaskProcessorContext context) throws IOException, InterruptedException {
         ModelInputTaskInfo<?> info = context.getTaskInfo()
                 .map(ModelInputTaskInfo.class::cast)
                 .orElseThrow(IllegalStateException::new);
-        return newDriver(info);
+        return start(info);
     }
 
-    private static <T> Driver<T> newDriver(ModelInputTaskInfo<T> info) throws IOException, InterruptedException {
-        T buffer = info.newDataObject();
+    private <T> InputSession<ExtractOperation.Input> start(
+            ModelInputTaskInfo<T> info) throws IOException, InterruptedException {
         ModelInput<T> input = info.open();
-        return new Driver<>(input, buffer);
+        if (readAheadRecords > 0) {
+            boolean success = false;
+            try {
+                Optional<ReadAheadCursor<T>> cursor = executor.start(
+                        info::newDataObject, readAheadRecords, input::readTo);
+                success = true;
+                if (cursor.isPresent()) {
+                    return new ReadAheadDriver<>(input, cursor.get());
+                }
+            } finally {
+                if (success == false) {
+                    input.close();
+                }
+            }
+        }
+        return new Driver<>(input, info.newDataObject());
     }
 
     private static final class Driver<T>
@@ -77,4 +122,42 @@ public class ModelInputHandler implements InputHandler<ExtractOperation.Input, T
             input.close();
         }
     }
+
+    private static final class ReadAheadDriver<T>
+            implements InputSession<ExtractOperation.Input>, ExtractOperation.Input {
+
+        private final ModelInput<T> input;
+
+        private final ReadAheadCursor<T> cursor;
+
+        ReadAheadDriver(ModelInput<T> input, ReadAheadCursor<T> cursor) {
+            this.input = input;
+            this.cursor = cursor;
+        }
+
+        @Override
+        public ExtractOperation.Input get() throws IOException, InterruptedException {
+            return this;
+        }
+
+        @Override
+        public boolean next() throws IOException, InterruptedException {
+            return cursor.next();
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <S> S getObject() {
+            return (S) cursor.get();
+        }
+
+        @Override
+        public void close() throws IOException, InterruptedException {
+            try {
+                cursor.close();
+            } finally {
+                input.close();
+            }
+        }
+    }
 }
@@ -0,0 +1,140 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.dag.runtime.io;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.asakusafw.runtime.value.IntOption;
+
+/**
+ * Test for {@link ReadAheadCursor}.
+ */
+public class ReadAheadCursorTest {
+
+    private final ReadAheadExecutor executor = new ReadAheadExecutor("testing", 1);
+
+    /**
+     * Cleanup.
+     * @throws Exception if failed
+     */
+    @After
+    public void teardown() throws Exception {
+        executor.close();
+    }
+
+    /**
+     * simple case.
+     * @throws Exception if failed
+     */
+    @Test
+    public void simple() throws Exception {
+        try (ReadAheadCursor<IntOption> cursor = start(100, 10).get()) {
+            assertThat(collect(cursor), is(range(100)));
+        }
+    }
+
+    /**
+     * empty source.
+     * @throws Exception if failed
+     */
+    @Test
+    public void empty() throws Exception {
+        try (ReadAheadCursor<IntOption> cursor = start(0, 10).get()) {
+            assertThat(collect(cursor), hasSize(0));
+        }
+    }
+
+    /**
+     * close before reading all records.
+     * @throws Exception if failed
+     */
+    @Test
+    public void close_early() throws Exception {
+        try (ReadAheadCursor<IntOption> cursor = start(Integer.MAX_VALUE, 10).get()) {
+            assertThat(cursor.next(), is(true));
+            assertThat(cursor.get().get(), is(0));
+            // close() must stop the background thread even if it is reading the source
+        }
+    }
+
+    /**
+     * no more threads.
+     * @throws Exception if failed
+     */
+    @Test
+    public void saturated() throws Exception {
+        try (ReadAheadCursor<IntOption> cursor = start(Integer.MAX_VALUE, 10).get()) {
+            assertThat(start(10, 10).isPresent(), is(false));
+        }
+    }
+
+    /**
+     * source raises an error.
+     * @throws Exception if failed
+     */
+    @Test(expected = IOException.class)
+    public void error() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        try (ReadAheadCursor<IntOption> cursor = executor.start(IntOption::new, 10, slot -> {
+            if (count.incrementAndGet() > 5) {
+                throw new IOException();
+            }
+            return true;
+        }).get()) {
+            while (cursor.next()) {
+                continue;
+            }
+        }
+    }
+
+    private Optional<ReadAheadCursor<IntOption>> start(int records, int readAhead) {
+        AtomicInteger count = new AtomicInteger();
+        return executor.start(IntOption::new, readAhead, slot -> {
+            int next = count.getAndIncrement();
+            if (next >= records) {
+                return false;
+            }
+            slot.modify(next);
+            return true;
+        });
+    }
+
+    private static List<Integer> collect(ReadAheadCursor<IntOption> cursor) throws Exception {
+        List<Integer> results = new ArrayList<>();
+        while (cursor.next()) {
+            results.add(cursor.get().get());
+        }
+        return results;
+    }
+
+    private static List<Integer> range(int count) {
+        List<Integer> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            results.add(i);
+        }
+        return results;
+    }
+}
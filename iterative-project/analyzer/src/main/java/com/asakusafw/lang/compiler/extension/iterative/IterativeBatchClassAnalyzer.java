@@ -22,6 +22,7 @@ import com.asakusafw.lang.compiler.analyzer.FlowGraphAnalyzer;
 import com.asakusafw.lang.compiler.analyzer.JobflowAnalyzer;
 import com.asakusafw.lang.compiler.core.AnalyzerContext;
 import com.asakusafw.lang.compiler.core.ClassAnalyzer;
+import com.asakusafw.lang.compiler.core.ClassHeader;
 import com.asakusafw.lang.compiler.core.adapter.ExternalPortAnalyzerAdapter;
 import com.asakusafw.lang.compiler.model.graph.Batch;
 import com.asakusafw.lang.compiler.model.graph.BatchElement;
@@ -40,6 +41,11 @@ public class IterativeBatchClassAnalyzer implements ClassAnalyzer {
         return IterativeBatchAnalyzer.isBatch(aClass);
     }
 
+    @Override
+    public boolean isBatchCandidate(Context context, ClassHeader header) {
+        return header.isInterface() == false && header.isAnnotationPresent(IterativeBatch.class);
+    }
+
     @Override
     public boolean isJobflowClass(Context context, Class<?> aClass) {
         return isBatchClass(context, aClass);
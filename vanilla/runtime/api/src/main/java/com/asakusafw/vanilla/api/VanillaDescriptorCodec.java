@@ -0,0 +1,79 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.api;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+
+import com.asakusafw.dag.api.model.DescriptorCodec;
+
+/**
+ * {@link DescriptorCodec} for {@link VanillaVertexDescriptor} and {@link VanillaEdgeDescriptor}.
+ * @since 0.4.0
+ */
+public class VanillaDescriptorCodec implements DescriptorCodec {
+
+    private static final String ID = "vanilla"; //$NON-NLS-1$
+
+    private static final int KIND_VERTEX = 1;
+
+    private static final int KIND_EDGE = 2;
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public boolean accepts(Object descriptor) {
+        return descriptor != null
+                && (descriptor.getClass() == VanillaVertexDescriptor.class
+                    || descriptor.getClass() == VanillaEdgeDescriptor.class);
+    }
+
+    @Override
+    public void write(Object descriptor, Output output) throws IOException {
+        if (descriptor instanceof VanillaVertexDescriptor) {
+            VanillaVertexDescriptor vertex = (VanillaVertexDescriptor) descriptor;
+            output.writeInt(KIND_VERTEX);
+            output.writeSupplier(vertex.getProcessor());
+        } else {
+            VanillaEdgeDescriptor edge = (VanillaEdgeDescriptor) descriptor;
+            output.writeInt(KIND_EDGE);
+            output.writeString(edge.getMovement().name());
+            output.writeSupplier(edge.getSerDe());
+            output.writeSupplier(edge.getComparator());
+        }
+    }
+
+    @Override
+    public Object read(Input input) throws IOException {
+        int kind = input.readInt();
+        switch (kind) {
+        case KIND_VERTEX:
+            return new VanillaVertexDescriptor(input.readSupplier());
+        case KIND_EDGE:
+            return new VanillaEdgeDescriptor(
+                    VanillaEdgeDescriptor.Movement.valueOf(input.readString()),
+                    input.readSupplier(),
+                    input.readSupplier());
+        default:
+            throw new IOException(MessageFormat.format(
+                    "unknown Vanilla descriptor kind: {0}",
+                    kind));
+        }
+    }
+}
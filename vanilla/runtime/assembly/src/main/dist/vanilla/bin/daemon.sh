@@ -0,0 +1,139 @@
+#!/bin/bash
+#
+# Copyright 2011-2016 Asakusa Framework Team.
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#     http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+#
+
+
+usage() {
+    cat 1>&2 <<EOF
+Asakusa Vanilla Daemon
+
+Usage:
+    $0 port
+
+Parameters:
+    port
+        port number to listen on the loopback address
+        Clients execute applications on this daemon
+        by setting ASAKUSA_VANILLA_DAEMON_PORT before running execute.sh
+
+Environment variables:
+    ASAKUSA_VANILLA_DAEMON_TOKEN
+        Path of the access token file, which is only readable by the current user
+        (default: \$HOME/.asakusa/vanilla-daemon-<port>.token)
+        This script writes a new token into the file,
+        and clients must use the same path
+    ASAKUSA_VANILLA_OPTS
+        Java VM options
+    ASAKUSA_VANILLA_LAUNCHER
+        Java command qualifier
+EOF
+}
+
+import() {
+    _SCRIPT="$1"
+    if [ -e "$_SCRIPT" ]
+    then
+        . "$_SCRIPT"
+    else
+        echo "$_SCRIPT is not found" 1>&2
+        exit 1
+    fi
+}
+
+if [ $# -ne 1 ]
+then
+    echo "$@" 1>&2
+    usage
+    exit 1
+fi
+
+_OPT_PORT="$1"
+shift
+
+# the daemon class path must not contain any application libraries
+_OPT_BATCH_ID=""
+_OPT_FLOW_ID=""
+
+_ROOT="$(cd "$(dirname "$0")/.." ; pwd)"
+import "$_ROOT/conf/env.sh"
+import "$_ROOT/libexec/validate-env.sh"
+
+# Move to home directory
+cd
+
+if [ "$ASAKUSA_VANILLA_DAEMON_TOKEN" = "" ]
+then
+    ASAKUSA_VANILLA_DAEMON_TOKEN="$HOME/.asakusa/vanilla-daemon-$_OPT_PORT.token"
+fi
+mkdir -p "$(dirname "$ASAKUSA_VANILLA_DAEMON_TOKEN")"
+rm -f "$ASAKUSA_VANILLA_DAEMON_TOKEN"
+(umask 077 && od -An -tx1 -N32 /dev/urandom | tr -d ' \n' > "$ASAKUSA_VANILLA_DAEMON_TOKEN")
+if [ $? -ne 0 ]
+then
+    echo "failed to create the daemon token file: $ASAKUSA_VANILLA_DAEMON_TOKEN" 1>&2
+    exit 1
+fi
+
+_EXEC=()
+_LIBRARYPATH=()
+_CLASSPATH=()
+_APP_OPTIONS=()
+
+if [ -d "$_ROOT/lib/hadoop" ]
+then
+    _USE_HADOOP_CMD=0
+    import "$_ROOT/libexec/configure-java-cmd.sh"
+else
+    _USE_HADOOP_CMD=1
+    import "$_ROOT/libexec/configure-hadoop-cmd.sh"
+fi
+
+import "$_ROOT/libexec/configure-classpath.sh"
+
+if [ "$ASAKUSA_VANILLA_LAUNCHER" != "" ]
+then
+    _EXEC+=($ASAKUSA_VANILLA_LAUNCHER)
+fi
+
+if [ $_USE_HADOOP_CMD -eq 1 ]
+then
+    _EXEC+=("$HADOOP_CMD")
+else
+    _EXEC+=("$JAVA_CMD")
+fi
+
+echo "Starting Asakusa Vanilla Daemon:"
+echo "              Launcher: ${_EXEC[@]}"
+echo "                  Port: $_OPT_PORT"
+echo "            Token File: $ASAKUSA_VANILLA_DAEMON_TOKEN"
+echo "  ASAKUSA_VANILLA_OPTS: $ASAKUSA_VANILLA_OPTS"
+
+if [ $_USE_HADOOP_CMD -eq 1 ]
+then
+    export HADOOP_CLIENT_OPTS="$HADOOP_CLIENT_OPTS $ASAKUSA_VANILLA_OPTS"
+    export HADOOP_CLASSPATH="$HADOOP_CLASSPATH:$(IFS=:; echo "${_CLASSPATH[*]}")"
+    exec "${_EXEC[@]}" \
+        "com.asakusafw.vanilla.client.VanillaDaemon" \
+        "$_OPT_PORT" \
+        "$ASAKUSA_VANILLA_DAEMON_TOKEN"
+else
+    exec "${_EXEC[@]}" \
+        $ASAKUSA_VANILLA_OPTS \
+        -classpath "$(IFS=:; echo "${_CLASSPATH[*]}")" \
+        "com.asakusafw.vanilla.client.VanillaDaemon" \
+        "$_OPT_PORT" \
+        "$ASAKUSA_VANILLA_DAEMON_TOKEN"
+fi
@@ -46,6 +46,11 @@ Environment variables:
         Extra launcher arguments
     ASAKUSA_VANILLA_LAUNCHER
         Java command qualifier
+    ASAKUSA_VANILLA_DAEMON_PORT
+        Port number of the running Vanilla daemon (see daemon.sh)
+        If this is set, the application is executed on the daemon
+    ASAKUSA_VANILLA_DAEMON_TOKEN
+        Path of the daemon access token file (see daemon.sh)
 EOF
 }
 
@@ -130,7 +135,36 @@ echo "  ASAKUSA_VANILLA_OPTS: $ASAKUSA_VANILLA_OPTS"
 echo "        System Options: ${_APP_OPTIONS[@]}"
 echo "          User Options: $@"
 
-if [ $_USE_HADOOP_CMD -eq 1 ]
+if [ "$ASAKUSA_VANILLA_DAEMON_PORT" != "" ]
+then
+    import "$_ROOT/libexec/configure-java-cmd.sh"
+    _APP_CLASSPATH=("$ASAKUSA_BATCHAPPS_HOME/$_OPT_BATCH_ID/lib/jobflow-${_OPT_FLOW_ID}.jar")
+    if [ -d "$ASAKUSA_BATCHAPPS_HOME/$_OPT_BATCH_ID/usr/lib" ]
+    then
+        for f in $(ls "$ASAKUSA_BATCHAPPS_HOME/$_OPT_BATCH_ID/usr/lib")
+        do
+            _APP_CLASSPATH+=("$ASAKUSA_BATCHAPPS_HOME/$_OPT_BATCH_ID/usr/lib/$f")
+        done
+    fi
+    if [ "$ASAKUSA_VANILLA_DAEMON_TOKEN" = "" ]
+    then
+        ASAKUSA_VANILLA_DAEMON_TOKEN="$HOME/.asakusa/vanilla-daemon-$ASAKUSA_VANILLA_DAEMON_PORT.token"
+    fi
+    echo "           Daemon Port: $ASAKUSA_VANILLA_DAEMON_PORT"
+    "$JAVA_CMD" \
+        -classpath "$(IFS=:; echo "${_CLASSPATH[*]}")" \
+        "com.asakusafw.vanilla.client.VanillaDaemonClient" \
+        "$ASAKUSA_VANILLA_DAEMON_PORT" \
+        "$ASAKUSA_VANILLA_DAEMON_TOKEN" \
+        "$(IFS=:; echo "${_APP_CLASSPATH[*]}")" \
+        --client "$_OPT_APPLICATION" \
+        --batch-id "$_OPT_BATCH_ID" \
+        --flow-id "$_OPT_FLOW_ID" \
+        --execution-id "$_OPT_EXECUTION_ID" \
+        --batch-arguments "$_OPT_BATCH_ARGUMENTS," \
+        "${_APP_OPTIONS[@]}" \
+        "$@"
+elif [ $_USE_HADOOP_CMD -eq 1 ]
 then
     export HADOOP_CLIENT_OPTS="$HADOOP_CLIENT_OPTS $ASAKUSA_VANILLA_OPTS"
     export HADOOP_CLASSPATH="$HADOOP_CLASSPATH:$(IFS=:; echo "${_CLASSPATH[*]}")"
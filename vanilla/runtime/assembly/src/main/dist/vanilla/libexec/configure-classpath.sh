@@ -14,7 +14,10 @@
 # limitations under the License.
 #
 
-_CLASSPATH+=("$ASAKUSA_BATCHAPPS_HOME/$_OPT_BATCH_ID/lib/jobflow-${_OPT_FLOW_ID}.jar")
+if [ "$_OPT_BATCH_ID" != "" ]
+then
+    _CLASSPATH+=("$ASAKUSA_BATCHAPPS_HOME/$_OPT_BATCH_ID/lib/jobflow-${_OPT_FLOW_ID}.jar")
+fi
 
 if [ -d "$_ROOT/conf" ]
 then
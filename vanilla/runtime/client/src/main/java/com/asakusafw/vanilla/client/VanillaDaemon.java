@@ -0,0 +1,309 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.client;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.MalformedURLException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.MessageDigest;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.asakusafw.bridge.launch.LaunchConfigurationException;
+import com.asakusafw.lang.utils.common.Arguments;
+
+/**
+ * A long-lived process which launches Asakusa Vanilla applications on request.
+ * Clients connect to this daemon via a loopback TCP socket (see {@link VanillaDaemonClient}), and this daemon runs
+ * each requested jobflow in its own application class loader, whose parent is the daemon class loader.
+ * The engine classes are loaded only once and stay JIT compiled between jobflows.
+ * Each request must carry the token shared with the clients through a file only readable by the owner, so that other
+ * local users cannot run code as the daemon user.
+ * Jobflows are executed one by one, because each of them occupies the VM-scoped runtime resources.
+ * @since 0.4.0
+ */
+public class VanillaDaemon implements Closeable {
+
+    static final Logger LOG = LoggerFactory.getLogger(VanillaDaemon.class);
+
+    static final int PROTOCOL_MAGIC = 0x56444d31; // VDM1
+
+    static final int COMMAND_EXEC = 1;
+
+    static final int COMMAND_SHUTDOWN = 2;
+
+    static final int REQUEST_TIMEOUT = 30_000;
+
+    private static final Set<PosixFilePermission> TOKEN_FILE_DENIED = EnumSet.of(
+            PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_WRITE, PosixFilePermission.GROUP_EXECUTE,
+            PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_WRITE, PosixFilePermission.OTHERS_EXECUTE);
+
+    private final ServerSocket server;
+
+    private final byte[] token;
+
+    private final ClassLoader parent;
+
+    private final Launcher launcher;
+
+    private volatile boolean running = true;
+
+    int requestTimeout = REQUEST_TIMEOUT;
+
+    /**
+     * Creates a new instance.
+     * @param port the listening port number on the loopback address, or {@code 0} to use an ephemeral port
+     * @param token the access token, which clients must send in each request
+     * @param parent the parent class loader of each application class loader
+     * @throws IOException if failed to open the server socket
+     */
+    public VanillaDaemon(int port, String token, ClassLoader parent) throws IOException {
+        this(port, token, parent, (loader, args) -> VanillaLauncher.exec(loader, args));
+    }
+
+    /**
+     * Creates a new instance.
+     * @param port the listening port number on the loopback address, or {@code 0} to use an ephemeral port
+     * @param token the access token, which clients must send in each request
+     * @param parent the parent class loader of each application class loader
+     * @param launcher the application launcher
+     * @throws IOException if failed to open the server socket
+     */
+    public VanillaDaemon(int port, String token, ClassLoader parent, Launcher launcher) throws IOException {
+        Arguments.require(port >= 0);
+        Arguments.requireNonNull(token);
+        Arguments.require(token.isEmpty() == false);
+        Arguments.requireNonNull(parent);
+        Arguments.requireNonNull(launcher);
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+        this.server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.parent = parent;
+        this.launcher = launcher;
+    }
+
+    /**
+     * Returns the listening port number.
+     * @return the port number
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Accepts and processes requests until this daemon is shut down.
+     * @throws IOException if I/O error was occurred while accepting requests
+     */
+    public void run() throws IOException {
+        LOG.info(MessageFormat.format(
+                "Vanilla daemon started: port={0}",
+                String.valueOf(getPort())));
+        while (running) {
+            Socket accepted;
+            try {
+                accepted = server.accept();
+            } catch (SocketException e) {
+                if (running) {
+                    throw e;
+                }
+                break;
+            }
+            try (Socket socket = accepted) {
+                // a stalled client must not block the following requests
+                socket.setSoTimeout(requestTimeout);
+                process(socket);
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("error occurred while processing Vanilla daemon request", e);
+            }
+        }
+        LOG.info("Vanilla daemon stopped");
+    }
+
+    private void process(Socket socket) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        if (input.readInt() != PROTOCOL_MAGIC) {
+            throw new IOException("invalid Vanilla daemon request");
+        }
+        byte[] requestToken = input.readUTF().getBytes(StandardCharsets.UTF_8);
+        if (MessageDigest.isEqual(token, requestToken) == false) {
+            throw new IOException(MessageFormat.format(
+                    "unauthorized Vanilla daemon request: {0}",
+                    socket.getRemoteSocketAddress()));
+        }
+        int command = input.readInt();
+        switch (command) {
+        case COMMAND_EXEC:
+            List<String> classpath = readStrings(input);
+            List<String> arguments = readStrings(input);
+            output.writeInt(exec(classpath, arguments));
+            break;
+        case COMMAND_SHUTDOWN:
+            running = false;
+            output.writeInt(VanillaLauncher.EXEC_SUCCESS);
+            server.close();
+            break;
+        default:
+            throw new IOException(MessageFormat.format(
+                    "unknown Vanilla daemon command: {0}",
+                    command));
+        }
+        output.flush();
+    }
+
+    private int exec(List<String> classpath, List<String> arguments) {
+        LOG.debug("launching application: classpath={}, arguments={}", classpath, arguments); //$NON-NLS-1$
+        Thread current = Thread.currentThread();
+        ClassLoader context = current.getContextClassLoader();
+        try (URLClassLoader loader = URLClassLoader.newInstance(toUrls(classpath), parent)) {
+            current.setContextClassLoader(loader);
+            return launcher.exec(loader, arguments.toArray(new String[arguments.size()]));
+        } catch (Throwable t) {
+            // errors from an application (e.g. NoClassDefFoundError) must not stop the daemon
+            LOG.error(MessageFormat.format(
+                    "failed to launch application: {0}",
+                    arguments), t);
+            return VanillaLauncher.EXEC_ERROR;
+        } finally {
+            current.setContextClassLoader(context);
+        }
+    }
+
+    private static URL[] toUrls(List<String> classpath) throws MalformedURLException {
+        URL[] results = new URL[classpath.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = new File(classpath.get(i)).toURI().toURL();
+        }
+        return results;
+    }
+
+    /**
+     * Reads the access token from the given file.
+     * The file must not be accessible from other users, if the file system supports POSIX file permissions.
+     * @param file the token file
+     * @return the access token
+     * @throws IOException if the token file is not valid
+     */
+    public static String readToken(Path file) throws IOException {
+        Arguments.requireNonNull(file);
+        PosixFileAttributeView view = Files.getFileAttributeView(file, PosixFileAttributeView.class);
+        if (view != null) {
+            Set<PosixFilePermission> permissions = view.readAttributes().permissions();
+            permissions.retainAll(TOKEN_FILE_DENIED);
+            if (permissions.isEmpty() == false) {
+                throw new IOException(MessageFormat.format(
+                        "Vanilla daemon token file must not be accessible from other users: {0}",
+                        file));
+            }
+        }
+        String result = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+        if (result.isEmpty()) {
+            throw new IOException(MessageFormat.format(
+                    "Vanilla daemon token file is empty: {0}",
+                    file));
+        }
+        return result;
+    }
+
+    static List<String> readStrings(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        if (count < 0) {
+            throw new IOException("invalid Vanilla daemon request");
+        }
+        List<String> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(input.readUTF());
+        }
+        return results;
+    }
+
+    static void writeStrings(DataOutputStream output, List<String> values) throws IOException {
+        output.writeInt(values.size());
+        for (String value : values) {
+            output.writeUTF(value);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        server.close();
+    }
+
+    /**
+     * Program entry.
+     * @param args the listening port number, and the access token file
+     * @throws IOException if I/O error was occurred while running the daemon
+     */
+    public static void main(String... args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "usage: java {0} <port> <token-file>",
+                    VanillaDaemon.class.getName()));
+        }
+        int port;
+        try {
+            port = Integer.parseInt(args[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "port number must be a valid integer: {0}",
+                    args[0]), e);
+        }
+        String token = readToken(Paths.get(args[1]));
+        try (VanillaDaemon daemon = new VanillaDaemon(port, token, VanillaDaemon.class.getClassLoader())) {
+            daemon.run();
+        }
+    }
+
+    /**
+     * Launches an application.
+     * @since 0.4.0
+     */
+    @FunctionalInterface
+    public interface Launcher {
+
+        /**
+         * Launches an application.
+         * @param loader the application class loader
+         * @param args the launching arguments
+         * @return the exit status
+         * @throws LaunchConfigurationException if launching configuration is something wrong
+         */
+        int exec(ClassLoader loader, String... args) throws LaunchConfigurationException;
+    }
+}
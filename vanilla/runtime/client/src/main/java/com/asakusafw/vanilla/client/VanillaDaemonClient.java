@@ -0,0 +1,130 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.client;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.asakusafw.lang.utils.common.Arguments;
+
+/**
+ * A thin client which requests {@link VanillaDaemon} to launch Asakusa Vanilla applications.
+ * @since 0.4.0
+ */
+public final class VanillaDaemonClient {
+
+    private VanillaDaemonClient() {
+        return;
+    }
+
+    /**
+     * Requests to launch an application.
+     * @param port the daemon port number on the loopback address
+     * @param token the daemon access token
+     * @param classpath the application class path
+     * @param arguments the launching arguments
+     * @return the exit status
+     * @throws IOException if I/O error was occurred while communicating with the daemon
+     */
+    public static int exec(
+            int port, String token,
+            List<String> classpath, List<String> arguments) throws IOException {
+        Arguments.requireNonNull(token);
+        Arguments.requireNonNull(classpath);
+        Arguments.requireNonNull(arguments);
+        return request(port, token, VanillaDaemon.COMMAND_EXEC, classpath, arguments);
+    }
+
+    /**
+     * Requests to shut down the daemon.
+     * @param port the daemon port number on the loopback address
+     * @param token the daemon access token
+     * @throws IOException if I/O error was occurred while communicating with the daemon
+     */
+    public static void shutdown(int port, String token) throws IOException {
+        Arguments.requireNonNull(token);
+        request(port, token, VanillaDaemon.COMMAND_SHUTDOWN, null, null);
+    }
+
+    private static int request(
+            int port, String token, int command,
+            List<String> classpath, List<String> arguments) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            output.writeInt(VanillaDaemon.PROTOCOL_MAGIC);
+            output.writeUTF(token);
+            output.writeInt(command);
+            if (command == VanillaDaemon.COMMAND_EXEC) {
+                VanillaDaemon.writeStrings(output, classpath);
+                VanillaDaemon.writeStrings(output, arguments);
+            }
+            output.flush();
+            DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            return input.readInt();
+        }
+    }
+
+    /**
+     * Program entry.
+     * @param args {@code <port> <token-file> <application-classpath> [launcher-arguments...]},
+     *     or {@code <port> <token-file> --shutdown}
+     * @throws IOException if I/O error was occurred while communicating with the daemon
+     */
+    public static void main(String... args) throws IOException {
+        if (args.length < 3) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "usage: java {0} <port> <token-file> "
+                    + "(--shutdown | <application-classpath> [launcher-arguments...])",
+                    VanillaDaemonClient.class.getName()));
+        }
+        int port;
+        try {
+            port = Integer.parseInt(args[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "port number must be a valid integer: {0}",
+                    args[0]), e);
+        }
+        String token = VanillaDaemon.readToken(Paths.get(args[1]));
+        if (args[2].equals("--shutdown")) { //$NON-NLS-1$
+            shutdown(port, token);
+            return;
+        }
+        List<String> classpath = Stream.of(args[2].split(File.pathSeparator))
+                .filter(s -> s.isEmpty() == false)
+                .collect(Collectors.toList());
+        List<String> arguments = args.length == 3
+                ? Collections.emptyList()
+                : Arrays.asList(args).subList(3, args.length);
+        int status = exec(port, token, classpath, arguments);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+}
@@ -20,6 +20,8 @@ import static com.asakusafw.vanilla.client.VanillaConstants.*;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
@@ -37,6 +39,9 @@ import com.asakusafw.dag.api.model.GraphInfo;
 import com.asakusafw.dag.api.processor.ProcessorContext;
 import com.asakusafw.dag.api.processor.basic.BasicProcessorContext;
 import com.asakusafw.dag.api.processor.extension.ProcessorContextExtension;
+import com.asakusafw.iterative.common.ParameterTable;
+import com.asakusafw.iterative.launch.IterativeStageInfo;
+import com.asakusafw.iterative.launch.ParameterTableOption;
 import com.asakusafw.lang.utils.common.Arguments;
 import com.asakusafw.lang.utils.common.InterruptibleIo;
 import com.asakusafw.lang.utils.common.Invariants;
@@ -85,6 +90,8 @@ public class VanillaLauncher {
 
     private final Configuration hadoop;
 
+    private final ParameterTable parameterTable;
+
     /**
      * Creates a new instance.
      * @param configuration the launching configuration
@@ -99,19 +106,31 @@ public class VanillaLauncher {
      * @param classLoader the application class loader
      */
     public VanillaLauncher(LaunchConfiguration configuration, ClassLoader classLoader) {
+        this(configuration, classLoader, null);
+    }
+
+    /**
+     * Creates a new instance.
+     * @param configuration the launching configuration
+     * @param classLoader the application class loader
+     * @param parameterTable the parameter table for iterative batches, or {@code null} if it is not iterative
+     */
+    public VanillaLauncher(LaunchConfiguration configuration, ClassLoader classLoader, ParameterTable parameterTable) {
         Arguments.requireNonNull(configuration);
         Arguments.requireNonNull(classLoader);
         this.configuration = configuration;
         this.applicationLoader = classLoader;
         this.hadoop = new Configuration();
+        this.parameterTable = parameterTable;
     }
 
-    private VanillaLauncher(LaunchConfiguration configuration, Configuration hadoop) {
+    private VanillaLauncher(LaunchConfiguration configuration, Configuration hadoop, ParameterTable parameterTable) {
         Arguments.requireNonNull(configuration);
         Arguments.requireNonNull(hadoop);
         this.configuration = configuration;
         this.hadoop = hadoop;
         this.applicationLoader = hadoop.getClassLoader();
+        this.parameterTable = parameterTable;
     }
 
     /**
@@ -131,7 +150,11 @@ public class VanillaLauncher {
                     "DAG starting: {0}, vertices={1}",
                     configuration.getStageInfo(),
                     graph.getVertices().size()));
-            execute(context, conf, graph);
+            if (parameterTable == null) {
+                execute(context, conf, graph);
+            } else {
+                execute(context, conf, graph, new IterativeStageInfo(configuration.getStageInfo(), parameterTable));
+            }
             long finish = System.currentTimeMillis();
             LOG.info(MessageFormat.format(
                     "DAG finished: {0}, vertices={1}, elapsed={2}ms",
@@ -219,8 +242,9 @@ public class VanillaLauncher {
         RuntimeContext.set(RuntimeContext.DEFAULT.apply(System.getenv()));
         RuntimeContext.get().verifyApplication(loader);
 
-        LaunchConfiguration conf = LaunchConfiguration.parse(loader, Arrays.asList(args));
-        VanillaLauncher launcher = new VanillaLauncher(conf, loader);
+        ParameterTableOption parameters = new ParameterTableOption();
+        LaunchConfiguration conf = LaunchConfiguration.parse(loader, Arrays.asList(args), parameters);
+        VanillaLauncher launcher = new VanillaLauncher(conf, loader, parameters.resolve());
         return launcher.exec();
     }
 
@@ -236,8 +260,9 @@ public class VanillaLauncher {
         RuntimeContext.set(RuntimeContext.DEFAULT.apply(System.getenv()));
         RuntimeContext.get().verifyApplication(loader);
 
-        LaunchConfiguration conf = LaunchConfiguration.parse(loader, Arrays.asList(args));
-        VanillaLauncher launcher = new VanillaLauncher(conf, hadoop);
+        ParameterTableOption parameters = new ParameterTableOption();
+        LaunchConfiguration conf = LaunchConfiguration.parse(loader, Arrays.asList(args), parameters);
+        VanillaLauncher launcher = new VanillaLauncher(conf, hadoop, parameters.resolve());
         return launcher.exec();
     }
 
@@ -283,14 +308,81 @@ public class VanillaLauncher {
         Arguments.requireNonNull(configuration);
         Arguments.requireNonNull(graph);
         GraphMirror mirror = GraphMirror.of(graph);
+        try (BasicBufferStore store = newBufferStore(configuration)) {
+            BasicBufferPool pool = new BasicBufferPool(configuration.getBufferPoolSize(), store);
+            execute(context, configuration, mirror, pool);
+        }
+    }
+
+    /**
+     * Executes the given DAG for each round of the iterative stage.
+     * The rounds are executed one by one, and they share the graph mirror and the buffer pool.
+     * @param context the current context
+     * @param configuration the engine configuration
+     * @param graph the target DAG
+     * @param stages the iterative stage information
+     * @throws IOException if I/O error was occurred while executing the given DAG
+     * @throws InterruptedException if interrupted while executing the given DAG
+     */
+    public static void execute(
+            ProcessorContext context,
+            VanillaConfiguration configuration,
+            GraphInfo graph,
+            IterativeStageInfo stages) throws IOException, InterruptedException {
+        Arguments.requireNonNull(context);
+        Arguments.requireNonNull(configuration);
+        Arguments.requireNonNull(graph);
+        Arguments.requireNonNull(stages);
+        GraphMirror mirror = GraphMirror.of(graph);
+        try (BasicBufferStore store = newBufferStore(configuration)) {
+            BasicBufferPool pool = new BasicBufferPool(configuration.getBufferPoolSize(), store);
+            execute(context, configuration, mirror, stages, pool);
+        }
+    }
+
+    static void execute(
+            ProcessorContext context,
+            VanillaConfiguration configuration,
+            GraphMirror mirror,
+            IterativeStageInfo stages,
+            BasicBufferPool pool) throws IOException, InterruptedException {
+        int rounds = stages.getRoundCount();
+        IterativeStageInfo.Cursor cursor = stages.newCursor();
+        while (cursor.next()) {
+            StageInfo stage = cursor.get();
+            long start = System.currentTimeMillis();
+            LOG.info(MessageFormat.format(
+                    "DAG round starting: {0} ({1}/{2}), changed={3}",
+                    stage.getStageId(),
+                    cursor.getRoundIndex() + 1,
+                    rounds,
+                    cursor.getDifferences()));
+            execute(new RoundContext(context, stage), configuration, mirror, pool);
+            LOG.info(MessageFormat.format(
+                    "DAG round finished: {0} ({1}/{2}), elapsed={3}ms",
+                    stage.getStageId(),
+                    cursor.getRoundIndex() + 1,
+                    rounds,
+                    System.currentTimeMillis() - start));
+        }
+    }
+
+    private static BasicBufferStore newBufferStore(VanillaConfiguration configuration) {
+        return Optionals.of(configuration.getSwapDirectory())
+                .map(BasicBufferStore::new)
+                .orElseGet(BasicBufferStore::new);
+    }
+
+    private static void execute(
+            ProcessorContext context,
+            VanillaConfiguration configuration,
+            GraphMirror mirror,
+            BasicBufferPool pool) throws IOException, InterruptedException {
         VertexScheduler scheduler = new BasicVertexScheduler();
-        try (BasicBufferStore store = Optionals.of(configuration.getSwapDirectory())
-                        .map(BasicBufferStore::new)
-                        .orElseGet(BasicBufferStore::new);
-                BasicEdgeDriver edges = new BasicEdgeDriver(
+        try (BasicEdgeDriver edges = new BasicEdgeDriver(
                         context.getClassLoader(),
                         mirror,
-                        new BasicBufferPool(configuration.getBufferPoolSize(), store),
+                        pool,
                         configuration.getNumberOfPartitions(),
                         configuration.getOutputBufferSize(),
                         configuration.getOutputBufferFlush(),
@@ -309,4 +401,42 @@ public class VanillaLauncher {
             }
         }
     }
+
+    /**
+     * A {@link ProcessorContext} which provides {@link StageInfo} of the individual round.
+     */
+    private static final class RoundContext implements ProcessorContext {
+
+        private final ProcessorContext parent;
+
+        private final StageInfo stage;
+
+        RoundContext(ProcessorContext parent, StageInfo stage) {
+            this.parent = parent;
+            this.stage = stage;
+        }
+
+        @Override
+        public ClassLoader getClassLoader() {
+            return parent.getClassLoader();
+        }
+
+        @Override
+        public Map<String, String> getPropertyMap() {
+            return parent.getPropertyMap();
+        }
+
+        @Override
+        public <T> Optional<T> getResource(Class<T> resourceType) {
+            if (resourceType == StageInfo.class) {
+                return Optional.of(resourceType.cast(stage));
+            }
+            return parent.getResource(resourceType);
+        }
+
+        @Override
+        public ProcessorContext getDetached() {
+            return new RoundContext(parent.getDetached(), stage);
+        }
+    }
 }
@@ -0,0 +1,253 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.client;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test for {@link VanillaDaemon}.
+ */
+public class VanillaDaemonTest {
+
+    private static final String TOKEN = "testing";
+
+    /**
+     * temporary folder.
+     */
+    @Rule
+    public final TemporaryFolder temporary = new TemporaryFolder();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    /**
+     * cleanup.
+     */
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * simple case.
+     * @throws Exception if failed
+     */
+    @Test(timeout = 10000)
+    public void simple() throws Exception {
+        File lib = temporary.newFolder();
+        List<List<String>> requests = Collections.synchronizedList(new ArrayList<>());
+        List<ClassLoader> loaders = Collections.synchronizedList(new ArrayList<>());
+        ClassLoader parent = getClass().getClassLoader();
+        try (VanillaDaemon daemon = new VanillaDaemon(0, TOKEN, parent, (loader, args) -> {
+            loaders.add(loader);
+            requests.add(Arrays.asList(args));
+            assertThat(loader.getParent(), is(parent));
+            assertThat(Thread.currentThread().getContextClassLoader(), is(loader));
+            URL[] urls = ((URLClassLoader) loader).getURLs();
+            assertThat(urls.length, is(1));
+            assertThat(new File(urls[0].toURI()), is(lib));
+            return args.length;
+        })) {
+            Future<?> server = executor.submit(() -> {
+                daemon.run();
+                return null;
+            });
+            int port = daemon.getPort();
+            List<String> classpath = Collections.singletonList(lib.getPath());
+            assertThat(VanillaDaemonClient.exec(port, TOKEN, classpath, Arrays.asList("a")), is(1));
+            assertThat(VanillaDaemonClient.exec(port, TOKEN, classpath, Arrays.asList("b", "c")), is(2));
+            VanillaDaemonClient.shutdown(port, TOKEN);
+            server.get(5, TimeUnit.SECONDS);
+        }
+        assertThat(requests, contains(Arrays.asList("a"), Arrays.asList("b", "c")));
+        assertThat(loaders, hasSize(2));
+        assertThat(loaders.get(0), is(not(sameInstance(loaders.get(1)))));
+    }
+
+    /**
+     * launcher failed.
+     * @throws Exception if failed
+     */
+    @Test(timeout = 10000)
+    public void error() throws Exception {
+        try (VanillaDaemon daemon = new VanillaDaemon(0, TOKEN, getClass().getClassLoader(), (loader, args) -> {
+            throw new IllegalStateException();
+        })) {
+            Future<?> server = executor.submit(() -> {
+                daemon.run();
+                return null;
+            });
+            int port = daemon.getPort();
+            assertThat(
+                    VanillaDaemonClient.exec(port, TOKEN, Collections.emptyList(), Collections.emptyList()),
+                    is(VanillaLauncher.EXEC_ERROR));
+            VanillaDaemonClient.shutdown(port, TOKEN);
+            server.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * launcher raised an error.
+     * @throws Exception if failed
+     */
+    @Test(timeout = 10000)
+    public void error_fatal() throws Exception {
+        List<String> requests = Collections.synchronizedList(new ArrayList<>());
+        try (VanillaDaemon daemon = new VanillaDaemon(0, TOKEN, getClass().getClassLoader(), (loader, args) -> {
+            requests.add(args[0]);
+            if (args[0].equals("error")) {
+                throw new NoClassDefFoundError();
+            }
+            return 0;
+        })) {
+            Future<?> server = executor.submit(() -> {
+                daemon.run();
+                return null;
+            });
+            int port = daemon.getPort();
+            assertThat(
+                    VanillaDaemonClient.exec(port, TOKEN, Collections.emptyList(), Arrays.asList("error")),
+                    is(VanillaLauncher.EXEC_ERROR));
+            assertThat(
+                    VanillaDaemonClient.exec(port, TOKEN, Collections.emptyList(), Arrays.asList("ok")),
+                    is(0));
+            VanillaDaemonClient.shutdown(port, TOKEN);
+            server.get(5, TimeUnit.SECONDS);
+        }
+        assertThat(requests, contains("error", "ok"));
+    }
+
+    /**
+     * requests w/ wrong token.
+     * @throws Exception if failed
+     */
+    @Test(timeout = 10000)
+    public void unauthorized() throws Exception {
+        List<String> requests = Collections.synchronizedList(new ArrayList<>());
+        try (VanillaDaemon daemon = new VanillaDaemon(0, TOKEN, getClass().getClassLoader(), (loader, args) -> {
+            requests.add(args[0]);
+            return 0;
+        })) {
+            Future<?> server = executor.submit(() -> {
+                daemon.run();
+                return null;
+            });
+            int port = daemon.getPort();
+            try {
+                VanillaDaemonClient.exec(port, "WRONG", Collections.emptyList(), Arrays.asList("wrong"));
+                fail();
+            } catch (IOException e) {
+                // ok.
+            }
+            try {
+                VanillaDaemonClient.shutdown(port, "WRONG");
+                fail();
+            } catch (IOException e) {
+                // ok.
+            }
+            assertThat(
+                    VanillaDaemonClient.exec(port, TOKEN, Collections.emptyList(), Arrays.asList("ok")),
+                    is(0));
+            VanillaDaemonClient.shutdown(port, TOKEN);
+            server.get(5, TimeUnit.SECONDS);
+        }
+        assertThat(requests, contains("ok"));
+    }
+
+    /**
+     * stalled clients never block other requests.
+     * @throws Exception if failed
+     */
+    @Test(timeout = 10000)
+    public void stalled() throws Exception {
+        try (VanillaDaemon daemon = new VanillaDaemon(0, TOKEN, getClass().getClassLoader(), (loader, args) -> 0);
+                Socket stalled = new Socket()) {
+            daemon.requestTimeout = 100;
+            Future<?> server = executor.submit(() -> {
+                daemon.run();
+                return null;
+            });
+            int port = daemon.getPort();
+            stalled.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            DataOutputStream output = new DataOutputStream(stalled.getOutputStream());
+            output.writeInt(VanillaDaemon.PROTOCOL_MAGIC);
+            output.flush();
+
+            assertThat(
+                    VanillaDaemonClient.exec(port, TOKEN, Collections.emptyList(), Collections.emptyList()),
+                    is(0));
+            VanillaDaemonClient.shutdown(port, TOKEN);
+            server.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * read token file.
+     * @throws Exception if failed
+     */
+    @Test
+    public void readToken() throws Exception {
+        Path file = temporary.newFile().toPath();
+        Files.write(file, "Hello, world!\n".getBytes(StandardCharsets.UTF_8));
+        PosixFileAttributeView view = Files.getFileAttributeView(file, PosixFileAttributeView.class);
+        if (view != null) {
+            view.setPermissions(PosixFilePermissions.fromString("rw-------"));
+        }
+        assertThat(VanillaDaemon.readToken(file), is("Hello, world!"));
+    }
+
+    /**
+     * read token file which other users can read.
+     * @throws Exception if failed
+     */
+    @Test(expected = IOException.class)
+    public void readToken_public() throws Exception {
+        Path file = temporary.newFile().toPath();
+        Files.write(file, "Hello, world!".getBytes(StandardCharsets.UTF_8));
+        PosixFileAttributeView view = Files.getFileAttributeView(file, PosixFileAttributeView.class);
+        Assume.assumeNotNull(view);
+        view.setPermissions(PosixFilePermissions.fromString("rw-r--r--"));
+        VanillaDaemon.readToken(file);
+    }
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright 2011-2016 Asakusa Framework Team.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.asakusafw.vanilla.client;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Test;
+
+import com.asakusafw.bridge.broker.ResourceBroker;
+import com.asakusafw.bridge.stage.StageInfo;
+import com.asakusafw.dag.api.common.ValueSerDe;
+import com.asakusafw.dag.api.model.GraphInfo;
+import com.asakusafw.dag.api.model.PortInfo;
+import com.asakusafw.dag.api.model.VertexInfo;
+import com.asakusafw.dag.api.processor.ObjectReader;
+import com.asakusafw.dag.api.processor.ObjectWriter;
+import com.asakusafw.dag.api.processor.ProcessorContext;
+import com.asakusafw.dag.api.processor.TaskProcessor;
+import com.asakusafw.dag.api.processor.TaskSchedule;
+import com.asakusafw.dag.api.processor.VertexProcessor;
+import com.asakusafw.dag.api.processor.VertexProcessorContext;
+import com.asakusafw.dag.api.processor.basic.BasicProcessorContext;
+import com.asakusafw.dag.api.processor.basic.BasicTaskInfo;
+import com.asakusafw.dag.api.processor.basic.BasicTaskSchedule;
+import com.asakusafw.iterative.common.IterativeExtensions;
+import com.asakusafw.iterative.common.ParameterTable;
+import com.asakusafw.iterative.launch.IterativeStageInfo;
+import com.asakusafw.lang.utils.common.Optionals;
+import com.asakusafw.vanilla.api.VanillaEdgeDescriptor;
+import com.asakusafw.vanilla.api.VanillaVertexDescriptor;
+import com.asakusafw.vanilla.core.io.BasicBufferPool;
+import com.asakusafw.vanilla.core.io.BasicBufferStore;
+import com.asakusafw.vanilla.core.io.BufferPool;
+import com.asakusafw.vanilla.core.mirror.GraphMirror;
+
+/**
+ * Test for {@link VanillaLauncher}.
+ */
+public class VanillaLauncherTest {
+
+    /**
+     * execute w/ parameter table.
+     * @throws Exception if failed
+     */
+    @Test
+    public void execute_iterative() throws Exception {
+        List<StageInfo> contextStages = Collections.synchronizedList(new ArrayList<>());
+        List<StageInfo> brokerStages = Collections.synchronizedList(new ArrayList<>());
+        List<String> values = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> reservations = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger reserved = new AtomicInteger();
+
+        GraphInfo graph = new GraphInfo();
+        VertexInfo v0 = graph.addVertex("v0", vertex(() -> new VertexProcessor() {
+            @Override
+            public Optional<? extends TaskSchedule> initialize(VertexProcessorContext context) {
+                contextStages.add(context.getResource(StageInfo.class).get());
+                brokerStages.add(ResourceBroker.get(StageInfo.class));
+                return Optionals.of(new BasicTaskSchedule(new BasicTaskInfo()));
+            }
+            @Override
+            public TaskProcessor createTaskProcessor() throws IOException, InterruptedException {
+                return c -> {
+                    StageInfo stage = ResourceBroker.get(StageInfo.class);
+                    try (ObjectWriter writer = (ObjectWriter) c.getOutput("port")) {
+                        writer.putObject(stage.getBatchArguments().get("b"));
+                    }
+                };
+            }
+        }));
+        VertexInfo v1 = graph.addVertex("v1", vertex(() -> new VertexProcessor() {
+            @Override
+            public TaskProcessor createTaskProcessor() throws IOException, InterruptedException {
+                return c -> {
+                    try (ObjectReader reader = (ObjectReader) c.getInput("port")) {
+                        while (reader.nextObject()) {
+                            values.add((String) reader.getObject());
+                        }
+                    }
+                    reservations.add(reserved.get());
+                };
+            }
+        }));
+        PortInfo v0out = v0.addOutputPort("port");
+        PortInfo v1in = v1.addInputPort("port");
+        graph.addEdge(v0out.getId(), v1in.getId(), VanillaEdgeDescriptor.newOneToOne(cl -> StringSerDe::new));
+
+        StageInfo origin = new StageInfo("u", "b", "f", "s", "e", map("a", "A"));
+        ParameterTable table = IterativeExtensions.builder()
+                .next().put("b", "B0")
+                .next().put("b", "B1")
+                .next().put("b", "B2")
+                .build();
+        ProcessorContext context = new BasicProcessorContext(getClass().getClassLoader())
+                .withResource(StageInfo.class, origin)
+                .withResource(Configuration.class, new Configuration());
+        VanillaConfiguration configuration = VanillaConfiguration.extract(k -> Optionals.empty());
+        try (BasicBufferStore store = new BasicBufferStore()) {
+            BasicBufferPool pool = new CountingBufferPool(configuration.getBufferPoolSize(), store, reserved);
+            VanillaLauncher.execute(
+                    context, configuration,
+                    GraphMirror.of(graph), new IterativeStageInfo(origin, table),
+                    pool);
+        }
+
+        assertThat(contextStages, hasSize(3));
+        assertThat(brokerStages, hasSize(3));
+        for (int i = 0; i < 3; i++) {
+            Map<String, String> arguments = map("a", "A", "b", "B" + i);
+            String stageId = String.format("s_%d", i);
+            assertThat(contextStages.get(i).getBatchArguments(), is(arguments));
+            assertThat(contextStages.get(i).getStageId(), is(stageId));
+            assertThat(brokerStages.get(i).getBatchArguments(), is(arguments));
+            assertThat(brokerStages.get(i).getStageId(), is(stageId));
+        }
+        assertThat(values, contains("B0", "B1", "B2"));
+
+        // every round reserves its edge buffers from the same pool
+        assertThat(reservations, hasSize(3));
+        assertThat(reservations.get(0), is(greaterThan(0)));
+        assertThat(reservations.get(1), is(greaterThan(reservations.get(0))));
+        assertThat(reservations.get(2), is(greaterThan(reservations.get(1))));
+    }
+
+    private static VanillaVertexDescriptor vertex(Supplier<VertexProcessor> processor) {
+        return new VanillaVertexDescriptor(cl -> processor);
+    }
+
+    private static Map<String, String> map(String... pairs) {
+        assert pairs.length % 2 == 0;
+        Map<String, String> results = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            results.put(pairs[i + 0], pairs[i + 1]);
+        }
+        return results;
+    }
+
+    /**
+     * A {@link ValueSerDe} for strings.
+     */
+    public static final class StringSerDe implements ValueSerDe {
+
+        @Override
+        public void serialize(Object object, DataOutput output) throws IOException {
+            output.writeUTF((String) object);
+        }
+
+        @Override
+        public Object deserialize(DataInput input) throws IOException {
+            return input.readUTF();
+        }
+    }
+
+    private static final class CountingBufferPool extends BasicBufferPool {
+
+        private final AtomicInteger count;
+
+        CountingBufferPool(long limit, BasicBufferStore store, AtomicInteger count) {
+            super(limit, store);
+            this.count = count;
+        }
+
+        @Override
+        public BufferPool.Ticket reserve(long size) throws IOException, InterruptedException {
+            count.incrementAndGet();
+            return super.reserve(size);
+        }
+    }
+}